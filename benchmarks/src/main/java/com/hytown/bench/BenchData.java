@@ -0,0 +1,58 @@
+package com.hytown.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.UUID;
+
+/**
+ * Shared helpers for benchmark data directories and deterministic ids.
+ */
+final class BenchData {
+
+    private BenchData() {}
+
+    static Path createDirectory(String name) {
+        try {
+            return Files.createTempDirectory("hytown-bench-" + name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void deleteDirectory(Path directory) {
+        if (directory == null) return;
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("[BenchData] Could not delete " + directory + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deterministic player id, so runs are comparable.
+     */
+    static UUID playerId(int n) {
+        return new UUID(0x4879546F776EL, n);
+    }
+
+    static String claimKey(String world, int chunkX, int chunkZ) {
+        return world + ":" + chunkX + "," + chunkZ;
+    }
+}
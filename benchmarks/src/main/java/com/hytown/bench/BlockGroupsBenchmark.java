@@ -0,0 +1,95 @@
+package com.hytown.bench;
+
+import com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType;
+import com.hytown.config.BlockGroups;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Block classification with the default block groups, over a mix of block ids
+ * that hit exact matches, patterns and (mostly) nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockGroupsBenchmark {
+
+    private static final String[] BLOCK_IDS = {
+            "Rock_Stone", "Soil_Dirt", "Soil_Grass", "Wood_Oak_Trunk", "Plant_Grass_Sharp",
+            "Rock_Stone_Cobble", "Soil_Sand", "Ore_Iron_Stone",
+            "Door_Wooden", "Trapdoor_Village", "Furniture_Village_Gate",
+            "Furniture_Crude_Chest_Small", "Container_Barrel",
+            "Bench_Workbench", "Bench_Furnace",
+            "Plant_Crop_Wheat_Block", "Plant_Crop_Carrot_Block"
+    };
+
+    private Path directory;
+    private BlockGroups blockGroups;
+    private BlockType[] blocks;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        directory = BenchData.createDirectory("blockgroups");
+        blockGroups = new BlockGroups(directory);
+        blocks = new BlockType[64];
+        for (int i = 0; i < blocks.length; i++) {
+            String id = BLOCK_IDS[i % BLOCK_IDS.length];
+            blocks[i] = new BlockType(id, id.startsWith("Door_"), null, 0, null);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchData.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public boolean isUseBlock() {
+        return blockGroups.isUseBlock(blocks[next++ & 63]);
+    }
+
+    @Benchmark
+    public boolean isContainerBlock() {
+        return blockGroups.isContainerBlock(blocks[next++ & 63]);
+    }
+
+    @Benchmark
+    public boolean isWorkstationBlock() {
+        return blockGroups.isWorkstationBlock(blocks[next++ & 63]);
+    }
+
+    @Benchmark
+    public boolean isCropBlock() {
+        return blockGroups.isCropBlock(blocks[next++ & 63]);
+    }
+
+    /**
+     * The full classification a block use event performs on an unprotected block.
+     */
+    @Benchmark
+    public int classify() {
+        BlockType block = blocks[next++ & 63];
+        if (blockGroups.isCropBlock(block)) return 4;
+        if (blockGroups.isWorkstationBlock(block)) return 3;
+        if (blockGroups.isContainerBlock(block)) return 2;
+        if (blockGroups.isUseBlock(block)) return 1;
+        return 0;
+    }
+}
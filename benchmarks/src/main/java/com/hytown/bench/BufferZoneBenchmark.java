@@ -0,0 +1,93 @@
+package com.hytown.bench;
+
+import com.hytown.data.ChunkOwnershipIndex;
+import com.hytown.data.Claim;
+import com.hytown.data.ClaimStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffer-zone checks ("does anyone else have a claim within r chunks?") at random
+ * chunks of a world tiled with square player territories, for several buffer sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BufferZoneBenchmark {
+
+    private static final String WORLD = "world";
+    private static final int TERRITORY = 48;    // chunks per side of each player's square
+    private static final int TERRITORIES = 8;   // territories per side of the world
+    private static final int QUERIES = 4096;    // power of two, cycled through
+
+    @Param({"2", "8", "32"})
+    public int radius;
+
+    private Path directory;
+    private ClaimStorage claimStorage;
+    private UUID[] queryPlayer;
+    private int[] queryChunkX;
+    private int[] queryChunkZ;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        directory = BenchData.createDirectory("buffer");
+        claimStorage = new ClaimStorage(directory, new ChunkOwnershipIndex());
+
+        int side = TERRITORY * TERRITORIES;
+        for (int chunkX = 0; chunkX < side; chunkX++) {
+            for (int chunkZ = 0; chunkZ < side; chunkZ++) {
+                claimStorage.addClaim(ownerAt(chunkX, chunkZ), new Claim(WORLD, chunkX, chunkZ));
+            }
+        }
+        claimStorage.flush();
+
+        // Each query asks on behalf of the chunk's own owner, so hits come from neighbours
+        Random random = new Random(42);
+        queryPlayer = new UUID[QUERIES];
+        queryChunkX = new int[QUERIES];
+        queryChunkZ = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryChunkX[i] = random.nextInt(side);
+            queryChunkZ[i] = random.nextInt(side);
+            queryPlayer[i] = ownerAt(queryChunkX[i], queryChunkZ[i]);
+        }
+        next = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        claimStorage.shutdown();
+        BenchData.deleteDirectory(directory);
+    }
+
+    private static UUID ownerAt(int chunkX, int chunkZ) {
+        return BenchData.playerId((chunkX / TERRITORY) * TERRITORIES + chunkZ / TERRITORY);
+    }
+
+    @Benchmark
+    public UUID findNearbyClaimByOtherPlayer() {
+        int i = next++ & (QUERIES - 1);
+        return claimStorage.findNearbyClaimByOtherPlayer(WORLD, queryChunkX[i], queryChunkZ[i], radius, queryPlayer[i]);
+    }
+}
@@ -0,0 +1,201 @@
+package com.hytown.bench;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import com.hypixel.hytale.protocol.Color;
+import com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType;
+import com.hypixel.hytale.server.core.asset.type.environment.config.Environment;
+import com.hypixel.hytale.server.core.asset.type.fluid.Fluid;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.chunk.ChunkColumn;
+import com.hypixel.hytale.server.core.universe.world.chunk.WorldChunk;
+import com.hypixel.hytale.server.core.universe.world.chunk.section.FluidSection;
+import com.hypixel.hytale.server.core.universe.world.storage.ChunkStore;
+import com.hytown.HyTownAccess;
+import com.hytown.data.ChunkOwnershipIndex;
+import com.hytown.data.ClaimStorage;
+import com.hytown.data.TownStorage;
+import com.hytown.map.ClaimImageBuilder;
+import com.hytown.map.MapTileCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Map tile rendering of one chunk of a synthetic world (rolling terrain with
+ * water below sea level), claimed by a player whose neighbours are unclaimed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimImageBuilderBenchmark {
+
+    private static final String WORLD = "bench";
+    private static final int RADIUS = 2;         // synthetic chunks around the rendered one
+    private static final int SEA_LEVEL = 64;
+    private static final int SECTIONS = 10;
+
+    private static final int STONE = 0;
+    private static final int GRASS = 1;
+    private static final int SAND = 2;
+    private static final int WATER = 1;
+
+    private static boolean assetsRegistered;
+
+    @Param({"32", "128"})
+    public int imageSize;
+
+    private Path directory;
+    private ClaimStorage claimStorage;
+    private TownStorage townStorage;
+    private ChunkOwnershipIndex ownershipIndex;
+    private World world;
+    private long chunkIndex;
+    private UUID[] owners;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        registerAssets();
+
+        directory = BenchData.createDirectory("map");
+        ownershipIndex = new ChunkOwnershipIndex();
+        claimStorage = new ClaimStorage(directory, ownershipIndex);
+        townStorage = new TownStorage(directory, ownershipIndex);
+        HyTownAccess.init(claimStorage, townStorage);
+        owners = new UUID[]{BenchData.playerId(1), BenchData.playerId(2)};
+        claimStorage.setPlayerName(owners[0], "Alice");
+        claimStorage.setPlayerName(owners[1], "Bob");
+        ownershipIndex.putPersonalOwner(WORLD, 0, 0, owners[0]);
+
+        ChunkStore chunkStore = new ChunkStore();
+        for (int chunkX = -RADIUS; chunkX <= RADIUS; chunkX++) {
+            for (int chunkZ = -RADIUS; chunkZ <= RADIUS; chunkZ++) {
+                chunkStore.putChunk(ChunkUtil.indexChunk(chunkX, chunkZ), createChunk(chunkStore, chunkX, chunkZ));
+            }
+        }
+        world = new World(WORLD, chunkStore);
+        chunkIndex = ChunkUtil.indexChunk(0, 0);
+        MapTileCache.removeWorld(WORLD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        HyTownAccess.init(null, null);
+        MapTileCache.removeWorld(WORLD);
+        townStorage.close();
+        claimStorage.shutdown();
+        BenchData.deleteDirectory(directory);
+    }
+
+    /**
+     * Nothing cached: samples the chunk and fetches all 8 neighbours.
+     */
+    @Benchmark
+    public ClaimImageBuilder renderCold() {
+        MapTileCache.removeWorld(WORLD);
+        return ClaimImageBuilder.build(chunkIndex, imageSize, imageSize, world).join();
+    }
+
+    /**
+     * A block changed in the chunk: terrain is resampled, neighbour edges come from cache.
+     */
+    @Benchmark
+    public ClaimImageBuilder renderAfterBlockChange() {
+        MapTileCache.markTerrainChanged(WORLD, 0, 0);
+        return ClaimImageBuilder.build(chunkIndex, imageSize, imageSize, world).join();
+    }
+
+    /**
+     * The chunk changed owner: only the claim overlay is recomposited.
+     */
+    @Benchmark
+    public ClaimImageBuilder recompositeAfterClaimChange() {
+        ownershipIndex.putPersonalOwner(WORLD, 0, 0, owners[next++ & 1]);
+        return ClaimImageBuilder.build(chunkIndex, imageSize, imageSize, world).join();
+    }
+
+    /**
+     * Nothing changed: the previous image is reused.
+     */
+    @Benchmark
+    public ClaimImageBuilder unchanged() {
+        return ClaimImageBuilder.build(chunkIndex, imageSize, imageSize, world).join();
+    }
+
+    // ==================== SYNTHETIC WORLD ====================
+
+    private static synchronized void registerAssets() {
+        if (assetsRegistered) return;
+        Color[] greenTint = {color(90, 160, 60)};
+        BlockType.getAssetMap().add(new BlockType("Rock_Stone", false, null, 0, color(120, 120, 120)));
+        BlockType.getAssetMap().add(new BlockType("Soil_Grass", false, greenTint, 100, color(90, 160, 60)));
+        BlockType.getAssetMap().add(new BlockType("Soil_Sand", false, null, 0, color(220, 200, 140)));
+        Fluid.getAssetMap().add(new Fluid(null));
+        Fluid.getAssetMap().add(new Fluid(color(40, 90, 200)));
+        Environment.getAssetMap().add(new Environment(color(60, 120, 220)));
+        assetsRegistered = true;
+    }
+
+    private static Color color(int red, int green, int blue) {
+        return new Color((byte) red, (byte) green, (byte) blue);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Ref<ChunkStore> createChunk(ChunkStore chunkStore, int chunkX, int chunkZ) {
+        short[] heights = new short[32 * 32];
+        int[] tints = new int[32 * 32];
+        int[] blocks = new int[32 * 32];
+        byte[][] fluids = new byte[SECTIONS][];
+
+        for (int x = 0; x < 32; x++) {
+            for (int z = 0; z < 32; z++) {
+                int worldX = chunkX * 32 + x;
+                int worldZ = chunkZ * 32 + z;
+                int height = (int) (SEA_LEVEL + 12 * Math.sin(worldX / 11.0) + 8 * Math.cos(worldZ / 7.0));
+                int column = z * 32 + x;
+                heights[column] = (short) height;
+                tints[column] = 0x5A9A3C + ((worldX * 31 + worldZ * 17) & 0x0F);
+                blocks[column] = height < SEA_LEVEL - 2 ? SAND : height > SEA_LEVEL + 15 ? STONE : GRASS;
+
+                // Water from the surface up to sea level
+                for (int y = height + 1; y <= SEA_LEVEL; y++) {
+                    int section = y >> 5;
+                    if (fluids[section] == null) fluids[section] = new byte[32 * 32 * 32];
+                    fluids[section][((y & 31) * 32 + z) * 32 + x] = WATER;
+                }
+            }
+        }
+
+        Ref<ChunkStore>[] sections = newRefArray(SECTIONS);
+        for (int y = 0; y < SECTIONS; y++) {
+            sections[y] = new Ref<>(chunkStore.getStore())
+                    .with(FluidSection.getComponentType(), new FluidSection(fluids[y]));
+        }
+        return new Ref<>(chunkStore.getStore())
+                .with(WorldChunk.getComponentType(), new WorldChunk(heights, tints, blocks))
+                .with(ChunkColumn.getComponentType(), new ChunkColumn(sections));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Ref<ChunkStore>[] newRefArray(int length) {
+        return (Ref<ChunkStore>[]) new Ref<?>[length];
+    }
+}
@@ -0,0 +1,76 @@
+package com.hytown.bench;
+
+import com.hytown.data.ChunkOwnershipIndex;
+import com.hytown.data.Claim;
+import com.hytown.data.ClaimStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk claiming: many players each adding claims in a row, including the
+ * deferred write of their claim files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimStorageBenchmark {
+
+    private static final int PLAYERS = 64;
+    private static final int CLAIMS_PER_PLAYER = 256;   // a claim per op, the player's area fills in rows
+
+    private Path directory;
+    private ClaimStorage claimStorage;
+    private UUID[] players;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        directory = BenchData.createDirectory("claims");
+        claimStorage = new ClaimStorage(directory, new ChunkOwnershipIndex());
+        players = new UUID[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = BenchData.playerId(i);
+        }
+        next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        claimStorage.shutdown();
+        BenchData.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void addClaim() {
+        int n = next++;
+        int player = n % PLAYERS;
+        int claim = n / PLAYERS;
+        int chunkX = player * CLAIMS_PER_PLAYER + claim % CLAIMS_PER_PLAYER;
+        int chunkZ = claim / CLAIMS_PER_PLAYER;
+        claimStorage.addClaim(players[player], new Claim("world", chunkX, chunkZ));
+    }
+
+    @Benchmark
+    public int addClaimAndFlush() {
+        addClaim();
+        claimStorage.flush();
+        return claimStorage.getPendingCount();
+    }
+}
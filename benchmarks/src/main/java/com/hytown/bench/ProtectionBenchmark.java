@@ -0,0 +1,138 @@
+package com.hytown.bench;
+
+import com.hytown.config.BlockGroups;
+import com.hytown.config.PluginConfig;
+import com.hytown.data.ChunkOwnershipIndex;
+import com.hytown.data.ClaimStorage;
+import com.hytown.data.PlaytimeStorage;
+import com.hytown.data.Town;
+import com.hytown.data.TownStorage;
+import com.hytown.data.TrustLevel;
+import com.hytown.managers.ClaimManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-block protection lookups: personal claim permission checks and town claim
+ * lookups, with the given number of claims of each kind loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtectionBenchmark {
+
+    private static final String PERSONAL_WORLD = "personal";
+    private static final String TOWN_WORLD = "towns";
+    private static final int CLAIMS_PER_OWNER = 100;
+    private static final int QUERIES = 4096;   // power of two, cycled through
+
+    @Param({"1000", "100000", "1000000"})
+    public int claims;
+
+    private Path directory;
+    private ClaimStorage claimStorage;
+    private TownStorage townStorage;
+    private ClaimManager claimManager;
+
+    private UUID player;
+    private double[] queryX;
+    private double[] queryZ;
+    private String[] queryKeys;
+    private int[] queryChunkX;
+    private int[] queryChunkZ;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        directory = BenchData.createDirectory("protection");
+        ChunkOwnershipIndex ownershipIndex = new ChunkOwnershipIndex();
+        claimStorage = new ClaimStorage(directory, ownershipIndex);
+        townStorage = new TownStorage(directory, ownershipIndex);
+        claimManager = new ClaimManager(claimStorage, new PlaytimeStorage(directory),
+                new PluginConfig(directory), new BlockGroups(directory));
+
+        // Square area of claims, ~10% left as wilderness for the queries
+        int side = (int) Math.ceil(Math.sqrt(claims));
+        player = BenchData.playerId(-1);
+        Town town = null;
+        for (int i = 0; i < claims; i++) {
+            int chunkX = i % side;
+            int chunkZ = i / side;
+            int owner = i / CLAIMS_PER_OWNER;
+
+            // Personal claims go straight into the index; ClaimStorage would write a file per owner
+            ownershipIndex.putPersonalOwner(PERSONAL_WORLD, chunkX, chunkZ, BenchData.playerId(owner));
+
+            if (i % CLAIMS_PER_OWNER == 0) {
+                if (town != null) townStorage.saveTown(town);
+                town = new Town("Town" + owner, BenchData.playerId(owner), "Mayor" + owner);
+            }
+            town.addClaim(BenchData.claimKey(TOWN_WORLD, chunkX, chunkZ));
+        }
+        townStorage.saveTown(town);
+
+        // Some owners trust the querying player
+        for (int owner = 0; owner < claims / CLAIMS_PER_OWNER; owner += 4) {
+            claimManager.addTrust(BenchData.playerId(owner), player, "Bench", TrustLevel.BUILD);
+        }
+
+        Random random = new Random(42);
+        int range = side + side / 10;
+        queryX = new double[QUERIES];
+        queryZ = new double[QUERIES];
+        queryKeys = new String[QUERIES];
+        queryChunkX = new int[QUERIES];
+        queryChunkZ = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryChunkX[i] = random.nextInt(range);
+            queryChunkZ[i] = random.nextInt(range);
+            queryX[i] = queryChunkX[i] * 32 + random.nextInt(32) + 0.5;
+            queryZ[i] = queryChunkZ[i] * 32 + random.nextInt(32) + 0.5;
+            queryKeys[i] = BenchData.claimKey(TOWN_WORLD, queryChunkX[i], queryChunkZ[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        townStorage.close();
+        claimStorage.shutdown();
+        BenchData.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public boolean hasPermissionAt() {
+        int i = next++ & (QUERIES - 1);
+        return claimManager.hasPermissionAt(player, PERSONAL_WORLD, queryX[i], queryZ[i], TrustLevel.BUILD);
+    }
+
+    @Benchmark
+    public Town getTownByClaimKey() {
+        int i = next++ & (QUERIES - 1);
+        return townStorage.getTownByClaimKey(queryKeys[i]);
+    }
+
+    @Benchmark
+    public Town getTownAt() {
+        int i = next++ & (QUERIES - 1);
+        return townStorage.getTownAt(TOWN_WORLD, queryChunkX[i], queryChunkZ[i]);
+    }
+}
@@ -0,0 +1,102 @@
+package com.hytown.bench;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.hytown.data.PlotSettings;
+import com.hytown.data.Town;
+import com.hytown.data.TownTypeAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.CharArrayReader;
+import java.io.CharArrayWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing and parsing a single town, with Gson's reflective adapter and pretty
+ * printing (the old format) versus TownTypeAdapter writing compact JSON.
+ * saveTree is the journal path, which diffs JSON trees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TownCodecBenchmark {
+
+    private static final int RESIDENTS = 40;
+    private static final int CLAIMS = 400;
+    private static final int PLOTS = 40;
+
+    @Param({"reflective", "streaming"})
+    public String codec;
+
+    private Gson gson;
+    private Town town;
+    private char[] json;
+    private CharArrayWriter writer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GsonBuilder builder = new GsonBuilder().enableComplexMapKeySerialization();
+        if (codec.equals("streaming")) {
+            builder.registerTypeAdapterFactory(TownTypeAdapter.FACTORY);
+        } else {
+            builder.setPrettyPrinting();
+        }
+        gson = builder.create();
+
+        town = new Town("Benchtown", BenchData.playerId(0), "Mayor0");
+        for (int r = 1; r < RESIDENTS; r++) {
+            town.addResident(BenchData.playerId(r), "Player" + r);
+        }
+        for (int c = 0; c < CLAIMS; c++) {
+            town.addClaim(BenchData.claimKey("world", c % 20, c / 20));
+        }
+        for (int p = 0; p < PLOTS; p++) {
+            String claimKey = BenchData.claimKey("world", p % 20, p / 20);
+            town.setPlotOwner(claimKey, BenchData.playerId(1 + p % (RESIDENTS - 1)));
+            PlotSettings settings = town.getOrCreatePlotSettings(claimKey);
+            settings.setPvpEnabled(p % 2 == 0);
+            settings.addAllowedPlayer(BenchData.playerId(p % RESIDENTS), "Player" + (p % RESIDENTS));
+        }
+        town.setBalance(12345.67);
+        town.setBoard("Welcome to Benchtown!");
+        town.setSpawn("world", 100.5, 64, -200.25, 90.0f, 1.1f);
+
+        writer = new CharArrayWriter(64 * 1024);
+        gson.toJson(town, writer);
+        json = writer.toCharArray();
+    }
+
+    @Benchmark
+    public int save() {
+        writer.reset();
+        gson.toJson(town, writer);
+        return writer.size();
+    }
+
+    @Benchmark
+    public JsonElement saveTree() {
+        return gson.toJsonTree(town);
+    }
+
+    @Benchmark
+    public Town load() {
+        Town loaded = gson.fromJson(new CharArrayReader(json), Town.class);
+        loaded.validateAfterLoad();
+        return loaded;
+    }
+}
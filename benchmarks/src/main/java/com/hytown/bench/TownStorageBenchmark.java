@@ -0,0 +1,105 @@
+package com.hytown.bench;
+
+import com.hytown.data.ChunkOwnershipIndex;
+import com.hytown.data.Town;
+import com.hytown.data.TownStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Town persistence: saving a town after a small change (from one thread, and from
+ * several threads saving different towns), and loading every town (with journal
+ * replay) from disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TownStorageBenchmark {
+
+    private static final int RESIDENTS_PER_TOWN = 20;
+
+    @Param({"100", "1000"})
+    public int towns;
+
+    @Param({"100"})
+    public int claimsPerTown;
+
+    private Path directory;
+    private TownStorage townStorage;
+    private Town[] allTowns;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        directory = BenchData.createDirectory("towns");
+        townStorage = new TownStorage(directory, new ChunkOwnershipIndex());
+        allTowns = new Town[towns];
+        int player = 0;
+        for (int t = 0; t < towns; t++) {
+            Town town = new Town("Town" + t, BenchData.playerId(player), "Mayor" + player);
+            player++;
+            for (int r = 1; r < RESIDENTS_PER_TOWN; r++, player++) {
+                town.addResident(BenchData.playerId(player), "Player" + player);
+            }
+            for (int c = 0; c < claimsPerTown; c++) {
+                town.addClaim(BenchData.claimKey("world", t * claimsPerTown + c, t));
+            }
+            townStorage.saveTown(town);
+            allTowns[t] = town;
+        }
+        townStorage.saveAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        townStorage.close();
+        BenchData.deleteDirectory(directory);
+    }
+
+    /**
+     * A balance change - the most frequent save (taxes, upkeep, deposits).
+     */
+    @Benchmark
+    public void saveTown() {
+        Town town = allTowns[next++ % towns];
+        town.setBalance(town.getBalance() + 1);
+        townStorage.saveTown(town);
+    }
+
+    /**
+     * Saves of random towns from four threads, as upkeep, deposits and commands do.
+     * See the town.lock.* histograms in /townadmin perf for where they wait.
+     */
+    @Benchmark
+    @Threads(4)
+    public void saveTownConcurrent() {
+        Town town = allTowns[ThreadLocalRandom.current().nextInt(towns)];
+        town.setBalance(town.getBalance() + 1);
+        townStorage.saveTown(town);
+    }
+
+    @Benchmark
+    public int loadAll() {
+        townStorage.loadAll();
+        return townStorage.getTownCount();
+    }
+}
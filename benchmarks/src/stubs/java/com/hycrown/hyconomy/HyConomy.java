@@ -0,0 +1,13 @@
+package com.hycrown.hyconomy;
+
+/**
+ * Benchmark stub of the HyConomy economy API. Every transaction succeeds.
+ */
+public final class HyConomy {
+
+    private HyConomy() {}
+
+    public static boolean deposit(String playerName, double amount) {
+        return true;
+    }
+}
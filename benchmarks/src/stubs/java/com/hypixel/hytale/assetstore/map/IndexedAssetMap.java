@@ -0,0 +1,20 @@
+package com.hypixel.hytale.assetstore.map;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark stub of an asset map indexed by numeric id. Unknown ids resolve to id 0.
+ */
+public final class IndexedAssetMap<T> {
+    private final List<T> assets = new ArrayList<>();
+
+    public int add(T asset) {
+        assets.add(asset);
+        return assets.size() - 1;
+    }
+
+    public T getAsset(int index) {
+        return index >= 0 && index < assets.size() ? assets.get(index) : assets.get(0);
+    }
+}
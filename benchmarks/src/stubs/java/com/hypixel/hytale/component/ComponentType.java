@@ -0,0 +1,7 @@
+package com.hypixel.hytale.component;
+
+/**
+ * Benchmark stub of the server's component type handle.
+ */
+public final class ComponentType<ECS_TYPE, T> {
+}
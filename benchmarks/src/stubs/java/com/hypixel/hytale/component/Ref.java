@@ -0,0 +1,29 @@
+package com.hypixel.hytale.component;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Benchmark stub of an entity reference. Holds its components directly.
+ */
+public final class Ref<ECS_TYPE> {
+    private final Store<ECS_TYPE> store;
+    final Map<ComponentType<ECS_TYPE, ?>, Object> components = new IdentityHashMap<>();
+
+    public Ref(Store<ECS_TYPE> store) {
+        this.store = store;
+    }
+
+    public <T> Ref<ECS_TYPE> with(ComponentType<ECS_TYPE, T> type, T component) {
+        components.put(type, component);
+        return this;
+    }
+
+    public boolean isValid() {
+        return true;
+    }
+
+    public Store<ECS_TYPE> getStore() {
+        return store;
+    }
+}
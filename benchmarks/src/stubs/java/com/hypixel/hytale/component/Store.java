@@ -0,0 +1,12 @@
+package com.hypixel.hytale.component;
+
+/**
+ * Benchmark stub of the server's component store.
+ */
+public final class Store<ECS_TYPE> {
+
+    @SuppressWarnings("unchecked")
+    public <T> T getComponent(Ref<ECS_TYPE> ref, ComponentType<ECS_TYPE, T> type) {
+        return ref != null ? (T) ref.components.get(type) : null;
+    }
+}
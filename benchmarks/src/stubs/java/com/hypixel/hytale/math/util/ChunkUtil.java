@@ -0,0 +1,33 @@
+package com.hypixel.hytale.math.util;
+
+/**
+ * Benchmark stub of the server's chunk math (32x32 columns of 32-high sections).
+ */
+public final class ChunkUtil {
+
+    private ChunkUtil() {}
+
+    public static long indexChunk(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    public static int xOfChunkIndex(long index) {
+        return (int) (index >> 32);
+    }
+
+    public static int zOfChunkIndex(long index) {
+        return (int) index;
+    }
+
+    public static int chunkCoordinate(int block) {
+        return block >> 5;
+    }
+
+    public static int minBlock(int chunkCoordinate) {
+        return chunkCoordinate << 5;
+    }
+
+    public static int maxBlock(int chunkCoordinate) {
+        return (chunkCoordinate << 5) + 31;
+    }
+}
@@ -0,0 +1,16 @@
+package com.hypixel.hytale.protocol;
+
+/**
+ * Benchmark stub of the protocol color.
+ */
+public class Color {
+    public byte red;
+    public byte green;
+    public byte blue;
+
+    public Color(byte red, byte green, byte blue) {
+        this.red = red;
+        this.green = green;
+        this.blue = blue;
+    }
+}
@@ -0,0 +1,16 @@
+package com.hypixel.hytale.protocol.packets.worldmap;
+
+/**
+ * Benchmark stub of the world map image packet.
+ */
+public class MapImage {
+    public int width;
+    public int height;
+    public int[] data;
+
+    public MapImage(int width, int height, int[] data) {
+        this.width = width;
+        this.height = height;
+        this.data = data;
+    }
+}
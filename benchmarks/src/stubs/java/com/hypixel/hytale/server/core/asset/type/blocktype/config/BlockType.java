@@ -0,0 +1,49 @@
+package com.hypixel.hytale.server.core.asset.type.blocktype.config;
+
+import com.hypixel.hytale.assetstore.map.IndexedAssetMap;
+import com.hypixel.hytale.protocol.Color;
+
+/**
+ * Benchmark stub of a block type asset.
+ */
+public class BlockType {
+    private static final IndexedAssetMap<BlockType> ASSET_MAP = new IndexedAssetMap<>();
+
+    private final String id;
+    private final boolean door;
+    private final Color[] tintUp;
+    private final int biomeTintUp;
+    private final Color particleColor;
+
+    public BlockType(String id, boolean door, Color[] tintUp, int biomeTintUp, Color particleColor) {
+        this.id = id;
+        this.door = door;
+        this.tintUp = tintUp;
+        this.biomeTintUp = biomeTintUp;
+        this.particleColor = particleColor;
+    }
+
+    public static IndexedAssetMap<BlockType> getAssetMap() {
+        return ASSET_MAP;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isDoor() {
+        return door;
+    }
+
+    public Color[] getTintUp() {
+        return tintUp;
+    }
+
+    public int getBiomeTintUp() {
+        return biomeTintUp;
+    }
+
+    public Color getParticleColor() {
+        return particleColor;
+    }
+}
@@ -0,0 +1,25 @@
+package com.hypixel.hytale.server.core.asset.type.environment.config;
+
+import com.hypixel.hytale.assetstore.map.IndexedAssetMap;
+import com.hypixel.hytale.protocol.Color;
+
+/**
+ * Benchmark stub of an environment asset.
+ */
+public class Environment {
+    private static final IndexedAssetMap<Environment> ASSET_MAP = new IndexedAssetMap<>();
+
+    private final Color waterTint;
+
+    public Environment(Color waterTint) {
+        this.waterTint = waterTint;
+    }
+
+    public static IndexedAssetMap<Environment> getAssetMap() {
+        return ASSET_MAP;
+    }
+
+    public Color getWaterTint() {
+        return waterTint;
+    }
+}
@@ -0,0 +1,25 @@
+package com.hypixel.hytale.server.core.asset.type.fluid;
+
+import com.hypixel.hytale.assetstore.map.IndexedAssetMap;
+import com.hypixel.hytale.protocol.Color;
+
+/**
+ * Benchmark stub of a fluid asset.
+ */
+public class Fluid {
+    private static final IndexedAssetMap<Fluid> ASSET_MAP = new IndexedAssetMap<>();
+
+    private final Color particleColor;
+
+    public Fluid(Color particleColor) {
+        this.particleColor = particleColor;
+    }
+
+    public static IndexedAssetMap<Fluid> getAssetMap() {
+        return ASSET_MAP;
+    }
+
+    public Color getParticleColor() {
+        return particleColor;
+    }
+}
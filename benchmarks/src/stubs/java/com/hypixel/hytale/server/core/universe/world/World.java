@@ -0,0 +1,31 @@
+package com.hypixel.hytale.server.core.universe.world;
+
+import com.hypixel.hytale.server.core.universe.world.storage.ChunkStore;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Benchmark stub of a world. Runs world-thread tasks inline.
+ */
+public class World implements Executor {
+    private final String name;
+    private final ChunkStore chunkStore;
+
+    public World(String name, ChunkStore chunkStore) {
+        this.name = name;
+        this.chunkStore = chunkStore;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ChunkStore getChunkStore() {
+        return chunkStore;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        command.run();
+    }
+}
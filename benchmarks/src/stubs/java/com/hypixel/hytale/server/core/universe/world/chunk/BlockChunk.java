@@ -0,0 +1,11 @@
+package com.hypixel.hytale.server.core.universe.world.chunk;
+
+/**
+ * Benchmark stub of a chunk's block data. A single environment everywhere.
+ */
+public class BlockChunk {
+
+    public int getEnvironment(int x, int y, int z) {
+        return 0;
+    }
+}
@@ -0,0 +1,26 @@
+package com.hypixel.hytale.server.core.universe.world.chunk;
+
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.server.core.universe.world.storage.ChunkStore;
+
+/**
+ * Benchmark stub of a chunk column's section references.
+ */
+public class ChunkColumn {
+    private static final ComponentType<ChunkStore, ChunkColumn> COMPONENT_TYPE = new ComponentType<>();
+
+    private final Ref<ChunkStore>[] sections;
+
+    public ChunkColumn(Ref<ChunkStore>[] sections) {
+        this.sections = sections;
+    }
+
+    public static ComponentType<ChunkStore, ChunkColumn> getComponentType() {
+        return COMPONENT_TYPE;
+    }
+
+    public Ref<ChunkStore> getSection(int y) {
+        return sections[y];
+    }
+}
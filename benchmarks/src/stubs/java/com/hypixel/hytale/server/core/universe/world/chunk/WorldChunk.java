@@ -0,0 +1,42 @@
+package com.hypixel.hytale.server.core.universe.world.chunk;
+
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.server.core.universe.world.storage.ChunkStore;
+
+/**
+ * Benchmark stub of a 32x32 chunk column: surface height, tint and top block per column.
+ */
+public class WorldChunk {
+    private static final ComponentType<ChunkStore, WorldChunk> COMPONENT_TYPE = new ComponentType<>();
+
+    private final short[] heights;
+    private final int[] tints;
+    private final int[] blocks;
+    private final BlockChunk blockChunk = new BlockChunk();
+
+    public WorldChunk(short[] heights, int[] tints, int[] blocks) {
+        this.heights = heights;
+        this.tints = tints;
+        this.blocks = blocks;
+    }
+
+    public static ComponentType<ChunkStore, WorldChunk> getComponentType() {
+        return COMPONENT_TYPE;
+    }
+
+    public short getHeight(int x, int z) {
+        return heights[(z & 31) * 32 + (x & 31)];
+    }
+
+    public int getTint(int x, int z) {
+        return tints[(z & 31) * 32 + (x & 31)];
+    }
+
+    public int getBlock(int x, int y, int z) {
+        return blocks[(z & 31) * 32 + (x & 31)];
+    }
+
+    public BlockChunk getBlockChunk() {
+        return blockChunk;
+    }
+}
@@ -0,0 +1,29 @@
+package com.hypixel.hytale.server.core.universe.world.chunk.section;
+
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.server.core.universe.world.storage.ChunkStore;
+
+/**
+ * Benchmark stub of a 32-high fluid section. Null ids means no fluid.
+ */
+public class FluidSection {
+    private static final ComponentType<ChunkStore, FluidSection> COMPONENT_TYPE = new ComponentType<>();
+
+    private final byte[] fluidIds;
+
+    public FluidSection(byte[] fluidIds) {
+        this.fluidIds = fluidIds;
+    }
+
+    public static ComponentType<ChunkStore, FluidSection> getComponentType() {
+        return COMPONENT_TYPE;
+    }
+
+    public boolean isEmpty() {
+        return fluidIds == null;
+    }
+
+    public int getFluidId(int x, int y, int z) {
+        return fluidIds == null ? 0 : fluidIds[((y & 31) * 32 + (z & 31)) * 32 + (x & 31)];
+    }
+}
@@ -0,0 +1,27 @@
+package com.hypixel.hytale.server.core.universe.world.storage;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Benchmark stub of a world's chunk store. Every chunk is already loaded.
+ */
+public class ChunkStore {
+    private final Store<ChunkStore> store = new Store<>();
+    private final Long2ObjectOpenHashMap<Ref<ChunkStore>> chunks = new Long2ObjectOpenHashMap<>();
+
+    public Store<ChunkStore> getStore() {
+        return store;
+    }
+
+    public void putChunk(long index, Ref<ChunkStore> ref) {
+        chunks.put(index, ref);
+    }
+
+    public CompletableFuture<Ref<ChunkStore>> getChunkReferenceAsync(long index) {
+        return CompletableFuture.completedFuture(chunks.get(index));
+    }
+}
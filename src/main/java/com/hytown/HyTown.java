@@ -1,7 +1,16 @@
 package com.hytown;
 
 import com.hytown.api.HyTownAPI;
+import com.hytown.events.TownAreaClaimEvent;
+import com.hytown.events.TownAreaUnclaimEvent;
+import com.hytown.events.TownClaimEvent;
+import com.hytown.events.TownDeleteEvent;
 import com.hytown.events.TownEventBus;
+import com.hytown.events.TownJoinEvent;
+import com.hytown.events.TownLeaveEvent;
+import com.hytown.events.TownMayorChangeEvent;
+import com.hytown.events.TownRenameEvent;
+import com.hytown.events.TownUnclaimEvent;
 import com.hytown.commands.TownCommand;
 import com.hytown.commands.ResidentCommand;
 import com.hytown.commands.PlotCommand;
@@ -12,15 +21,22 @@ import com.hytown.commands.WildernessCommand;
 import com.hytown.config.BlockGroups;
 import com.hytown.config.PluginConfig;
 import com.hytown.config.WildernessHarvestConfig;
+import com.hytown.data.BackupStore;
+import com.hytown.data.ChecksummedFiles;
+import com.hytown.data.ChunkOwnershipIndex;
 import com.hytown.data.ClaimStorage;
 import com.hytown.data.PlaytimeStorage;
 import com.hytown.data.Town;
 import com.hytown.data.TownStorage;
 import com.hytown.listeners.ClaimProtectionListener;
 import com.hytown.managers.ClaimManager;
+import com.hytown.managers.HyTownScheduler;
 import com.hytown.managers.PlaytimeManager;
+import com.hytown.managers.ProtectionCache;
 import com.hytown.map.ClaimMapOverlayProvider;
 import com.hytown.map.HyTownWorldMapProvider;
+import com.hytown.map.MapTileCache;
+import com.hytown.selection.ClaimSelectionManager;
 import com.hytown.systems.BlockBreakProtectionSystem;
 import com.hytown.systems.BlockDamageProtectionSystem;
 import com.hytown.systems.BlockPlaceProtectionSystem;
@@ -38,13 +54,14 @@ import com.hypixel.hytale.server.core.universe.world.events.RemoveWorldEvent;
 import com.hypixel.hytale.server.core.universe.world.worldmap.provider.IWorldMapProvider;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.math.util.ChunkUtil;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.*;
 import com.hypixel.hytale.math.vector.Vector3d;
 import com.hypixel.hytale.math.vector.Vector3f;
 import com.hypixel.hytale.server.core.modules.entity.teleport.Teleport;
@@ -73,16 +90,17 @@ public class HyTown extends JavaPlugin {
     private TownStorage townStorage;
     private ClaimManager claimManager;
     private PlaytimeManager playtimeManager;
+    private ClaimSelectionManager claimSelectionManager;
     private ClaimProtectionListener protectionListener;
     private ClaimMapOverlayProvider mapOverlayProvider;
     private ClaimTitleSystem claimTitleSystem;
     private com.hytown.managers.UpkeepManager upkeepManager;
     private HyTownAPI api;
     private TownEventBus eventBus;
+    private HyTownScheduler scheduler;
 
-    // Teleport countdown system
-    private final ScheduledExecutorService teleportScheduler = Executors.newScheduledThreadPool(2);
-    private final Map<String, ScheduledFuture<?>> activeCountdowns = new ConcurrentHashMap<>();
+    // Teleport countdown system (one scheduler job per player)
+    private static final String COUNTDOWN_JOB_PREFIX = "teleport-";
     private static final double MOVE_THRESHOLD = 0.5;
     private static final int TELEPORT_COUNTDOWN = 5;
     private static final Color GREEN = new Color(85, 255, 85);
@@ -104,23 +122,65 @@ public class HyTown extends JavaPlugin {
         wildernessHarvestConfig = new WildernessHarvestConfig(getDataDirectory(), getLogger());
         wildernessHarvestConfig.load();
 
-        // Initialize storage
-        claimStorage = new ClaimStorage(getDataDirectory());
-        playtimeStorage = new PlaytimeStorage(getDataDirectory());
-        townStorage = new TownStorage(getDataDirectory());
+        // All background jobs and the shutdown order go through one scheduler
+        scheduler = new HyTownScheduler(getLogger());
+
+        // Initialize storage (town and personal claims share one chunk ownership index)
+        long storageStart = System.nanoTime();
+        ChunkOwnershipIndex ownershipIndex = new ChunkOwnershipIndex();
+        claimStorage = new ClaimStorage(getDataDirectory(), ownershipIndex, config.isBinaryClaimSnapshotEnabled(),
+                config.getClaimCacheMaxPlayers(), config.getClaimCacheMaxWeight());
+        long claimsMillis = (System.nanoTime() - storageStart) / 1_000_000;
+        long phaseStart = System.nanoTime();
+        playtimeStorage = new PlaytimeStorage(getDataDirectory(), config.getPlaytimeCacheMaxPlayers());
+        long playtimeMillis = (System.nanoTime() - phaseStart) / 1_000_000;
+        phaseStart = System.nanoTime();
+        townStorage = new TownStorage(getDataDirectory(), ownershipIndex);
+        long townsMillis = (System.nanoTime() - phaseStart) / 1_000_000;
+        getLogger().atInfo().log("Storage loaded in %dms (claims %dms, playtime %dms, towns %dms)",
+                (System.nanoTime() - storageStart) / 1_000_000, claimsMillis, playtimeMillis, townsMillis);
+        townStorage.setTransactionRetention(config.getTransactionRetentionDays(), config.getTransactionLogMaxKilobytes());
+        ChecksummedFiles.FsyncPolicy fsyncPolicy = ChecksummedFiles.FsyncPolicy.fromString(config.getStorageFsync());
+        claimStorage.setFsyncPolicy(fsyncPolicy);
+        playtimeStorage.setFsyncPolicy(fsyncPolicy);
+        townStorage.setFsyncPolicy(fsyncPolicy);
+
+        // Backups also cover personal claims and playtime
+        BackupStore backupStore = townStorage.getBackupStore();
+        backupStore.setRetention(config.getBackupKeepHourly(), config.getBackupKeepDaily(), config.getBackupKeepWeekly());
+        backupStore.addSource(new BackupStore.Source("claims", name -> name.endsWith(".json"), claimStorage::flush));
+        backupStore.addSource(new BackupStore.Source("playtime", "ledger.bin"::equals, null));
 
         // Initialize static accessor for map system
         HyTownAccess.init(claimStorage, townStorage);
 
         // Initialize managers
         claimManager = new ClaimManager(claimStorage, playtimeStorage, config, blockGroups);
-        playtimeManager = new PlaytimeManager(playtimeStorage, config);
+        playtimeManager = new PlaytimeManager(playtimeStorage, config, scheduler);
+        claimSelectionManager = new ClaimSelectionManager();
         upkeepManager = new com.hytown.managers.UpkeepManager(config, townStorage, getLogger());
+        registerShutdownHooks();
 
         // Initialize the event bus for other plugins to listen to town events
         eventBus = new TownEventBus();
         getLogger().atInfo().log("HyTown EventBus initialized - other plugins can register event listeners");
 
+        // Keep cached protection decisions in step with membership, claim and settings changes
+        ProtectionCache protectionCache = claimManager.getProtectionCache();
+        townStorage.setPermissionListener(protectionCache::invalidateTown);
+        eventBus.on(TownJoinEvent.class, event -> protectionCache.invalidatePlayer(event.getPlayerId()));
+        eventBus.on(TownLeaveEvent.class, event -> protectionCache.invalidatePlayer(event.getPlayerId()));
+        eventBus.on(TownMayorChangeEvent.class, event -> protectionCache.invalidateTown(event.getTown()));
+        eventBus.on(TownDeleteEvent.class, event -> protectionCache.invalidateTown(event.getTown()));
+        eventBus.on(TownClaimEvent.class, event ->
+                protectionCache.invalidateChunk(event.getWorldName(), event.getChunkX(), event.getChunkZ()));
+        eventBus.on(TownUnclaimEvent.class, event ->
+                protectionCache.invalidateChunk(event.getWorldName(), event.getChunkX(), event.getChunkZ()));
+        eventBus.on(TownAreaClaimEvent.class, event ->
+                invalidateChunks(protectionCache, event.getWorldName(), event.getChunks()));
+        eventBus.on(TownAreaUnclaimEvent.class, event ->
+                invalidateChunks(protectionCache, event.getWorldName(), event.getChunks()));
+
         // Initialize the public API for other plugins
         api = new HyTownAPI(claimStorage, townStorage, claimManager);
         getLogger().atInfo().log("HyTown API initialized - other plugins can now access town data");
@@ -158,6 +218,11 @@ public class HyTown extends JavaPlugin {
 
         // Initialize map overlay provider (for markers, kept for compatibility)
         mapOverlayProvider = new ClaimMapOverlayProvider(claimStorage, townStorage, getLogger());
+        // Claim changes are picked up from the ownership index; these change marker labels only
+        eventBus.on(TownRenameEvent.class, event -> mapOverlayProvider.invalidateLabels());
+        eventBus.on(TownJoinEvent.class, event -> mapOverlayProvider.invalidateLabels());
+        eventBus.on(TownLeaveEvent.class, event -> mapOverlayProvider.invalidateLabels());
+        eventBus.on(TownMayorChangeEvent.class, event -> mapOverlayProvider.invalidateLabels());
 
         // Register ECS block protection systems
         getLogger().atSevere().log("[DEBUG] Registering ECS block protection systems...");
@@ -213,6 +278,7 @@ public class HyTown extends JavaPlugin {
      */
     private void onWorldRemove(RemoveWorldEvent event) {
         WORLDS.remove(event.getWorld().getName());
+        MapTileCache.removeWorld(event.getWorld().getName());
     }
 
     @Override
@@ -226,62 +292,59 @@ public class HyTown extends JavaPlugin {
             getLogger().atInfo().log("[Upkeep] Upkeep check on startup complete");
         }
 
-        // Start background upkeep checker thread
-        startUpkeepChecker();
+        // Start background upkeep checks and auto-save
+        startBackgroundJobs();
     }
 
     /**
-     * Start a background thread to check upkeep periodically.
+     * Schedule the periodic upkeep check and auto-save.
+     * Both are single-flight, so a slow save is never run twice at once.
      */
-    private void startUpkeepChecker() {
-        Thread upkeepThread = new Thread(() -> {
-            while (true) {
-                try {
-                    // Check every 5 minutes
-                    Thread.sleep(300000);
-                    if (upkeepManager != null) {
-                        upkeepManager.checkUpkeep();
-                    }
-                } catch (InterruptedException e) {
-                    break;
-                } catch (Exception e) {
-                    getLogger().atWarning().withCause(e).log("[Upkeep] Error in upkeep check");
+    private void startBackgroundJobs() {
+        try {
+            scheduler.scheduleCron("upkeep", config.getUpkeepCheckCron(), Duration.ZERO, job -> {
+                if (upkeepManager != null) {
+                    upkeepManager.checkUpkeep();
                 }
-            }
-        });
-        upkeepThread.setDaemon(true);
-        upkeepThread.setName("HyTown-UpkeepChecker");
-        upkeepThread.start();
-        getLogger().atInfo().log("[Upkeep] Started background upkeep checker");
+            });
+            getLogger().atInfo().log("[Upkeep] Scheduled upkeep checks (%s)", config.getUpkeepCheckCron());
+        } catch (IllegalArgumentException e) {
+            getLogger().atWarning().log("[Upkeep] Invalid upkeepCheckCron '%s' (%s), checking every 5 minutes",
+                    config.getUpkeepCheckCron(), e.getMessage());
+            scheduler.scheduleCron("upkeep", "*/5 * * * *", Duration.ZERO, job -> upkeepManager.checkUpkeep());
+        }
 
-        // Start auto-save thread
-        startAutoSave();
+        Duration interval = Duration.ofMinutes(config.getAutoSaveIntervalMinutes());
+        scheduler.scheduleFixedDelay("autosave", interval, interval,
+                Duration.ofSeconds(config.getAutoSaveJitterSeconds()), job -> autoSaveTowns());
+        getLogger().atInfo().log("[AutoSave] Scheduled background auto-save (every %d minutes)",
+                config.getAutoSaveIntervalMinutes());
     }
 
     /**
-     * Start a background thread to auto-save town data periodically.
-     * This ensures data is saved even if the server crashes.
+     * Register the shutdown steps in the order they must run: let async event
+     * listeners finish, end playtime
+     * sessions, flush claims, then save and back up towns (most important, last
+     * so it sees everything the earlier steps changed).
      */
-    private void startAutoSave() {
-        Thread autoSaveThread = new Thread(() -> {
-            while (true) {
-                try {
-                    // Auto-save every 5 minutes
-                    Thread.sleep(300000);
-                    autoSaveTowns();
-                } catch (InterruptedException e) {
-                    // Interrupted - do one final save
-                    autoSaveTowns();
-                    break;
-                } catch (Exception e) {
-                    getLogger().atWarning().withCause(e).log("[AutoSave] Error during auto-save");
-                }
+    private void registerShutdownHooks() {
+        scheduler.addShutdownHook(5, "Stopping async event listeners", () -> {
+            if (eventBus != null) {
+                eventBus.close();
             }
         });
-        autoSaveThread.setDaemon(true);
-        autoSaveThread.setName("HyTown-AutoSave");
-        autoSaveThread.start();
-        getLogger().atInfo().log("[AutoSave] Started background auto-save (every 5 minutes)");
+        scheduler.addShutdownHook(10, "Saving playtime data", () -> playtimeManager.shutdown());
+        scheduler.addShutdownHook(20, "Saving claim data", () -> {
+            claimStorage.saveAll();
+            claimStorage.shutdown();
+        });
+        scheduler.addShutdownHook(30, "Saving town data", () -> {
+            townStorage.saveAll();
+            // Create a final backup on shutdown
+            townStorage.createBackup();
+            getLogger().atInfo().log("[Shutdown] Town data saved successfully. Stats: " + townStorage.getStats());
+            townStorage.close();
+        });
     }
 
     /**
@@ -349,17 +412,31 @@ public class HyTown extends JavaPlugin {
      * @param chunkZ The chunk Z coordinate
      */
     public void refreshWorldMapChunk(String worldName, int chunkX, int chunkZ) {
+        refreshWorldMapArea(worldName, chunkX, chunkZ, chunkX, chunkZ);
+    }
+
+    /**
+     * Refreshes a rectangle of chunks (inclusive) on the world map in one pass,
+     * so an area claim clears each map tile and player cache once.
+     *
+     * @param worldName The world name
+     * @param minChunkX The minimum chunk X coordinate
+     * @param minChunkZ The minimum chunk Z coordinate
+     * @param maxChunkX The maximum chunk X coordinate
+     * @param maxChunkZ The maximum chunk Z coordinate
+     */
+    public void refreshWorldMapArea(String worldName, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
         World world = WORLDS.get(worldName);
         if (world == null) {
             return;
         }
 
         try {
-            // Create a set with this chunk and its neighbors (for border updates)
+            // Create a set with these chunks and their neighbors (for border updates)
             LongSet chunksToRefresh = new LongOpenHashSet();
-            for (int dx = -1; dx <= 1; dx++) {
-                for (int dz = -1; dz <= 1; dz++) {
-                    chunksToRefresh.add(ChunkUtil.indexChunk(chunkX + dx, chunkZ + dz));
+            for (int x = minChunkX - 1; x <= maxChunkX + 1; x++) {
+                for (int z = minChunkZ - 1; z <= maxChunkZ + 1; z++) {
+                    chunksToRefresh.add(ChunkUtil.indexChunk(x, z));
                 }
             }
 
@@ -375,9 +452,20 @@ public class HyTown extends JavaPlugin {
                 }
             }
 
-            getLogger().atFine().log("[Map] Refreshed chunk %d,%d in world %s", chunkX, chunkZ, worldName);
+            getLogger().atFine().log("[Map] Refreshed chunks %d,%d to %d,%d in world %s",
+                    minChunkX, minChunkZ, maxChunkX, maxChunkZ, worldName);
         } catch (Exception e) {
-            getLogger().atWarning().withCause(e).log("[Map] Error refreshing chunk %d,%d", chunkX, chunkZ);
+            getLogger().atWarning().withCause(e).log("[Map] Error refreshing chunks %d,%d to %d,%d",
+                    minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+        }
+    }
+
+    private static void invalidateChunks(ProtectionCache protectionCache, String worldName, LongSet chunks) {
+        LongIterator iterator = chunks.iterator();
+        while (iterator.hasNext()) {
+            long key = iterator.nextLong();
+            protectionCache.invalidateChunk(worldName,
+                    com.hytown.util.ChunkUtil.unpackChunkX(key), com.hytown.util.ChunkUtil.unpackChunkZ(key));
         }
     }
 
@@ -385,44 +473,9 @@ public class HyTown extends JavaPlugin {
     public void shutdown() {
         getLogger().atInfo().log("[Shutdown] HyTown shutting down...");
 
-        // Shutdown teleport scheduler
-        try {
-            teleportScheduler.shutdownNow();
-        } catch (Exception e) {
-            getLogger().atWarning().withCause(e).log("[Shutdown] Error stopping teleport scheduler");
-        }
-
-        // Shutdown playtime manager (saves all sessions)
-        if (playtimeManager != null) {
-            try {
-                getLogger().atInfo().log("[Shutdown] Saving playtime data...");
-                playtimeManager.shutdown();
-            } catch (Exception e) {
-                getLogger().atSevere().withCause(e).log("[Shutdown] ERROR saving playtime data!");
-            }
-        }
-
-        // Save all claim data
-        if (claimStorage != null) {
-            try {
-                getLogger().atInfo().log("[Shutdown] Saving claim data...");
-                claimStorage.saveAll();
-            } catch (Exception e) {
-                getLogger().atSevere().withCause(e).log("[Shutdown] ERROR saving claim data!");
-            }
-        }
-
-        // Save all town data (most important!)
-        if (townStorage != null) {
-            try {
-                getLogger().atInfo().log("[Shutdown] Saving town data...");
-                townStorage.saveAll();
-                // Create a final backup on shutdown
-                townStorage.createBackup();
-                getLogger().atInfo().log("[Shutdown] Town data saved successfully. Stats: " + townStorage.getStats());
-            } catch (Exception e) {
-                getLogger().atSevere().withCause(e).log("[Shutdown] CRITICAL ERROR saving town data!");
-            }
+        // Stop background jobs and countdowns, then run the save hooks in order
+        if (scheduler != null) {
+            scheduler.shutdown(Duration.ofSeconds(10));
         }
 
         getLogger().atInfo().log("[Shutdown] HyTown shutdown complete!");
@@ -442,6 +495,8 @@ public class HyTown extends JavaPlugin {
      * - TownLeaveEvent: When a player leaves a town
      * - TownClaimEvent: When a chunk is claimed
      * - TownUnclaimEvent: When a chunk is unclaimed
+     * - TownAreaClaimEvent: When a selected area is claimed at once
+     * - TownAreaUnclaimEvent: When a selected area is unclaimed at once
      * - TownMayorChangeEvent: When the mayor changes
      *
      * @return The TownEventBus instance
@@ -473,6 +528,20 @@ public class HyTown extends JavaPlugin {
         return playtimeManager;
     }
 
+    /**
+     * Gets the manager tracking /town claim pos1/pos2 selections.
+     */
+    public ClaimSelectionManager getClaimSelectionManager() {
+        return claimSelectionManager;
+    }
+
+    /**
+     * Gets the scheduler running HyTown's background jobs.
+     */
+    public HyTownScheduler getScheduler() {
+        return scheduler;
+    }
+
     /**
      * Called when a player joins - start tracking their playtime.
      * Note: This should be hooked into the server's player join event.
@@ -508,6 +577,7 @@ public class HyTown extends JavaPlugin {
                 // Store player name for map display
                 getLogger().atSevere().log("[DEBUG] Setting player name...");
                 claimStorage.setPlayerName(playerId, username);
+                claimStorage.pinPlayer(playerId);
 
                 // Start playtime tracking
                 getLogger().atSevere().log("[DEBUG] Starting playtime tracking...");
@@ -537,6 +607,7 @@ public class HyTown extends JavaPlugin {
 
                 // Save playtime
                 playtimeManager.onPlayerLeave(playerId);
+                claimStorage.unpinPlayer(playerId);
 
                 // Clear map overlay cache for this player
                 if (mapOverlayProvider != null) {
@@ -548,6 +619,12 @@ public class HyTown extends JavaPlugin {
                     claimTitleSystem.removePlayer(playerId);
                 }
 
+                // Drop any area claim selection
+                claimSelectionManager.onPlayerDisconnect(playerId);
+
+                // Drop cached protection decisions
+                claimManager.getProtectionCache().invalidatePlayer(playerId);
+
                 getLogger().atFine().log("Player disconnected: %s", playerId);
             }
         } catch (Exception e) {
@@ -620,6 +697,13 @@ public class HyTown extends JavaPlugin {
         return mapOverlayProvider;
     }
 
+    /**
+     * Gets the playtime storage.
+     */
+    public PlaytimeStorage getPlaytimeStorage() {
+        return playtimeStorage;
+    }
+
     /**
      * Gets the claim storage for direct access (e.g., for name updates).
      */
@@ -675,7 +759,8 @@ public class HyTown extends JavaPlugin {
         final int[] remaining = {TELEPORT_COUNTDOWN};
         final boolean[] cancelled = {false};
 
-        ScheduledFuture<?> task = teleportScheduler.scheduleAtFixedRate(() -> {
+        scheduler.scheduleFixedDelay(COUNTDOWN_JOB_PREFIX + playerName, Duration.ZERO, Duration.ofSeconds(1),
+                Duration.ZERO, job -> {
             if (cancelled[0]) return;
 
             try {
@@ -713,14 +798,11 @@ public class HyTown extends JavaPlugin {
                 try { player.sendMessage(Message.raw("Teleport failed: " + e.getMessage())); } catch (Exception ignored) {}
                 cancelCountdown(playerName);
             }
-        }, 0, 1, TimeUnit.SECONDS);
-
-        activeCountdowns.put(playerName, task);
+        });
     }
 
     private void cancelCountdown(String playerName) {
-        ScheduledFuture<?> task = activeCountdowns.remove(playerName);
-        if (task != null) task.cancel(false);
+        scheduler.cancel(COUNTDOWN_JOB_PREFIX + playerName);
     }
 
     // ==================== TOWN CREATION (shared by command and GUI) ====================
@@ -780,7 +862,7 @@ public class HyTown extends JavaPlugin {
         String claimKey = worldName + ":" + chunkX + "," + chunkZ;
 
         // Check if chunk is available
-        Town existingClaimTown = townStorage.getTownByClaimKey(claimKey);
+        Town existingClaimTown = townStorage.getTownAt(worldName, chunkX, chunkZ);
         if (existingClaimTown != null) {
             return TownCreationResult.error("Chunk is claimed by: " + existingClaimTown.getName());
         }
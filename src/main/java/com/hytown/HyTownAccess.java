@@ -1,5 +1,6 @@
 package com.hytown;
 
+import com.hytown.data.ChunkOwnershipIndex;
 import com.hytown.data.ClaimStorage;
 import com.hytown.data.PlayerClaims;
 import com.hytown.data.Town;
@@ -19,6 +20,7 @@ import java.util.UUID;
 public class HyTownAccess {
     private static ClaimStorage claimStorage;
     private static TownStorage townStorage;
+    private static ChunkOwnershipIndex ownershipIndex;
 
     /**
      * Initializes the accessor with the claim and town storage instances.
@@ -27,6 +29,7 @@ public class HyTownAccess {
     public static void init(ClaimStorage storage, TownStorage towns) {
         claimStorage = storage;
         townStorage = towns;
+        ownershipIndex = storage != null ? storage.getOwnershipIndex() : null;
     }
 
     /**
@@ -36,19 +39,15 @@ public class HyTownAccess {
      * Used by ClaimImageBuilder to determine claim colors.
      */
     public static UUID getClaimOwner(String worldName, int chunkX, int chunkZ) {
-        // Check if this chunk belongs to a town FIRST
-        if (townStorage != null) {
-            String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-            Town town = townStorage.getTownByClaimKey(claimKey);
-            if (town != null) {
-                return town.getMayorId();
-            }
+        if (ownershipIndex == null) {
+            return null;
         }
-
-        if (claimStorage == null) {
+        ChunkOwnershipIndex.ChunkOwner owner = ownershipIndex.get(worldName, chunkX, chunkZ);
+        if (owner == null) {
             return null;
         }
-        return claimStorage.getClaimOwner(worldName, chunkX, chunkZ);
+        // Town claims take priority over personal claims
+        return owner.town() != null ? owner.town().getMayorId() : owner.personalOwner();
     }
 
     /**
@@ -67,24 +66,22 @@ public class HyTownAccess {
      * Checks BOTH town claims and personal claims.
      */
     public static String getOwnerName(String worldName, int chunkX, int chunkZ) {
-        // Check if this chunk belongs to a town FIRST (town claims take priority)
-        if (townStorage != null) {
-            String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-            Town town = townStorage.getTownByClaimKey(claimKey);
-            if (town != null) {
-                // Return the town name
-                return town.getName();
-            }
+        if (ownershipIndex == null) {
+            return null;
         }
-
-        // Not a town claim, check personal claims
-        UUID owner = getClaimOwner(worldName, chunkX, chunkZ);
+        ChunkOwnershipIndex.ChunkOwner owner = ownershipIndex.get(worldName, chunkX, chunkZ);
         if (owner == null) {
             return null;
         }
 
+        // Town claims take priority - return the town name
+        Town town = owner.town();
+        if (town != null) {
+            return town.getName();
+        }
+
         // Return the player name for personal claims
-        return getPlayerName(owner);
+        return getPlayerName(owner.personalOwner());
     }
 
     /**
@@ -102,7 +99,7 @@ public class HyTownAccess {
             return names;
         }
 
-        PlayerClaims playerClaims = claimStorage.getPlayerClaims(owner);
+        PlayerClaims playerClaims = claimStorage.getChunkOwnerClaims(owner);
         if (playerClaims == null) {
             return names;
         }
@@ -68,6 +68,7 @@ public class HyTownAPI {
     private final ClaimStorage claimStorage;
     private final TownStorage townStorage;
     private final ClaimManager claimManager;
+    private final ChunkOwnershipIndex ownershipIndex;
 
     /**
      * Creates a new HyTownAPI instance.
@@ -77,6 +78,7 @@ public class HyTownAPI {
         this.claimStorage = claimStorage;
         this.townStorage = townStorage;
         this.claimManager = claimManager;
+        this.ownershipIndex = claimStorage.getOwnershipIndex();
     }
 
     // ============================================================================
@@ -106,17 +108,8 @@ public class HyTownAPI {
      * @return true if the chunk is unclaimed wilderness
      */
     public boolean isWildernessChunk(String worldName, int chunkX, int chunkZ) {
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-
-        // Check if claimed by a town
-        Town town = townStorage.getTownByClaimKey(claimKey);
-        if (town != null) {
-            return false;
-        }
-
-        // Check if claimed as personal claim
-        UUID personalOwner = claimStorage.getClaimOwner(worldName, chunkX, chunkZ);
-        return personalOwner == null;
+        // A chunk is only indexed if it is claimed by a town or as a personal claim
+        return ownershipIndex.get(worldName, chunkX, chunkZ) == null;
     }
 
     /**
@@ -137,8 +130,7 @@ public class HyTownAPI {
      * Check if a chunk is inside any town's territory.
      */
     public boolean isInTownChunk(String worldName, int chunkX, int chunkZ) {
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        return townStorage.getTownByClaimKey(claimKey) != null;
+        return townStorage.getTownAt(worldName, chunkX, chunkZ) != null;
     }
 
     /**
@@ -159,14 +151,8 @@ public class HyTownAPI {
      * Check if a chunk is inside a personal claim.
      */
     public boolean isInPersonalClaimChunk(String worldName, int chunkX, int chunkZ) {
-        // First check it's not a town claim
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        if (townStorage.getTownByClaimKey(claimKey) != null) {
-            return false;
-        }
-
-        // Then check if it's a personal claim
-        return claimStorage.getClaimOwner(worldName, chunkX, chunkZ) != null;
+        // Personal claim that is not part of a town
+        return getPersonalOwnerOutsideTown(worldName, chunkX, chunkZ) != null;
     }
 
     // ============================================================================
@@ -212,8 +198,7 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        Town townAtLocation = townStorage.getTownByClaimKey(claimKey);
+        Town townAtLocation = townStorage.getTownAt(worldName, chunkX, chunkZ);
 
         if (townAtLocation == null) {
             return false;
@@ -236,8 +221,7 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        Town townAtLocation = townStorage.getTownByClaimKey(claimKey);
+        Town townAtLocation = townStorage.getTownAt(worldName, chunkX, chunkZ);
 
         if (townAtLocation == null) {
             return false;
@@ -260,14 +244,8 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        // Check it's not a town claim
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        if (townStorage.getTownByClaimKey(claimKey) != null) {
-            return false;
-        }
-
-        // Check if player owns this personal claim
-        UUID owner = claimStorage.getClaimOwner(worldName, chunkX, chunkZ);
+        // Check if player owns this personal claim (town claims excluded)
+        UUID owner = getPersonalOwnerOutsideTown(worldName, chunkX, chunkZ);
         return playerId.equals(owner);
     }
 
@@ -284,14 +262,8 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        // Check it's not a town claim
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        if (townStorage.getTownByClaimKey(claimKey) != null) {
-            return false;
-        }
-
-        // Check if someone else owns this personal claim
-        UUID owner = claimStorage.getClaimOwner(worldName, chunkX, chunkZ);
+        // Check if someone else owns this personal claim (town claims excluded)
+        UUID owner = getPersonalOwnerOutsideTown(worldName, chunkX, chunkZ);
         return owner != null && !playerId.equals(owner);
     }
 
@@ -317,8 +289,7 @@ public class HyTownAPI {
      * Get the town at a specific chunk.
      */
     public Town getTownAtChunk(String worldName, int chunkX, int chunkZ) {
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        return townStorage.getTownByClaimKey(claimKey);
+        return townStorage.getTownAt(worldName, chunkX, chunkZ);
     }
 
     /**
@@ -355,12 +326,7 @@ public class HyTownAPI {
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
         // Exclude town claims
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        if (townStorage.getTownByClaimKey(claimKey) != null) {
-            return null;
-        }
-
-        return claimStorage.getClaimOwner(worldName, chunkX, chunkZ);
+        return getPersonalOwnerOutsideTown(worldName, chunkX, chunkZ);
     }
 
     /**
@@ -376,20 +342,16 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        // Check town first
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        Town town = townStorage.getTownByClaimKey(claimKey);
-        if (town != null) {
-            return town.getName();
+        ChunkOwnershipIndex.ChunkOwner owner = ownershipIndex.get(worldName, chunkX, chunkZ);
+        if (owner == null) {
+            return null;
         }
 
-        // Check personal claim
-        UUID owner = claimStorage.getClaimOwner(worldName, chunkX, chunkZ);
-        if (owner != null) {
-            return claimStorage.getPlayerName(owner);
+        // Town first, then personal claim
+        if (owner.town() != null) {
+            return owner.town().getName();
         }
-
-        return null;
+        return claimStorage.getPlayerName(owner.personalOwner());
     }
 
     // ============================================================================
@@ -409,8 +371,7 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        Town town = townStorage.getTownByClaimKey(claimKey);
+        Town town = townStorage.getTownAt(worldName, chunkX, chunkZ);
 
         if (town == null) {
             // Wilderness or personal claim - PvP is on by default
@@ -419,7 +380,7 @@ public class HyTownAPI {
         }
 
         // Check plot-level override first, then town default
-        return town.isPvpEnabledAt(claimKey);
+        return town.isPvpEnabledAt(createClaimKey(worldName, chunkX, chunkZ));
     }
 
     /**
@@ -435,14 +396,13 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        Town town = townStorage.getTownByClaimKey(claimKey);
+        Town town = townStorage.getTownAt(worldName, chunkX, chunkZ);
 
         if (town == null) {
             return true; // Wilderness
         }
 
-        return town.isExplosionsEnabledAt(claimKey);
+        return town.isExplosionsEnabledAt(createClaimKey(worldName, chunkX, chunkZ));
     }
 
     /**
@@ -458,14 +418,13 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        Town town = townStorage.getTownByClaimKey(claimKey);
+        Town town = townStorage.getTownAt(worldName, chunkX, chunkZ);
 
         if (town == null) {
             return true; // Wilderness
         }
 
-        return town.isFireSpreadEnabledAt(claimKey);
+        return town.isFireSpreadEnabledAt(createClaimKey(worldName, chunkX, chunkZ));
     }
 
     /**
@@ -481,14 +440,13 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        Town town = townStorage.getTownByClaimKey(claimKey);
+        Town town = townStorage.getTownAt(worldName, chunkX, chunkZ);
 
         if (town == null) {
             return true; // Wilderness
         }
 
-        return town.isMobSpawningEnabledAt(claimKey);
+        return town.isMobSpawningEnabledAt(createClaimKey(worldName, chunkX, chunkZ));
     }
 
     // ============================================================================
@@ -574,7 +532,7 @@ public class HyTownAPI {
      * Get all residents of a town.
      *
      * @param townName The town name
-     * @return Set of resident UUIDs, or empty set if town not found
+     * @return Unmodifiable set of resident UUIDs, or empty set if town not found
      */
     public Set<UUID> getTownResidents(String townName) {
         Town town = townStorage.getTown(townName);
@@ -585,7 +543,7 @@ public class HyTownAPI {
      * Get all assistants of a town.
      *
      * @param townName The town name
-     * @return Set of assistant UUIDs, or empty set if town not found
+     * @return Unmodifiable set of assistant UUIDs, or empty set if town not found
      */
     public Set<UUID> getTownAssistants(String townName) {
         Town town = townStorage.getTown(townName);
@@ -676,7 +634,7 @@ public class HyTownAPI {
      * Get all claim keys for a town.
      *
      * @param townName The town name
-     * @return Set of claim keys (format: "world:chunkX,chunkZ"), or empty set
+     * @return Unmodifiable set of claim keys (format: "world:chunkX,chunkZ"), or empty set
      */
     public Set<String> getTownClaimKeys(String townName) {
         Town town = townStorage.getTown(townName);
@@ -807,10 +765,13 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
+        ChunkOwnershipIndex.ChunkOwner chunkOwner = ownershipIndex.get(worldName, chunkX, chunkZ);
+        if (chunkOwner == null) {
+            return true; // Wilderness
+        }
 
         // Check town claim first
-        Town town = townStorage.getTownByClaimKey(claimKey);
+        Town town = chunkOwner.town();
         if (town != null) {
             // Check if player is a member
             if (town.isMember(playerId)) {
@@ -827,7 +788,7 @@ public class HyTownAPI {
         }
 
         // Check personal claim
-        UUID owner = claimStorage.getClaimOwner(worldName, chunkX, chunkZ);
+        UUID owner = chunkOwner.personalOwner();
         if (owner != null) {
             // Owner can always build
             if (playerId.equals(owner)) {
@@ -858,10 +819,13 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
+        ChunkOwnershipIndex.ChunkOwner chunkOwner = ownershipIndex.get(worldName, chunkX, chunkZ);
+        if (chunkOwner == null) {
+            return true; // Wilderness
+        }
 
         // Check town claim first
-        Town town = townStorage.getTownByClaimKey(claimKey);
+        Town town = chunkOwner.town();
         if (town != null) {
             if (town.isMember(playerId)) {
                 if (town.isAssistant(playerId)) {
@@ -874,7 +838,7 @@ public class HyTownAPI {
         }
 
         // Check personal claim
-        UUID owner = claimStorage.getClaimOwner(worldName, chunkX, chunkZ);
+        UUID owner = chunkOwner.personalOwner();
         if (owner != null) {
             if (playerId.equals(owner)) {
                 return true;
@@ -902,10 +866,13 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
+        ChunkOwnershipIndex.ChunkOwner chunkOwner = ownershipIndex.get(worldName, chunkX, chunkZ);
+        if (chunkOwner == null) {
+            return true; // Wilderness
+        }
 
         // Check town claim first
-        Town town = townStorage.getTownByClaimKey(claimKey);
+        Town town = chunkOwner.town();
         if (town != null) {
             if (town.isMember(playerId)) {
                 if (town.isAssistant(playerId)) {
@@ -918,7 +885,7 @@ public class HyTownAPI {
         }
 
         // Check personal claim
-        UUID owner = claimStorage.getClaimOwner(worldName, chunkX, chunkZ);
+        UUID owner = chunkOwner.personalOwner();
         if (owner != null) {
             if (playerId.equals(owner)) {
                 return true;
@@ -946,17 +913,20 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
+        ChunkOwnershipIndex.ChunkOwner chunkOwner = ownershipIndex.get(worldName, chunkX, chunkZ);
+        if (chunkOwner == null) {
+            return true; // Wilderness
+        }
 
         // Check town claim first
-        Town town = townStorage.getTownByClaimKey(claimKey);
+        Town town = chunkOwner.town();
         if (town != null) {
             // Use the town's canAccessContainers method which handles plot protection
-            return town.canAccessContainers(claimKey, playerId);
+            return town.canAccessContainers(createClaimKey(worldName, chunkX, chunkZ), playerId);
         }
 
         // Check personal claim
-        UUID owner = claimStorage.getClaimOwner(worldName, chunkX, chunkZ);
+        UUID owner = chunkOwner.personalOwner();
         if (owner != null) {
             if (playerId.equals(owner)) {
                 return true;
@@ -1093,13 +1063,8 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        // Check it's not a town claim
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        if (townStorage.getTownByClaimKey(claimKey) != null) {
-            return false;
-        }
-
-        UUID owner = claimStorage.getClaimOwner(worldName, chunkX, chunkZ);
+        // Town claims excluded
+        UUID owner = getPersonalOwnerOutsideTown(worldName, chunkX, chunkZ);
         if (owner == null || owner.equals(playerId)) {
             return false;
         }
@@ -1141,14 +1106,13 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        Town town = townStorage.getTownByClaimKey(claimKey);
+        Town town = townStorage.getTownAt(worldName, chunkX, chunkZ);
 
         if (town == null) {
             return null;
         }
 
-        return town.getPlotOwner(claimKey);
+        return town.getPlotOwner(createClaimKey(worldName, chunkX, chunkZ));
     }
 
     /**
@@ -1163,14 +1127,13 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        Town town = townStorage.getTownByClaimKey(claimKey);
+        Town town = townStorage.getTownAt(worldName, chunkX, chunkZ);
 
         if (town == null) {
             return false;
         }
 
-        return town.isPlotProtected(claimKey);
+        return town.isPlotProtected(createClaimKey(worldName, chunkX, chunkZ));
     }
 
     /**
@@ -1185,14 +1148,13 @@ public class HyTownAPI {
         int chunkX = ChunkUtil.toChunkX(worldX);
         int chunkZ = ChunkUtil.toChunkZ(worldZ);
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        Town town = townStorage.getTownByClaimKey(claimKey);
+        Town town = townStorage.getTownAt(worldName, chunkX, chunkZ);
 
         if (town == null) {
             return null;
         }
 
-        return town.getPlotSettings(claimKey);
+        return town.getPlotSettings(createClaimKey(worldName, chunkX, chunkZ));
     }
 
     // ============================================================================
@@ -1218,6 +1180,18 @@ public class HyTownAPI {
         return ChunkUtil.CHUNK_SIZE;
     }
 
+    /**
+     * Get the personal claim owner of a chunk, or null if unclaimed or part of a town.
+     * Resolves both with a single index probe.
+     */
+    private UUID getPersonalOwnerOutsideTown(String worldName, int chunkX, int chunkZ) {
+        ChunkOwnershipIndex.ChunkOwner owner = ownershipIndex.get(worldName, chunkX, chunkZ);
+        if (owner == null || owner.town() != null) {
+            return null;
+        }
+        return owner.personalOwner();
+    }
+
     /**
      * Create a claim key from coordinates.
      *
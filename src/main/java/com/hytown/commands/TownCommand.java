@@ -4,10 +4,13 @@ import com.hytown.HyTown;
 import com.hytown.data.Town;
 import com.hytown.data.TownStorage;
 import com.hytown.data.TownTransaction;
+import com.hytown.data.TownTransactionLog;
 import com.hytown.events.*;
 import com.hytown.gui.TownGui;
 import com.hytown.gui.TownHelpGui;
 import com.hytown.managers.ClaimManager;
+import com.hytown.selection.ClaimModeState;
+import com.hytown.selection.ClaimSelectionManager;
 import com.hytown.util.ChunkUtil;
 import com.hycrown.hyconomy.HyConomy;
 import com.hypixel.hytale.component.Ref;
@@ -16,6 +19,7 @@ import com.hypixel.hytale.server.core.modules.entity.component.TransformComponen
 import com.hypixel.hytale.server.core.modules.entity.teleport.Teleport;
 import com.hypixel.hytale.math.vector.Vector3d;
 import com.hypixel.hytale.math.vector.Vector3f;
+import com.hypixel.hytale.math.vector.Vector3i;
 import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
 import com.hypixel.hytale.server.core.command.system.basecommands.AbstractPlayerCommand;
@@ -26,7 +30,11 @@ import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 
 import javax.annotation.Nonnull;
 import java.awt.Color;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -121,8 +129,20 @@ public class TownCommand extends AbstractPlayerCommand {
             case "help", "?" -> handleHelp(store, playerRef, playerData, world, isAdmin);
             case "new", "create" -> handleNew(store, playerRef, playerData, playerId, playerName, world, arg1);
             case "delete" -> handleDelete(playerData, playerId);
-            case "claim" -> handleClaim(store, playerRef, playerData, playerId, world);
-            case "unclaim" -> handleUnclaim(store, playerRef, playerData, playerId, world);
+            case "claim" -> {
+                if (arg1 == null) {
+                    handleClaim(store, playerRef, playerData, playerId, world);
+                } else {
+                    handleClaimSelection(store, playerRef, playerData, playerId, world, arg1);
+                }
+            }
+            case "unclaim" -> {
+                if ("area".equalsIgnoreCase(arg1)) {
+                    handleUnclaimArea(store, playerRef, playerData, playerId, world);
+                } else {
+                    handleUnclaim(store, playerRef, playerData, playerId, world);
+                }
+            }
             case "add", "invite" -> handleInvite(playerData, playerId, arg1);
             case "kick" -> handleKick(playerData, playerId, arg1);
             case "leave" -> handleLeave(playerData, playerId);
@@ -138,7 +158,7 @@ public class TownCommand extends AbstractPlayerCommand {
             case "rank" -> handleRank(playerData, playerId, arg1, arg2, arg3);
             case "online" -> handleOnline(playerData, playerId);
             case "here" -> handleHere(store, playerRef, playerData, world);
-            case "log" -> handleLog(playerData, playerId, arg1);
+            case "log" -> handleLog(playerData, playerId, arg1, arg2);
             case "board", "motd" -> handleBoard(ctx, playerData, playerId, args);
             case "deny" -> handleDeny(playerData, playerId, arg1);
             case "rename" -> handleRename(playerData, playerId, playerName, arg1);
@@ -391,6 +411,219 @@ public class TownCommand extends AbstractPlayerCommand {
         }
     }
 
+    private void handleClaimSelection(Store<EntityStore> store, Ref<EntityStore> playerRef,
+                                      PlayerRef playerData, UUID playerId, World world, String subAction) {
+        ClaimSelectionManager selection = plugin.getClaimSelectionManager();
+        Player player = store.getComponent(playerRef, Player.getComponentType());
+
+        switch (subAction.toLowerCase()) {
+            case "pos1", "pos2" -> {
+                TransformComponent transform = store.getComponent(playerRef, TransformComponent.getComponentType());
+                Vector3d pos = transform.getPosition();
+                Vector3i block = new Vector3i((int) Math.floor(pos.getX()), (int) Math.floor(pos.getY()), (int) Math.floor(pos.getZ()));
+                String worldName = world.getName();
+
+                if (!selection.isInClaimMode(playerId)) {
+                    selection.enterClaimMode(playerId, worldName);
+                }
+                boolean first = subAction.equalsIgnoreCase("pos1");
+                if (first) {
+                    selection.setPos1(playerId, player, playerData, block, worldName);
+                } else {
+                    selection.setPos2(playerId, player, playerData, block, worldName);
+                }
+
+                playerData.sendMessage(Message.raw("Corner " + (first ? 1 : 2) + " set at chunk ["
+                        + ChunkUtil.toChunkX(pos.getX()) + ", " + ChunkUtil.toChunkZ(pos.getZ()) + "]").color(GREEN));
+                ClaimModeState state = selection.getClaimModeState(playerId);
+                if (state != null && state.hasCompleteSelection()) {
+                    playerData.sendMessage(Message.raw("Selection: " + state.getChunkCount() + " chunks. Use /town claim area or /town unclaim area.").color(GRAY));
+                }
+            }
+            case "area" -> handleClaimArea(player, playerData, playerId, world);
+            case "cancel", "clear" -> {
+                selection.exitClaimMode(playerId, player, playerData);
+                playerData.sendMessage(Message.raw("Selection cleared.").color(YELLOW));
+            }
+            default -> playerData.sendMessage(Message.raw("Usage: /town claim [pos1|pos2|area|cancel]").color(RED));
+        }
+    }
+
+    /**
+     * Returns the chunk bounds of the player's selection in this world, or null after telling them why not.
+     */
+    private int[] getSelectedChunks(PlayerRef playerData, UUID playerId, String worldName) {
+        ClaimSelectionManager selection = plugin.getClaimSelectionManager();
+        int[] bounds = selection.getChunkBounds(playerId);
+        if (bounds == null) {
+            playerData.sendMessage(Message.raw("Select an area first with /town claim pos1 and /town claim pos2!").color(RED));
+            return null;
+        }
+        if (!worldName.equals(selection.getClaimModeState(playerId).getWorldName())) {
+            playerData.sendMessage(Message.raw("Your selection is in another world!").color(RED));
+            return null;
+        }
+        return bounds;
+    }
+
+    private void handleClaimArea(Player player, PlayerRef playerData, UUID playerId, World world) {
+        TownStorage townStorage = plugin.getTownStorage();
+        Town town = townStorage.getPlayerTown(playerId);
+        String playerName = playerData.getUsername();
+
+        if (town == null) {
+            playerData.sendMessage(Message.raw("You must be in a town to claim land!").color(RED));
+            return;
+        }
+
+        if (!town.isAssistant(playerId)) {
+            playerData.sendMessage(Message.raw("Only the mayor or assistants can claim land!").color(RED));
+            return;
+        }
+
+        String worldName = world.getName();
+        int[] bounds = getSelectedChunks(playerData, playerId, worldName);
+        if (bounds == null) {
+            return;
+        }
+
+        // Validate the whole rectangle before taking any money
+        ClaimManager claimManager = plugin.getClaimManager();
+        ClaimManager.AreaClaimPlan plan = claimManager.planTownAreaClaim(town, worldName, bounds[0], bounds[1], bounds[2], bounds[3]);
+        if (!plan.isSuccess()) {
+            sendAreaClaimFailure(playerData, town, plan);
+            return;
+        }
+
+        // Charge for every new chunk at once (applies to everyone, including ops)
+        double cost = plugin.getPluginConfig().getTownClaimCost() * plan.getChunkCount();
+        if (cost > 0) {
+            if (!HyConomy.has(playerName, cost)) {
+                playerData.sendMessage(Message.raw("You need " + HyConomy.format(cost) + " to claim " + plan.getChunkCount() + " chunks!").color(RED));
+                playerData.sendMessage(Message.raw("Your balance: " + HyConomy.format(HyConomy.getBalance(playerName))).color(GRAY));
+                return;
+            }
+            if (!HyConomy.withdraw(playerName, cost)) {
+                playerData.sendMessage(Message.raw("Failed to withdraw funds!").color(RED));
+                return;
+            }
+        }
+
+        ClaimManager.AreaClaimPlan result = claimManager.claimTownArea(town, plan);
+        if (!result.isSuccess()) {
+            // Refund if claim failed
+            if (cost > 0) {
+                HyConomy.deposit(playerName, cost);
+            }
+            sendAreaClaimFailure(playerData, town, result);
+            return;
+        }
+
+        townStorage.saveTown(town);
+
+        // Fire one TownAreaClaimEvent for the whole area
+        plugin.getEventBus().fire(new TownAreaClaimEvent(town, worldName, result.getClaimKeys(), result.chunks(),
+                bounds[0], bounds[1], bounds[2], bounds[3], playerId, playerName));
+
+        plugin.getClaimSelectionManager().exitClaimMode(playerId, player, playerData);
+
+        String costMsg = cost > 0 ? " (Cost: " + HyConomy.format(cost) + ")" : "";
+        playerData.sendMessage(Message.raw("Claimed " + result.getChunkCount() + " chunks from [" + bounds[0] + ", " + bounds[1]
+                + "] to [" + bounds[2] + ", " + bounds[3] + "] for " + town.getName() + costMsg).color(GREEN));
+        if (result.alreadyOwned() > 0) {
+            playerData.sendMessage(Message.raw(result.alreadyOwned() + " selected chunks were already town land.").color(GRAY));
+        }
+        plugin.refreshWorldMapArea(worldName, bounds[0], bounds[1], bounds[2], bounds[3]);
+    }
+
+    private void sendAreaClaimFailure(PlayerRef playerData, Town town, ClaimManager.AreaClaimPlan plan) {
+        String chunk = "[" + plan.conflictChunkX() + ", " + plan.conflictChunkZ() + "]";
+        switch (plan.result()) {
+            case NOTHING_TO_CHANGE -> playerData.sendMessage(Message.raw("Your town already owns every chunk in the selection!").color(RED));
+            case TOO_LARGE -> playerData.sendMessage(Message.raw("Selection is too large! Max "
+                    + plugin.getPluginConfig().getMaxAreaClaimChunks() + " chunks at once.").color(RED));
+            case CLAIMED_BY_OTHER_TOWN -> playerData.sendMessage(Message.raw("Chunk " + chunk + " is claimed by: "
+                    + plan.conflictTown().getName()).color(RED));
+            case CLAIMED_BY_OTHER -> playerData.sendMessage(Message.raw("Chunk " + chunk + " is claimed by someone else!").color(RED));
+            case TOO_CLOSE_TO_OTHER_CLAIM -> playerData.sendMessage(Message.raw("Selection is too close to another claim!").color(RED));
+            case NOT_ADJACENT -> {
+                playerData.sendMessage(Message.raw("Claims must be adjacent to existing town land!").color(RED));
+                playerData.sendMessage(Message.raw("Diagonal claims are not allowed - claims must share a full side.").color(GRAY));
+            }
+            case TOWN_LIMIT_REACHED -> playerData.sendMessage(Message.raw("Town would exceed maximum claims ("
+                    + plugin.getPluginConfig().getMaxTownClaims() + ") - it has " + town.getClaimCount() + "!").color(RED));
+            case LIMIT_REACHED -> playerData.sendMessage(Message.raw("Claim limit reached!").color(RED));
+            case SELECTION_CHANGED -> playerData.sendMessage(Message.raw("Claims in the selection changed - please try again.").color(RED));
+            default -> {}
+        }
+    }
+
+    private void handleUnclaimArea(Store<EntityStore> store, Ref<EntityStore> playerRef,
+                                   PlayerRef playerData, UUID playerId, World world) {
+        TownStorage townStorage = plugin.getTownStorage();
+        Town town = townStorage.getPlayerTown(playerId);
+
+        if (town == null) {
+            playerData.sendMessage(Message.raw("You must be in a town!").color(RED));
+            return;
+        }
+
+        if (!town.isAssistant(playerId)) {
+            playerData.sendMessage(Message.raw("Only the mayor or assistants can unclaim land!").color(RED));
+            return;
+        }
+
+        String worldName = world.getName();
+        int[] bounds = getSelectedChunks(playerData, playerId, worldName);
+        if (bounds == null) {
+            return;
+        }
+        String areaKey = "area:" + worldName + ":" + bounds[0] + "," + bounds[1] + ":" + bounds[2] + "," + bounds[3];
+
+        // Check for pending confirmation
+        ClaimManager claimManager = plugin.getClaimManager();
+        PendingUnclaim pending = pendingUnclaims.get(playerId);
+        if (pending != null && !pending.isExpired() && pending.claimKey().equals(areaKey)) {
+            // Confirmed! Actually unclaim
+            pendingUnclaims.remove(playerId);
+
+            ClaimManager.AreaClaimPlan result = claimManager.unclaimTownArea(town, worldName, bounds[0], bounds[1], bounds[2], bounds[3]);
+            if (!result.isSuccess()) {
+                playerData.sendMessage(Message.raw("None of the selected chunks belong to your town!").color(RED));
+                return;
+            }
+
+            townStorage.saveTown(town);
+
+            // Fire one TownAreaUnclaimEvent for the whole area
+            plugin.getEventBus().fire(new TownAreaUnclaimEvent(town, worldName, result.getClaimKeys(), result.chunks(),
+                    bounds[0], bounds[1], bounds[2], bounds[3], playerId, playerData.getUsername()));
+
+            Player player = store.getComponent(playerRef, Player.getComponentType());
+            plugin.getClaimSelectionManager().exitClaimMode(playerId, player, playerData);
+
+            playerData.sendMessage(Message.raw("Successfully unclaimed " + result.getChunkCount() + " chunks from " + town.getName()).color(GREEN));
+            playerData.sendMessage(Message.raw("Remaining claims: " + town.getClaimCount() + "/" + plugin.getPluginConfig().getMaxTownClaims()).color(GRAY));
+            plugin.refreshWorldMapArea(worldName, bounds[0], bounds[1], bounds[2], bounds[3]);
+        } else {
+            ClaimManager.AreaClaimPlan plan = claimManager.planTownAreaUnclaim(town, worldName, bounds[0], bounds[1], bounds[2], bounds[3]);
+            if (!plan.isSuccess()) {
+                playerData.sendMessage(Message.raw("None of the selected chunks belong to your town!").color(RED));
+                return;
+            }
+
+            // Request confirmation
+            pendingUnclaims.put(playerId, new PendingUnclaim(areaKey, worldName, bounds[0], bounds[1], System.currentTimeMillis()));
+
+            playerData.sendMessage(Message.raw("========================================").color(YELLOW));
+            playerData.sendMessage(Message.raw("Are you sure you want to unclaim " + plan.getChunkCount() + " chunks?").color(YELLOW));
+            playerData.sendMessage(Message.raw("Area: [" + bounds[0] + ", " + bounds[1] + "] to [" + bounds[2] + ", " + bounds[3] + "]").color(WHITE));
+            playerData.sendMessage(Message.raw("Town: " + town.getName()).color(WHITE));
+            playerData.sendMessage(Message.raw("Type /town unclaim area again within 30 seconds to confirm.").color(YELLOW));
+            playerData.sendMessage(Message.raw("========================================").color(YELLOW));
+        }
+    }
+
     private void handleInvite(PlayerRef playerData, UUID playerId, String targetName) {
         if (targetName == null || targetName.isEmpty()) {
             playerData.sendMessage(Message.raw("Usage: /town add <player>").color(RED));
@@ -1096,7 +1329,7 @@ public class TownCommand extends AbstractPlayerCommand {
         playerData.sendMessage(Message.raw("Chunk: [" + chunkX + ", " + chunkZ + "]").color(GRAY));
     }
 
-    private void handleLog(PlayerRef playerData, UUID playerId, String pageStr) {
+    private void handleLog(PlayerRef playerData, UUID playerId, String pageStr, String daysStr) {
         TownStorage townStorage = plugin.getTownStorage();
         Town town = townStorage.getPlayerTown(playerId);
 
@@ -1111,9 +1344,19 @@ public class TownCommand extends AbstractPlayerCommand {
             return;
         }
 
-        List<TownTransaction> transactions = town.getTransactionHistory();
+        TownTransactionLog log = townStorage.getTransactionLog(town);
+        if (log == null) {
+            playerData.sendMessage(Message.raw("The transaction log is unavailable right now.").color(RED));
+            return;
+        }
+
+        if ("days".equalsIgnoreCase(pageStr)) {
+            handleLogDays(playerData, town, log, daysStr);
+            return;
+        }
 
-        if (transactions.isEmpty()) {
+        long total = log.size();
+        if (total == 0) {
             playerData.sendMessage(Message.raw("No transactions recorded yet.").color(YELLOW));
             return;
         }
@@ -1127,19 +1370,23 @@ public class TownCommand extends AbstractPlayerCommand {
         }
 
         int perPage = 10;
-        int totalPages = (int) Math.ceil(transactions.size() / (double) perPage);
+        int totalPages = (int) Math.ceil(total / (double) perPage);
         page = Math.max(1, Math.min(page, totalPages));
 
-        int start = (page - 1) * perPage;
-        int end = Math.min(start + perPage, transactions.size());
+        List<TownTransaction> transactions;
+        try {
+            transactions = log.getPage((long) (page - 1) * perPage, perPage);
+        } catch (IOException e) {
+            playerData.sendMessage(Message.raw("Could not read the transaction log: " + e.getMessage()).color(RED));
+            return;
+        }
 
         SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd HH:mm");
 
         playerData.sendMessage(Message.raw("========== " + town.getName() + " Transaction Log ==========").color(GOLD));
-        playerData.sendMessage(Message.raw("Page " + page + "/" + totalPages + " (" + transactions.size() + " total)").color(GRAY));
+        playerData.sendMessage(Message.raw("Page " + page + "/" + totalPages + " (" + total + " total)").color(GRAY));
 
-        for (int i = start; i < end; i++) {
-            TownTransaction tx = transactions.get(i);
+        for (TownTransaction tx : transactions) {
             String time = dateFormat.format(new Date(tx.getTimestamp()));
             String displayStr = tx.getDisplayString();
 
@@ -1160,6 +1407,36 @@ public class TownCommand extends AbstractPlayerCommand {
         }
     }
 
+    private void handleLogDays(PlayerRef playerData, Town town, TownTransactionLog log, String daysStr) {
+        int days = 7;
+        if (daysStr != null) {
+            try {
+                days = Math.max(1, Math.min(30, Integer.parseInt(daysStr)));
+            } catch (NumberFormatException ignored) {}
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        long from = LocalDate.now(zone).minusDays(days - 1).atStartOfDay(zone).toInstant().toEpochMilli();
+        List<TownTransactionLog.DailyTotals> totals;
+        try {
+            totals = log.getDailyTotals(from, Long.MAX_VALUE, zone);
+        } catch (IOException e) {
+            playerData.sendMessage(Message.raw("Could not read the transaction log: " + e.getMessage()).color(RED));
+            return;
+        }
+
+        playerData.sendMessage(Message.raw("========== " + town.getName() + " - Last " + days + " Days ==========").color(GOLD));
+        if (totals.isEmpty()) {
+            playerData.sendMessage(Message.raw("No transactions in this period.").color(YELLOW));
+            return;
+        }
+        for (TownTransactionLog.DailyTotals day : totals) {
+            playerData.sendMessage(Message.raw(String.format("%s: +$%.2f income, -$%.2f upkeep, -$%.2f spent (%d transactions)",
+                    day.day().format(DateTimeFormatter.ofPattern("MM/dd")), day.income(), day.upkeep(),
+                    day.spending(), day.transactions())).color(WHITE));
+        }
+    }
+
     private void handleBoard(CommandContext ctx, PlayerRef playerData, UUID playerId, String[] args) {
         TownStorage townStorage = plugin.getTownStorage();
         Town town = townStorage.getPlayerTown(playerId);
@@ -1365,6 +1642,9 @@ public class TownCommand extends AbstractPlayerCommand {
         playerData.sendMessage(Message.raw("--- Land Management ---").color(GOLD));
         playerData.sendMessage(Message.raw("/town claim - Claim current chunk for town").color(WHITE));
         playerData.sendMessage(Message.raw("/town unclaim - Unclaim chunk (requires confirm)").color(WHITE));
+        playerData.sendMessage(Message.raw("/town claim pos1|pos2 - Select corners of an area").color(WHITE));
+        playerData.sendMessage(Message.raw("/town claim area - Claim the selected area at once").color(WHITE));
+        playerData.sendMessage(Message.raw("/town unclaim area - Unclaim the selected area (requires confirm)").color(WHITE));
         playerData.sendMessage(Message.raw("/town here - Show who owns current chunk").color(WHITE));
 
         // Members
@@ -1397,6 +1677,7 @@ public class TownCommand extends AbstractPlayerCommand {
         playerData.sendMessage(Message.raw("/town withdraw <amount> - Withdraw from bank").color(WHITE));
         playerData.sendMessage(Message.raw("/town balance - Check balances").color(WHITE));
         playerData.sendMessage(Message.raw("/town log [page] - View transaction history").color(WHITE));
+        playerData.sendMessage(Message.raw("/town log days [n] - Daily income and upkeep totals").color(WHITE));
 
         if (isAdmin) {
             playerData.sendMessage(Message.raw("========== ADMIN COMMANDS ==========").color(GOLD));
@@ -1,10 +1,17 @@
 package com.hytown.commands;
 
 import com.hytown.HyTown;
+import com.hytown.data.ClaimStorage;
+import com.hytown.data.PlaytimeLedger;
+import com.hytown.data.PlaytimeStorage;
 import com.hytown.data.Town;
 import com.hytown.data.TownStorage;
 import com.hytown.events.*;
 import com.hytown.gui.TownAdminGui;
+import com.hytown.managers.HyTownScheduler;
+import com.hytown.map.MapTileCache;
+import com.hytown.metrics.LatencyHistogram;
+import com.hytown.metrics.PerfMetrics;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.server.core.Message;
@@ -78,6 +85,11 @@ public class TownyAdminCommand extends AbstractPlayerCommand {
             case "wild" -> handleWild(playerData, arg1, arg2);
             case "debug" -> handleDebug(playerData);
             case "save" -> handleSave(playerData);
+            case "snapshot" -> handleSnapshot(playerData, arg1);
+            case "playtime" -> handlePlaytimeTop(playerData, arg1);
+            case "jobs" -> handleJobs(playerData, arg1, arg2);
+            case "perf" -> handlePerf(playerData, arg1);
+            case "verifyindex" -> handleVerifyIndex(playerData, arg1);
             case "set" -> handleSet(playerData, arg1, arg2);
             case "restore" -> handleRestore(playerData, arg1, arg2);
             case "backups" -> handleBackups(playerData, arg1);
@@ -98,6 +110,7 @@ public class TownyAdminCommand extends AbstractPlayerCommand {
 
     private void handleReload(PlayerRef playerData) {
         plugin.getPluginConfig().reload();
+        plugin.getClaimManager().getBlockGroups().reload();
         playerData.sendMessage(Message.raw("Configuration reloaded!").color(GREEN));
     }
 
@@ -310,6 +323,11 @@ public class TownyAdminCommand extends AbstractPlayerCommand {
         playerData.sendMessage(Message.raw("Total Claims (from towns): " + totalClaims).color(WHITE));
         playerData.sendMessage(Message.raw("Claim Index Size: " + townStorage.getClaimIndexSize()).color(WHITE));
         playerData.sendMessage(Message.raw("Total Residents: " + totalResidents).color(WHITE));
+        playerData.sendMessage(Message.raw("Claim Saves: " + plugin.getClaimStorage().getSaveStats()).color(WHITE));
+        playerData.sendMessage(Message.raw("Claim Cache: " + plugin.getClaimStorage().getCacheStats()).color(WHITE));
+        playerData.sendMessage(Message.raw("Playtime Cache: " + plugin.getPlaytimeStorage().getCacheStats()).color(WHITE));
+        playerData.sendMessage(Message.raw("Protection Cache: " + plugin.getClaimManager().getProtectionCache().getStats()).color(WHITE));
+        playerData.sendMessage(Message.raw("Map Tiles: " + MapTileCache.getStats()).color(WHITE));
 
         var config = plugin.getPluginConfig();
         playerData.sendMessage(Message.raw("Town Creation Cost: $" + config.getTownCreationCost()).color(GRAY));
@@ -323,6 +341,176 @@ public class TownyAdminCommand extends AbstractPlayerCommand {
         playerData.sendMessage(Message.raw("All data saved!").color(GREEN));
     }
 
+    private void handlePlaytimeTop(PlayerRef playerData, String countArg) {
+        int count = 10;
+        if (countArg != null) {
+            try {
+                count = Math.max(1, Math.min(100, Integer.parseInt(countArg)));
+            } catch (NumberFormatException e) {
+                playerData.sendMessage(Message.raw("Usage: /townadmin playtime [count]").color(RED));
+                return;
+            }
+        }
+
+        PlaytimeStorage playtimeStorage = plugin.getPlaytimeStorage();
+        playerData.sendMessage(Message.raw("========== Top Playtime ==========").color(GOLD));
+        int rank = 1;
+        for (PlaytimeLedger.Entry entry : playtimeStorage.getTopPlaytime(count)) {
+            String name = plugin.getClaimStorage().getPlayerName(entry.playerId());
+            playerData.sendMessage(Message.raw(String.format("%d. %s - %.1f hours", rank++, name,
+                    entry.totalSeconds() / 3600.0)).color(WHITE));
+        }
+        playerData.sendMessage(Message.raw(playtimeStorage.getRecordedPlayerCount() + " players recorded").color(GRAY));
+    }
+
+    private void handleJobs(PlayerRef playerData, String subAction, String jobName) {
+        HyTownScheduler scheduler = plugin.getScheduler();
+        if ("run".equalsIgnoreCase(subAction)) {
+            if (jobName == null) {
+                playerData.sendMessage(Message.raw("Usage: /townadmin jobs run <job>").color(RED));
+            } else if (scheduler.runNow(jobName)) {
+                playerData.sendMessage(Message.raw("Started job " + jobName).color(GREEN));
+            } else {
+                playerData.sendMessage(Message.raw("No such job, or it is already running: " + jobName).color(RED));
+            }
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        playerData.sendMessage(Message.raw("========== Scheduled Jobs ==========").color(GOLD));
+        for (HyTownScheduler.JobStats job : scheduler.getJobStats()) {
+            playerData.sendMessage(Message.raw(job.name() + " (" + job.schedule() + ")"
+                    + (job.running() ? " RUNNING" : "")).color(job.lastError() != null ? RED : WHITE));
+            String lastRun = job.lastRunMillis() > 0 ? formatAge(now - job.lastRunMillis()) + " ago" : "never";
+            String nextRun = job.nextRunMillis() > 0 ? "in " + formatAge(job.nextRunMillis() - now) : "-";
+            playerData.sendMessage(Message.raw(String.format("  last %s, next %s, took %.1f ms (avg %.1f, max %.1f)",
+                    lastRun, nextRun, job.lastDurationMs(), job.avgDurationMs(), job.maxDurationMs())).color(GRAY));
+            playerData.sendMessage(Message.raw("  runs " + job.runs() + ", failures " + job.failures()
+                    + ", skipped " + job.skipped()).color(GRAY));
+            if (job.lastError() != null) {
+                playerData.sendMessage(Message.raw("  last error: " + job.lastError()).color(RED));
+            }
+        }
+        playerData.sendMessage(Message.raw("Use /townadmin jobs run <job> to run one now").color(GRAY));
+    }
+
+    private void handlePerf(PlayerRef playerData, String subAction) {
+        if ("reset".equalsIgnoreCase(subAction)) {
+            PerfMetrics.reset();
+            playerData.sendMessage(Message.raw("Performance metrics reset.").color(GREEN));
+            return;
+        }
+
+        double seconds = PerfMetrics.getWindowSeconds();
+        playerData.sendMessage(Message.raw("========== Performance (" + formatAge((long) (seconds * 1000))
+                + ") ==========").color(GOLD));
+        java.util.List<LatencyHistogram.Snapshot> snapshots = PerfMetrics.snapshotHistograms();
+        if (snapshots.isEmpty()) {
+            playerData.sendMessage(Message.raw("Nothing recorded yet.").color(GRAY));
+        }
+        for (LatencyHistogram.Snapshot snapshot : snapshots) {
+            playerData.sendMessage(Message.raw(String.format("%s: %d (%.1f/s) p50 %s p99 %s max %s",
+                    snapshot.getName(), snapshot.getCount(), snapshot.getCount() / seconds,
+                    formatNanos(snapshot.getQuantile(0.5)), formatNanos(snapshot.getQuantile(0.99)),
+                    formatNanos(snapshot.getMax()))).color(WHITE));
+        }
+        for (var counter : PerfMetrics.counterValues()) {
+            playerData.sendMessage(Message.raw(String.format("%s: %d (%.2f/s)",
+                    counter.getKey(), counter.getValue(), counter.getValue() / seconds)).color(GRAY));
+        }
+
+        // Slowest event listeners, including other plugins' (stats are since startup)
+        int shown = 0;
+        for (TownEventBus.ListenerStats listener : plugin.getEventBus().getListenerStats()) {
+            if (shown++ == 5 || listener.calls() == 0) break;
+            if (shown == 1) {
+                playerData.sendMessage(Message.raw("--- Slowest event listeners ---").color(GOLD));
+            }
+            String line = String.format("%s (%s%s): max %.2fms avg %.3fms, %d slow, %d errors",
+                    listener.name(), listener.eventType(), listener.async() ? ", async" : "",
+                    listener.maxMs(), listener.avgMs(), listener.slowCalls(), listener.errors());
+            if (listener.async()) {
+                line += ", " + listener.queued() + " queued, " + listener.dropped() + " dropped";
+            }
+            playerData.sendMessage(Message.raw(line).color(listener.slowCalls() > 0 ? YELLOW : GRAY));
+        }
+        playerData.sendMessage(Message.raw("Use /townadmin perf reset to start a new window").color(GRAY));
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000) return nanos + "ns";
+        if (nanos < 1_000_000) return String.format("%.1fus", nanos / 1e3);
+        if (nanos < 1_000_000_000) return String.format("%.1fms", nanos / 1e6);
+        return String.format("%.2fs", nanos / 1e9);
+    }
+
+    private static String formatAge(long millis) {
+        long seconds = Math.max(0, millis / 1000);
+        if (seconds < 60) return seconds + "s";
+        if (seconds < 3600) return (seconds / 60) + "m " + (seconds % 60) + "s";
+        return (seconds / 3600) + "h " + (seconds % 3600 / 60) + "m";
+    }
+
+    private void handleSnapshot(PlayerRef playerData, String subAction) {
+        if (subAction == null || subAction.isEmpty()) {
+            playerData.sendMessage(Message.raw("Usage: /townadmin snapshot <write|json|bench>").color(RED));
+            return;
+        }
+
+        ClaimStorage claimStorage = plugin.getClaimStorage();
+        try {
+            switch (subAction.toLowerCase()) {
+                case "write" -> {
+                    long size = claimStorage.writeSnapshot();
+                    playerData.sendMessage(Message.raw("Wrote claims/claims.bin (" + (size / 1024) + " KB)").color(GREEN));
+                    if (!plugin.getPluginConfig().isBinaryClaimSnapshotEnabled()) {
+                        playerData.sendMessage(Message.raw("Set binaryClaimSnapshot in config.json to load it on startup.").color(GRAY));
+                    }
+                }
+                case "json" -> {
+                    claimStorage.saveAll();
+                    playerData.sendMessage(Message.raw("Exported all claim data to JSON.").color(GREEN));
+                }
+                case "bench" -> {
+                    playerData.sendMessage(Message.raw("Benchmarking claim loading...").color(YELLOW));
+                    playerData.sendMessage(Message.raw(claimStorage.benchmarkLoad()).color(WHITE));
+                }
+                default -> playerData.sendMessage(Message.raw("Usage: /townadmin snapshot <write|json|bench>").color(RED));
+            }
+        } catch (java.io.IOException e) {
+            playerData.sendMessage(Message.raw("Snapshot failed: " + e.getMessage()).color(RED));
+        }
+    }
+
+    private void handleVerifyIndex(PlayerRef playerData, String option) {
+        boolean repair = "repair".equalsIgnoreCase(option);
+        TownStorage.ClaimIndexReport report = plugin.getTownStorage().verifyClaimIndex(repair);
+
+        playerData.sendMessage(Message.raw("========== Claim Index Check ==========").color(GOLD));
+        playerData.sendMessage(Message.raw("Town claims: " + report.expected() + ", indexed: " + report.indexed()).color(WHITE));
+        if (report.isConsistent()) {
+            playerData.sendMessage(Message.raw("Index is consistent.").color(GREEN));
+            return;
+        }
+
+        sendIndexProblems(playerData, "Missing", report.missing());
+        sendIndexProblems(playerData, "Stale", report.stale());
+        sendIndexProblems(playerData, "Wrong town", report.mismatched());
+        if (report.repaired()) {
+            playerData.sendMessage(Message.raw("Index repaired.").color(GREEN));
+        } else {
+            playerData.sendMessage(Message.raw("Run /townadmin verifyindex repair to fix.").color(YELLOW));
+        }
+    }
+
+    private void sendIndexProblems(PlayerRef playerData, String label, java.util.List<String> problems) {
+        if (problems.isEmpty()) return;
+        playerData.sendMessage(Message.raw(label + ": " + problems.size()).color(RED));
+        for (int i = 0; i < Math.min(5, problems.size()); i++) {
+            playerData.sendMessage(Message.raw("  " + problems.get(i)).color(GRAY));
+        }
+    }
+
     private void handleSet(PlayerRef playerData, String setting, String value) {
         if (setting == null || setting.isEmpty()) {
             playerData.sendMessage(Message.raw("Usage: /townadmin set <towncost|claimcost|wildminy> <value>").color(RED));
@@ -379,7 +567,7 @@ public class TownyAdminCommand extends AbstractPlayerCommand {
         if (townName == null || townName.isEmpty()) {
             playerData.sendMessage(Message.raw("Usage: /townadmin restore <townname> [date]").color(RED));
             playerData.sendMessage(Message.raw("  Without date: Restores from .bak file").color(GRAY));
-            playerData.sendMessage(Message.raw("  With date: Restores from daily backup (e.g., 2026-01-16)").color(GRAY));
+            playerData.sendMessage(Message.raw("  With date: Restores from a backup snapshot (e.g., 2026-01-16 or 2026-01-16_04-00-00)").color(GRAY));
             return;
         }
 
@@ -413,7 +601,7 @@ public class TownyAdminCommand extends AbstractPlayerCommand {
         java.util.List<String> backups = townStorage.listBackups();
 
         if (backups.isEmpty()) {
-            playerData.sendMessage(Message.raw("No daily backups available.").color(YELLOW));
+            playerData.sendMessage(Message.raw("No backups available.").color(YELLOW));
             return;
         }
 
@@ -421,7 +609,7 @@ public class TownyAdminCommand extends AbstractPlayerCommand {
         for (String backup : backups) {
             playerData.sendMessage(Message.raw("  " + backup).color(WHITE));
         }
-        playerData.sendMessage(Message.raw("Use /townadmin restore <town> <date> to restore").color(GRAY));
+        playerData.sendMessage(Message.raw("Use /townadmin restore <town> <snapshot or date> to restore").color(GRAY));
 
         // If town specified, check for .bak file
         if (townName != null && !townName.isEmpty()) {
@@ -595,6 +783,16 @@ public class TownyAdminCommand extends AbstractPlayerCommand {
         playerData.sendMessage(Message.raw("  Force save all towns and claims to disk").color(GRAY));
         playerData.sendMessage(Message.raw("/townadmin debug").color(WHITE));
         playerData.sendMessage(Message.raw("  Show debug info (town count, claims, residents)").color(GRAY));
+        playerData.sendMessage(Message.raw("/townadmin verifyindex [repair]").color(WHITE));
+        playerData.sendMessage(Message.raw("  Rebuild the town claim index and compare it with the live one").color(GRAY));
+        playerData.sendMessage(Message.raw("/townadmin snapshot <write|json|bench>").color(WHITE));
+        playerData.sendMessage(Message.raw("  Convert claims to/from the binary snapshot, or benchmark loading").color(GRAY));
+        playerData.sendMessage(Message.raw("/townadmin playtime [count]").color(WHITE));
+        playerData.sendMessage(Message.raw("  List the players with the most playtime").color(GRAY));
+        playerData.sendMessage(Message.raw("/townadmin jobs [run <job>]").color(WHITE));
+        playerData.sendMessage(Message.raw("  Show background job timings, or run a job now").color(GRAY));
+        playerData.sendMessage(Message.raw("/townadmin perf [reset]").color(WHITE));
+        playerData.sendMessage(Message.raw("  Show latency percentiles and rates of hot paths").color(GRAY));
         playerData.sendMessage(Message.raw("/townadmin spawn <townname>").color(WHITE));
         playerData.sendMessage(Message.raw("  Teleport to any town (instant, no cooldown)").color(GRAY));
 
@@ -618,7 +816,7 @@ public class TownyAdminCommand extends AbstractPlayerCommand {
         playerData.sendMessage(Message.raw("/townadmin backup").color(WHITE));
         playerData.sendMessage(Message.raw("  Create a backup of all towns now").color(GRAY));
         playerData.sendMessage(Message.raw("/townadmin backups [townname]").color(WHITE));
-        playerData.sendMessage(Message.raw("  List available daily backups").color(GRAY));
+        playerData.sendMessage(Message.raw("  List available backup snapshots").color(GRAY));
         playerData.sendMessage(Message.raw("/townadmin restore <townname>").color(WHITE));
         playerData.sendMessage(Message.raw("  Restore town from .bak file (last save)").color(GRAY));
         playerData.sendMessage(Message.raw("/townadmin restore <townname> <date>").color(WHITE));
@@ -15,6 +15,13 @@ import java.util.Set;
  * Block IDs can be exact matches or partial matches (contains).
  */
 public class BlockGroups {
+
+    // Group bits returned by getGroups
+    public static final int USE = 1;
+    public static final int CONTAINER = 1 << 1;
+    public static final int WORKSTATION = 1 << 2;
+    public static final int CROP = 1 << 3;
+
     private final Path configFile;
     private final Gson gson;
 
@@ -30,12 +37,16 @@ public class BlockGroups {
     private Set<String> workstationPatterns;
     private Set<String> cropPatterns;      // Patterns for crop blocks
 
+    // All of the above compiled into one table, swapped on every change
+    private volatile BlockPatternTable table;
+
     public BlockGroups(Path dataDirectory) {
         this.configFile = dataDirectory.resolve("block_groups.json");
         this.gson = new GsonBuilder().setPrettyPrinting().create();
 
         initDefaults();
         load();
+        compile();
     }
 
     private void initDefaults() {
@@ -297,110 +308,76 @@ public class BlockGroups {
     }
 
     /**
-     * Check if a block requires USE trust level (doors, buttons, etc.)
+     * Reload the block groups from file.
      */
-    public boolean isUseBlock(BlockType blockType) {
-        if (blockType == null) return false;
-
-        // Check built-in door detection
-        if (blockType.isDoor()) return true;
-
-        String id = blockType.getId();
-        if (id == null) return false;
+    public void reload() {
+        initDefaults();
+        load();
+        compile();
+    }
 
-        String lowerID = id.toLowerCase();
+    /**
+     * Compiles the current block ids and patterns into a new lookup table.
+     */
+    private void compile() {
+        BlockPatternTable.Builder builder = BlockPatternTable.builder(true);
+        addGroup(builder, useBlocks, usePatterns, USE);
+        addGroup(builder, containerBlocks, containerPatterns, CONTAINER);
+        addGroup(builder, workstationBlocks, workstationPatterns, WORKSTATION);
+        addGroup(builder, cropBlocks, cropPatterns, CROP);
+        table = builder.build();
+    }
 
-        // Check exact matches
-        if (useBlocks.contains(id) || useBlocks.contains(lowerID)) {
-            return true;
+    private static void addGroup(BlockPatternTable.Builder builder, Set<String> blocks, Set<String> patterns, int group) {
+        for (String block : blocks) {
+            builder.exact(block, group);
         }
-
-        // Check patterns
-        for (String pattern : usePatterns) {
-            if (lowerID.contains(pattern)) {
-                return true;
-            }
+        for (String pattern : patterns) {
+            builder.pattern(pattern, group);
         }
-
-        return false;
     }
 
     /**
-     * Check if a block requires CONTAINER trust level (chests, etc.)
+     * Gets all groups a block belongs to as a bitmask of {@link #USE}, {@link #CONTAINER},
+     * {@link #WORKSTATION} and {@link #CROP}. Resolved once per block id.
      */
-    public boolean isContainerBlock(BlockType blockType) {
-        if (blockType == null) return false;
+    public int getGroups(BlockType blockType) {
+        if (blockType == null) return 0;
 
-        String id = blockType.getId();
-        if (id == null) return false;
+        int groups = table.getGroups(blockType.getId());
 
-        String lowerID = id.toLowerCase();
+        // Check built-in door detection
+        if (blockType.isDoor()) groups |= USE;
 
-        // Check exact matches
-        if (containerBlocks.contains(id) || containerBlocks.contains(lowerID)) {
-            return true;
-        }
+        return groups;
+    }
 
-        // Check patterns
-        for (String pattern : containerPatterns) {
-            if (lowerID.contains(pattern)) {
-                return true;
-            }
-        }
+    /**
+     * Check if a block requires USE trust level (doors, buttons, etc.)
+     */
+    public boolean isUseBlock(BlockType blockType) {
+        return (getGroups(blockType) & USE) != 0;
+    }
 
-        return false;
+    /**
+     * Check if a block requires CONTAINER trust level (chests, etc.)
+     */
+    public boolean isContainerBlock(BlockType blockType) {
+        return (getGroups(blockType) & CONTAINER) != 0;
     }
 
     /**
      * Check if a block requires WORKSTATION trust level (crafting tables, anvils, etc.)
      */
     public boolean isWorkstationBlock(BlockType blockType) {
-        if (blockType == null) return false;
-
-        String id = blockType.getId();
-        if (id == null) return false;
-
-        String lowerID = id.toLowerCase();
-
-        // Check exact matches
-        if (workstationBlocks.contains(id) || workstationBlocks.contains(lowerID)) {
-            return true;
-        }
-
-        // Check patterns
-        for (String pattern : workstationPatterns) {
-            if (lowerID.contains(pattern)) {
-                return true;
-            }
-        }
-
-        return false;
+        return (getGroups(blockType) & WORKSTATION) != 0;
     }
 
     /**
      * Check if a block is a crop (requires BUILD trust level to interact/harvest).
      */
     public boolean isCropBlock(BlockType blockType) {
-        if (blockType == null) return false;
-
-        String id = blockType.getId();
-        if (id == null) return false;
-
-        String lowerID = id.toLowerCase();
-
-        // Check exact matches
-        if (cropBlocks.contains(id) || cropBlocks.contains(lowerID)) {
-            return true;
-        }
-
-        // Check patterns
-        for (String pattern : cropPatterns) {
-            if (lowerID.contains(pattern)) {
-                return true;
-            }
-        }
-
-        return false;
+        return (getGroups(blockType) & CROP) != 0;
     }
 
     /**
@@ -409,6 +386,7 @@ public class BlockGroups {
     public void addUseBlock(String blockId) {
         useBlocks.add(blockId);
         save();
+        compile();
     }
 
     /**
@@ -417,6 +395,7 @@ public class BlockGroups {
     public void addUsePattern(String pattern) {
         usePatterns.add(pattern.toLowerCase());
         save();
+        compile();
     }
 
     /**
@@ -425,6 +404,7 @@ public class BlockGroups {
     public void addContainerBlock(String blockId) {
         containerBlocks.add(blockId);
         save();
+        compile();
     }
 
     /**
@@ -433,6 +413,7 @@ public class BlockGroups {
     public void addContainerPattern(String pattern) {
         containerPatterns.add(pattern.toLowerCase());
         save();
+        compile();
     }
 
     /**
@@ -441,6 +422,7 @@ public class BlockGroups {
     public void addWorkstationBlock(String blockId) {
         workstationBlocks.add(blockId);
         save();
+        compile();
     }
 
     /**
@@ -449,6 +431,7 @@ public class BlockGroups {
     public void addWorkstationPattern(String pattern) {
         workstationPatterns.add(pattern.toLowerCase());
         save();
+        compile();
     }
 
     public Set<String> getUseBlocks() {
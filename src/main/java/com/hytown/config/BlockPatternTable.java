@@ -0,0 +1,241 @@
+package com.hytown.config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled block/item id classification table.
+ *
+ * Exact ids and "contains" patterns are compiled once into an exact-match map and an
+ * Aho-Corasick automaton, so classifying an id scans it once instead of once per
+ * pattern. Each id's result (a bitmask of the groups it belongs to plus the first
+ * matching pattern) is then materialized on first use, making later lookups a single
+ * map probe. Tables are immutable; owners rebuild and swap them on config changes.
+ */
+public final class BlockPatternTable {
+
+    public static final int NO_MATCH = -1;
+
+    private static final int MAX_MATERIALIZED = 65536;   // ids are asset ids, far fewer in practice
+
+    private static final Entry NO_ENTRY = new Entry(0, NO_MATCH);
+
+    private final boolean ignoreCase;
+    private final Map<String, Entry> exact;
+
+    // Automaton: per state, sorted transition chars and targets, failure link and merged outputs
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] failure;
+    private final int[] outputGroups;
+    private final int[] outputFirst;
+
+    private final Map<String, Entry> materialized = new ConcurrentHashMap<>();
+
+    private BlockPatternTable(Builder builder) {
+        this.ignoreCase = builder.ignoreCase;
+        this.exact = Map.copyOf(builder.exact);
+
+        int states = builder.trie.size();
+        this.transitionChars = new char[states][];
+        this.transitionTargets = new int[states][];
+        this.failure = new int[states];
+        this.outputGroups = new int[states];
+        this.outputFirst = new int[states];
+
+        for (int state = 0; state < states; state++) {
+            Builder.Node node = builder.trie.get(state);
+            char[] chars = new char[node.next.size()];
+            int i = 0;
+            for (char c : node.next.keySet()) {
+                chars[i++] = c;
+            }
+            Arrays.sort(chars);
+            int[] targets = new int[chars.length];
+            for (i = 0; i < chars.length; i++) {
+                targets[i] = node.next.get(chars[i]);
+            }
+            transitionChars[state] = chars;
+            transitionTargets[state] = targets;
+            outputGroups[state] = node.groups;
+            outputFirst[state] = node.first;
+        }
+
+        // Breadth-first failure links; a state's outputs include those of its failure state
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int target : transitionTargets[0]) {
+            failure[target] = 0;
+            queue.add(target);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            char[] chars = transitionChars[state];
+            int[] targets = transitionTargets[state];
+            for (int i = 0; i < chars.length; i++) {
+                int target = targets[i];
+                int fallback = failure[state];
+                int link;
+                while ((link = step(fallback, chars[i])) < 0 && fallback != 0) {
+                    fallback = failure[fallback];
+                }
+                failure[target] = link >= 0 ? link : 0;
+                outputGroups[target] |= outputGroups[failure[target]];
+                outputFirst[target] = minMatch(outputFirst[target], outputFirst[failure[target]]);
+                queue.add(target);
+            }
+        }
+    }
+
+    /**
+     * Creates a builder.
+     * @param ignoreCase match patterns and exact ids case-insensitively
+     */
+    public static Builder builder(boolean ignoreCase) {
+        return new Builder(ignoreCase);
+    }
+
+    /**
+     * Gets the bitmask of groups an id belongs to (0 for none or null).
+     */
+    public int getGroups(String id) {
+        return classify(id).groups;
+    }
+
+    /**
+     * Gets the index of the first pattern (in the order added) matching an id.
+     * An exact id match wins over patterns. Returns {@link #NO_MATCH} if none match.
+     */
+    public int getFirstMatch(String id) {
+        return classify(id).first;
+    }
+
+    /**
+     * Gets the number of ids classified so far (for debugging).
+     */
+    public int getMaterializedCount() {
+        return materialized.size();
+    }
+
+    private Entry classify(String id) {
+        if (id == null) return NO_ENTRY;
+        Entry entry = materialized.get(id);
+        if (entry == null) {
+            entry = compute(id);
+            if (materialized.size() < MAX_MATERIALIZED) {
+                materialized.put(id, entry);
+            }
+        }
+        return entry;
+    }
+
+    private Entry compute(String id) {
+        String text = ignoreCase ? id.toLowerCase(Locale.ROOT) : id;
+
+        int groups = 0;
+        int first = NO_MATCH;
+        Entry exactEntry = exact.get(id);
+        if (exactEntry != null) {
+            groups = exactEntry.groups;
+            first = exactEntry.first;
+        }
+        if (ignoreCase && !text.equals(id) && (exactEntry = exact.get(text)) != null) {
+            groups |= exactEntry.groups;
+            first = minMatch(first, exactEntry.first);
+        }
+
+        int patternFirst = NO_MATCH;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = step(state, c)) < 0 && state != 0) {
+                state = failure[state];
+            }
+            state = next >= 0 ? next : 0;
+            groups |= outputGroups[state];
+            patternFirst = minMatch(patternFirst, outputFirst[state]);
+        }
+
+        return new Entry(groups, first != NO_MATCH ? first : patternFirst);
+    }
+
+    private int step(int state, char c) {
+        int i = Arrays.binarySearch(transitionChars[state], c);
+        return i >= 0 ? transitionTargets[state][i] : -1;
+    }
+
+    private static int minMatch(int a, int b) {
+        if (a == NO_MATCH) return b;
+        if (b == NO_MATCH) return a;
+        return Math.min(a, b);
+    }
+
+    private record Entry(int groups, int first) {}
+
+    /**
+     * Collects exact ids and patterns, each with the groups it puts a match in.
+     */
+    public static final class Builder {
+        private final boolean ignoreCase;
+        private final Map<String, Entry> exact = new HashMap<>();
+        private final List<Node> trie = new ArrayList<>();
+        private int patternCount;
+
+        private Builder(boolean ignoreCase) {
+            this.ignoreCase = ignoreCase;
+            trie.add(new Node());
+        }
+
+        /**
+         * Adds an id that must match exactly.
+         * Exact ids share the pattern index sequence, so they can be returned by getFirstMatch.
+         */
+        public Builder exact(String id, int groups) {
+            if (id == null || id.isEmpty()) return this;
+            int index = patternCount++;
+            exact.merge(id, new Entry(groups, index),
+                    (a, b) -> new Entry(a.groups | b.groups, minMatch(a.first, b.first)));
+            return this;
+        }
+
+        /**
+         * Adds a pattern matching any id that contains it.
+         */
+        public Builder pattern(String pattern, int groups) {
+            if (pattern == null || pattern.isEmpty()) return this;
+            int index = patternCount++;
+            String text = ignoreCase ? pattern.toLowerCase(Locale.ROOT) : pattern;
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                Node node = trie.get(state);
+                Integer next = node.next.get(text.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new Node());
+                    node.next.put(text.charAt(i), next);
+                }
+                state = next;
+            }
+            Node end = trie.get(state);
+            end.groups |= groups;
+            end.first = minMatch(end.first, index);
+            return this;
+        }
+
+        public BlockPatternTable build() {
+            return new BlockPatternTable(this);
+        }
+
+        private static final class Node {
+            private final Map<Character, Integer> next = new HashMap<>();
+            private int groups;
+            private int first = NO_MATCH;
+        }
+    }
+}
@@ -19,6 +19,7 @@ public class PluginConfig {
     private final Path configFile;
     private final Gson gson;
     private ConfigData config;
+    private volatile BlockPatternTable griefingTable;
 
     public PluginConfig(Path dataDirectory) {
         this.configFile = dataDirectory.resolve("config.json");
@@ -76,6 +77,20 @@ public class PluginConfig {
         } else {
             save();
         }
+        compileGriefingTable();
+    }
+
+    /**
+     * Compiles the griefing deny list into a lookup table. Called after the list is loaded.
+     */
+    private void compileGriefingTable() {
+        BlockPatternTable.Builder builder = BlockPatternTable.builder(true);
+        if (config.wildBlockDenyList != null) {
+            for (String pattern : config.wildBlockDenyList) {
+                builder.pattern(pattern, 1);
+            }
+        }
+        griefingTable = builder.build();
     }
 
     /**
@@ -119,6 +134,38 @@ public class PluginConfig {
         return config.claimBufferSize;
     }
 
+    public boolean isBinaryClaimSnapshotEnabled() {
+        return config.binaryClaimSnapshot;
+    }
+
+    public int getClaimCacheMaxPlayers() {
+        return config.claimCacheMaxPlayers;
+    }
+
+    public long getClaimCacheMaxWeight() {
+        return config.claimCacheMaxWeight;
+    }
+
+    public int getPlaytimeCacheMaxPlayers() {
+        return config.playtimeCacheMaxPlayers;
+    }
+
+    public String getStorageFsync() {
+        return config.storageFsync;
+    }
+
+    public int getBackupKeepHourly() {
+        return config.backupKeepHourly;
+    }
+
+    public int getBackupKeepDaily() {
+        return config.backupKeepDaily;
+    }
+
+    public int getBackupKeepWeekly() {
+        return config.backupKeepWeekly;
+    }
+
     // ===== TOWN GETTERS =====
 
     public double getTownCreationCost() {
@@ -133,6 +180,10 @@ public class PluginConfig {
         return config.maxTownClaims;
     }
 
+    public int getMaxAreaClaimChunks() {
+        return Math.max(1, config.maxAreaClaimChunks);
+    }
+
     public double getTownUpkeepBase() {
         return config.townUpkeepBase;
     }
@@ -145,6 +196,28 @@ public class PluginConfig {
         return config.townUpkeepHour;
     }
 
+    public int getTransactionRetentionDays() {
+        return config.transactionRetentionDays;
+    }
+
+    public long getTransactionLogMaxKilobytes() {
+        return config.transactionLogMaxKilobytes;
+    }
+
+    // ===== SCHEDULER GETTERS =====
+
+    public String getUpkeepCheckCron() {
+        return config.upkeepCheckCron;
+    }
+
+    public int getAutoSaveIntervalMinutes() {
+        return Math.max(1, config.autoSaveIntervalMinutes);
+    }
+
+    public int getAutoSaveJitterSeconds() {
+        return Math.max(0, config.autoSaveJitterSeconds);
+    }
+
     // ===== WILD PROTECTION GETTERS =====
 
     public boolean isWildProtectionEnabled() {
@@ -171,14 +244,7 @@ public class PluginConfig {
      * Check if an item ID matches any griefing pattern.
      */
     public boolean isGriefingBlock(String itemId) {
-        if (itemId == null) return false;
-        String lower = itemId.toLowerCase();
-        for (String pattern : config.wildBlockDenyList) {
-            if (lower.contains(pattern.toLowerCase())) {
-                return true;
-            }
-        }
-        return false;
+        return griefingTable.getGroups(itemId) != 0;
     }
 
     // ===== SETTERS (auto-save) =====
@@ -323,16 +389,32 @@ public class PluginConfig {
         int maxClaims = 50;
         int playtimeSaveInterval = 60;
         int claimBufferSize = 2;  // Buffer zone in chunks around claims where others can't claim
+        boolean binaryClaimSnapshot = false;  // Load claims from claims/claims.bin on startup (written on shutdown)
+        int claimCacheMaxPlayers = 2048;      // Offline players' claim data kept in memory (online players always are)
+        long claimCacheMaxWeight = 131072;    // Claims + trusted players kept in memory
+        int playtimeCacheMaxPlayers = 1024;   // Offline players' playtime kept in memory between saves
+        String storageFsync = "file";         // Force saved files to disk: "none", "file" or "file+dir"
+        int backupKeepHourly = 24;            // Backup snapshots kept: newest per hour for this many hours,
+        int backupKeepDaily = 7;              // per day for this many days,
+        int backupKeepWeekly = 4;             // and per week for this many weeks
 
         // Town settings
         double townCreationCost = 1000.0;
         double townClaimCost = 50.0;
         int maxTownClaims = 100;
+        int maxAreaClaimChunks = 64;         // Largest selection /town claim area accepts at once
 
         // Town upkeep settings
         double townUpkeepBase = 100.0;       // Base daily upkeep for having a town
         double townUpkeepPerClaim = 50.0;    // Upkeep per claimed chunk (50/day/plot)
         int townUpkeepHour = 12;             // Hour of day (0-23) when upkeep is collected
+        int transactionRetentionDays = 365;  // Drop town transactions older than this (0 = keep forever)
+        long transactionLogMaxKilobytes = 4096; // Max transaction log size per town (0 = unlimited)
+
+        // Background jobs
+        String upkeepCheckCron = "*/5 * * * *"; // When to check upkeep (minute hour day month weekday)
+        int autoSaveIntervalMinutes = 5;        // Minutes between the end of one auto-save and the next
+        int autoSaveJitterSeconds = 30;         // Random extra delay so auto-save doesn't line up with other jobs
 
         // Wild protection settings
         boolean wildProtectionEnabled = true;
@@ -9,6 +9,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -39,9 +40,16 @@ public class WildernessHarvestConfig {
     private final Random random = new Random();
 
     // Parsed config data
-    private long harvestCooldownMs = 500;
-    private double messageChance = 0.2;
-    private final Map<String, List<DropEntry>> dropsByPattern = new HashMap<>();
+    private volatile long harvestCooldownMs = 500;
+    private volatile double messageChance = 0.2;
+    private volatile DropTable dropTable = new DropTable(Map.of(), List.of(), BlockPatternTable.builder(false).build());
+
+    /**
+     * Drops by pattern plus the patterns compiled for matching block names.
+     * A match index from the table is the drop table id into {@code matchPatterns}.
+     */
+    private record DropTable(Map<String, List<DropEntry>> dropsByPattern, List<String> matchPatterns,
+                             BlockPatternTable table) {}
 
     /**
      * Represents a single item drop with chance and amount range.
@@ -96,7 +104,7 @@ public class WildernessHarvestConfig {
             String json = Files.readString(configFile);
             ConfigData data = gson.fromJson(json, ConfigData.class);
             applyConfigData(data);
-            logger.atInfo().log("[WildernessHarvest] Loaded %d block patterns from config", dropsByPattern.size());
+            logger.atInfo().log("[WildernessHarvest] Loaded %d block patterns from config", dropTable.dropsByPattern().size());
         } catch (Exception e) {
             logger.atWarning().withCause(e).log("[WildernessHarvest] Failed to load config, using defaults");
             applyConfigData(buildDefaultConfigData());
@@ -105,6 +113,7 @@ public class WildernessHarvestConfig {
 
     /**
      * Apply a ConfigData to the runtime fields.
+     * The drop table is rebuilt and swapped in one step, so lookups never see a partial reload.
      */
     private void applyConfigData(ConfigData data) {
         if (data == null) {
@@ -112,14 +121,30 @@ public class WildernessHarvestConfig {
         }
         this.harvestCooldownMs = data.harvestCooldownMs;
         this.messageChance = data.messageChance;
-        dropsByPattern.clear();
+
+        Map<String, List<DropEntry>> dropsByPattern = new LinkedHashMap<>();
+        List<String> patterns = new ArrayList<>();
+        BlockPatternTable.Builder builder = BlockPatternTable.builder(false);
         if (data.drops != null) {
             for (BlockDropConfig blockDrop : data.drops) {
-                if (blockDrop.blockPattern != null && blockDrop.items != null) {
-                    dropsByPattern.put(blockDrop.blockPattern, blockDrop.items);
+                if (blockDrop.blockPattern != null && blockDrop.items != null
+                        && dropsByPattern.put(blockDrop.blockPattern, blockDrop.items) == null) {
+                    patterns.add(blockDrop.blockPattern);
                 }
             }
         }
+
+        // Exact names are checked before patterns; a match index maps back to its pattern
+        List<String> matchTargets = new ArrayList<>();
+        for (String pattern : patterns) {
+            builder.exact(pattern, 0);
+            matchTargets.add(pattern);
+        }
+        for (String pattern : patterns) {
+            builder.pattern(pattern, 0);
+            matchTargets.add(pattern);
+        }
+        this.dropTable = new DropTable(dropsByPattern, List.copyOf(matchTargets), builder.build());
     }
 
     /**
@@ -224,21 +249,9 @@ public class WildernessHarvestConfig {
      * @return The matching pattern key, or null if no match
      */
     public String getMatchingPattern(String blockName) {
-        if (blockName == null) return null;
-
-        // Check for exact match first
-        if (dropsByPattern.containsKey(blockName)) {
-            return blockName;
-        }
-
-        // Check if block name contains any pattern
-        for (String pattern : dropsByPattern.keySet()) {
-            if (blockName.contains(pattern)) {
-                return pattern;
-            }
-        }
-
-        return null;
+        DropTable drops = dropTable;
+        int match = drops.table().getFirstMatch(blockName);
+        return match != BlockPatternTable.NO_MATCH ? drops.matchPatterns().get(match) : null;
     }
 
     /**
@@ -247,7 +260,7 @@ public class WildernessHarvestConfig {
      * @return List of drop entries, or empty list if none
      */
     public List<DropEntry> getDropsForPattern(String pattern) {
-        return dropsByPattern.getOrDefault(pattern, new ArrayList<>());
+        return dropTable.dropsByPattern().getOrDefault(pattern, List.of());
     }
 
     /**
@@ -284,13 +297,13 @@ public class WildernessHarvestConfig {
      * Check if any drops are configured.
      */
     public boolean hasDrops() {
-        return !dropsByPattern.isEmpty();
+        return !dropTable.dropsByPattern().isEmpty();
     }
 
     /**
      * Get all configured patterns (for debug/admin).
      */
     public List<String> getConfiguredPatterns() {
-        return new ArrayList<>(dropsByPattern.keySet());
+        return new ArrayList<>(dropTable.dropsByPattern().keySet());
     }
 }
@@ -0,0 +1,602 @@
+package com.hytown.data;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content-addressed, deduplicated backup store (backups/ in the data directory).
+ *
+ * Files are split into fixed-size chunks; each chunk is stored once, deflate-compressed,
+ * under the SHA-256 of its content (objects/ab/ab12...). A snapshot is a manifest listing
+ * every backed-up file with its chunk hashes (snapshots/yyyy-MM-dd_HH-mm-ss.json). A file
+ * whose size and modification time match the previous snapshot reuses its chunk list
+ * without being read, and a changed file only writes the chunks that are new, so a backup
+ * costs I/O proportional to what changed.
+ *
+ * Snapshots are thinned to the newest one per hour, day and ISO week, keeping the
+ * configured number of each; chunks no longer referenced by any snapshot are deleted.
+ *
+ * Not thread-safe for use across processes; within one process all operations are
+ * serialized.
+ */
+public class BackupStore {
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    private static final int ID_TIME_LENGTH = 19;   // "yyyy-MM-dd_HH-mm-ss", before any "-n" suffix
+
+    /**
+     * A directory (relative to the data directory) whose matching files are backed up,
+     * non-recursively. prepare, if set, runs first, e.g. to flush pending writes.
+     */
+    public record Source(String directory, Predicate<String> include, Runnable prepare) {}
+
+    /**
+     * One backed-up file. path is relative to the data directory, with '/' separators.
+     */
+    public record FileEntry(String path, long size, long modified, List<String> chunks) {}
+
+    public record Manifest(String id, long createdAt, List<FileEntry> files) {
+        public FileEntry get(String path) {
+            for (FileEntry file : files) {
+                if (file.path().equals(path)) return file;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Outcome of {@link #create()}. created is false if nothing changed since the last snapshot.
+     */
+    public record Result(String id, boolean created, int files, int changedFiles, int newChunks, long bytesWritten) {}
+
+    private final Path dataDirectory;
+    private final Path objectsDirectory;
+    private final Path snapshotsDirectory;
+    private final List<Source> sources = new CopyOnWriteArrayList<>();
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final byte[] chunkBuffer = new byte[CHUNK_SIZE];
+    private final byte[] compressBuffer = new byte[CHUNK_SIZE];
+    private final MessageDigest digest;
+
+    private volatile int keepHourly = 24;
+    private volatile int keepDaily = 7;
+    private volatile int keepWeekly = 4;
+    private Manifest latest;   // cached newest snapshot, loaded lazily
+
+    public BackupStore(Path dataDirectory, Path backupDirectory) {
+        this.dataDirectory = dataDirectory;
+        this.objectsDirectory = backupDirectory.resolve("objects");
+        this.snapshotsDirectory = backupDirectory.resolve("snapshots");
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void addSource(Source source) {
+        sources.add(source);
+    }
+
+    /**
+     * Sets how many hourly, daily and weekly snapshots to keep. The newest snapshot is always kept.
+     */
+    public void setRetention(int hourly, int daily, int weekly) {
+        this.keepHourly = Math.max(0, hourly);
+        this.keepDaily = Math.max(0, daily);
+        this.keepWeekly = Math.max(0, weekly);
+    }
+
+    // ==================== SNAPSHOTS ====================
+
+    /**
+     * Backs up every source and writes a snapshot, unless nothing changed since the last one.
+     * Then applies retention.
+     */
+    public synchronized Result create() throws IOException {
+        for (Source source : sources) {
+            if (source.prepare() != null) {
+                try {
+                    source.prepare().run();
+                } catch (RuntimeException e) {
+                    System.err.println("[BackupStore] Preparing " + source.directory() + " failed: " + e.getMessage());
+                }
+            }
+        }
+
+        Manifest previous = latest();
+        Map<String, FileEntry> previousFiles = new HashMap<>();
+        if (previous != null) {
+            for (FileEntry file : previous.files()) {
+                previousFiles.put(file.path(), file);
+            }
+        }
+
+        List<FileEntry> files = new ArrayList<>();
+        int changedFiles = 0;
+        int newChunks = 0;
+        long bytesWritten = 0;
+        for (Source source : sources) {
+            Path directory = dataDirectory.resolve(source.directory());
+            if (!Files.isDirectory(directory)) continue;
+            List<Path> candidates;
+            try (Stream<Path> stream = Files.list(directory)) {
+                candidates = stream.filter(p -> source.include().test(p.getFileName().toString()))
+                        .sorted()
+                        .toList();
+            }
+            for (Path file : candidates) {
+                String path = source.directory() + "/" + file.getFileName();
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;   // deleted since listing
+                }
+                if (!attributes.isRegularFile()) continue;
+
+                long modified = attributes.lastModifiedTime().toMillis();
+                FileEntry unchanged = previousFiles.get(path);
+                if (unchanged != null && unchanged.size() == attributes.size() && unchanged.modified() == modified) {
+                    files.add(unchanged);
+                    continue;
+                }
+
+                List<String> chunks = new ArrayList<>();
+                long size = 0;
+                try (InputStream in = Files.newInputStream(file)) {
+                    int n;
+                    while ((n = in.readNBytes(chunkBuffer, 0, CHUNK_SIZE)) > 0) {
+                        String hash = hash(chunkBuffer, n);
+                        long written = storeChunk(hash, chunkBuffer, n);
+                        if (written > 0) {
+                            newChunks++;
+                            bytesWritten += written;
+                        }
+                        chunks.add(hash);
+                        size += n;
+                    }
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                changedFiles++;
+                files.add(new FileEntry(path, size, modified, List.copyOf(chunks)));
+            }
+        }
+
+        if (previous != null && previous.files().equals(files)) {
+            return new Result(previous.id(), false, files.size(), 0, 0, 0);
+        }
+
+        long now = System.currentTimeMillis();
+        Manifest manifest = new Manifest(newId(now), now, List.copyOf(files));
+        writeManifest(manifest);
+        latest = manifest;
+        prune();
+        return new Result(manifest.id(), true, files.size(), changedFiles, newChunks, bytesWritten);
+    }
+
+    /**
+     * Stores the matching files of a directory (outside the sources) as a snapshot with the
+     * given id and time. Used to import old-style backup folders.
+     * @param prefix path prefix the files get in the manifest, e.g. "towns"
+     */
+    public synchronized void importDirectory(String id, long createdAt, Path directory, String prefix,
+                                             Predicate<String> include) throws IOException {
+        List<FileEntry> files = new ArrayList<>();
+        List<Path> candidates;
+        try (Stream<Path> stream = Files.list(directory)) {
+            candidates = stream.filter(Files::isRegularFile)
+                    .filter(p -> include.test(p.getFileName().toString()))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : candidates) {
+            List<String> chunks = new ArrayList<>();
+            long size = 0;
+            try (InputStream in = Files.newInputStream(file)) {
+                int n;
+                while ((n = in.readNBytes(chunkBuffer, 0, CHUNK_SIZE)) > 0) {
+                    String hash = hash(chunkBuffer, n);
+                    storeChunk(hash, chunkBuffer, n);
+                    chunks.add(hash);
+                    size += n;
+                }
+            }
+            files.add(new FileEntry(prefix + "/" + file.getFileName(), size,
+                    Files.getLastModifiedTime(file).toMillis(), List.copyOf(chunks)));
+        }
+        writeManifest(new Manifest(id, createdAt, List.copyOf(files)));
+        latest = null;
+        prune();
+    }
+
+    /**
+     * Snapshot ids, newest first.
+     */
+    public synchronized List<String> list() {
+        if (!Files.isDirectory(snapshotsDirectory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> stream = Files.list(snapshotsDirectory)) {
+            return stream.map(p -> p.getFileName().toString())
+                    .filter(name -> name.endsWith(".json"))
+                    .map(name -> name.substring(0, name.length() - ".json".length()))
+                    .sorted(Comparator.reverseOrder())
+                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Resolves a snapshot id, or a prefix of one such as a date ("2026-01-16"), to the newest
+     * matching snapshot id.
+     * @return the id, or null if no snapshot matches
+     */
+    public synchronized String resolve(String idOrPrefix) {
+        if (idOrPrefix == null || idOrPrefix.isEmpty()) return null;
+        for (String id : list()) {
+            if (id.startsWith(idOrPrefix)) return id;
+        }
+        return null;
+    }
+
+    /**
+     * Paths in a snapshot under a directory (e.g. "towns"), or an empty list if the snapshot
+     * does not exist.
+     */
+    public synchronized List<String> listFiles(String id, String directory) throws IOException {
+        Manifest manifest = loadManifest(id);
+        List<String> paths = new ArrayList<>();
+        if (manifest == null) return paths;
+        String prefix = directory + "/";
+        for (FileEntry file : manifest.files()) {
+            if (file.path().startsWith(prefix)) {
+                paths.add(file.path());
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Writes a file from a snapshot to target (via a temp file and rename), checking every
+     * chunk against its hash.
+     * @return false if the snapshot or the file in it does not exist
+     * @throws IOException if a chunk is missing or damaged
+     */
+    public synchronized boolean restoreFile(String id, String path, Path target) throws IOException {
+        Manifest manifest = loadManifest(id);
+        FileEntry file = manifest != null ? manifest.get(path) : null;
+        if (file == null) return false;
+
+        Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                for (String hash : file.chunks()) {
+                    int n;
+                    try (InputStream in = new InflaterInputStream(Files.newInputStream(objectPath(hash)))) {
+                        n = in.readNBytes(chunkBuffer, 0, CHUNK_SIZE);
+                    } catch (NoSuchFileException e) {
+                        throw new IOException("Missing backup chunk " + hash + " of " + path + " in " + id);
+                    }
+                    if (!hash(chunkBuffer, n).equals(hash)) {
+                        throw new IOException("Damaged backup chunk " + hash + " of " + path + " in " + id);
+                    }
+                    out.write(chunkBuffer, 0, n);
+                }
+            }
+            try {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private Manifest latest() {
+        if (latest == null) {
+            for (String id : list()) {
+                try {
+                    latest = loadManifest(id);
+                    if (latest != null) break;
+                } catch (IOException e) {
+                    System.err.println("[BackupStore] Skipping unreadable snapshot " + id + ": " + e.getMessage());
+                }
+            }
+        }
+        return latest;
+    }
+
+    private String newId(long now) {
+        String base = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault()).format(ID_FORMAT);
+        String id = base;
+        for (int n = 2; Files.exists(manifestPath(id)); n++) {
+            id = base + "-" + n;
+        }
+        return id;
+    }
+
+    // ==================== RETENTION ====================
+
+    /**
+     * Keeps the newest snapshot of each of the last keepHourly hours, keepDaily days and
+     * keepWeekly ISO weeks (plus the newest overall), deletes the rest and then any chunk
+     * that no remaining snapshot references.
+     */
+    private void prune() throws IOException {
+        List<String> ids = list();
+        if (ids.size() <= 1) return;
+
+        Set<String> keep = new LinkedHashSet<>();
+        keep.add(ids.get(0));
+        keepNewestPerBucket(ids, keepHourly, time -> time.toLocalDate() + "T" + time.getHour(), keep);
+        keepNewestPerBucket(ids, keepDaily, time -> time.toLocalDate().toString(), keep);
+        keepNewestPerBucket(ids, keepWeekly,
+                time -> time.get(IsoFields.WEEK_BASED_YEAR) + "-W" + time.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR), keep);
+
+        boolean deleted = false;
+        for (String id : ids) {
+            if (!keep.contains(id) && parseTime(id) != null) {
+                Files.deleteIfExists(manifestPath(id));
+                deleted = true;
+            }
+        }
+        if (deleted) {
+            collectGarbage();
+        }
+    }
+
+    private static void keepNewestPerBucket(List<String> ids, int count, Function<LocalDateTime, String> bucketOf,
+                                            Set<String> keep) {
+        Set<String> buckets = new HashSet<>();
+        for (String id : ids) {
+            if (buckets.size() >= count) return;
+            LocalDateTime time = parseTime(id);
+            if (time != null && buckets.add(bucketOf.apply(time))) {
+                keep.add(id);
+            }
+        }
+    }
+
+    private static LocalDateTime parseTime(String id) {
+        if (id.length() < ID_TIME_LENGTH) return null;
+        try {
+            return LocalDateTime.parse(id.substring(0, ID_TIME_LENGTH), ID_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Deletes chunks not referenced by any snapshot. Keeps everything if a snapshot cannot be
+     * read, since its chunks are unknown.
+     */
+    private void collectGarbage() throws IOException {
+        Set<String> referenced = new HashSet<>();
+        for (String id : list()) {
+            Manifest manifest;
+            try {
+                manifest = loadManifest(id);
+            } catch (IOException e) {
+                System.err.println("[BackupStore] Not collecting chunks, snapshot " + id + " is unreadable: " + e.getMessage());
+                return;
+            }
+            if (manifest != null) {
+                for (FileEntry file : manifest.files()) {
+                    referenced.addAll(file.chunks());
+                }
+            }
+        }
+
+        if (!Files.isDirectory(objectsDirectory)) return;
+        try (Stream<Path> stream = Files.walk(objectsDirectory)) {
+            for (Path object : (Iterable<Path>) stream::iterator) {
+                if (Files.isRegularFile(object) && !referenced.contains(object.getFileName().toString())) {
+                    Files.deleteIfExists(object);
+                }
+            }
+        }
+        try (Stream<Path> stream = Files.list(objectsDirectory)) {
+            for (Path fanout : (Iterable<Path>) stream::iterator) {
+                try (Stream<Path> entries = Files.list(fanout)) {
+                    if (entries.findAny().isEmpty()) {
+                        Files.deleteIfExists(fanout);
+                    }
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    // ==================== CHUNKS ====================
+
+    private Path objectPath(String hash) {
+        return objectsDirectory.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private String hash(byte[] data, int length) {
+        digest.reset();
+        digest.update(data, 0, length);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Stores a chunk unless one with the same hash exists.
+     * @return compressed bytes written, 0 if it already existed
+     */
+    private long storeChunk(String hash, byte[] data, int length) throws IOException {
+        Path object = objectPath(hash);
+        if (Files.exists(object)) return 0;
+
+        Files.createDirectories(object.getParent());
+        Path tempFile = object.resolveSibling(hash + ".tmp");
+        long written = 0;
+        try {
+            deflater.reset();
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(compressBuffer);
+                    out.write(compressBuffer, 0, n);
+                    written += n;
+                }
+            }
+            try {
+                Files.move(tempFile, object, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, object, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return written;
+    }
+
+    // ==================== MANIFESTS ====================
+
+    private Path manifestPath(String id) {
+        return snapshotsDirectory.resolve(id + ".json");
+    }
+
+    private void writeManifest(Manifest manifest) throws IOException {
+        Files.createDirectories(snapshotsDirectory);
+        ChecksummedFiles.write(manifestPath(manifest.id()), ChecksummedFiles.FsyncPolicy.FILE, writer -> {
+            JsonWriter out = new JsonWriter(writer);
+            out.beginObject();
+            out.name("id").value(manifest.id());
+            out.name("createdAt").value(manifest.createdAt());
+            out.name("files").beginArray();
+            for (FileEntry file : manifest.files()) {
+                out.beginObject();
+                out.name("path").value(file.path());
+                out.name("size").value(file.size());
+                out.name("modified").value(file.modified());
+                out.name("chunks").beginArray();
+                for (String hash : file.chunks()) {
+                    out.value(hash);
+                }
+                out.endArray();
+                out.endObject();
+            }
+            out.endArray();
+            out.endObject();
+        });
+    }
+
+    /**
+     * @return the manifest, or null if there is no snapshot with this id
+     */
+    private Manifest loadManifest(String id) throws IOException {
+        Path file = manifestPath(id);
+        if (!Files.exists(file)) return null;
+        try {
+            return ChecksummedFiles.read(file, reader -> readManifest(id, new JsonReader(reader)));
+        } catch (JsonParseException | IllegalStateException | NumberFormatException e) {
+            throw new IOException("Unreadable backup snapshot " + id + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Manifest readManifest(String id, JsonReader in) throws IOException {
+        long createdAt = 0;
+        List<FileEntry> files = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "createdAt" -> createdAt = in.nextLong();
+                case "files" -> {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        files.add(readFileEntry(in));
+                    }
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Manifest(id, createdAt, List.copyOf(files));
+    }
+
+    private static FileEntry readFileEntry(JsonReader in) throws IOException {
+        String path = null;
+        long size = 0;
+        long modified = 0;
+        List<String> chunks = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "path" -> path = in.nextString();
+                case "size" -> size = in.nextLong();
+                case "modified" -> modified = in.nextLong();
+                case "chunks" -> {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        chunks.add(in.nextString());
+                    }
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (path == null) {
+            throw new IllegalStateException("File entry without a path");
+        }
+        return new FileEntry(path, size, modified, List.copyOf(chunks));
+    }
+
+    /**
+     * Time a legacy "yyyy-MM-dd" backup folder name stands for, or -1 if it is not a date.
+     */
+    public static long parseLegacyDate(String name) {
+        try {
+            return LocalDate.parse(name).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    public static String legacyId(String date) {
+        return date + "_00-00-00";
+    }
+}
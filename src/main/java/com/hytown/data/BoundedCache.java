@@ -0,0 +1,229 @@
+package com.hytown.data;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Size- and weight-bounded LRU cache for storage classes.
+ *
+ * Once either bound is exceeded, the least recently used entries are evicted, except
+ * entries the owner reports as pinned (online players, data in use), which are moved
+ * to the most recently used end instead. The eviction listener is how owners write
+ * back dirty entries; it runs with the cache locked, so it must only hand the entry
+ * off (a map put, a mapped-buffer write), never do file I/O.
+ *
+ * Loaders run without the lock; if two threads load the same key, the first value
+ * stored wins and the other is discarded.
+ */
+public final class BoundedCache<K, V> {
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToIntFunction<V> weigher;
+    private final BiPredicate<K, V> pinned;
+    private final BiConsumer<K, V> onEvict;
+
+    private final LinkedHashMap<K, Node<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxEntries maximum number of unpinned entries kept
+     * @param maxWeight maximum total weight kept
+     * @param weigher weight of a value, re-measured whenever it is accessed
+     * @param pinned entries that must not be evicted
+     * @param onEvict called for each evicted entry, with the cache locked
+     */
+    public BoundedCache(int maxEntries, long maxWeight, ToIntFunction<V> weigher,
+                        BiPredicate<K, V> pinned, BiConsumer<K, V> onEvict) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxWeight = Math.max(1, maxWeight);
+        this.weigher = weigher;
+        this.pinned = pinned;
+        this.onEvict = onEvict;
+    }
+
+    // ==================== ACCESS ====================
+
+    /**
+     * Gets a value, loading and storing it on a miss.
+     */
+    public V get(K key, Function<K, V> loader) {
+        synchronized (this) {
+            Node<V> node = entries.get(key);
+            if (node != null) {
+                hits.incrementAndGet();
+                reweigh(node);
+                return node.value;
+            }
+        }
+        misses.incrementAndGet();
+        V loaded = loader.apply(key);
+        synchronized (this) {
+            Node<V> node = entries.get(key);
+            if (node != null) {
+                return node.value;
+            }
+            insert(key, loaded);
+            return loaded;
+        }
+    }
+
+    /**
+     * Gets a cached value without loading or counting a hit or miss.
+     */
+    public synchronized V peek(K key) {
+        Node<V> node = entries.get(key);
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * Stores a value, replacing any cached one without notifying the eviction listener.
+     */
+    public synchronized void put(K key, V value) {
+        Node<V> old = entries.remove(key);
+        if (old != null) {
+            weight -= old.weight;
+        }
+        insert(key, value);
+    }
+
+    /**
+     * Atomically computes a new value from the cached one (null if absent).
+     * Returning null removes the entry without notifying the eviction listener.
+     */
+    public synchronized V compute(K key, Function<V, V> function) {
+        Node<V> old = entries.remove(key);
+        if (old != null) {
+            weight -= old.weight;
+        }
+        V value = function.apply(old != null ? old.value : null);
+        if (value != null) {
+            insert(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes an entry without notifying the eviction listener.
+     */
+    public synchronized V remove(K key) {
+        Node<V> node = entries.remove(key);
+        if (node == null) return null;
+        weight -= node.weight;
+        return node.value;
+    }
+
+    /**
+     * Gets the cached keys, least recently used first.
+     */
+    public synchronized List<K> keys() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    /**
+     * Gets a copy of the cached entries, least recently used first.
+     */
+    public synchronized Map<K, V> snapshot() {
+        Map<K, V> copy = new LinkedHashMap<>();
+        for (Map.Entry<K, Node<V>> entry : entries.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().value);
+        }
+        return copy;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // ==================== EVICTION ====================
+
+    private void insert(K key, V value) {
+        Node<V> node = new Node<>(value, weigher.applyAsInt(value));
+        entries.put(key, node);
+        weight += node.weight;
+        trim();
+    }
+
+    private void reweigh(Node<V> node) {
+        int current = weigher.applyAsInt(node.value);
+        if (current != node.weight) {
+            boolean grew = current > node.weight;
+            weight += current - node.weight;
+            node.weight = current;
+            if (grew) {
+                trim();
+            }
+        }
+    }
+
+    /**
+     * Evicts least recently used entries until both bounds hold or only pinned ones are left.
+     * The most recently used entry is always kept, so a value just returned by get is still cached.
+     */
+    public synchronized void trim() {
+        if (entries.size() <= maxEntries && weight <= maxWeight) return;
+
+        List<K> keep = null;
+        Iterator<Map.Entry<K, Node<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext() && (entries.size() > maxEntries || weight > maxWeight)) {
+            Map.Entry<K, Node<V>> entry = it.next();
+            if (!it.hasNext()) break;
+            Node<V> node = entry.getValue();
+            if (pinned.test(entry.getKey(), node.value)) {
+                if (keep == null) keep = new ArrayList<>();
+                keep.add(entry.getKey());
+                continue;
+            }
+            it.remove();
+            weight -= node.weight;
+            evictions.incrementAndGet();
+            onEvict.accept(entry.getKey(), node.value);
+        }
+
+        // Pinned entries count as used, so the next trim does not walk them again
+        if (keep != null) {
+            for (K key : keep) {
+                entries.get(key);
+            }
+        }
+    }
+
+    /**
+     * Gets cache statistics for debugging.
+     */
+    public String getStats() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        int size;
+        long currentWeight;
+        synchronized (this) {
+            size = entries.size();
+            currentWeight = weight;
+        }
+        return String.format("entries=%d/%d, weight=%d/%d, hits=%d, misses=%d, evictions=%d, hitRate=%.1f%%",
+                size, maxEntries, currentWeight, maxWeight, hitCount, misses.get(), evictions.get(),
+                total > 0 ? hitCount * 100.0 / total : 0.0);
+    }
+
+    private static final class Node<V> {
+        final V value;
+        int weight;
+
+        Node(V value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
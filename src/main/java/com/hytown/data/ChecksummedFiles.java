@@ -0,0 +1,297 @@
+package com.hytown.data;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Atomic text file writes with a CRC32C trailer, and reads that verify it.
+ *
+ * The checksum is computed while the content streams to a temp file, then appended as a
+ * fixed-size last line and the temp file is renamed over the target:
+ *
+ *   {...json...}
+ *   //crc32c:1a2b3c4d
+ *
+ * The trailer is a JSON comment, so lenient JSON readers still accept the file. A file
+ * without a trailer (written by an older version, or edited by hand with the line removed)
+ * is read unverified. A file whose trailer does not match its content fails with
+ * {@link ChecksumException}; callers move it to their corrupted directory.
+ */
+public final class ChecksummedFiles {
+
+    private static final byte[] TRAILER_PREFIX = "\n//crc32c:".getBytes(StandardCharsets.US_ASCII);
+    private static final int TRAILER_SIZE = TRAILER_PREFIX.length + 8 + 1;
+
+    private static final DateTimeFormatter CORRUPTED_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private ChecksummedFiles() {}
+
+    /**
+     * When writes are forced to disk.
+     */
+    public enum FsyncPolicy {
+        /** Leave it to the OS; a crash can lose recent writes, but never leaves a torn file in place. */
+        NONE,
+        /** Force the file contents before the rename. */
+        FILE,
+        /** Also force the directory after the rename, so the rename itself survives a crash. */
+        FILE_AND_DIR;
+
+        /**
+         * Parses "none", "file" or "file+dir" (case-insensitive); anything else is FILE.
+         */
+        public static FsyncPolicy fromString(String value) {
+            if (value == null) return FILE;
+            return switch (value.trim().toLowerCase()) {
+                case "none" -> NONE;
+                case "file+dir", "file_and_dir", "dir" -> FILE_AND_DIR;
+                default -> FILE;
+            };
+        }
+    }
+
+    /**
+     * Thrown when a file's content does not match its checksum trailer.
+     */
+    public static class ChecksumException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public ChecksumException(Path file, long expected, long actual) {
+            super(String.format("Checksum mismatch in %s: expected %08x, got %08x", file, expected, actual));
+        }
+    }
+
+    /**
+     * Writes the content. Must not close the writer.
+     */
+    @FunctionalInterface
+    public interface WriteBody {
+        void write(Writer writer) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface ReadBody<T> {
+        T read(Reader reader) throws IOException;
+    }
+
+    // ==================== WRITING ====================
+
+    /**
+     * Streams content to {@code file + ".tmp"}, appends the trailer, forces it per the policy
+     * and renames it over the file. On any failure, including an exception thrown by the body,
+     * the temp file is deleted and the target is left untouched.
+     */
+    public static void write(Path file, FsyncPolicy policy, WriteBody body) throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                OutputStream out = Channels.newOutputStream(channel);
+                CRC32C crc = new CRC32C();
+                Writer writer = new BufferedWriter(new OutputStreamWriter(
+                        new CheckedOutputStream(out, crc), StandardCharsets.UTF_8));
+                body.write(writer);
+                writer.flush();
+
+                out.write(trailer(crc.getValue()));
+                if (policy != FsyncPolicy.NONE) {
+                    channel.force(false);
+                }
+            }
+
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ignored) {}
+            throw e;
+        }
+
+        if (policy == FsyncPolicy.FILE_AND_DIR) {
+            forceDirectory(file.toAbsolutePath().getParent());
+        }
+    }
+
+    private static byte[] trailer(long crc) {
+        byte[] trailer = new byte[TRAILER_SIZE];
+        System.arraycopy(TRAILER_PREFIX, 0, trailer, 0, TRAILER_PREFIX.length);
+        byte[] hex = String.format("%08x", crc).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(hex, 0, trailer, TRAILER_PREFIX.length, 8);
+        trailer[TRAILER_SIZE - 1] = '\n';
+        return trailer;
+    }
+
+    /**
+     * Forces a directory's entries to disk. Not supported on every platform (e.g. Windows),
+     * where it is skipped.
+     */
+    public static void forceDirectory(Path directory) {
+        if (directory == null) return;
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {}
+    }
+
+    // ==================== READING ====================
+
+    /**
+     * Reads a file through the body, verifying the trailer if there is one. The body sees
+     * only the content before the trailer, and the checksum covers everything it could have
+     * read, so content after e.g. the end of a JSON value is checked too.
+     *
+     * @throws ChecksumException if the trailer does not match
+     */
+    public static <T> T read(Path file, ReadBody<T> body) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long expected = readTrailer(channel, size);
+            long contentSize = expected >= 0 ? size - TRAILER_SIZE : size;
+
+            CRC32C crc = new CRC32C();
+            InputStream in = new CheckedInputStream(
+                    new LimitedInputStream(Channels.newInputStream(channel), contentSize), crc);
+            T result;
+            try {
+                result = body.read(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+            } catch (IOException | RuntimeException e) {
+                // A damaged file usually fails to parse first; report it as the checksum failure it is
+                checkRemaining(file, in, crc, expected);
+                throw e;
+            }
+            checkRemaining(file, in, crc, expected);
+            return result;
+        }
+    }
+
+    private static void checkRemaining(Path file, InputStream in, CRC32C crc, long expected) throws IOException {
+        if (expected < 0) return;
+        in.transferTo(OutputStream.nullOutputStream());
+        if (crc.getValue() != expected) {
+            throw new ChecksumException(file, expected, crc.getValue());
+        }
+    }
+
+    /**
+     * @return the checksum in the trailer, or -1 if the file has none
+     */
+    private static long readTrailer(FileChannel channel, long size) throws IOException {
+        if (size < TRAILER_SIZE) return -1;
+        ByteBuffer buffer = ByteBuffer.allocate(TRAILER_SIZE);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, size - TRAILER_SIZE + buffer.position()) < 0) return -1;
+        }
+        byte[] bytes = buffer.array();
+        for (int i = 0; i < TRAILER_PREFIX.length; i++) {
+            if (bytes[i] != TRAILER_PREFIX[i]) return -1;
+        }
+        if (bytes[TRAILER_SIZE - 1] != '\n') return -1;
+        try {
+            return Long.parseLong(new String(bytes, TRAILER_PREFIX.length, 8, StandardCharsets.US_ASCII), 16);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Checks a file's trailer without keeping its content.
+     * @return true if the file has a matching trailer or none at all
+     */
+    public static boolean verify(Path file) throws IOException {
+        try {
+            read(file, reader -> reader.transferTo(Writer.nullWriter()));
+            return true;
+        } catch (ChecksumException e) {
+            return false;
+        }
+    }
+
+    // ==================== CORRUPTED FILES ====================
+
+    /**
+     * Moves a file that failed to load into a corrupted directory for manual recovery,
+     * as {@code <name>_<reason>_<timestamp>.<ext>}.
+     * @return the new location, or null if it could not be moved
+     */
+    public static Path moveToCorrupted(Path file, Path corruptedDirectory, String reason) {
+        try {
+            Files.createDirectories(corruptedDirectory);
+            String fileName = file.getFileName().toString();
+            int dot = fileName.indexOf('.');
+            String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+            String extension = dot > 0 ? fileName.substring(dot) : "";
+            String timestamp = LocalDateTime.now().format(CORRUPTED_TIMESTAMP);
+            Path dest = corruptedDirectory.resolve(base + "_" + reason + "_" + timestamp + extension);
+            Files.move(file, dest, StandardCopyOption.REPLACE_EXISTING);
+            return dest;
+        } catch (IOException e) {
+            System.err.println("[ChecksummedFiles] Failed to move corrupted file " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads at most a fixed number of bytes from the underlying stream.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = super.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) return -1;
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) remaining -= n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+    }
+}
@@ -0,0 +1,616 @@
+package com.hytown.data;
+
+import com.hytown.util.ChunkUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Unified per-world chunk ownership index shared by TownStorage and ClaimStorage.
+ *
+ * Chunks are keyed by a packed long (see {@link ChunkUtil#packChunk}) in a primitive
+ * open-addressing map, and each entry holds both the owning town and the personal
+ * claim owner. A protection check resolves both in a single probe without building
+ * a "world:x,z" claim key, so hot-path lookups allocate nothing.
+ *
+ * Reads take a per-world read lock, so the async map renderer can query safely
+ * while commands modify claims.
+ *
+ * Each region also keeps a count of chunks per distinct personal owner, kept up to
+ * date on every put/remove. Buffer-zone checks ("is anyone else within r chunks?")
+ * answer whole regions from that summary and only scan the regions cut by the
+ * rectangle's edges.
+ */
+public class ChunkOwnershipIndex {
+
+    /**
+     * Ownership of a single chunk. Either field may be null, but never both.
+     * Town claims normally also carry the mayor as personal owner.
+     */
+    public record ChunkOwner(Town town, UUID personalOwner) {
+        public boolean isTownClaim() {
+            return town != null;
+        }
+    }
+
+    /**
+     * Callback for iterating the claims in a world.
+     */
+    @FunctionalInterface
+    public interface ChunkVisitor {
+        void visit(int chunkX, int chunkZ, ChunkOwner owner);
+    }
+
+    /**
+     * Notified after the ownership of a chunk changes, outside the index lock.
+     */
+    public interface ChangeListener {
+        void chunkChanged(String world, int chunkX, int chunkZ);
+
+        /**
+         * Called when many chunks changed at once (town reload).
+         */
+        void allChanged();
+    }
+
+    /**
+     * Claims are also bucketed into regions of 2^REGION_SHIFT x 2^REGION_SHIFT chunks
+     * so area queries only touch populated regions.
+     */
+    public static final int REGION_SHIFT = 4;
+
+    private final Map<String, WorldIndex> worlds = new ConcurrentHashMap<>();
+    private final AtomicInteger townClaimCount = new AtomicInteger();
+    private final AtomicInteger personalClaimCount = new AtomicInteger();
+    private volatile ChangeListener changeListener;
+
+    /**
+     * Sets the listener notified of ownership changes (null to remove).
+     */
+    public void setChangeListener(ChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Gets the ownership of a chunk, or null if the chunk is wilderness.
+     */
+    public ChunkOwner get(String world, int chunkX, int chunkZ) {
+        if (world == null) return null;
+        WorldIndex index = worlds.get(world);
+        return index != null ? index.get(ChunkUtil.packChunk(chunkX, chunkZ)) : null;
+    }
+
+    /**
+     * Gets the town that owns a chunk, or null if not a town claim.
+     */
+    public Town getTown(String world, int chunkX, int chunkZ) {
+        ChunkOwner owner = get(world, chunkX, chunkZ);
+        return owner != null ? owner.town() : null;
+    }
+
+    /**
+     * Gets the personal claim owner of a chunk, or null if not personally claimed.
+     */
+    public UUID getPersonalOwner(String world, int chunkX, int chunkZ) {
+        ChunkOwner owner = get(world, chunkX, chunkZ);
+        return owner != null ? owner.personalOwner() : null;
+    }
+
+    /**
+     * Visits every claimed chunk in a world. The visitor runs under the world's
+     * read lock, so it must not modify the index.
+     */
+    public void forEach(String world, ChunkVisitor visitor) {
+        WorldIndex index = worlds.get(world);
+        if (index != null) {
+            index.forEach(visitor);
+        }
+    }
+
+    /**
+     * Iterates the claims of a world inside a chunk rectangle (inclusive), under the read lock.
+     * Only the 16x16-chunk regions overlapping the rectangle that hold claims are visited,
+     * so the cost follows the number of nearby claims rather than the rectangle's area.
+     */
+    public void forEachInArea(String world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ,
+                              ChunkVisitor visitor) {
+        WorldIndex index = world != null ? worlds.get(world) : null;
+        if (index != null) {
+            index.forEachInArea(minChunkX, minChunkZ, maxChunkX, maxChunkZ, visitor);
+        }
+    }
+
+    /**
+     * Finds a personal claim owner other than the given player inside a chunk rectangle
+     * (inclusive), under the read lock. Regions fully inside the rectangle are decided
+     * from their owner summary; only regions on the rectangle's edges are scanned.
+     * @return another player's UUID with a claim in the area, or null if none
+     */
+    public UUID findOtherPersonalOwner(String world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ,
+                                       UUID excludeOwnerId) {
+        WorldIndex index = world != null ? worlds.get(world) : null;
+        return index != null ? index.findOtherOwner(minChunkX, minChunkZ, maxChunkX, maxChunkZ, excludeOwnerId) : null;
+    }
+
+    /**
+     * Gets a counter that changes whenever any claim in the world changes.
+     * Lets callers cache results derived from a world's claims.
+     */
+    public long getVersion(String world) {
+        WorldIndex index = world != null ? worlds.get(world) : null;
+        return index != null ? index.version : 0;
+    }
+
+    /**
+     * Gets the names of all worlds that have (or had) claims.
+     */
+    public Set<String> getWorlds() {
+        return new HashSet<>(worlds.keySet());
+    }
+
+    public int getTownClaimCount() {
+        return townClaimCount.get();
+    }
+
+    public int getPersonalClaimCount() {
+        return personalClaimCount.get();
+    }
+
+    // ==================== TOWN CLAIMS ====================
+
+    /**
+     * Marks a chunk as owned by a town, keeping any personal owner.
+     */
+    public void putTown(String world, int chunkX, int chunkZ, Town town) {
+        if (world == null || town == null) return;
+        WorldIndex index = worlds.computeIfAbsent(world, k -> new WorldIndex());
+        long key = ChunkUtil.packChunk(chunkX, chunkZ);
+        long stamp = index.lock.writeLock();
+        try {
+            ChunkOwner existing = index.chunks.get(key);
+            if (existing == null || existing.town() == null) {
+                townClaimCount.incrementAndGet();
+            }
+            index.put(key, new ChunkOwner(town, existing != null ? existing.personalOwner() : null));
+        } finally {
+            index.lock.unlockWrite(stamp);
+        }
+        notifyChanged(world, chunkX, chunkZ);
+    }
+
+    /**
+     * Marks a chunk as owned by a town using a "world:chunkX,chunkZ" claim key.
+     */
+    public void putTown(String claimKey, Town town) {
+        String world = Town.parseClaimWorld(claimKey);
+        int[] coords = Town.parseClaimCoords(claimKey);
+        if (world != null && coords != null) {
+            putTown(world, coords[0], coords[1], town);
+        }
+    }
+
+    /**
+     * Marks the claims of many towns at once, as on load. Each world's write lock is
+     * taken once, and the listener gets a single allChanged() instead of a call per chunk.
+     */
+    public void putTowns(Collection<Town> towns) {
+        Map<String, Long2ObjectOpenHashMap<Town>> byWorld = new HashMap<>();
+        for (Town town : towns) {
+            Set<String> claimKeys = town.getClaimKeys();
+            if (claimKeys == null) continue;
+            for (String claimKey : claimKeys) {
+                String world = Town.parseClaimWorld(claimKey);
+                int[] coords = Town.parseClaimCoords(claimKey);
+                if (world != null && coords != null) {
+                    byWorld.computeIfAbsent(world, k -> new Long2ObjectOpenHashMap<>())
+                            .put(ChunkUtil.packChunk(coords[0], coords[1]), town);
+                }
+            }
+        }
+        for (Map.Entry<String, Long2ObjectOpenHashMap<Town>> entry : byWorld.entrySet()) {
+            WorldIndex index = worlds.computeIfAbsent(entry.getKey(), k -> new WorldIndex());
+            long stamp = index.lock.writeLock();
+            try {
+                for (Long2ObjectMap.Entry<Town> claim : entry.getValue().long2ObjectEntrySet()) {
+                    long key = claim.getLongKey();
+                    ChunkOwner existing = index.chunks.get(key);
+                    if (existing == null || existing.town() == null) {
+                        townClaimCount.incrementAndGet();
+                    }
+                    index.put(key, new ChunkOwner(claim.getValue(), existing != null ? existing.personalOwner() : null));
+                }
+            } finally {
+                index.lock.unlockWrite(stamp);
+            }
+        }
+        notifyAllChanged(!byWorld.isEmpty());
+    }
+
+    /**
+     * Removes the town ownership of a chunk, keeping any personal owner.
+     * @return the town that owned the chunk, or null
+     */
+    public Town removeTown(String world, int chunkX, int chunkZ) {
+        WorldIndex index = world != null ? worlds.get(world) : null;
+        if (index == null) return null;
+        long key = ChunkUtil.packChunk(chunkX, chunkZ);
+        Town removed;
+        long stamp = index.lock.writeLock();
+        try {
+            ChunkOwner existing = index.chunks.get(key);
+            if (existing == null || existing.town() == null) {
+                return null;
+            }
+            townClaimCount.decrementAndGet();
+            if (existing.personalOwner() != null) {
+                index.put(key, new ChunkOwner(null, existing.personalOwner()));
+            } else {
+                index.remove(key);
+            }
+            removed = existing.town();
+        } finally {
+            index.lock.unlockWrite(stamp);
+        }
+        notifyChanged(world, chunkX, chunkZ);
+        return removed;
+    }
+
+    /**
+     * Removes the town ownership of a chunk using a "world:chunkX,chunkZ" claim key.
+     */
+    public Town removeTown(String claimKey) {
+        String world = Town.parseClaimWorld(claimKey);
+        int[] coords = Town.parseClaimCoords(claimKey);
+        if (world == null || coords == null) return null;
+        return removeTown(world, coords[0], coords[1]);
+    }
+
+    /**
+     * Removes the town ownership of a chunk only if it belongs to the given town,
+     * so a stale removal cannot clear another town's claim.
+     * @return true if the ownership was removed
+     */
+    public boolean removeTown(String claimKey, Town town) {
+        String world = Town.parseClaimWorld(claimKey);
+        int[] coords = Town.parseClaimCoords(claimKey);
+        WorldIndex index = world != null && coords != null ? worlds.get(world) : null;
+        if (index == null) return false;
+        long key = ChunkUtil.packChunk(coords[0], coords[1]);
+        long stamp = index.lock.writeLock();
+        try {
+            ChunkOwner existing = index.chunks.get(key);
+            if (existing == null || existing.town() != town) {
+                return false;
+            }
+            townClaimCount.decrementAndGet();
+            if (existing.personalOwner() != null) {
+                index.put(key, new ChunkOwner(null, existing.personalOwner()));
+            } else {
+                index.remove(key);
+            }
+        } finally {
+            index.lock.unlockWrite(stamp);
+        }
+        notifyChanged(world, coords[0], coords[1]);
+        return true;
+    }
+
+    /**
+     * Removes all town ownership from the index, keeping personal claims.
+     */
+    public void clearTowns() {
+        for (WorldIndex index : worlds.values()) {
+            long stamp = index.lock.writeLock();
+            try {
+                LongArrayList townOnly = new LongArrayList();
+                for (Long2ObjectMap.Entry<ChunkOwner> entry : index.chunks.long2ObjectEntrySet()) {
+                    if (entry.getValue().town() == null) continue;
+                    UUID personal = entry.getValue().personalOwner();
+                    if (personal != null) {
+                        entry.setValue(new ChunkOwner(null, personal));
+                    } else {
+                        townOnly.add(entry.getLongKey());
+                    }
+                }
+                for (int i = 0; i < townOnly.size(); i++) {
+                    index.remove(townOnly.getLong(i));
+                }
+                index.version++;
+            } finally {
+                index.lock.unlockWrite(stamp);
+            }
+        }
+        townClaimCount.set(0);
+        notifyAllChanged(true);
+    }
+
+    // ==================== PERSONAL CLAIMS ====================
+
+    /**
+     * Sets the personal claim owner of a chunk, keeping any town ownership.
+     */
+    public void putPersonalOwner(String world, int chunkX, int chunkZ, UUID ownerId) {
+        if (world == null || ownerId == null) return;
+        WorldIndex index = worlds.computeIfAbsent(world, k -> new WorldIndex());
+        long key = ChunkUtil.packChunk(chunkX, chunkZ);
+        long stamp = index.lock.writeLock();
+        try {
+            ChunkOwner existing = index.chunks.get(key);
+            if (existing == null || existing.personalOwner() == null) {
+                personalClaimCount.incrementAndGet();
+            }
+            index.put(key, new ChunkOwner(existing != null ? existing.town() : null, ownerId));
+        } finally {
+            index.lock.unlockWrite(stamp);
+        }
+        notifyChanged(world, chunkX, chunkZ);
+    }
+
+    /**
+     * Sets the personal owners of many chunks in a world at once, as on load
+     * (packed chunk key -> owner). Takes the world's write lock once.
+     */
+    public void putPersonalOwners(String world, Long2ObjectMap<UUID> owners) {
+        if (world == null || owners.isEmpty()) return;
+        WorldIndex index = worlds.computeIfAbsent(world, k -> new WorldIndex());
+        long stamp = index.lock.writeLock();
+        try {
+            for (Long2ObjectMap.Entry<UUID> entry : owners.long2ObjectEntrySet()) {
+                long key = entry.getLongKey();
+                ChunkOwner existing = index.chunks.get(key);
+                if (existing == null || existing.personalOwner() == null) {
+                    personalClaimCount.incrementAndGet();
+                }
+                index.put(key, new ChunkOwner(existing != null ? existing.town() : null, entry.getValue()));
+            }
+        } finally {
+            index.lock.unlockWrite(stamp);
+        }
+        notifyAllChanged(true);
+    }
+
+    /**
+     * Removes the personal claim owner of a chunk, keeping any town ownership.
+     * @return the previous personal owner, or null
+     */
+    public UUID removePersonalOwner(String world, int chunkX, int chunkZ) {
+        WorldIndex index = world != null ? worlds.get(world) : null;
+        if (index == null) return null;
+        long key = ChunkUtil.packChunk(chunkX, chunkZ);
+        UUID removed;
+        long stamp = index.lock.writeLock();
+        try {
+            ChunkOwner existing = index.chunks.get(key);
+            if (existing == null || existing.personalOwner() == null) {
+                return null;
+            }
+            personalClaimCount.decrementAndGet();
+            if (existing.town() != null) {
+                index.put(key, new ChunkOwner(existing.town(), null));
+            } else {
+                index.remove(key);
+            }
+            removed = existing.personalOwner();
+        } finally {
+            index.lock.unlockWrite(stamp);
+        }
+        notifyChanged(world, chunkX, chunkZ);
+        return removed;
+    }
+
+    // ==================== INTERNAL ====================
+
+    private void notifyChanged(String world, int chunkX, int chunkZ) {
+        ChangeListener listener = changeListener;
+        if (listener != null) {
+            listener.chunkChanged(world, chunkX, chunkZ);
+        }
+    }
+
+    private void notifyAllChanged(boolean changed) {
+        ChangeListener listener = changeListener;
+        if (changed && listener != null) {
+            listener.allChanged();
+        }
+    }
+
+    /**
+     * Claims for a single world, guarded by its own lock.
+     */
+    private static final class WorldIndex {
+        private final Long2ObjectOpenHashMap<ChunkOwner> chunks = new Long2ObjectOpenHashMap<>();
+        private final Long2ObjectOpenHashMap<LongOpenHashSet> regions = new Long2ObjectOpenHashMap<>(); // region -> chunk keys
+        private final Long2ObjectOpenHashMap<Object2IntOpenHashMap<UUID>> regionOwners = new Long2ObjectOpenHashMap<>(); // region -> personal owner -> chunks
+        private final StampedLock lock = new StampedLock();
+        private volatile long version; // written under the write lock
+
+        // put/remove must be called while holding the write lock
+
+        void put(long key, ChunkOwner owner) {
+            ChunkOwner previous = chunks.put(key, owner);
+            long region = regionOf(key);
+            if (previous == null) {
+                LongOpenHashSet regionChunks = regions.get(region);
+                if (regionChunks == null) {
+                    regionChunks = new LongOpenHashSet();
+                    regions.put(region, regionChunks);
+                }
+                regionChunks.add(key);
+            }
+            UUID previousOwner = previous != null ? previous.personalOwner() : null;
+            if (previousOwner != null && !previousOwner.equals(owner.personalOwner())) {
+                countOwner(region, previousOwner, -1);
+            }
+            if (owner.personalOwner() != null && !owner.personalOwner().equals(previousOwner)) {
+                countOwner(region, owner.personalOwner(), 1);
+            }
+            version++;
+        }
+
+        void remove(long key) {
+            ChunkOwner previous = chunks.remove(key);
+            if (previous == null) return;
+            long region = regionOf(key);
+            LongOpenHashSet regionChunks = regions.get(region);
+            if (regionChunks != null && regionChunks.remove(key) && regionChunks.isEmpty()) {
+                regions.remove(region);
+            }
+            if (previous.personalOwner() != null) {
+                countOwner(region, previous.personalOwner(), -1);
+            }
+            version++;
+        }
+
+        private void countOwner(long region, UUID ownerId, int delta) {
+            Object2IntOpenHashMap<UUID> owners = regionOwners.get(region);
+            if (owners == null) {
+                if (delta < 0) return;
+                owners = new Object2IntOpenHashMap<>(2);
+                regionOwners.put(region, owners);
+            }
+            if (owners.addTo(ownerId, delta) + delta <= 0) {
+                owners.removeInt(ownerId);
+                if (owners.isEmpty()) {
+                    regionOwners.remove(region);
+                }
+            }
+        }
+
+        UUID findOtherOwner(int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ, UUID excludeOwnerId) {
+            long stamp = lock.readLock();
+            try {
+                for (int regionX = minChunkX >> REGION_SHIFT; regionX <= maxChunkX >> REGION_SHIFT; regionX++) {
+                    for (int regionZ = minChunkZ >> REGION_SHIFT; regionZ <= maxChunkZ >> REGION_SHIFT; regionZ++) {
+                        long region = ChunkUtil.packChunk(regionX, regionZ);
+                        Object2IntOpenHashMap<UUID> owners = regionOwners.get(region);
+                        if (owners == null || (owners.size() == 1 && owners.containsKey(excludeOwnerId))) {
+                            continue;  // nobody else in this region
+                        }
+
+                        int regionMinX = regionX << REGION_SHIFT;
+                        int regionMinZ = regionZ << REGION_SHIFT;
+                        int regionMaxX = regionMinX + (1 << REGION_SHIFT) - 1;
+                        int regionMaxZ = regionMinZ + (1 << REGION_SHIFT) - 1;
+                        if (regionMinX >= minChunkX && regionMaxX <= maxChunkX
+                                && regionMinZ >= minChunkZ && regionMaxZ <= maxChunkZ) {
+                            // Region lies wholly inside the rectangle: the summary decides it
+                            for (Object2IntMap.Entry<UUID> entry : owners.object2IntEntrySet()) {
+                                if (!entry.getKey().equals(excludeOwnerId)) {
+                                    return entry.getKey();
+                                }
+                            }
+                            continue;
+                        }
+
+                        // Edge region: probe the overlap or the region's claims, whichever is smaller
+                        int fromX = Math.max(minChunkX, regionMinX);
+                        int toX = Math.min(maxChunkX, regionMaxX);
+                        int fromZ = Math.max(minChunkZ, regionMinZ);
+                        int toZ = Math.min(maxChunkZ, regionMaxZ);
+                        LongOpenHashSet regionChunks = regions.get(region);
+                        UUID found = (toX - fromX + 1) * (toZ - fromZ + 1) <= regionChunks.size()
+                                ? probeArea(fromX, fromZ, toX, toZ, excludeOwnerId)
+                                : scanRegion(regionChunks, fromX, fromZ, toX, toZ, excludeOwnerId);
+                        if (found != null) {
+                            return found;
+                        }
+                    }
+                }
+                return null;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private UUID probeArea(int fromX, int fromZ, int toX, int toZ, UUID excludeOwnerId) {
+            for (int chunkX = fromX; chunkX <= toX; chunkX++) {
+                for (int chunkZ = fromZ; chunkZ <= toZ; chunkZ++) {
+                    ChunkOwner owner = chunks.get(ChunkUtil.packChunk(chunkX, chunkZ));
+                    if (owner != null && owner.personalOwner() != null && !owner.personalOwner().equals(excludeOwnerId)) {
+                        return owner.personalOwner();
+                    }
+                }
+            }
+            return null;
+        }
+
+        private UUID scanRegion(LongOpenHashSet regionChunks, int fromX, int fromZ, int toX, int toZ, UUID excludeOwnerId) {
+            LongIterator iterator = regionChunks.iterator();
+            while (iterator.hasNext()) {
+                long key = iterator.nextLong();
+                int chunkX = ChunkUtil.unpackChunkX(key);
+                int chunkZ = ChunkUtil.unpackChunkZ(key);
+                if (chunkX < fromX || chunkX > toX || chunkZ < fromZ || chunkZ > toZ) continue;
+                UUID personal = chunks.get(key).personalOwner();
+                if (personal != null && !personal.equals(excludeOwnerId)) {
+                    return personal;
+                }
+            }
+            return null;
+        }
+
+        void forEachInArea(int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ, ChunkVisitor visitor) {
+            long stamp = lock.readLock();
+            try {
+                for (int regionX = minChunkX >> REGION_SHIFT; regionX <= maxChunkX >> REGION_SHIFT; regionX++) {
+                    for (int regionZ = minChunkZ >> REGION_SHIFT; regionZ <= maxChunkZ >> REGION_SHIFT; regionZ++) {
+                        LongOpenHashSet regionChunks = regions.get(ChunkUtil.packChunk(regionX, regionZ));
+                        if (regionChunks == null) continue;
+                        LongIterator iterator = regionChunks.iterator();
+                        while (iterator.hasNext()) {
+                            long key = iterator.nextLong();
+                            int chunkX = ChunkUtil.unpackChunkX(key);
+                            int chunkZ = ChunkUtil.unpackChunkZ(key);
+                            if (chunkX >= minChunkX && chunkX <= maxChunkX && chunkZ >= minChunkZ && chunkZ <= maxChunkZ) {
+                                visitor.visit(chunkX, chunkZ, chunks.get(key));
+                            }
+                        }
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private static long regionOf(long key) {
+            return ChunkUtil.packChunk(ChunkUtil.unpackChunkX(key) >> REGION_SHIFT, ChunkUtil.unpackChunkZ(key) >> REGION_SHIFT);
+        }
+
+        ChunkOwner get(long key) {
+            long stamp = lock.readLock();
+            try {
+                return chunks.get(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void forEach(ChunkVisitor visitor) {
+            long stamp = lock.readLock();
+            try {
+                for (Long2ObjectMap.Entry<ChunkOwner> entry : chunks.long2ObjectEntrySet()) {
+                    long key = entry.getLongKey();
+                    visitor.visit(ChunkUtil.unpackChunkX(key), ChunkUtil.unpackChunkZ(key), entry.getValue());
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.hytown.data;
+
+import com.hytown.util.ChunkUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary snapshot of all personal claim data (claims/claims.bin).
+ *
+ * Loading it is a single memory-mapped read instead of parsing index.json,
+ * names.json and one JSON file per player. JSON stays the source of truth:
+ * ClaimStorage deletes the snapshot as soon as it writes any JSON file, so a
+ * snapshot on disk always matches the JSON it was written from.
+ *
+ * Layout (big-endian):
+ *   header   int magic "HTCS", int version, long createdAt
+ *   strings  int count, then count x (u16 length, UTF-8 bytes)  - worlds and names
+ *   players  int count, then per player:
+ *              long uuidMsb, long uuidLsb, int nameIdx (-1 = none), byte hasClaimData
+ *              if hasClaimData:
+ *                int claimCount,   claimCount x (int worldIdx, long packedChunk, long claimedAt)
+ *                int trustedCount, trustedCount x (long msb, long lsb, int nameIdx, int levelIdx)
+ *   index    int worldCount, then per world:
+ *              int worldIdx, int count, count x (long packedChunk, int playerIdx)
+ *   trailer  int CRC32C of everything before it
+ */
+public final class ClaimSnapshot {
+
+    private static final int MAGIC = 0x48544353; // "HTCS"
+    private static final int VERSION = 2;
+
+    private ClaimSnapshot() {}
+
+    /**
+     * Write a snapshot atomically (temp file + rename).
+     *
+     * @param index   personal claim ownership to store
+     * @param players claim data per player; players missing here are stored as name-only
+     * @param names   player display names
+     */
+    public static void write(Path file, ChunkOwnershipIndex index, Map<UUID, PlayerClaims> players,
+                             Map<UUID, String> names) throws IOException {
+        // Player table: every player with claim data, an indexed claim or a name
+        Set<UUID> playerIds = new LinkedHashSet<>(players.keySet());
+        Map<String, List<long[]>> worldClaims = new HashMap<>(); // world -> {packed, owner msb, owner lsb}
+        for (String world : index.getWorlds()) {
+            List<long[]> entries = new ArrayList<>();
+            index.forEach(world, (chunkX, chunkZ, owner) -> {
+                UUID ownerId = owner.personalOwner();
+                if (ownerId != null) {
+                    entries.add(new long[] { ChunkUtil.packChunk(chunkX, chunkZ),
+                            ownerId.getMostSignificantBits(), ownerId.getLeastSignificantBits() });
+                }
+            });
+            if (!entries.isEmpty()) {
+                worldClaims.put(world, entries);
+                for (long[] entry : entries) {
+                    playerIds.add(new UUID(entry[1], entry[2]));
+                }
+            }
+        }
+        playerIds.addAll(names.keySet());
+
+        StringTable strings = new StringTable();
+        Map<UUID, Integer> playerIndexes = new HashMap<>();
+        int playerIndex = 0;
+        for (UUID playerId : playerIds) {
+            playerIndexes.put(playerId, playerIndex++);
+        }
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(fileOut, crc));
+
+            // Strings are collected while encoding the body, so encode body first
+            ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+            DataOutputStream body = new DataOutputStream(bodyBytes);
+
+            body.writeInt(playerIds.size());
+            for (UUID playerId : playerIds) {
+                body.writeLong(playerId.getMostSignificantBits());
+                body.writeLong(playerId.getLeastSignificantBits());
+                String name = names.get(playerId);
+                body.writeInt(name != null ? strings.indexOf(name) : -1);
+
+                PlayerClaims claims = players.get(playerId);
+                body.writeByte(claims != null ? 1 : 0);
+                if (claims == null) continue;
+
+                List<Claim> claimList = claims.getClaims();
+                body.writeInt(claimList.size());
+                for (Claim claim : claimList) {
+                    body.writeInt(strings.indexOf(claim.getWorld()));
+                    body.writeLong(ChunkUtil.packChunk(claim.getChunkX(), claim.getChunkZ()));
+                    body.writeLong(claim.getClaimedAt());
+                }
+
+                Map<UUID, TrustedPlayer> trusted = claims.getTrustedPlayersMap();
+                body.writeInt(trusted.size());
+                for (Map.Entry<UUID, TrustedPlayer> entry : trusted.entrySet()) {
+                    body.writeLong(entry.getKey().getMostSignificantBits());
+                    body.writeLong(entry.getKey().getLeastSignificantBits());
+                    body.writeInt(strings.indexOf(entry.getValue().getName()));
+                    body.writeInt(strings.indexOf(entry.getValue().getLevel().getKey()));
+                }
+            }
+
+            body.writeInt(worldClaims.size());
+            for (Map.Entry<String, List<long[]>> entry : worldClaims.entrySet()) {
+                body.writeInt(strings.indexOf(entry.getKey()));
+                body.writeInt(entry.getValue().size());
+                for (long[] claim : entry.getValue()) {
+                    body.writeLong(claim[0]);
+                    body.writeInt(playerIndexes.get(new UUID(claim[1], claim[2])));
+                }
+            }
+            body.flush();
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(strings.values.size());
+            for (String value : strings.values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+            bodyBytes.writeTo(out);
+            out.flush();
+
+            int checksum = (int) crc.getValue();
+            fileOut.write(new byte[] {
+                    (byte) (checksum >>> 24), (byte) (checksum >>> 16), (byte) (checksum >>> 8), (byte) checksum });
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Load a snapshot through a memory-mapped buffer into the given collections.
+     * Nothing is added unless the whole file decodes.
+     *
+     * @throws IOException if the file is missing, truncated, fails its checksum or is of an unknown version
+     */
+    public static void read(Path file, ChunkOwnershipIndex index, Map<UUID, PlayerClaims> players,
+                            Map<UUID, String> names) throws IOException {
+        Map<UUID, PlayerClaims> loadedPlayers = new HashMap<>();
+        Map<UUID, String> loadedNames = new HashMap<>();
+        List<String> claimWorlds = new ArrayList<>();
+        List<long[]> claimChunks = new ArrayList<>();
+        List<UUID[]> claimOwners = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                int contentSize = buffer.limit() - 4;
+                CRC32C crc = new CRC32C();
+                crc.update(buffer.slice(0, contentSize));
+                if ((int) crc.getValue() != buffer.getInt(contentSize)) {
+                    throw new IOException("Checksum mismatch in claim snapshot: " + file);
+                }
+                buffer.limit(contentSize);
+
+                if (buffer.getInt() != MAGIC) {
+                    throw new IOException("Not a claim snapshot: " + file);
+                }
+                int version = buffer.getInt();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported claim snapshot version " + version);
+                }
+                buffer.getLong(); // createdAt
+
+                String[] strings = new String[buffer.getInt()];
+                for (int i = 0; i < strings.length; i++) {
+                    byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+                    buffer.get(bytes);
+                    strings[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+
+                UUID[] playerIds = new UUID[buffer.getInt()];
+                for (int i = 0; i < playerIds.length; i++) {
+                    UUID playerId = new UUID(buffer.getLong(), buffer.getLong());
+                    playerIds[i] = playerId;
+                    int nameIdx = buffer.getInt();
+                    if (nameIdx >= 0) {
+                        loadedNames.put(playerId, strings[nameIdx]);
+                    }
+                    if (buffer.get() == 0) continue;
+
+                    PlayerClaims claims = new PlayerClaims(playerId);
+                    int claimCount = buffer.getInt();
+                    for (int c = 0; c < claimCount; c++) {
+                        String world = strings[buffer.getInt()];
+                        long packed = buffer.getLong();
+                        claims.addClaim(new Claim(world, ChunkUtil.unpackChunkX(packed),
+                                ChunkUtil.unpackChunkZ(packed), buffer.getLong()));
+                    }
+                    int trustedCount = buffer.getInt();
+                    for (int t = 0; t < trustedCount; t++) {
+                        UUID trustedId = new UUID(buffer.getLong(), buffer.getLong());
+                        String name = strings[buffer.getInt()];
+                        TrustLevel level = TrustLevel.fromString(strings[buffer.getInt()]);
+                        claims.addTrustedPlayer(trustedId, name, level != null ? level : TrustLevel.BUILD);
+                    }
+                    loadedPlayers.put(playerId, claims);
+                }
+
+                int worldCount = buffer.getInt();
+                for (int w = 0; w < worldCount; w++) {
+                    String world = strings[buffer.getInt()];
+                    long[] chunks = new long[buffer.getInt()];
+                    UUID[] owners = new UUID[chunks.length];
+                    for (int c = 0; c < chunks.length; c++) {
+                        chunks[c] = buffer.getLong();
+                        owners[c] = playerIds[buffer.getInt()];
+                    }
+                    claimWorlds.add(world);
+                    claimChunks.add(chunks);
+                    claimOwners.add(owners);
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+                throw new IOException("Truncated claim snapshot: " + file, e);
+            }
+        }
+
+        for (int w = 0; w < claimWorlds.size(); w++) {
+            long[] chunks = claimChunks.get(w);
+            UUID[] owners = claimOwners.get(w);
+            for (int c = 0; c < chunks.length; c++) {
+                index.putPersonalOwner(claimWorlds.get(w), ChunkUtil.unpackChunkX(chunks[c]),
+                        ChunkUtil.unpackChunkZ(chunks[c]), owners[c]);
+            }
+        }
+        players.putAll(loadedPlayers);
+        names.putAll(loadedNames);
+    }
+
+    /**
+     * Deduplicating string table built while encoding.
+     */
+    private static final class StringTable {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        int indexOf(String value) {
+            return indexes.computeIfAbsent(value != null ? value : "", v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+    }
+}
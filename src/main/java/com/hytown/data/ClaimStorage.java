@@ -1,42 +1,131 @@
 package com.hytown.data;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.hytown.metrics.LatencyHistogram;
+import com.hytown.metrics.PerfMetrics;
 import com.hytown.util.ChunkUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongSet;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manages persistent storage of claims using JSON files.
+ *
+ * Writes are coalesced: mutations mark the player file (and index/names files) dirty,
+ * and a background writer flushes everything pending within FLUSH_DELAY_MS, or right
+ * away once FLUSH_THRESHOLD entries are pending. A bulk claim therefore rewrites
+ * index.json once instead of once per chunk. saveAll() flushes synchronously.
+ *
+ * Optionally, everything is also written to a binary snapshot (claims.bin, see
+ * ClaimSnapshot) on shutdown and loaded from it on startup. Any JSON write deletes
+ * the snapshot first, so it is only used while it matches the JSON files.
+ *
+ * Player claim data is held in a bounded LRU cache (see BoundedCache). Online players
+ * and owners of chunks touched in the last PIN_TOUCHED_MS are pinned; an evicted entry
+ * with unwritten changes is handed to the background writer, which writes it from
+ * there and serves it back if it is requested again first.
+ *
+ * All JSON files are compact and streamed with JsonReader/JsonWriter (player files via
+ * PlayerClaimsTypeAdapter) rather than built as strings. They are written atomically with
+ * a CRC32C trailer (see ChecksummedFiles); files that fail it on load are moved to
+ * claims/corrupted.
+ *
+ * On startup from JSON, the claim files of owners listed in index.json are read in
+ * parallel (up to the cache size), so the first lookups on the game thread are cache hits.
  */
 public class ClaimStorage {
+    private static final LatencyHistogram FLUSH_TIME = PerfMetrics.histogram("claims.flush");
+    private static final LatencyHistogram WRITE_TIME = PerfMetrics.histogram("claims.writePlayer");
+
     private final Path claimsDirectory;
     private final Path indexFile;
     private final Path namesFile;
-    private final Gson gson;
-    private final Map<UUID, PlayerClaims> cache;
-    private final Map<String, Map<String, UUID>> claimIndex; // world -> (chunkKey -> ownerUUID)
+    private final Path snapshotFile;
+    private final Path corruptedDirectory;
+    private volatile ChecksummedFiles.FsyncPolicy fsyncPolicy = ChecksummedFiles.FsyncPolicy.FILE;
+    private final boolean useSnapshot;
+    private volatile boolean snapshotOnDisk;
+    private final BoundedCache<UUID, PlayerClaims> cache;
+    private final int maxCachedPlayers;
+    private final ChunkOwnershipIndex ownershipIndex; // shared with TownStorage
     private final Map<UUID, String> playerNames; // playerId -> username (for map display)
 
+    // Cache pinning and write-back
+    public static final int DEFAULT_MAX_CACHED_PLAYERS = 2048;
+    public static final long DEFAULT_MAX_CACHED_WEIGHT = 131072;   // claims + trusted players
+    private static final long PIN_TOUCHED_MS = 5 * 60 * 1000;
+    private final Set<UUID> onlinePlayers = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Long> touchedOwners = new ConcurrentHashMap<>();
+    private final Map<UUID, PlayerClaims> evictedDirty = new ConcurrentHashMap<>();
+
+    // Coalescing background writer
+    private static final long FLUSH_DELAY_MS = 500;   // max latency before pending changes hit disk
+    private static final int FLUSH_THRESHOLD = 64;    // flush immediately at this many pending entries
+    private static final long RETRY_DELAY_MS = 5000;  // delay before retrying writes that failed
+    private final Set<UUID> dirtyPlayers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean indexDirty = new AtomicBoolean();
+    private final AtomicBoolean namesDirty = new AtomicBoolean();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService saveExecutor;
+
+    // Save metrics
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedEntries = new AtomicLong();
+    private final AtomicLong coalescedWrites = new AtomicLong();
+    private volatile long lastFlushMillis = 0;
+
     public ClaimStorage(Path dataDirectory) {
+        this(dataDirectory, new ChunkOwnershipIndex(), false);
+    }
+
+    public ClaimStorage(Path dataDirectory, ChunkOwnershipIndex ownershipIndex) {
+        this(dataDirectory, ownershipIndex, false);
+    }
+
+    public ClaimStorage(Path dataDirectory, ChunkOwnershipIndex ownershipIndex, boolean useSnapshot) {
+        this(dataDirectory, ownershipIndex, useSnapshot, DEFAULT_MAX_CACHED_PLAYERS, DEFAULT_MAX_CACHED_WEIGHT);
+    }
+
+    /**
+     * @param useSnapshot load from / write to the binary snapshot when possible
+     * @param maxCachedPlayers unpinned players kept in memory
+     * @param maxCachedWeight total claims and trusted players kept in memory
+     */
+    public ClaimStorage(Path dataDirectory, ChunkOwnershipIndex ownershipIndex, boolean useSnapshot,
+                        int maxCachedPlayers, long maxCachedWeight) {
         this.claimsDirectory = dataDirectory.resolve("claims");
         this.indexFile = claimsDirectory.resolve("index.json");
         this.namesFile = claimsDirectory.resolve("names.json");
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
-        this.cache = new ConcurrentHashMap<>();
-        this.claimIndex = new ConcurrentHashMap<>();
+        this.snapshotFile = claimsDirectory.resolve("claims.bin");
+        this.corruptedDirectory = claimsDirectory.resolve("corrupted");
+        this.useSnapshot = useSnapshot;
+        this.maxCachedPlayers = maxCachedPlayers;
+        this.cache = new BoundedCache<>(maxCachedPlayers, maxCachedWeight, ClaimStorage::weigh,
+                (playerId, claims) -> isPinned(playerId), this::onEvicted);
+        this.ownershipIndex = ownershipIndex;
         this.playerNames = new ConcurrentHashMap<>();
 
         try {
@@ -45,89 +134,193 @@ public class ClaimStorage {
             e.printStackTrace();
         }
 
-        loadIndex();
-        loadNames();
+        snapshotOnDisk = Files.exists(snapshotFile);
+        if (!useSnapshot || !snapshotOnDisk || !loadSnapshot()) {
+            long start = System.nanoTime();
+            loadIndex(ownershipIndex);
+            loadNames(playerNames);
+            long indexNanos = System.nanoTime() - start;
+
+            long preloadStart = System.nanoTime();
+            int preloaded = preloadOwners();
+            System.err.println(String.format("[ClaimStorage] Loaded %d claims and %d claim files in %.1fms"
+                            + " (index %.1fms, claim files %.1fms)",
+                    ownershipIndex.getPersonalClaimCount(), preloaded, (System.nanoTime() - start) / 1e6,
+                    indexNanos / 1e6, (System.nanoTime() - preloadStart) / 1e6));
+        }
+
+        this.saveExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "HyTown-ClaimSaver");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
-    private void loadIndex() {
-        if (Files.exists(indexFile)) {
-            try {
-                String json = Files.readString(indexFile);
-                Type type = new TypeToken<Map<String, Map<String, String>>>() {}.getType();
-                Map<String, Map<String, String>> loaded = gson.fromJson(json, type);
-                if (loaded != null) {
-                    for (Map.Entry<String, Map<String, String>> worldEntry : loaded.entrySet()) {
-                        String world = worldEntry.getKey();
-                        Map<String, UUID> worldClaims = new ConcurrentHashMap<>();
-                        for (Map.Entry<String, String> claimEntry : worldEntry.getValue().entrySet()) {
-                            try {
-                                worldClaims.put(claimEntry.getKey(), UUID.fromString(claimEntry.getValue()));
-                            } catch (IllegalArgumentException ignored) {}
-                        }
-                        claimIndex.put(world, worldClaims);
-                    }
+    private void loadIndex(ChunkOwnershipIndex target) {
+        loadIndex(target, false);
+    }
+
+    private void loadIndex(ChunkOwnershipIndex target, boolean readOnly) {
+        readFile(indexFile, readOnly, reader -> {
+            JsonReader in = new JsonReader(reader);
+            if (in.peek() == JsonToken.NULL) return null;
+            // Each owner's UUID is parsed once; each world goes into the index in one bulk update
+            Map<String, UUID> owners = new HashMap<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                String world = in.nextName();
+                Long2ObjectOpenHashMap<UUID> chunks = new Long2ObjectOpenHashMap<>();
+                in.beginObject();
+                while (in.hasNext()) {
+                    int[] coords = ChunkUtil.parseChunkKey(in.nextName());
+                    String owner = in.nextString();
+                    if (coords == null) continue;
+                    try {
+                        chunks.put(ChunkUtil.packChunk(coords[0], coords[1]), owners.computeIfAbsent(owner, UUID::fromString));
+                    } catch (IllegalArgumentException ignored) {}
                 }
-            } catch (IOException e) {
-                e.printStackTrace();
+                in.endObject();
+                target.putPersonalOwners(world, chunks);
             }
-        }
+            in.endObject();
+            return null;
+        });
     }
 
-    private void saveIndex() {
-        Map<String, Map<String, String>> toSave = new HashMap<>();
-        for (Map.Entry<String, Map<String, UUID>> worldEntry : claimIndex.entrySet()) {
-            Map<String, String> worldClaims = new HashMap<>();
-            for (Map.Entry<String, UUID> claimEntry : worldEntry.getValue().entrySet()) {
-                worldClaims.put(claimEntry.getKey(), claimEntry.getValue().toString());
-            }
-            toSave.put(worldEntry.getKey(), worldClaims);
+    /**
+     * Reads the claim files of owners in the index into the cache, in parallel, up to
+     * the cache size.
+     * @return the number of files read
+     */
+    private int preloadOwners() {
+        Set<UUID> owners = new LinkedHashSet<>();
+        for (String world : ownershipIndex.getWorlds()) {
+            ownershipIndex.forEach(world, (chunkX, chunkZ, owner) -> {
+                if (owner.personalOwner() != null) {
+                    owners.add(owner.personalOwner());
+                }
+            });
         }
+        List<UUID> toLoad = owners.stream().limit(maxCachedPlayers).toList();
+        List<Map.Entry<UUID, PlayerClaims>> loaded = ParallelLoader.map("HyTown-ClaimLoader-", toLoad,
+                ownerId -> Map.entry(ownerId, loadPlayerClaims(ownerId)));
+        for (Map.Entry<UUID, PlayerClaims> entry : loaded) {
+            cache.put(entry.getKey(), entry.getValue());
+        }
+        return loaded.size();
+    }
 
+    /**
+     * @return false if the file could not be written
+     */
+    private boolean writeIndex() {
         try {
-            Files.writeString(indexFile, gson.toJson(toSave));
-        } catch (IOException e) {
+            ChecksummedFiles.write(indexFile, fsyncPolicy, writer -> {
+                JsonWriter out = new JsonWriter(writer);
+                out.beginObject();
+                for (String world : ownershipIndex.getWorlds()) {
+                    out.name(world).beginObject();
+                    ownershipIndex.forEach(world, (chunkX, chunkZ, owner) -> {
+                        if (owner.personalOwner() != null) {
+                            try {
+                                out.name(ChunkUtil.chunkKey(chunkX, chunkZ)).value(owner.personalOwner().toString());
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+                    });
+                    out.endObject();
+                }
+                out.endObject();
+            });
+            return true;
+        } catch (IOException | UncheckedIOException e) {
             e.printStackTrace();
+            return false;
         }
     }
 
-    private void loadNames() {
-        if (Files.exists(namesFile)) {
-            try {
-                String json = Files.readString(namesFile);
-                Type type = new TypeToken<Map<String, String>>() {}.getType();
-                Map<String, String> loaded = gson.fromJson(json, type);
-                if (loaded != null) {
-                    for (Map.Entry<String, String> entry : loaded.entrySet()) {
-                        try {
-                            playerNames.put(UUID.fromString(entry.getKey()), entry.getValue());
-                        } catch (IllegalArgumentException ignored) {}
-                    }
+    private void loadNames(Map<UUID, String> target) {
+        loadNames(target, false);
+    }
+
+    private void loadNames(Map<UUID, String> target, boolean readOnly) {
+        readFile(namesFile, readOnly, reader -> {
+            JsonReader in = new JsonReader(reader);
+            if (in.peek() == JsonToken.NULL) return null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
                 }
-            } catch (IOException e) {
-                e.printStackTrace();
+                String name = in.nextString();
+                try {
+                    target.put(UUID.fromString(key), name);
+                } catch (IllegalArgumentException ignored) {}
             }
-        }
+            in.endObject();
+            return null;
+        });
     }
 
-    private void saveNames() {
-        Map<String, String> toSave = new HashMap<>();
-        for (Map.Entry<UUID, String> entry : playerNames.entrySet()) {
-            toSave.put(entry.getKey().toString(), entry.getValue());
-        }
+    /**
+     * @return false if the file could not be written
+     */
+    private boolean writeNames() {
         try {
-            Files.writeString(namesFile, gson.toJson(toSave));
+            ChecksummedFiles.write(namesFile, fsyncPolicy, writer -> {
+                JsonWriter out = new JsonWriter(writer);
+                out.beginObject();
+                for (Map.Entry<UUID, String> entry : playerNames.entrySet()) {
+                    out.name(entry.getKey().toString()).value(entry.getValue());
+                }
+                out.endObject();
+            });
+            return true;
         } catch (IOException e) {
             e.printStackTrace();
+            return false;
         }
     }
 
+    /**
+     * Reads a JSON file if it exists, verifying its checksum. A file that fails the
+     * checksum is moved to the corrupted directory, unless readOnly.
+     * @return the body's result, or null if the file is missing or unreadable
+     */
+    private <T> T readFile(Path file, boolean readOnly, ChecksummedFiles.ReadBody<T> body) {
+        if (!Files.exists(file)) return null;
+        try {
+            return ChecksummedFiles.read(file, body);
+        } catch (ChecksummedFiles.ChecksumException e) {
+            System.err.println("[ClaimStorage] " + e.getMessage());
+            if (readOnly) return null;
+            Path dest = ChecksummedFiles.moveToCorrupted(file, corruptedDirectory, "checksum_mismatch");
+            if (dest != null) {
+                System.err.println("[ClaimStorage] Moved corrupted file to: " + dest);
+            }
+        } catch (IOException | IllegalStateException | NumberFormatException | JsonParseException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Sets when claim, index and names writes are forced to disk (default FILE).
+     */
+    public void setFsyncPolicy(ChecksummedFiles.FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
     /**
      * Sets or updates a player's username for map display.
      */
     public void setPlayerName(UUID playerId, String username) {
-        if (playerId != null && username != null) {
-            playerNames.put(playerId, username);
-            saveNames();
+        if (playerId != null && username != null && !username.equals(playerNames.put(playerId, username))) {
+            namesDirty.set(true);
+            scheduleFlush();
         }
     }
 
@@ -145,11 +338,13 @@ public class ClaimStorage {
      * @return Map of chunk key ("x,z") to owner UUID
      */
     public Map<String, UUID> getClaimedChunksInWorld(String world) {
-        Map<String, UUID> worldClaims = claimIndex.get(world);
-        if (worldClaims == null) {
-            return new HashMap<>();
-        }
-        return new HashMap<>(worldClaims);
+        Map<String, UUID> worldClaims = new HashMap<>();
+        ownershipIndex.forEach(world, (chunkX, chunkZ, owner) -> {
+            if (owner.personalOwner() != null) {
+                worldClaims.put(ChunkUtil.chunkKey(chunkX, chunkZ), owner.personalOwner());
+            }
+        });
+        return worldClaims;
     }
 
     /**
@@ -163,13 +358,10 @@ public class ClaimStorage {
      */
     public Map<long[], ClaimInfo> getClaimsInArea(String world, int minChunkX, int maxChunkX, int minChunkZ, int maxChunkZ) {
         Map<long[], ClaimInfo> result = new HashMap<>();
-        Map<String, UUID> worldClaims = claimIndex.get(world);
-        if (worldClaims == null) return result;
 
         for (int cx = minChunkX; cx <= maxChunkX; cx++) {
             for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
-                String key = ChunkUtil.chunkKey(cx, cz);
-                UUID owner = worldClaims.get(key);
+                UUID owner = ownershipIndex.getPersonalOwner(world, cx, cz);
                 if (owner != null) {
                     String ownerName = getPlayerName(owner);
                     result.put(new long[]{cx, cz}, new ClaimInfo(owner, ownerName));
@@ -193,99 +385,132 @@ public class ClaimStorage {
     }
 
     public PlayerClaims getPlayerClaims(UUID playerId) {
-        return cache.computeIfAbsent(playerId, this::loadPlayerClaims);
+        return cache.get(playerId, this::loadCachedPlayerClaims);
     }
 
-    private PlayerClaims loadPlayerClaims(UUID playerId) {
-        Path file = claimsDirectory.resolve(playerId.toString() + ".json");
+    /**
+     * Gets the claims of a chunk's owner for a permission or map lookup, and keeps
+     * them pinned in the cache while players are around the owner's land.
+     */
+    public PlayerClaims getChunkOwnerClaims(UUID ownerId) {
+        touchedOwners.put(ownerId, System.currentTimeMillis());
+        return getPlayerClaims(ownerId);
+    }
 
-        if (Files.exists(file)) {
-            try {
-                String json = Files.readString(file);
-                PlayerClaimsJson data = gson.fromJson(json, PlayerClaimsJson.class);
-
-                PlayerClaims claims = new PlayerClaims(playerId);
-                if (data != null) {
-                    if (data.claims != null) {
-                        for (ClaimJson c : data.claims) {
-                            claims.addClaim(new Claim(c.world, c.chunkX, c.chunkZ, c.claimedAt));
-                        }
-                    }
-                    // Newest format: trustedPlayersData (Map<UUID, TrustedPlayerJson>)
-                    if (data.trustedPlayersData != null) {
-                        for (Map.Entry<String, TrustedPlayerJson> entry : data.trustedPlayersData.entrySet()) {
-                            try {
-                                UUID trustedId = UUID.fromString(entry.getKey());
-                                TrustedPlayerJson tp = entry.getValue();
-                                String name = tp.name != null ? tp.name : trustedId.toString();
-                                TrustLevel level = TrustLevel.fromString(tp.level);
-                                if (level == null) level = TrustLevel.BUILD; // Default to BUILD
-                                claims.addTrustedPlayer(trustedId, name, level);
-                            } catch (IllegalArgumentException ignored) {}
-                        }
-                    }
-                    // Previous format: trustedPlayersWithNames (Map<UUID, name>)
-                    else if (data.trustedPlayersWithNames != null) {
-                        for (Map.Entry<String, String> entry : data.trustedPlayersWithNames.entrySet()) {
-                            try {
-                                UUID trustedId = UUID.fromString(entry.getKey());
-                                String name = entry.getValue() != null ? entry.getValue() : trustedId.toString();
-                                claims.addTrustedPlayer(trustedId, name, TrustLevel.BUILD);
-                            } catch (IllegalArgumentException ignored) {}
-                        }
-                    }
-                    // Oldest format: trustedPlayers (List<UUID>)
-                    else if (data.trustedPlayers != null) {
-                        for (String trusted : data.trustedPlayers) {
-                            try {
-                                UUID trustedId = UUID.fromString(trusted);
-                                claims.addTrustedPlayer(trustedId, trusted, TrustLevel.BUILD);
-                            } catch (IllegalArgumentException ignored) {}
-                        }
-                    }
-                }
-                return claims;
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+    // ==================== CACHE ====================
+
+    /**
+     * Pins a player's claims in the cache (player joined).
+     */
+    public void pinPlayer(UUID playerId) {
+        onlinePlayers.add(playerId);
+    }
+
+    /**
+     * Unpins a player's claims (player left); they are evicted when the cache is full.
+     */
+    public void unpinPlayer(UUID playerId) {
+        onlinePlayers.remove(playerId);
+    }
+
+    private boolean isPinned(UUID playerId) {
+        if (onlinePlayers.contains(playerId)) return true;
+        Long touched = touchedOwners.get(playerId);
+        if (touched == null) return false;
+        if (System.currentTimeMillis() - touched < PIN_TOUCHED_MS) return true;
+        touchedOwners.remove(playerId, touched);
+        return false;
+    }
+
+    private static int weigh(PlayerClaims claims) {
+        return 1 + claims.getClaimCount() + claims.getTrustedPlayersMap().size();
+    }
+
+    /**
+     * Eviction listener (cache locked): keeps unwritten changes for the background writer.
+     */
+    private void onEvicted(UUID playerId, PlayerClaims claims) {
+        if (dirtyPlayers.contains(playerId)) {
+            evictedDirty.put(playerId, claims);
         }
+    }
 
-        return new PlayerClaims(playerId);
+    private PlayerClaims loadCachedPlayerClaims(UUID playerId) {
+        PlayerClaims pending = evictedDirty.get(playerId);
+        return pending != null ? pending : loadPlayerClaims(playerId);
     }
 
-    public void savePlayerClaims(UUID playerId) {
-        PlayerClaims claims = cache.get(playerId);
-        if (claims == null) return;
+    /**
+     * Gets a player's claims if in memory (cached or evicted but not yet written).
+     */
+    private PlayerClaims peekPlayerClaims(UUID playerId) {
+        PlayerClaims claims = cache.peek(playerId);
+        return claims != null ? claims : evictedDirty.get(playerId);
+    }
 
-        Path file = claimsDirectory.resolve(playerId.toString() + ".json");
+    /**
+     * Get claim cache statistics for debugging/admin commands.
+     */
+    public String getCacheStats() {
+        return cache.getStats() + ", pinned online=" + onlinePlayers.size()
+                + ", pinned owners=" + touchedOwners.size() + ", pending evicted=" + evictedDirty.size();
+    }
 
-        PlayerClaimsJson data = new PlayerClaimsJson();
-        data.claims = new ArrayList<>();
-        data.trustedPlayersData = new HashMap<>();
+    private PlayerClaims loadPlayerClaims(UUID playerId) {
+        return loadPlayerClaims(playerId, false);
+    }
 
-        for (Claim claim : claims.getClaims()) {
-            ClaimJson c = new ClaimJson();
-            c.world = claim.getWorld();
-            c.chunkX = claim.getChunkX();
-            c.chunkZ = claim.getChunkZ();
-            c.claimedAt = claim.getClaimedAt();
-            data.claims.add(c);
+    /**
+     * @param readOnly leave the file alone: neither move it aside if corrupt nor queue a
+     *                 legacy-format file for rewriting
+     */
+    private PlayerClaims loadPlayerClaims(UUID playerId, boolean readOnly) {
+        Path file = claimsDirectory.resolve(playerId.toString() + ".json");
+
+        PlayerClaimsTypeAdapter adapter = new PlayerClaimsTypeAdapter(playerId);
+        PlayerClaims claims = readFile(file, readOnly, reader -> adapter.read(new JsonReader(reader)));
+        if (claims == null) {
+            return new PlayerClaims(playerId);
+        }
+        if (adapter.wasUpgraded() && !readOnly) {
+            // Rewrite once in the current format so later loads skip the legacy path. Held
+            // with the evicted entries so flush() finds it even if this load is not cached.
+            evictedDirty.putIfAbsent(playerId, claims);
+            dirtyPlayers.add(playerId);
         }
+        return claims;
+    }
 
-        // Save trusted players with their names and trust levels
-        for (Map.Entry<UUID, TrustedPlayer> entry : claims.getTrustedPlayersMap().entrySet()) {
-            TrustedPlayer tp = entry.getValue();
-            TrustedPlayerJson tpj = new TrustedPlayerJson();
-            tpj.name = tp.getName();
-            tpj.level = tp.getLevel().getKey();
-            data.trustedPlayersData.put(entry.getKey().toString(), tpj);
+    /**
+     * Queues a player's claim file to be written by the background writer.
+     */
+    public void savePlayerClaims(UUID playerId) {
+        if (!dirtyPlayers.add(playerId)) {
+            coalescedWrites.incrementAndGet();
         }
+        scheduleFlush();
+    }
+
+    /**
+     * Writes a player's claim file. Called from flush().
+     * @return false if the file was not written (caller retries)
+     */
+    private boolean writePlayerClaims(UUID playerId, PlayerClaims claims) {
+        if (claims == null) return true;
+
+        Path file = claimsDirectory.resolve(playerId.toString() + ".json");
 
+        long start = System.nanoTime();
         try {
-            Files.writeString(file, gson.toJson(data));
+            ChecksummedFiles.write(file, fsyncPolicy,
+                    writer -> new PlayerClaimsTypeAdapter(playerId).write(new JsonWriter(writer), claims));
         } catch (IOException e) {
-            e.printStackTrace();
+            System.err.println("[ClaimStorage] ERROR writing claims of " + playerId + ", will retry: " + e.getMessage());
+            return false;
         }
+        WRITE_TIME.recordSince(start);
+        evictedDirty.remove(playerId, claims);
+        return true;
     }
 
     public void addClaim(UUID playerId, Claim claim) {
@@ -293,11 +518,10 @@ public class ClaimStorage {
         claims.addClaim(claim);
 
         // Update index
-        String chunkKey = ChunkUtil.chunkKey(claim.getChunkX(), claim.getChunkZ());
-        claimIndex.computeIfAbsent(claim.getWorld(), k -> new ConcurrentHashMap<>()).put(chunkKey, playerId);
+        ownershipIndex.putPersonalOwner(claim.getWorld(), claim.getChunkX(), claim.getChunkZ(), playerId);
 
+        indexDirty.set(true);
         savePlayerClaims(playerId);
-        saveIndex();
     }
 
     public void removeClaim(UUID playerId, String world, int chunkX, int chunkZ) {
@@ -305,14 +529,47 @@ public class ClaimStorage {
         claims.removeClaim(world, chunkX, chunkZ);
 
         // Update index
-        String chunkKey = ChunkUtil.chunkKey(chunkX, chunkZ);
-        Map<String, UUID> worldClaims = claimIndex.get(world);
-        if (worldClaims != null) {
-            worldClaims.remove(chunkKey);
+        ownershipIndex.removePersonalOwner(world, chunkX, chunkZ);
+
+        indexDirty.set(true);
+        savePlayerClaims(playerId);
+    }
+
+    /**
+     * Adds several claims for a player with a single save, for area claims.
+     */
+    public void addClaims(UUID playerId, Collection<Claim> newClaims) {
+        if (newClaims.isEmpty()) return;
+        PlayerClaims claims = getPlayerClaims(playerId);
+        for (Claim claim : newClaims) {
+            claims.addClaim(claim);
+            ownershipIndex.putPersonalOwner(claim.getWorld(), claim.getChunkX(), claim.getChunkZ(), playerId);
+        }
+
+        indexDirty.set(true);
+        savePlayerClaims(playerId);
+    }
+
+    /**
+     * Removes a player's claims on a set of packed chunk keys with a single save.
+     */
+    public void removeClaims(UUID playerId, String world, LongSet chunks) {
+        if (chunks.isEmpty()) return;
+        PlayerClaims claims = getPlayerClaims(playerId);
+        claims.removeClaims(world, chunks);
+
+        LongIterator iterator = chunks.iterator();
+        while (iterator.hasNext()) {
+            long key = iterator.nextLong();
+            int chunkX = ChunkUtil.unpackChunkX(key);
+            int chunkZ = ChunkUtil.unpackChunkZ(key);
+            if (playerId.equals(ownershipIndex.getPersonalOwner(world, chunkX, chunkZ))) {
+                ownershipIndex.removePersonalOwner(world, chunkX, chunkZ);
+            }
         }
 
+        indexDirty.set(true);
         savePlayerClaims(playerId);
-        saveIndex();
     }
 
     /**
@@ -323,29 +580,28 @@ public class ClaimStorage {
 
         // Remove from index
         for (Claim claim : claims.getClaims()) {
-            String chunkKey = ChunkUtil.chunkKey(claim.getChunkX(), claim.getChunkZ());
-            Map<String, UUID> worldClaims = claimIndex.get(claim.getWorld());
-            if (worldClaims != null) {
-                worldClaims.remove(chunkKey);
-            }
+            ownershipIndex.removePersonalOwner(claim.getWorld(), claim.getChunkX(), claim.getChunkZ());
         }
 
         // Clear claims
         claims.clearAllClaims();
 
+        indexDirty.set(true);
         savePlayerClaims(playerId);
-        saveIndex();
     }
 
     /**
      * Gets the owner of a chunk, or null if unclaimed.
      */
     public UUID getClaimOwner(String world, int chunkX, int chunkZ) {
-        Map<String, UUID> worldClaims = claimIndex.get(world);
-        if (worldClaims == null) return null;
+        return ownershipIndex.getPersonalOwner(world, chunkX, chunkZ);
+    }
 
-        String chunkKey = ChunkUtil.chunkKey(chunkX, chunkZ);
-        return worldClaims.get(chunkKey);
+    /**
+     * Gets the shared chunk ownership index (town and personal claims).
+     */
+    public ChunkOwnershipIndex getOwnershipIndex() {
+        return ownershipIndex;
     }
 
     /**
@@ -368,51 +624,271 @@ public class ClaimStorage {
      */
     public UUID findNearbyClaimByOtherPlayer(String world, int centerChunkX, int centerChunkZ,
                                               int radius, UUID excludePlayerId) {
-        Map<String, UUID> worldClaims = claimIndex.get(world);
-        if (worldClaims == null || radius <= 0) {
+        if (radius <= 0) {
             return null;
         }
 
-        for (int dx = -radius; dx <= radius; dx++) {
-            for (int dz = -radius; dz <= radius; dz++) {
-                int checkX = centerChunkX + dx;
-                int checkZ = centerChunkZ + dz;
-                String key = ChunkUtil.chunkKey(checkX, checkZ);
-                UUID owner = worldClaims.get(key);
+        // Per-region owner summaries answer most of the square without visiting its chunks
+        return ownershipIndex.findOtherPersonalOwner(world,
+                centerChunkX - radius, centerChunkZ - radius,
+                centerChunkX + radius, centerChunkZ + radius, excludePlayerId);
+    }
+
+    /**
+     * Finds a claim by another player inside a chunk rectangle (inclusive).
+     * The buffer zones of every chunk in a rectangle together cover the rectangle
+     * grown by the buffer radius, so an area claim checks them all with one call.
+     * @return the UUID of another player with a claim in the area, or null if none
+     */
+    public UUID findClaimByOtherPlayerInArea(String world, int minChunkX, int minChunkZ,
+                                             int maxChunkX, int maxChunkZ, UUID excludePlayerId) {
+        return ownershipIndex.findOtherPersonalOwner(world, minChunkX, minChunkZ, maxChunkX, maxChunkZ, excludePlayerId);
+    }
+
+    // ==================== BACKGROUND WRITER ====================
+
+    /**
+     * Makes sure a flush runs within FLUSH_DELAY_MS, or immediately if enough
+     * changes are pending.
+     */
+    private void scheduleFlush() {
+        if (saveExecutor.isShutdown()) {
+            flush();
+        } else if (getPendingCount() >= FLUSH_THRESHOLD) {
+            saveExecutor.execute(this::flush);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            saveExecutor.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
 
-                if (owner != null && !owner.equals(excludePlayerId)) {
-                    return owner;  // Found a claim by another player
+    /**
+     * Schedules a flush after RETRY_DELAY_MS, so a failing disk is not retried in a loop.
+     * After shutdown the failed writes stay pending.
+     */
+    private void scheduleRetry() {
+        if (!saveExecutor.isShutdown() && flushScheduled.compareAndSet(false, true)) {
+            saveExecutor.schedule(this::flush, RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes everything pending: dirty player files, then the index and names files.
+     * Files that fail to write stay pending and are retried after RETRY_DELAY_MS.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            flushScheduled.set(false);
+            long start = System.nanoTime();
+            int written = 0;
+            boolean failed = false;
+
+            // The snapshot no longer matches once any JSON file changes
+            if (getPendingCount() > 0) {
+                invalidateSnapshot();
+            }
+
+            for (UUID playerId : dirtyPlayers) {
+                // Resolve before clearing the dirty flag, so an eviction in between still hands it over
+                PlayerClaims claims = peekPlayerClaims(playerId);
+                dirtyPlayers.remove(playerId);
+                if (writePlayerClaims(playerId, claims)) {
+                    written++;
+                } else {
+                    // Keep the changes (they may be the only copy if the player is evicted) for a retry
+                    if (claims != null) {
+                        evictedDirty.putIfAbsent(playerId, claims);
+                    }
+                    dirtyPlayers.add(playerId);
+                    failed = true;
                 }
             }
+            if (indexDirty.getAndSet(false)) {
+                if (writeIndex()) {
+                    written++;
+                } else {
+                    indexDirty.set(true);
+                    failed = true;
+                }
+            }
+            if (namesDirty.getAndSet(false)) {
+                if (writeNames()) {
+                    written++;
+                } else {
+                    namesDirty.set(true);
+                    failed = true;
+                }
+            }
+            if (failed) {
+                scheduleRetry();
+            }
+
+            if (written > 0) {
+                flushCount.incrementAndGet();
+                flushedEntries.addAndGet(written);
+                lastFlushMillis = (System.nanoTime() - start) / 1_000_000;
+                FLUSH_TIME.recordSince(start);
+            }
         }
-        return null;  // No other player claims in range
     }
 
-    public void saveAll() {
-        for (UUID playerId : cache.keySet()) {
-            savePlayerClaims(playerId);
+    /**
+     * Number of files waiting to be written.
+     */
+    public int getPendingCount() {
+        return dirtyPlayers.size() + (indexDirty.get() ? 1 : 0) + (namesDirty.get() ? 1 : 0);
+    }
+
+    /**
+     * Get save statistics for debugging/admin commands.
+     */
+    public String getSaveStats() {
+        return String.format("Pending: %d, Flushes: %d, Files written: %d, Coalesced: %d, Last flush: %dms",
+                getPendingCount(), flushCount.get(), flushedEntries.get(), coalescedWrites.get(), lastFlushMillis);
+    }
+
+    // ==================== BINARY SNAPSHOT ====================
+
+    private boolean loadSnapshot() {
+        try {
+            long start = System.currentTimeMillis();
+            Map<UUID, PlayerClaims> players = new HashMap<>();
+            ClaimSnapshot.read(snapshotFile, ownershipIndex, players, playerNames);
+            // The JSON files match the snapshot, so players beyond the cache bound reload from them
+            for (Map.Entry<UUID, PlayerClaims> entry : players.entrySet()) {
+                cache.put(entry.getKey(), entry.getValue());
+            }
+            System.err.println("[ClaimStorage] Loaded " + ownershipIndex.getPersonalClaimCount()
+                    + " claims from binary snapshot in " + (System.currentTimeMillis() - start) + "ms");
+            return true;
+        } catch (IOException e) {
+            System.err.println("[ClaimStorage] Could not load binary snapshot, using JSON: " + e.getMessage());
+            invalidateSnapshot();
+            return false;
+        }
+    }
+
+    private void invalidateSnapshot() {
+        if (!snapshotOnDisk) return;
+        try {
+            Files.deleteIfExists(snapshotFile);
+            snapshotOnDisk = false;
+        } catch (IOException e) {
+            System.err.println("[ClaimStorage] ERROR deleting stale snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes pending JSON writes, then writes the binary snapshot (JSON to binary conversion).
+     * Reads any claim files not cached (without caching them) so the snapshot is complete.
+     * @return the snapshot size in bytes
+     */
+    public long writeSnapshot() throws IOException {
+        synchronized (flushLock) {
+            flush();
+            writeSnapshot(snapshotFile, false);
+            snapshotOnDisk = true;
+            return Files.size(snapshotFile);
         }
-        saveIndex();
-        saveNames();
     }
 
-    // JSON data classes
-    private static class PlayerClaimsJson {
-        List<ClaimJson> claims;
-        List<String> trustedPlayers; // Oldest format (v1)
-        Map<String, String> trustedPlayersWithNames; // Previous format (v2): UUID -> name
-        Map<String, TrustedPlayerJson> trustedPlayersData; // Current format (v3): UUID -> {name, level}
+    private void writeSnapshot(Path file, boolean readOnly) throws IOException {
+        Set<UUID> owners = new HashSet<>();
+        for (String world : ownershipIndex.getWorlds()) {
+            ownershipIndex.forEach(world, (chunkX, chunkZ, owner) -> {
+                if (owner.personalOwner() != null) {
+                    owners.add(owner.personalOwner());
+                }
+            });
+        }
+        Map<UUID, PlayerClaims> players = new HashMap<>(cache.snapshot());
+        for (UUID ownerId : owners) {
+            if (!players.containsKey(ownerId)) {
+                players.put(ownerId, loadPlayerClaims(ownerId, readOnly));
+            }
+        }
+        ClaimSnapshot.write(file, ownershipIndex, players, playerNames);
     }
 
-    private static class ClaimJson {
-        String world;
-        int chunkX;
-        int chunkZ;
-        long claimedAt;
+    /**
+     * Compares a full JSON load (index, names and every player file) against a
+     * binary snapshot load of the same data, into scratch structures. Reads are
+     * read-only: corrupt files are not moved aside and legacy files are not queued for
+     * rewriting.
+     * @return a one-line summary of time and allocation for both paths
+     */
+    public String benchmarkLoad() throws IOException {
+        Path benchFile = claimsDirectory.resolve("claims.bench.bin");
+        synchronized (flushLock) {
+            flush();
+            writeSnapshot(benchFile, true);
+        }
+
+        try {
+            // JSON path
+            long allocStart = allocatedBytes();
+            long start = System.nanoTime();
+            ChunkOwnershipIndex jsonIndex = new ChunkOwnershipIndex();
+            loadIndex(jsonIndex, true);
+            loadNames(new HashMap<>(), true);
+            int files = 0;
+            try (var stream = Files.list(claimsDirectory)) {
+                for (Path file : (Iterable<Path>) stream::iterator) {
+                    String fileName = file.getFileName().toString();
+                    if (!fileName.endsWith(".json") || fileName.equals("index.json") || fileName.equals("names.json")) {
+                        continue;
+                    }
+                    try {
+                        loadPlayerClaims(UUID.fromString(fileName.substring(0, fileName.length() - 5)), true);
+                        files++;
+                    } catch (IllegalArgumentException ignored) {}
+                }
+            }
+            long jsonNanos = System.nanoTime() - start;
+            long jsonAlloc = allocatedBytes() - allocStart;
+
+            // Binary path
+            allocStart = allocatedBytes();
+            start = System.nanoTime();
+            ClaimSnapshot.read(benchFile, new ChunkOwnershipIndex(), new HashMap<>(), new HashMap<>());
+            long binaryNanos = System.nanoTime() - start;
+            long binaryAlloc = allocatedBytes() - allocStart;
+
+            return String.format("JSON: %.1fms, %d KB allocated (%d player files) | Binary: %.1fms, %d KB allocated (%d KB file)",
+                    jsonNanos / 1e6, jsonAlloc / 1024, files,
+                    binaryNanos / 1e6, binaryAlloc / 1024, Files.size(benchFile) / 1024);
+        } finally {
+            Files.deleteIfExists(benchFile);
+        }
     }
 
-    private static class TrustedPlayerJson {
-        String name;
-        String level;
+    private static long allocatedBytes() {
+        if (java.lang.management.ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * Writes all pending changes synchronously. Unchanged player files, the index and
+     * names are left alone.
+     */
+    public void saveAll() {
+        flush();
+    }
+
+    /**
+     * Flushes pending writes and stops the background writer. Call on shutdown.
+     * Also writes the binary snapshot when enabled.
+     */
+    public void shutdown() {
+        saveExecutor.shutdown();
+        flush();
+        if (useSnapshot) {
+            try {
+                writeSnapshot();
+            } catch (IOException e) {
+                System.err.println("[ClaimStorage] ERROR writing binary snapshot: " + e.getMessage());
+            }
+        }
     }
 }
@@ -0,0 +1,52 @@
+package com.hytown.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Fans startup loading work (reading and parsing many small files) out on virtual
+ * threads, with at most a fixed number of tasks in flight, so the number of open files
+ * and half-parsed documents stays bounded however many files there are.
+ */
+final class ParallelLoader {
+    /** In-flight tasks: enough to overlap file reads with parsing on every core. */
+    static final int MAX_IN_FLIGHT = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private ParallelLoader() {}
+
+    /**
+     * Applies a task to every input and waits for all of them.
+     * @param name thread name prefix, e.g. "HyTown-TownLoader-"
+     * @return the non-null results, in no particular order. A task that throws is logged
+     *         and contributes nothing.
+     */
+    static <T, R> List<R> map(String name, Collection<T> inputs, Function<T, R> task) {
+        ConcurrentLinkedQueue<R> results = new ConcurrentLinkedQueue<>();
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name, 0).factory())) {
+            for (T input : inputs) {
+                inFlight.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        R result = task.apply(input);
+                        if (result != null) {
+                            results.add(result);
+                        }
+                    } catch (RuntimeException e) {
+                        System.err.println("[ParallelLoader] ERROR loading " + input + ": " + e.getMessage());
+                        e.printStackTrace();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return new ArrayList<>(results);
+    }
+}
@@ -1,7 +1,11 @@
 package com.hytown.data;
 
+import com.hytown.util.ChunkUtil;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -9,6 +13,10 @@ import java.util.UUID;
 
 /**
  * Holds all claims and trusted players for a single player.
+ *
+ * Thread-safe: every method holds this instance's monitor, and {@link #snapshot()}
+ * gives the background writer a consistent copy to serialize while game threads
+ * keep changing the live instance.
  */
 public class PlayerClaims {
     private final UUID owner;
@@ -26,40 +34,50 @@ public class PlayerClaims {
         return owner;
     }
 
-    public List<Claim> getClaims() {
+    public synchronized List<Claim> getClaims() {
         return new ArrayList<>(claims);
     }
 
-    public int getClaimCount() {
+    public synchronized int getClaimCount() {
         return claims.size();
     }
 
-    public void addClaim(Claim claim) {
+    public synchronized void addClaim(Claim claim) {
         if (!hasClaim(claim.getWorld(), claim.getChunkX(), claim.getChunkZ())) {
             claims.add(claim);
         }
     }
 
-    public boolean removeClaim(String world, int chunkX, int chunkZ) {
+    public synchronized boolean removeClaim(String world, int chunkX, int chunkZ) {
         return claims.removeIf(c -> c.getWorld().equals(world) && c.getChunkX() == chunkX && c.getChunkZ() == chunkZ);
     }
 
-    public boolean hasClaim(String world, int chunkX, int chunkZ) {
+    /**
+     * Removes every claim in a world whose packed chunk key is in the set, in one pass.
+     * @return the number of claims removed
+     */
+    public synchronized int removeClaims(String world, LongSet chunks) {
+        int before = claims.size();
+        claims.removeIf(c -> c.getWorld().equals(world) && chunks.contains(ChunkUtil.packChunk(c.getChunkX(), c.getChunkZ())));
+        return before - claims.size();
+    }
+
+    public synchronized boolean hasClaim(String world, int chunkX, int chunkZ) {
         return claims.stream().anyMatch(c -> c.getWorld().equals(world) && c.getChunkX() == chunkX && c.getChunkZ() == chunkZ);
     }
 
-    public void clearAllClaims() {
+    public synchronized void clearAllClaims() {
         claims.clear();
     }
 
-    public Set<UUID> getTrustedPlayers() {
-        return trustedPlayers.keySet();
+    public synchronized Set<UUID> getTrustedPlayers() {
+        return new HashSet<>(trustedPlayers.keySet());
     }
 
     /**
      * Gets all trusted players with their data.
      */
-    public Map<UUID, TrustedPlayer> getTrustedPlayersMap() {
+    public synchronized Map<UUID, TrustedPlayer> getTrustedPlayersMap() {
         return new HashMap<>(trustedPlayers);
     }
 
@@ -67,7 +85,7 @@ public class PlayerClaims {
      * Gets trusted player names with their trust levels for display.
      * @return Map of UUID -> "name (level)"
      */
-    public Map<UUID, String> getTrustedPlayersWithNames() {
+    public synchronized Map<UUID, String> getTrustedPlayersWithNames() {
         Map<UUID, String> result = new HashMap<>();
         for (Map.Entry<UUID, TrustedPlayer> entry : trustedPlayers.entrySet()) {
             TrustedPlayer tp = entry.getValue();
@@ -79,7 +97,7 @@ public class PlayerClaims {
     /**
      * Add or update a trusted player with a specific trust level.
      */
-    public void addTrustedPlayer(UUID playerId, String playerName, TrustLevel level) {
+    public synchronized void addTrustedPlayer(UUID playerId, String playerName, TrustLevel level) {
         TrustedPlayer existing = trustedPlayers.get(playerId);
         if (existing != null) {
             existing.setName(playerName);
@@ -92,7 +110,7 @@ public class PlayerClaims {
     /**
      * Legacy method for backward compatibility - defaults to BUILD level.
      */
-    public void addTrustedPlayer(UUID playerId, String playerName) {
+    public synchronized void addTrustedPlayer(UUID playerId, String playerName) {
         addTrustedPlayer(playerId, playerName, TrustLevel.BUILD);
     }
 
@@ -100,7 +118,7 @@ public class PlayerClaims {
      * Removes a trusted player.
      * @return the removed player's name, or null if not found
      */
-    public String removeTrustedPlayer(UUID playerId) {
+    public synchronized String removeTrustedPlayer(UUID playerId) {
         TrustedPlayer removed = trustedPlayers.remove(playerId);
         return removed != null ? removed.getName() : null;
     }
@@ -108,7 +126,7 @@ public class PlayerClaims {
     /**
      * Check if a player has any trust level (not NONE).
      */
-    public boolean isTrusted(UUID playerId) {
+    public synchronized boolean isTrusted(UUID playerId) {
         TrustedPlayer tp = trustedPlayers.get(playerId);
         return tp != null && tp.getLevel() != TrustLevel.NONE;
     }
@@ -117,7 +135,7 @@ public class PlayerClaims {
      * Gets the trust level for a player.
      * @return the trust level, or NONE if not trusted
      */
-    public TrustLevel getTrustLevel(UUID playerId) {
+    public synchronized TrustLevel getTrustLevel(UUID playerId) {
         TrustedPlayer tp = trustedPlayers.get(playerId);
         return tp != null ? tp.getLevel() : TrustLevel.NONE;
     }
@@ -125,7 +143,7 @@ public class PlayerClaims {
     /**
      * Check if a player has at least the given trust level.
      */
-    public boolean hasPermission(UUID playerId, TrustLevel required) {
+    public synchronized boolean hasPermission(UUID playerId, TrustLevel required) {
         TrustLevel actual = getTrustLevel(playerId);
         return actual.hasPermission(required);
     }
@@ -133,14 +151,14 @@ public class PlayerClaims {
     /**
      * Gets the TrustedPlayer data for a player.
      */
-    public TrustedPlayer getTrustedPlayer(UUID playerId) {
+    public synchronized TrustedPlayer getTrustedPlayer(UUID playerId) {
         return trustedPlayers.get(playerId);
     }
 
     /**
      * Gets the stored username for a trusted player.
      */
-    public String getTrustedPlayerName(UUID playerId) {
+    public synchronized String getTrustedPlayerName(UUID playerId) {
         TrustedPlayer tp = trustedPlayers.get(playerId);
         return tp != null ? tp.getName() : null;
     }
@@ -149,7 +167,7 @@ public class PlayerClaims {
      * Finds a trusted player UUID by their stored username (case-insensitive).
      * @return the UUID if found, null otherwise
      */
-    public UUID getTrustedPlayerByName(String name) {
+    public synchronized UUID getTrustedPlayerByName(String name) {
         for (Map.Entry<UUID, TrustedPlayer> entry : trustedPlayers.entrySet()) {
             if (entry.getValue().getName() != null && entry.getValue().getName().equalsIgnoreCase(name)) {
                 return entry.getKey();
@@ -157,4 +175,22 @@ public class PlayerClaims {
         }
         return null;
     }
+
+    /**
+     * Immutable copy of a player's claims and trusted players.
+     */
+    public record Snapshot(List<Claim> claims, Map<UUID, TrustedPlayer> trustedPlayers) {}
+
+    /**
+     * Copies the claims and trusted players (including each TrustedPlayer's name and
+     * level) as of now.
+     */
+    public synchronized Snapshot snapshot() {
+        Map<UUID, TrustedPlayer> trusted = new HashMap<>();
+        for (Map.Entry<UUID, TrustedPlayer> entry : trustedPlayers.entrySet()) {
+            TrustedPlayer tp = entry.getValue();
+            trusted.put(entry.getKey(), new TrustedPlayer(tp.getUuid(), tp.getName(), tp.getLevel()));
+        }
+        return new Snapshot(List.copyOf(claims), Map.copyOf(trusted));
+    }
 }
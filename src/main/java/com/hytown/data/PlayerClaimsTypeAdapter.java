@@ -0,0 +1,235 @@
+package com.hytown.data;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Streaming codec for a player's claim file.
+ *
+ * Current files start with "version": 3 and carry trust data as trustedPlayersData
+ * (UUID -> {name, level}); their legacy keys, if any, are skipped without parsing.
+ * Files without a version are read the old way: trustedPlayersData if present, else
+ * the v2 trustedPlayersWithNames map, else the v1 trustedPlayers list. wasUpgraded()
+ * then reports true so the caller can rewrite the file once in the current format.
+ *
+ * Not thread-safe; create one per file.
+ */
+public class PlayerClaimsTypeAdapter extends TypeAdapter<PlayerClaims> {
+    public static final int VERSION = 3;
+
+    private final UUID owner;
+    private boolean upgraded;
+
+    public PlayerClaimsTypeAdapter(UUID owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * @return true if the last read() found a pre-v3 file
+     */
+    public boolean wasUpgraded() {
+        return upgraded;
+    }
+
+    /**
+     * Writes the current format from a {@link PlayerClaims#snapshot()}, so game threads
+     * can keep changing the claims while the file is written.
+     */
+    @Override
+    public void write(JsonWriter out, PlayerClaims claims) throws IOException {
+        PlayerClaims.Snapshot snapshot = claims.snapshot();
+        List<Claim> claimList = snapshot.claims();
+        Map<UUID, TrustedPlayer> trusted = snapshot.trustedPlayers();
+
+        out.beginObject();
+        out.name("version").value(VERSION);
+        out.name("claims").beginArray();
+        for (Claim claim : claimList) {
+            out.beginObject();
+            out.name("world").value(claim.getWorld());
+            out.name("chunkX").value(claim.getChunkX());
+            out.name("chunkZ").value(claim.getChunkZ());
+            out.name("claimedAt").value(claim.getClaimedAt());
+            out.endObject();
+        }
+        out.endArray();
+
+        out.name("trustedPlayersData").beginObject();
+        for (Map.Entry<UUID, TrustedPlayer> entry : trusted.entrySet()) {
+            TrustedPlayer tp = entry.getValue();
+            out.name(entry.getKey().toString()).beginObject();
+            if (tp.getName() != null) {
+                out.name("name").value(tp.getName());
+            }
+            out.name("level").value(tp.getLevel().getKey());
+            out.endObject();
+        }
+        out.endObject();
+        out.endObject();
+    }
+
+    @Override
+    public PlayerClaims read(JsonReader in) throws IOException {
+        PlayerClaims claims = new PlayerClaims(owner);
+        upgraded = false;
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return claims;
+        }
+
+        int version = 0;
+        boolean hasTrustData = false;
+        Map<String, String> legacyNames = null;   // v2
+        List<String> legacyIds = null;            // v1
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "version" -> version = in.nextInt();
+                case "claims" -> readClaims(in, claims);
+                case "trustedPlayersData" -> {
+                    readTrustData(in, claims);
+                    hasTrustData = true;
+                }
+                case "trustedPlayersWithNames" -> {
+                    if (version >= VERSION) {
+                        in.skipValue();
+                    } else {
+                        legacyNames = new LinkedHashMap<>();
+                        in.beginObject();
+                        while (in.hasNext()) {
+                            String key = in.nextName();
+                            legacyNames.put(key, in.peek() == JsonToken.NULL ? nextNull(in) : in.nextString());
+                        }
+                        in.endObject();
+                    }
+                }
+                case "trustedPlayers" -> {
+                    if (version >= VERSION) {
+                        in.skipValue();
+                    } else {
+                        legacyIds = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            legacyIds.add(in.nextString());
+                        }
+                        in.endArray();
+                    }
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (version < VERSION) {
+            upgraded = true;
+            if (!hasTrustData) {
+                applyLegacyTrust(claims, legacyNames, legacyIds);
+            }
+        }
+        return claims;
+    }
+
+    private static void readClaims(JsonReader in, PlayerClaims claims) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            String world = null;
+            int chunkX = 0;
+            int chunkZ = 0;
+            long claimedAt = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "world" -> world = in.nextString();
+                    case "chunkX" -> chunkX = in.nextInt();
+                    case "chunkZ" -> chunkZ = in.nextInt();
+                    case "claimedAt" -> claimedAt = in.nextLong();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            claims.addClaim(new Claim(world, chunkX, chunkZ, claimedAt));
+        }
+        in.endArray();
+    }
+
+    private static void readTrustData(JsonReader in, PlayerClaims claims) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            String name = null;
+            String level = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (field) {
+                    case "name" -> name = in.nextString();
+                    case "level" -> level = in.nextString();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            try {
+                UUID trustedId = UUID.fromString(key);
+                TrustLevel trustLevel = TrustLevel.fromString(level);
+                if (trustLevel == null) trustLevel = TrustLevel.BUILD; // Default to BUILD
+                claims.addTrustedPlayer(trustedId, name != null ? name : trustedId.toString(), trustLevel);
+            } catch (IllegalArgumentException ignored) {}
+        }
+        in.endObject();
+    }
+
+    private static void applyLegacyTrust(PlayerClaims claims, Map<String, String> names, List<String> ids) {
+        // Previous format: trustedPlayersWithNames (Map<UUID, name>)
+        if (names != null) {
+            for (Map.Entry<String, String> entry : names.entrySet()) {
+                try {
+                    UUID trustedId = UUID.fromString(entry.getKey());
+                    String name = entry.getValue() != null ? entry.getValue() : trustedId.toString();
+                    claims.addTrustedPlayer(trustedId, name, TrustLevel.BUILD);
+                } catch (IllegalArgumentException ignored) {}
+            }
+        }
+        // Oldest format: trustedPlayers (List<UUID>)
+        else if (ids != null) {
+            for (String trusted : ids) {
+                try {
+                    claims.addTrustedPlayer(UUID.fromString(trusted), trusted, TrustLevel.BUILD);
+                } catch (IllegalArgumentException ignored) {}
+            }
+        }
+    }
+
+    private static String nextNull(JsonReader in) throws IOException {
+        in.nextNull();
+        return null;
+    }
+}
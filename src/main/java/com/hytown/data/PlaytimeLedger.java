@@ -0,0 +1,354 @@
+package com.hytown.data;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Playtime of every player in one memory-mapped file of fixed-size records
+ * (playtime/ledger.bin), updated in place.
+ *
+ * An update writes one record into the mapping and marks its page dirty; {@link #flush()}
+ * forces only the dirty pages to disk. The heap holds just the UUID to record slot map.
+ *
+ * Every record carries a CRC32C of its fields, checked on open. Records that fail it are
+ * dropped, after a copy of the file is kept in the corrupted directory next to it.
+ * Version 1 ledgers (no checksums) are upgraded in place once, keeping a ledger.bin.v1 copy.
+ *
+ * The header also records whether the legacy per-player JSON files have been imported
+ * (see {@link #markLegacyImported()}), so an import cut short is run again.
+ *
+ * Layout (big-endian):
+ *   header  int magic "HTPL", int version, int count, int flags, 16 bytes reserved
+ *   records count x (long uuidMsb, long uuidLsb, long totalSeconds, long lastSeen,
+ *                    int crc32c of the preceding 32 bytes, int reserved)
+ */
+public final class PlaytimeLedger implements AutoCloseable {
+
+    private static final int MAGIC = 0x4854504C; // "HTPL"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 40;
+    private static final int RECORD_DATA_SIZE = 32;     // the checksummed part
+    private static final int V1_RECORD_SIZE = 32;
+    private static final int PAGE_SIZE = 4096;
+    private static final int INITIAL_CAPACITY = 1024;   // records; doubled when full
+    private static final int FLAGS_OFFSET = 12;
+    private static final int FLAG_LEGACY_IMPORTED = 1;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private final BitSet dirtyPages = new BitSet();
+    private final CRC32C crc = new CRC32C();
+    private volatile ChecksummedFiles.FsyncPolicy fsyncPolicy = ChecksummedFiles.FsyncPolicy.FILE;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int count;
+
+    /**
+     * Top-N result entry.
+     */
+    public record Entry(UUID playerId, long totalSeconds, long lastSeen) {}
+
+    private PlaytimeLedger(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a ledger, creating an empty one if the file does not exist.
+     */
+    public static PlaytimeLedger open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PlaytimeLedger ledger = new PlaytimeLedger(file, channel);
+        try {
+            ledger.load();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return ledger;
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            map(INITIAL_CAPACITY);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, 0);
+            dirtyPages.set(0);
+            flush();
+            return;
+        }
+
+        if (size < HEADER_SIZE) {
+            throw new IOException("Truncated playtime ledger " + file);
+        }
+        map((int) Math.max(INITIAL_CAPACITY, (size - HEADER_SIZE) / RECORD_SIZE));
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a playtime ledger: " + file);
+        }
+        count = buffer.getInt(8);
+        int version = buffer.getInt(4);
+        if (version == 1) {
+            upgradeFromV1(size);
+        } else if (version != VERSION) {
+            throw new IOException("Unsupported playtime ledger version " + version + " in " + file);
+        }
+        if (count < 0 || count > capacity) {
+            throw new IOException("Corrupt playtime ledger record count " + count + " in " + file);
+        }
+
+        dropCorruptRecords();
+        for (int slot = 0; slot < count; slot++) {
+            int offset = offset(slot);
+            slots.put(new UUID(buffer.getLong(offset), buffer.getLong(offset + 8)), slot);
+        }
+    }
+
+    /**
+     * Widens version 1 records to the checksummed layout, last record first so none is
+     * overwritten before it is moved.
+     */
+    private void upgradeFromV1(long size) throws IOException {
+        if (count < 0 || HEADER_SIZE + (long) count * V1_RECORD_SIZE > size) {
+            throw new IOException("Corrupt playtime ledger record count " + count + " in " + file);
+        }
+        Files.copy(file, file.resolveSibling(file.getFileName() + ".v1"), StandardCopyOption.REPLACE_EXISTING);
+        if (count > capacity) {
+            map(count);
+        }
+        for (int slot = count - 1; slot >= 0; slot--) {
+            int from = HEADER_SIZE + slot * V1_RECORD_SIZE;
+            int to = offset(slot);
+            long msb = buffer.getLong(from);
+            long lsb = buffer.getLong(from + 8);
+            long totalSeconds = buffer.getLong(from + 16);
+            long lastSeen = buffer.getLong(from + 24);
+            buffer.putLong(to, msb);
+            buffer.putLong(to + 8, lsb);
+            buffer.putLong(to + 16, totalSeconds);
+            buffer.putLong(to + 24, lastSeen);
+            buffer.putInt(to + RECORD_DATA_SIZE, checksum(to));
+            buffer.putInt(to + RECORD_DATA_SIZE + 4, 0);
+        }
+        buffer.putInt(4, VERSION);
+        dirtyPages.set(0, (offset(count) + PAGE_SIZE - 1) / PAGE_SIZE + 1);
+        flush();
+        System.err.println("[PlaytimeLedger] Upgraded " + count + " records to checksummed format in " + file);
+    }
+
+    /**
+     * Drops records whose checksum does not match, moving the last record into each gap.
+     */
+    private void dropCorruptRecords() throws IOException {
+        int dropped = 0;
+        for (int slot = count - 1; slot >= 0; slot--) {
+            int offset = offset(slot);
+            if (buffer.getInt(offset + RECORD_DATA_SIZE) == checksum(offset)) continue;
+
+            if (dropped == 0) {
+                Path corruptedDirectory = file.resolveSibling("corrupted");
+                Files.createDirectories(corruptedDirectory);
+                Path copy = corruptedDirectory.resolve(file.getFileName() + "_checksum_mismatch_" + System.currentTimeMillis());
+                Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+                System.err.println("[PlaytimeLedger] Corrupt records in " + file + ", original kept as " + copy);
+            }
+            int last = offset(count - 1);
+            if (last != offset) {
+                for (int i = 0; i < RECORD_SIZE; i += 8) {
+                    buffer.putLong(offset + i, buffer.getLong(last + i));
+                }
+            }
+            count--;
+            dropped++;
+            dirtyPages.set(offset / PAGE_SIZE, (offset + RECORD_SIZE - 1) / PAGE_SIZE + 1);
+        }
+        if (dropped > 0) {
+            buffer.putInt(8, count);
+            dirtyPages.set(0);
+            flush();
+            System.err.println("[PlaytimeLedger] Dropped " + dropped + " corrupt records from " + file);
+        }
+    }
+
+    private int checksum(int offset) {
+        crc.reset();
+        crc.update(buffer.slice(offset, RECORD_DATA_SIZE));
+        return (int) crc.getValue();
+    }
+
+    private void map(int newCapacity) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * RECORD_SIZE);
+        capacity = newCapacity;
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    /**
+     * Reads the records of an unreadable ledger that still pass their checksum, e.g. one
+     * whose header is damaged. Scans the whole file regardless of the recorded count.
+     * @return one entry per player (the most recently seen if a player appears twice)
+     */
+    public static List<Entry> salvage(Path file) throws IOException {
+        Map<UUID, Entry> entries = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + RECORD_SIZE) return List.of();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32C crc = new CRC32C();
+            for (long offset = HEADER_SIZE; offset + RECORD_SIZE <= size; offset += RECORD_SIZE) {
+                int at = (int) offset;
+                crc.reset();
+                crc.update(buffer.slice(at, RECORD_DATA_SIZE));
+                if (buffer.getInt(at + RECORD_DATA_SIZE) != (int) crc.getValue()) continue;
+                UUID playerId = new UUID(buffer.getLong(at), buffer.getLong(at + 8));
+                Entry entry = new Entry(playerId, buffer.getLong(at + 16), buffer.getLong(at + 24));
+                entries.merge(playerId, entry, (a, b) -> a.lastSeen() >= b.lastSeen() ? a : b);
+            }
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    // ==================== RECORDS ====================
+
+    /**
+     * Checks if a player has a record.
+     */
+    public synchronized boolean contains(UUID playerId) {
+        return slots.containsKey(playerId);
+    }
+
+    /**
+     * Gets a player's recorded total playtime, or 0 if they have no record.
+     */
+    public synchronized long getTotalSeconds(UUID playerId) {
+        Integer slot = slots.get(playerId);
+        return slot != null ? buffer.getLong(offset(slot) + 16) : 0;
+    }
+
+    /**
+     * Writes a player's total playtime and last-seen time, adding a record if needed.
+     */
+    public synchronized void update(UUID playerId, long totalSeconds, long lastSeen) throws IOException {
+        Integer slot = slots.get(playerId);
+        if (slot == null) {
+            if (count == capacity) {
+                map(capacity * 2);
+            }
+            slot = count++;
+            int offset = offset(slot);
+            buffer.putLong(offset, playerId.getMostSignificantBits());
+            buffer.putLong(offset + 8, playerId.getLeastSignificantBits());
+            buffer.putInt(8, count);
+            dirtyPages.set(0);
+            slots.put(playerId, slot);
+        } else if (buffer.getLong(offset(slot) + 16) == totalSeconds
+                && buffer.getLong(offset(slot) + 24) == lastSeen) {
+            return;
+        }
+
+        int offset = offset(slot);
+        buffer.putLong(offset + 16, totalSeconds);
+        buffer.putLong(offset + 24, lastSeen);
+        buffer.putInt(offset + RECORD_DATA_SIZE, checksum(offset));
+        dirtyPages.set(offset / PAGE_SIZE, (offset + RECORD_SIZE - 1) / PAGE_SIZE + 1);
+    }
+
+    /**
+     * Gets the players with the most playtime, highest first.
+     */
+    public synchronized List<Entry> top(int limit) {
+        if (limit <= 0) return List.of();
+        PriorityQueue<Entry> best = new PriorityQueue<>(limit + 1, Comparator.comparingLong(Entry::totalSeconds));
+        for (int slot = 0; slot < count; slot++) {
+            int offset = offset(slot);
+            long totalSeconds = buffer.getLong(offset + 16);
+            if (best.size() == limit && totalSeconds <= best.peek().totalSeconds()) continue;
+            best.add(new Entry(new UUID(buffer.getLong(offset), buffer.getLong(offset + 8)),
+                    totalSeconds, buffer.getLong(offset + 24)));
+            if (best.size() > limit) best.poll();
+        }
+        List<Entry> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingLong(Entry::totalSeconds).reversed());
+        return result;
+    }
+
+    /**
+     * Checks whether the legacy JSON import into this ledger has completed.
+     */
+    public synchronized boolean isLegacyImported() {
+        return (buffer.getInt(FLAGS_OFFSET) & FLAG_LEGACY_IMPORTED) != 0;
+    }
+
+    /**
+     * Records that the legacy JSON import has completed, and flushes. Call only after
+     * the imported records are flushed.
+     */
+    public synchronized void markLegacyImported() {
+        buffer.putInt(FLAGS_OFFSET, buffer.getInt(FLAGS_OFFSET) | FLAG_LEGACY_IMPORTED);
+        dirtyPages.set(0);
+        flush();
+    }
+
+    /**
+     * Gets the number of players with a record.
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    // ==================== PERSISTENCE ====================
+
+    /**
+     * Forces pages changed since the last flush to disk. With fsync policy NONE the pages
+     * are left for the OS to write back.
+     * @return the number of pages written
+     */
+    public synchronized int flush() {
+        int pages = 0;
+        int mapped = HEADER_SIZE + capacity * RECORD_SIZE;
+        boolean force = fsyncPolicy != ChecksummedFiles.FsyncPolicy.NONE;
+        for (int page = dirtyPages.nextSetBit(0); page >= 0; page = dirtyPages.nextSetBit(page + 1)) {
+            int start = page * PAGE_SIZE;
+            if (start >= mapped) break;
+            if (force) {
+                buffer.force(start, Math.min(PAGE_SIZE, mapped - start));
+            }
+            pages++;
+        }
+        dirtyPages.clear();
+        return pages;
+    }
+
+    /**
+     * Sets whether {@link #flush()} forces pages to disk (anything but NONE does).
+     */
+    public void setFsyncPolicy(ChecksummedFiles.FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
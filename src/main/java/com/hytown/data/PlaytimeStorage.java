@@ -1,87 +1,248 @@
 package com.hytown.data;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Manages persistent storage of player playtime using JSON files.
+ * Manages persistent storage of player playtime in the playtime ledger.
+ *
+ * Players in a session are pinned on the heap; offline players that were looked up
+ * stay in a bounded LRU cache and are written back to the ledger when evicted.
+ * Everyone else lives only in the ledger. Legacy per-player JSON files are imported
+ * into the ledger until an import completes (recorded in the ledger header).
  */
 public class PlaytimeStorage {
     private final Path playtimeDirectory;
-    private final Gson gson;
-    private final Map<UUID, PlaytimeData> cache;
+    private final BoundedCache<UUID, PlaytimeData> cache;
+    private final PlaytimeLedger ledger;
+
+    public static final int DEFAULT_MAX_CACHED_PLAYERS = 1024;
 
     public PlaytimeStorage(Path dataDirectory) {
+        this(dataDirectory, DEFAULT_MAX_CACHED_PLAYERS);
+    }
+
+    /**
+     * @param maxCachedPlayers offline players kept in memory (players in a session always are)
+     */
+    public PlaytimeStorage(Path dataDirectory, int maxCachedPlayers) {
         this.playtimeDirectory = dataDirectory.resolve("playtime");
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
-        this.cache = new ConcurrentHashMap<>();
+        this.cache = new BoundedCache<>(maxCachedPlayers, maxCachedPlayers, data -> 1,
+                (playerId, data) -> data.isInSession(), this::writeToLedger);
 
         try {
             Files.createDirectories(playtimeDirectory);
         } catch (IOException e) {
             e.printStackTrace();
         }
+
+        long start = System.nanoTime();
+        this.ledger = openLedger(playtimeDirectory.resolve("ledger.bin"));
+        if (!ledger.isLegacyImported()) {
+            importLegacyFiles();
+        }
+        System.err.println(String.format("[PlaytimeStorage] Opened playtime ledger (%d players) in %.1fms",
+                ledger.size(), (System.nanoTime() - start) / 1e6));
     }
 
-    public PlaytimeData getPlaytime(UUID playerId) {
-        return cache.computeIfAbsent(playerId, this::loadPlaytime);
+    /**
+     * Opens the ledger. A ledger that cannot be opened is moved to the corrupted directory
+     * and replaced by a new one holding the records that still pass their checksum. The
+     * new ledger is not marked imported, so the legacy files are imported again.
+     */
+    private static PlaytimeLedger openLedger(Path ledgerFile) {
+        try {
+            return PlaytimeLedger.open(ledgerFile);
+        } catch (IOException e) {
+            System.err.println("[PlaytimeStorage] ERROR opening playtime ledger, starting a new one: " + e.getMessage());
+        }
+        Path corrupt = ChecksummedFiles.moveToCorrupted(ledgerFile, ledgerFile.resolveSibling("corrupted"), "unreadable");
+        try {
+            PlaytimeLedger ledger = PlaytimeLedger.open(ledgerFile);
+            if (corrupt != null) {
+                System.err.println("[PlaytimeStorage] Moved unreadable playtime ledger to: " + corrupt);
+                List<PlaytimeLedger.Entry> salvaged = PlaytimeLedger.salvage(corrupt);
+                for (PlaytimeLedger.Entry entry : salvaged) {
+                    ledger.update(entry.playerId(), entry.totalSeconds(), entry.lastSeen());
+                }
+                ledger.flush();
+                System.err.println("[PlaytimeStorage] Salvaged " + salvaged.size() + " playtime records");
+            }
+            return ledger;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open playtime ledger " + ledgerFile, e);
+        }
     }
 
-    private PlaytimeData loadPlaytime(UUID playerId) {
-        Path file = playtimeDirectory.resolve(playerId.toString() + ".json");
+    /**
+     * Imports the per-player JSON files written by earlier versions, parsing them in
+     * parallel, and marks the ledger imported once they are flushed. Players the ledger
+     * already has (from an earlier, interrupted import, or salvaged) are skipped. The
+     * files are left in place as a backup.
+     */
+    private void importLegacyFiles() {
+        Gson gson = new Gson();
+        int imported = 0;
+        boolean failed = false;
+        long now = System.currentTimeMillis();
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(playtimeDirectory, "*.json")) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            System.err.println("[PlaytimeStorage] ERROR reading legacy playtime files, will retry on next start: " + e.getMessage());
+            return;
+        }
 
-        if (Files.exists(file)) {
+        List<PlaytimeLedger.Entry> entries = ParallelLoader.map("HyTown-PlaytimeLoader-", files, file -> {
+            String name = file.getFileName().toString();
             try {
-                String json = Files.readString(file);
-                PlaytimeJson data = gson.fromJson(json, PlaytimeJson.class);
-
-                if (data != null) {
-                    return new PlaytimeData(playerId, data.totalPlaytimeSeconds);
-                }
+                UUID playerId = UUID.fromString(name.substring(0, name.length() - ".json".length()));
+                PlaytimeJson data = gson.fromJson(Files.readString(file), PlaytimeJson.class);
+                return data != null
+                        ? new PlaytimeLedger.Entry(playerId, data.totalPlaytimeSeconds, Files.getLastModifiedTime(file).toMillis())
+                        : null;
+            } catch (IllegalArgumentException | IOException | com.google.gson.JsonParseException e) {
+                System.err.println("[PlaytimeStorage] Skipping legacy playtime file " + name + ": " + e.getMessage());
+                return null;
+            }
+        });
+        for (PlaytimeLedger.Entry entry : entries) {
+            if (ledger.contains(entry.playerId())) continue;
+            try {
+                ledger.update(entry.playerId(), entry.totalSeconds(), entry.lastSeen());
+                imported++;
             } catch (IOException e) {
-                e.printStackTrace();
+                System.err.println("[PlaytimeStorage] Skipping legacy playtime of " + entry.playerId() + ": " + e.getMessage());
+                failed = true;
             }
         }
+        ledger.flush();
+        if (!failed) {
+            ledger.markLegacyImported();
+        }
+        if (imported > 0) {
+            System.err.println("[PlaytimeStorage] Imported " + imported + " legacy playtime files into the ledger"
+                    + " (" + (System.currentTimeMillis() - now) + "ms)");
+        }
+    }
 
-        return new PlaytimeData(playerId);
+    public PlaytimeData getPlaytime(UUID playerId) {
+        return cache.get(playerId, this::loadPlaytime);
     }
 
-    public void savePlaytime(UUID playerId) {
-        PlaytimeData data = cache.get(playerId);
-        if (data == null) return;
+    private PlaytimeData loadPlaytime(UUID playerId) {
+        return new PlaytimeData(playerId, ledger.getTotalSeconds(playerId));
+    }
 
-        Path file = playtimeDirectory.resolve(playerId.toString() + ".json");
+    /**
+     * Starts a player's session. Atomic with eviction, so the session is never
+     * started on data that is being dropped from the cache.
+     */
+    public PlaytimeData startSession(UUID playerId) {
+        return cache.compute(playerId, data -> {
+            if (data == null) {
+                data = loadPlaytime(playerId);
+            }
+            data.startSession();
+            return data;
+        });
+    }
 
-        PlaytimeJson json = new PlaytimeJson();
-        json.totalPlaytimeSeconds = data.getTotalPlaytimeSeconds();
+    /**
+     * Writes a player's playtime (including their running session) into the ledger.
+     * Only updates the mapping; {@link #flush()} writes changed pages to disk.
+     */
+    public void savePlaytime(UUID playerId) {
+        PlaytimeData data = cache.peek(playerId);
+        if (data != null) {
+            writeToLedger(playerId, data);
+        }
+    }
 
+    /**
+     * Also the eviction listener; a ledger update only touches the mapping, so it is
+     * cheap enough to run with the cache locked.
+     */
+    private void writeToLedger(UUID playerId, PlaytimeData data) {
         try {
-            Files.writeString(file, gson.toJson(json));
+            ledger.update(playerId, data.getTotalWithCurrentSession(), System.currentTimeMillis());
         } catch (IOException e) {
-            e.printStackTrace();
+            System.err.println("[PlaytimeStorage] ERROR saving playtime for " + playerId + ": " + e.getMessage());
         }
     }
 
+    /**
+     * Sets whether ledger flushes force pages to disk (anything but NONE does).
+     */
+    public void setFsyncPolicy(ChecksummedFiles.FsyncPolicy fsyncPolicy) {
+        ledger.setFsyncPolicy(fsyncPolicy);
+    }
+
+    /**
+     * Writes ledger pages changed since the last flush to disk.
+     */
+    public void flush() {
+        ledger.flush();
+    }
+
     public void saveAll() {
-        for (UUID playerId : cache.keySet()) {
+        for (UUID playerId : cache.keys()) {
             savePlaytime(playerId);
         }
+        flush();
     }
 
     /**
-     * Get all currently cached playtime data (for updating online players).
+     * Gets the players with the most playtime (including running sessions), highest first.
+     */
+    public List<PlaytimeLedger.Entry> getTopPlaytime(int limit) {
+        for (UUID playerId : cache.keys()) {
+            savePlaytime(playerId);
+        }
+        return ledger.top(limit);
+    }
+
+    /**
+     * Gets the number of players with recorded playtime.
+     */
+    public int getRecordedPlayerCount() {
+        return ledger.size();
+    }
+
+    /**
+     * Flushes and closes the ledger. Call after saveAll on shutdown.
+     */
+    public void close() {
+        try {
+            ledger.close();
+        } catch (IOException e) {
+            System.err.println("[PlaytimeStorage] ERROR closing playtime ledger: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get a copy of the currently cached playtime data (for updating online players).
      */
     public Map<UUID, PlaytimeData> getCache() {
-        return cache;
+        return cache.snapshot();
+    }
+
+    /**
+     * Get playtime cache statistics for debugging/admin commands.
+     */
+    public String getCacheStats() {
+        return cache.getStats() + ", ledger=" + ledger.size();
     }
 
+    // Legacy per-player file format
     private static class PlaytimeJson {
         long totalPlaytimeSeconds;
     }
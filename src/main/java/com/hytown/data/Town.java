@@ -2,6 +2,8 @@ package com.hytown.data;
 
 import java.util.*;
 import java.util.Collections;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Represents a Town - a collection of claims owned by a group of players.
@@ -11,10 +13,13 @@ public class Town {
     private String name;
     private UUID mayorId;
     private String mayorName;
-    private Set<UUID> assistants = new HashSet<>();
-    private Set<UUID> residents = new HashSet<>();
-    private Map<UUID, String> residentNames = new HashMap<>();  // UUID -> name
-    private Set<String> claimKeys = new HashSet<>();  // "world:chunkX,chunkZ"
+
+    // Members and claims are immutable snapshots, replaced (under the town lock) on every
+    // change, so getters hand them out without copying and readers never see a partial update
+    private volatile Set<UUID> assistants = Collections.emptySet();
+    private volatile Set<UUID> residents = Collections.emptySet();
+    private volatile Map<UUID, String> residentNames = Collections.emptyMap();  // UUID -> name
+    private volatile Set<String> claimKeys = Collections.emptySet();  // "world:chunkX,chunkZ"
     private TownSettings settings = new TownSettings();
     private double balance = 0.0;
     private long createdAt;
@@ -38,9 +43,10 @@ public class Town {
     // Bonus claims - extra claims granted by admins that bypass normal limits
     private int bonusClaims = 0;
 
-    // Transaction history (limited to last 100 entries)
+    // Transactions not yet in the town's transaction log: history saved inline by older
+    // versions, or added while no log is attached. Limited to the last 100 entries.
     private static final int MAX_TRANSACTIONS = 100;
-    private List<TownTransaction> transactionHistory = new ArrayList<>();
+    private List<TownTransaction> transactionHistory;
 
     // Plot ownership and settings
     // Key: claimKey ("world:x,z"), Value: owner UUID
@@ -48,12 +54,18 @@ public class Town {
     // Key: claimKey, Value: PlotSettings (overrides town defaults)
     private Map<String, PlotSettings> plotSettings = new HashMap<>();
 
+    // Receives claim changes so the chunk index stays in sync (set by TownStorage, not saved)
+    private transient ClaimListener claimListener;
+
+    // Stores new transactions in the town's transaction log (set by TownStorage, not saved)
+    private transient TransactionListener transactionListener;
+
     public Town(String name, UUID mayorId, String mayorName) {
         this.name = name;
         this.mayorId = mayorId;
         this.mayorName = mayorName;
-        this.residents.add(mayorId);
-        this.residentNames.put(mayorId, mayorName);
+        this.residents = Collections.singleton(mayorId);
+        this.residentNames = Collections.singletonMap(mayorId, mayorName);
         this.createdAt = System.currentTimeMillis();
     }
 
@@ -62,24 +74,27 @@ public class Town {
 
     /**
      * Validates and fixes any data inconsistencies after loading from JSON.
+     * - Replaces the collections Gson created with immutable snapshots
      * - Ensures mayor is in residents set
      * - Ensures all assistants are in residents set
      */
-    public void validateAfterLoad() {
+    public synchronized void validateAfterLoad() {
+        Set<UUID> loadedResidents = copy(residents);
+        Map<UUID, String> loadedNames = copy(residentNames);
+
         // Ensure mayor is in residents
-        if (mayorId != null && !residents.contains(mayorId)) {
-            residents.add(mayorId);
-            if (mayorName != null) {
-                residentNames.put(mayorId, mayorName);
-            }
+        if (mayorId != null && loadedResidents.add(mayorId) && mayorName != null) {
+            loadedNames.put(mayorId, mayorName);
         }
 
         // Ensure all assistants are in residents
-        for (UUID assistantId : assistants) {
-            if (!residents.contains(assistantId)) {
-                residents.add(assistantId);
-            }
-        }
+        Set<UUID> loadedAssistants = copy(assistants);
+        loadedResidents.addAll(loadedAssistants);
+
+        assistants = freeze(loadedAssistants);
+        residents = freeze(loadedResidents);
+        residentNames = freeze(loadedNames);
+        claimKeys = freeze(copy(claimKeys));
 
         // Initialize settings if null
         if (settings == null) {
@@ -112,51 +127,146 @@ public class Town {
         return null;
     }
 
-    public void addResident(UUID playerId, String playerName) {
-        residents.add(playerId);
-        residentNames.put(playerId, playerName);
+    public boolean containsResident(UUID playerId) {
+        return residents.contains(playerId);
+    }
+
+    /**
+     * Check if a player is an assistant (unlike {@link #isAssistant}, false for the mayor).
+     */
+    public boolean containsAssistant(UUID playerId) {
+        return assistants.contains(playerId);
     }
 
-    public void removeResident(UUID playerId) {
-        residents.remove(playerId);
-        residentNames.remove(playerId);
-        assistants.remove(playerId);
+    public synchronized void addResident(UUID playerId, String playerName) {
+        Set<UUID> newResidents = copy(residents);
+        newResidents.add(playerId);
+        Map<UUID, String> newNames = copy(residentNames);
+        newNames.put(playerId, playerName);
+        residents = freeze(newResidents);
+        residentNames = freeze(newNames);
     }
 
-    public void promoteToAssistant(UUID playerId) {
+    public synchronized void removeResident(UUID playerId) {
         if (residents.contains(playerId)) {
-            assistants.add(playerId);
+            Set<UUID> newResidents = copy(residents);
+            newResidents.remove(playerId);
+            residents = freeze(newResidents);
+        }
+        if (residentNames.containsKey(playerId)) {
+            Map<UUID, String> newNames = copy(residentNames);
+            newNames.remove(playerId);
+            residentNames = freeze(newNames);
+        }
+        demoteFromAssistant(playerId);
+    }
+
+    public synchronized void promoteToAssistant(UUID playerId) {
+        if (residents.contains(playerId) && !assistants.contains(playerId)) {
+            Set<UUID> newAssistants = copy(assistants);
+            newAssistants.add(playerId);
+            assistants = freeze(newAssistants);
         }
     }
 
-    public void demoteFromAssistant(UUID playerId) {
-        assistants.remove(playerId);
+    public synchronized void demoteFromAssistant(UUID playerId) {
+        if (assistants.contains(playerId)) {
+            Set<UUID> newAssistants = copy(assistants);
+            newAssistants.remove(playerId);
+            assistants = freeze(newAssistants);
+        }
     }
 
-    public void setMayor(UUID newMayorId, String newMayorName) {
+    public synchronized void setMayor(UUID newMayorId, String newMayorName) {
         // Old mayor becomes assistant
+        Set<UUID> newAssistants = copy(assistants);
         if (mayorId != null) {
-            assistants.add(mayorId);
+            newAssistants.add(mayorId);
         }
         // New mayor
         this.mayorId = newMayorId;
         this.mayorName = newMayorName;
-        assistants.remove(newMayorId);
+        newAssistants.remove(newMayorId);
+        assistants = freeze(newAssistants);
         // Ensure new mayor is a resident
         if (!residents.contains(newMayorId)) {
-            residents.add(newMayorId);
-            residentNames.put(newMayorId, newMayorName);
+            addResident(newMayorId, newMayorName);
         }
     }
 
+    /**
+     * Calls the action for each resident, without copying the set.
+     */
+    public void forEachResident(Consumer<UUID> action) {
+        residents.forEach(action);
+    }
+
+    /**
+     * Calls the action for each resident and their name, without copying the map.
+     */
+    public void forEachResidentName(BiConsumer<UUID, String> action) {
+        residentNames.forEach(action);
+    }
+
     // ==================== CLAIMS ====================
 
-    public void addClaim(String claimKey) {
-        claimKeys.add(claimKey);
+    public synchronized void addClaim(String claimKey) {
+        if (claimKeys.contains(claimKey)) return;
+        Set<String> newClaims = copy(claimKeys);
+        newClaims.add(claimKey);
+        claimKeys = freeze(newClaims);
+        if (claimListener != null) {
+            claimListener.claimAdded(this, claimKey);
+        }
+    }
+
+    public synchronized void removeClaim(String claimKey) {
+        if (!claimKeys.contains(claimKey)) return;
+        Set<String> newClaims = copy(claimKeys);
+        newClaims.remove(claimKey);
+        claimKeys = freeze(newClaims);
+        if (claimListener != null) {
+            claimListener.claimRemoved(this, claimKey);
+        }
+    }
+
+    /**
+     * Adds several claims with a single copy of the claim set.
+     */
+    public synchronized void addClaims(Collection<String> newClaimKeys) {
+        Set<String> newClaims = copy(claimKeys);
+        List<String> added = new ArrayList<>();
+        for (String claimKey : newClaimKeys) {
+            if (newClaims.add(claimKey)) added.add(claimKey);
+        }
+        if (added.isEmpty()) return;
+        claimKeys = freeze(newClaims);
+        if (claimListener != null) {
+            for (String claimKey : added) claimListener.claimAdded(this, claimKey);
+        }
+    }
+
+    /**
+     * Removes several claims with a single copy of the claim set.
+     */
+    public synchronized void removeClaims(Collection<String> oldClaimKeys) {
+        Set<String> newClaims = copy(claimKeys);
+        List<String> removed = new ArrayList<>();
+        for (String claimKey : oldClaimKeys) {
+            if (newClaims.remove(claimKey)) removed.add(claimKey);
+        }
+        if (removed.isEmpty()) return;
+        claimKeys = freeze(newClaims);
+        if (claimListener != null) {
+            for (String claimKey : removed) claimListener.claimRemoved(this, claimKey);
+        }
     }
 
-    public void removeClaim(String claimKey) {
-        claimKeys.remove(claimKey);
+    /**
+     * Calls the action for each claim key, without copying the set.
+     */
+    public void forEachClaimKey(Consumer<String> action) {
+        claimKeys.forEach(action);
     }
 
     public boolean ownsClaim(String claimKey) {
@@ -173,6 +283,7 @@ public class Town {
      * @return The origin claim key, or null if no claims
      */
     public String getFirstClaimKey() {
+        Set<String> claimKeys = this.claimKeys;
         if (claimKeys.isEmpty()) return null;
 
         // Find the claim with the lowest coordinates for consistency
@@ -455,9 +566,16 @@ public class Town {
     // ==================== TRANSACTIONS ====================
 
     /**
-     * Add a transaction to the history, keeping only the last MAX_TRANSACTIONS.
+     * Add a transaction to the town's transaction log. Without a log attached (or if it
+     * cannot be written) it is kept with the town, up to the last MAX_TRANSACTIONS.
      */
-    public void addTransaction(TownTransaction transaction) {
+    public synchronized void addTransaction(TownTransaction transaction) {
+        if (transactionListener != null && transactionListener.transactionAdded(this, transaction)) {
+            return;
+        }
+        if (transactionHistory == null) {
+            transactionHistory = new ArrayList<>();
+        }
         transactionHistory.add(transaction);
         // Trim to max size
         while (transactionHistory.size() > MAX_TRANSACTIONS) {
@@ -466,19 +584,44 @@ public class Town {
     }
 
     /**
-     * Get the transaction history (newest first).
+     * Get the transactions kept with the town (oldest first), see {@link #addTransaction}.
      */
+    public synchronized List<TownTransaction> getPendingTransactions() {
+        return transactionHistory != null ? new ArrayList<>(transactionHistory) : Collections.emptyList();
+    }
+
+    /**
+     * Get the last MAX_TRANSACTIONS transactions (newest first).
+     * @deprecated read pages from the town's transaction log (TownStorage.getTransactionLog)
+     */
+    @Deprecated
     public List<TownTransaction> getTransactionHistory() {
-        List<TownTransaction> reversed = new ArrayList<>(transactionHistory);
-        Collections.reverse(reversed);
-        return reversed;
+        List<TownTransaction> history = getPendingTransactions();
+        Collections.reverse(history);
+        TransactionListener listener = getTransactionListener();
+        List<TownTransaction> logged = listener != null ? listener.getRecentTransactions(this, MAX_TRANSACTIONS) : null;
+        if (logged != null) {
+            history.addAll(logged);
+        }
+        return history.size() > MAX_TRANSACTIONS ? new ArrayList<>(history.subList(0, MAX_TRANSACTIONS)) : history;
     }
 
     /**
-     * Get the transaction history (oldest first).
+     * Get the last MAX_TRANSACTIONS transactions (oldest first).
+     * @deprecated read pages from the town's transaction log (TownStorage.getTransactionLog)
      */
+    @Deprecated
     public List<TownTransaction> getTransactionHistoryChronological() {
-        return new ArrayList<>(transactionHistory);
+        List<TownTransaction> history = getTransactionHistory();
+        Collections.reverse(history);
+        return history;
+    }
+
+    /**
+     * Drop the transactions kept with the town once they are in its transaction log.
+     */
+    public synchronized void clearPendingTransactions() {
+        transactionHistory = null;
     }
 
     /**
@@ -551,10 +694,11 @@ public class Town {
     public String getName() { return name; }
     public UUID getMayorId() { return mayorId; }
     public String getMayorName() { return mayorName; }
-    public Set<UUID> getAssistants() { return new HashSet<>(assistants); }
-    public Set<UUID> getResidents() { return new HashSet<>(residents); }
-    public Map<UUID, String> getResidentNames() { return new HashMap<>(residentNames); }
-    public Set<String> getClaimKeys() { return new HashSet<>(claimKeys); }
+    // Unmodifiable snapshots; later changes to the town do not show up in a returned collection
+    public Set<UUID> getAssistants() { return assistants; }
+    public Set<UUID> getResidents() { return residents; }
+    public Map<UUID, String> getResidentNames() { return residentNames; }
+    public Set<String> getClaimKeys() { return claimKeys; }
     public TownSettings getSettings() { return settings; }
     public double getBalance() { return balance; }
     public long getCreatedAt() { return createdAt; }
@@ -576,6 +720,10 @@ public class Town {
         return residents.size();
     }
 
+    public int getAssistantCount() {
+        return assistants.size();
+    }
+
     public long getLastUpkeepTime() { return lastUpkeepTime; }
     public int getMissedUpkeepDays() { return missedUpkeepDays; }
     public int getBonusClaims() { return bonusClaims; }
@@ -591,10 +739,26 @@ public class Town {
     // For JSON deserialization
     public void setMayorId(UUID mayorId) { this.mayorId = mayorId; }
     public void setMayorName(String mayorName) { this.mayorName = mayorName; }
-    public void setAssistants(Set<UUID> assistants) { this.assistants = assistants; }
-    public void setResidents(Set<UUID> residents) { this.residents = residents; }
-    public void setResidentNames(Map<UUID, String> residentNames) { this.residentNames = residentNames; }
-    public void setClaimKeys(Set<String> claimKeys) { this.claimKeys = claimKeys; }
+    public synchronized void setAssistants(Set<UUID> assistants) { this.assistants = freeze(copy(assistants)); }
+    public synchronized void setResidents(Set<UUID> residents) { this.residents = freeze(copy(residents)); }
+    public synchronized void setResidentNames(Map<UUID, String> residentNames) { this.residentNames = freeze(copy(residentNames)); }
+    public synchronized void setClaimKeys(Set<String> claimKeys) {
+        Set<String> previous = this.claimKeys;
+        claimKeys = freeze(copy(claimKeys));
+        this.claimKeys = claimKeys;
+        if (claimListener != null) {
+            for (String claimKey : previous) {
+                if (!claimKeys.contains(claimKey)) claimListener.claimRemoved(this, claimKey);
+            }
+            for (String claimKey : claimKeys) {
+                if (!previous.contains(claimKey)) claimListener.claimAdded(this, claimKey);
+            }
+        }
+    }
+    public ClaimListener getClaimListener() { return claimListener; }
+    public void setClaimListener(ClaimListener claimListener) { this.claimListener = claimListener; }
+    public synchronized TransactionListener getTransactionListener() { return transactionListener; }
+    public synchronized void setTransactionListener(TransactionListener transactionListener) { this.transactionListener = transactionListener; }
     public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
     public void setLastUpkeepTime(long lastUpkeepTime) { this.lastUpkeepTime = lastUpkeepTime; }
     public void setMissedUpkeepDays(int missedUpkeepDays) { this.missedUpkeepDays = missedUpkeepDays; }
@@ -608,8 +772,73 @@ public class Town {
         return baseLimit + bonusClaims;
     }
 
+    // ==================== SERIALIZATION ====================
+    // Raw field access for TownTypeAdapter, which writes exactly the fields (and nulls) reflection used to
+
+    String getBoardRaw() { return board; }
+    void setBoardRaw(String board) { this.board = board; }
+    void setSpawnRaw(String world, double x, double y, double z, float yaw, float pitch, boolean hasSpawn) {
+        this.spawnWorld = world;
+        this.spawnX = x;
+        this.spawnY = y;
+        this.spawnZ = z;
+        this.spawnYaw = yaw;
+        this.spawnPitch = pitch;
+        this.hasSpawn = hasSpawn;
+    }
+    List<TownTransaction> getTransactionHistoryRaw() { return transactionHistory; }
+    void setTransactionHistoryRaw(List<TownTransaction> transactionHistory) { this.transactionHistory = transactionHistory; }
+    Map<String, UUID> getPlotOwnersRaw() { return plotOwners; }
+    void setPlotOwnersRaw(Map<String, UUID> plotOwners) { this.plotOwners = plotOwners; }
+    Map<String, PlotSettings> getPlotSettingsRaw() { return plotSettings; }
+    void setPlotSettingsRaw(Map<String, PlotSettings> plotSettings) { this.plotSettings = plotSettings; }
+
+    // ==================== SNAPSHOTS ====================
+
+    private static <T> Set<T> copy(Set<T> set) {
+        return set != null ? new HashSet<>(set) : new HashSet<>();
+    }
+
+    private static <K, V> Map<K, V> copy(Map<K, V> map) {
+        return map != null ? new HashMap<>(map) : new HashMap<>();
+    }
+
+    private static <T> Set<T> freeze(Set<T> set) {
+        return set.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    private static <K, V> Map<K, V> freeze(Map<K, V> map) {
+        return map.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(map);
+    }
+
     // ==================== ENUM ====================
 
+    /**
+     * Notified when a claim is added to or removed from a town.
+     */
+    public interface ClaimListener {
+        void claimAdded(Town town, String claimKey);
+        void claimRemoved(Town town, String claimKey);
+    }
+
+    /**
+     * Stores transactions added to a town.
+     */
+    public interface TransactionListener {
+        /**
+         * @return false if the transaction could not be stored (the town then keeps it)
+         */
+        boolean transactionAdded(Town town, TownTransaction transaction);
+
+        /**
+         * @return up to limit of the town's stored transactions (newest first), or null if
+         *         they cannot be read
+         */
+        default List<TownTransaction> getRecentTransactions(Town town, int limit) {
+            return null;
+        }
+    }
+
     public enum TownRank {
         MAYOR("Mayor"),
         ASSISTANT("Assistant"),
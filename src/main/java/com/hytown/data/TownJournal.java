@@ -0,0 +1,461 @@
+package com.hytown.data;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of town mutations.
+ *
+ * Instead of rewriting a town's whole JSON file on every save, TownStorage appends
+ * only what changed since the previous save as one compact line. A deposit or a
+ * claim is a few dozen bytes. Lines are written immediately and fsynced in groups
+ * by a background flusher. The journal is periodically compacted back into the
+ * per-town JSON snapshots, and replayed on top of them at startup.
+ *
+ * Record format (one JSON object per line):
+ *   {"seq":12,"town":"Name","snap":{...}}   full town state
+ *   {"seq":13,"town":"Name","ops":[...]}    patch against the previous state
+ *   {"seq":14,"town":"Name","del":true}     town deleted
+ *
+ * Patch operations are arrays whose first element is the op code and whose second
+ * element is the path (array of member names) from the town root:
+ *   ["s", path, value]           set a member
+ *   ["u", path]                  remove a member
+ *   ["a", path, [values]]        append values not already in the array
+ *   ["r", path, [values]]        remove the first occurrence of each value
+ *   ["t", path, drop, [values]]  drop values from the head of a list, append to the tail
+ */
+public class TownJournal {
+
+    /** Property written into compacted snapshots: the last journal seq they include. */
+    public static final String SEQ_PROPERTY = "journalSeq";
+
+    private final Path journalFile;
+    private final Path compactingFile;
+    private final Gson gson = new Gson();
+
+    private FileChannel channel;
+    private long nextSeq = 1;
+    private long bytesSinceCompaction = 0;
+    private volatile boolean unsynced = false;
+
+    // Held while forcing the channel, outside this object's monitor so appends go on
+    // during a slow fsync. Methods that close the channel take it first.
+    private final Object syncLock = new Object();
+
+    public TownJournal(Path directory) {
+        this.journalFile = directory.resolve("_journal.log");
+        this.compactingFile = directory.resolve("_journal.compacting");
+    }
+
+    // ==================== WRITING ====================
+
+    /**
+     * Append a full town snapshot record.
+     * @return the record's sequence number
+     */
+    public synchronized long appendSnapshot(String townName, JsonObject tree) throws IOException {
+        JsonObject record = newRecord(townName);
+        record.add("snap", tree);
+        return append(record);
+    }
+
+    /**
+     * Append a patch record (see {@link #diff}).
+     * @return the record's sequence number
+     */
+    public synchronized long appendPatch(String townName, JsonArray ops) throws IOException {
+        JsonObject record = newRecord(townName);
+        record.add("ops", ops);
+        return append(record);
+    }
+
+    /**
+     * Append a deletion record.
+     * @return the record's sequence number
+     */
+    public synchronized long appendDelete(String townName) throws IOException {
+        JsonObject record = newRecord(townName);
+        record.addProperty("del", true);
+        return append(record);
+    }
+
+    private JsonObject newRecord(String townName) {
+        JsonObject record = new JsonObject();
+        record.addProperty("seq", nextSeq);
+        record.addProperty("town", townName);
+        return record;
+    }
+
+    private long append(JsonObject record) throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        byte[] line = (gson.toJson(record) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        bytesSinceCompaction += line.length;
+        unsynced = true;
+        return nextSeq++;
+    }
+
+    /**
+     * Force written records to disk. Called by the group-sync flusher, so a burst of
+     * saves shares a single fsync. Appends are not blocked while it runs.
+     */
+    public void sync() {
+        synchronized (syncLock) {
+            FileChannel forced;
+            synchronized (this) {
+                if (!unsynced || channel == null) return;
+                forced = channel;
+                unsynced = false;
+            }
+            try {
+                forced.force(false);
+            } catch (IOException e) {
+                unsynced = true;
+                System.err.println("[TownJournal] ERROR syncing journal: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Bytes appended since the last compaction (used to trigger early compaction).
+     */
+    public synchronized long getBytesSinceCompaction() {
+        return bytesSinceCompaction;
+    }
+
+    /**
+     * Last sequence number handed out.
+     */
+    public synchronized long getLastSeq() {
+        return nextSeq - 1;
+    }
+
+    // ==================== COMPACTION ====================
+
+    /**
+     * Move the active journal aside so compaction can write snapshots while new
+     * records go to a fresh file. If an earlier compaction did not finish, the
+     * active journal is appended to its leftover file instead.
+     */
+    public void beginCompaction() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                sync();
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
+                if (Files.exists(journalFile)) {
+                    if (Files.exists(compactingFile)) {
+                        Files.write(compactingFile, Files.readAllBytes(journalFile), StandardOpenOption.APPEND);
+                        Files.delete(journalFile);
+                    } else {
+                        Files.move(journalFile, compactingFile, StandardCopyOption.ATOMIC_MOVE);
+                    }
+                }
+                bytesSinceCompaction = 0;
+            }
+        }
+    }
+
+    /**
+     * Drop the compacted journal once every snapshot it covers has been written.
+     */
+    public synchronized void finishCompaction() throws IOException {
+        Files.deleteIfExists(compactingFile);
+    }
+
+    /**
+     * Discard all journal records (e.g. when restoring a backup over the snapshots).
+     */
+    public void discard() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
+                Files.deleteIfExists(compactingFile);
+                Files.deleteIfExists(journalFile);
+                bytesSinceCompaction = 0;
+                unsynced = false;
+            }
+        }
+    }
+
+    /**
+     * Flush and close the journal.
+     */
+    public void close() {
+        synchronized (syncLock) {
+            synchronized (this) {
+                sync();
+                if (channel != null) {
+                    try {
+                        channel.close();
+                    } catch (IOException ignored) {}
+                    channel = null;
+                }
+            }
+        }
+    }
+
+    // ==================== REPLAY ====================
+
+    /**
+     * Read every record in order (leftover compaction file first, then the active
+     * journal). A line truncated by a crash is skipped.
+     * Sequence numbering continues after the highest seq seen.
+     */
+    public synchronized void replay(Consumer<JsonObject> consumer) {
+        for (Path file : new Path[] { compactingFile, journalFile }) {
+            if (!Files.exists(file)) continue;
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    JsonObject record;
+                    try {
+                        record = JsonParser.parseString(line).getAsJsonObject();
+                    } catch (JsonParseException | IllegalStateException e) {
+                        System.err.println("[TownJournal] Skipping truncated record in " + file.getFileName());
+                        continue;
+                    }
+                    if (!record.has("seq") || !record.has("town")) continue;
+                    advanceSeq(record.get("seq").getAsLong());
+                    consumer.accept(record);
+                }
+            } catch (IOException e) {
+                System.err.println("[TownJournal] ERROR reading " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Make sure new records are numbered after the given seq.
+     */
+    public synchronized void advanceSeq(long seenSeq) {
+        if (seenSeq >= nextSeq) {
+            nextSeq = seenSeq + 1;
+        }
+    }
+
+    // ==================== PATCHES ====================
+
+    /**
+     * Compute the patch operations that turn {@code before} into {@code after}.
+     * Nested objects are diffed member by member. Arrays are expressed as a tail
+     * append when possible (transaction history), as add/remove of primitives when
+     * replaying that reproduces the array exactly, order and duplicates included
+     * (a claim or resident added or removed), and replaced wholesale otherwise.
+     */
+    public static JsonArray diff(JsonObject before, JsonObject after) {
+        JsonArray ops = new JsonArray();
+        diffObject(new JsonArray(), before, after, ops);
+        return ops;
+    }
+
+    private static void diffObject(JsonArray path, JsonObject before, JsonObject after, JsonArray ops) {
+        for (Map.Entry<String, JsonElement> entry : after.entrySet()) {
+            JsonArray memberPath = child(path, entry.getKey());
+            JsonElement oldValue = before.get(entry.getKey());
+            JsonElement newValue = entry.getValue();
+            if (oldValue == null) {
+                ops.add(op("s", memberPath, newValue));
+            } else if (!oldValue.equals(newValue)) {
+                if (oldValue.isJsonObject() && newValue.isJsonObject()) {
+                    diffObject(memberPath, oldValue.getAsJsonObject(), newValue.getAsJsonObject(), ops);
+                } else if (oldValue.isJsonArray() && newValue.isJsonArray()) {
+                    diffArray(memberPath, oldValue.getAsJsonArray(), newValue.getAsJsonArray(), ops);
+                } else {
+                    ops.add(op("s", memberPath, newValue));
+                }
+            }
+        }
+        for (String key : before.keySet()) {
+            if (!after.has(key)) {
+                JsonArray unset = new JsonArray();
+                unset.add("u");
+                unset.add(child(path, key));
+                ops.add(unset);
+            }
+        }
+    }
+
+    private static void diffArray(JsonArray path, JsonArray before, JsonArray after, JsonArray ops) {
+        // List that dropped entries from its head and appended to its tail
+        int first = after.size() > 0 ? indexOf(before, after.get(0)) : before.size();
+        while (first >= 0) {
+            int kept = before.size() - first;
+            if (kept <= after.size() && regionMatches(before, first, after, kept)) {
+                JsonArray appended = new JsonArray();
+                for (int i = kept; i < after.size(); i++) {
+                    appended.add(after.get(i));
+                }
+                JsonArray tail = new JsonArray();
+                tail.add("t");
+                tail.add(path);
+                tail.add(first);
+                tail.add(appended);
+                ops.add(tail);
+                return;
+            }
+            first = nextIndexOf(before, after.size() > 0 ? after.get(0) : null, first + 1);
+        }
+
+        // Primitives added or removed, if replaying that keeps the order (residents, assistants)
+        if (allPrimitive(before) && allPrimitive(after)) {
+            Set<JsonElement> oldValues = new LinkedHashSet<>();
+            Set<JsonElement> newValues = new LinkedHashSet<>();
+            before.forEach(oldValues::add);
+            after.forEach(newValues::add);
+            JsonArray added = new JsonArray();
+            JsonArray removed = new JsonArray();
+            for (JsonElement value : newValues) {
+                if (!oldValues.contains(value)) added.add(value);
+            }
+            for (JsonElement value : oldValues) {
+                if (!newValues.contains(value)) removed.add(value);
+            }
+            JsonArray replayed = before.deepCopy();
+            addValues(replayed, added);
+            removeValues(replayed, removed);
+            if (replayed.equals(after)) {
+                if (added.size() > 0) ops.add(op("a", path, added));
+                if (removed.size() > 0) ops.add(op("r", path, removed));
+                return;
+            }
+        }
+
+        ops.add(op("s", path, after));
+    }
+
+    /**
+     * Apply patch operations produced by {@link #diff} to a town tree in place.
+     */
+    public static void apply(JsonObject tree, JsonArray ops) {
+        for (JsonElement element : ops) {
+            JsonArray op = element.getAsJsonArray();
+            String code = op.get(0).getAsString();
+            JsonArray path = op.get(1).getAsJsonArray();
+            JsonObject parent = resolveParent(tree, path);
+            String member = path.get(path.size() - 1).getAsString();
+            switch (code) {
+                case "s" -> parent.add(member, op.get(2));
+                case "u" -> parent.remove(member);
+                case "a" -> addValues(arrayMember(parent, member), op.get(2).getAsJsonArray());
+                case "r" -> removeValues(arrayMember(parent, member), op.get(2).getAsJsonArray());
+                case "t" -> {
+                    JsonArray target = arrayMember(parent, member);
+                    int drop = Math.min(op.get(2).getAsInt(), target.size());
+                    for (int i = 0; i < drop; i++) {
+                        target.remove(0);
+                    }
+                    target.addAll(op.get(3).getAsJsonArray());
+                }
+                default -> throw new JsonParseException("Unknown journal op: " + code);
+            }
+        }
+    }
+
+    private static void addValues(JsonArray target, JsonArray values) {
+        for (JsonElement value : values) {
+            if (!target.contains(value)) target.add(value);
+        }
+    }
+
+    private static void removeValues(JsonArray target, JsonArray values) {
+        for (JsonElement value : values) {
+            target.remove(value);
+        }
+    }
+
+    private static JsonObject resolveParent(JsonObject tree, JsonArray path) {
+        JsonObject current = tree;
+        for (int i = 0; i < path.size() - 1; i++) {
+            String key = path.get(i).getAsString();
+            JsonElement next = current.get(key);
+            if (next == null || !next.isJsonObject()) {
+                next = new JsonObject();
+                current.add(key, next);
+            }
+            current = next.getAsJsonObject();
+        }
+        return current;
+    }
+
+    private static JsonArray arrayMember(JsonObject parent, String member) {
+        JsonElement value = parent.get(member);
+        if (value == null || !value.isJsonArray()) {
+            value = new JsonArray();
+            parent.add(member, value);
+        }
+        return value.getAsJsonArray();
+    }
+
+    private static JsonArray op(String code, JsonArray path, JsonElement value) {
+        JsonArray op = new JsonArray();
+        op.add(code);
+        op.add(path);
+        op.add(value);
+        return op;
+    }
+
+    private static JsonArray child(JsonArray path, String key) {
+        JsonArray child = new JsonArray(path.size() + 1);
+        child.addAll(path);
+        child.add(key);
+        return child;
+    }
+
+    private static int indexOf(JsonArray array, JsonElement value) {
+        return nextIndexOf(array, value, 0);
+    }
+
+    private static int nextIndexOf(JsonArray array, JsonElement value, int from) {
+        if (value == null) return -1;
+        for (int i = from; i < array.size(); i++) {
+            if (array.get(i).equals(value)) return i;
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(JsonArray before, int from, JsonArray after, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!before.get(from + i).equals(after.get(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean allPrimitive(JsonArray array) {
+        for (JsonElement value : array) {
+            if (!value.isJsonPrimitive()) return false;
+        }
+        return true;
+    }
+}
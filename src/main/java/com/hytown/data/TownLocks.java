@@ -0,0 +1,169 @@
+package com.hytown.data;
+
+import com.hytown.metrics.LatencyHistogram;
+import com.hytown.metrics.PerfMetrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The locks TownStorage uses in place of a single global write lock.
+ *
+ * - Town stripes guard a town's in-memory save state (its last journaled tree and
+ *   uncompacted seq). Towns hash to one of {@link #STRIPES} reentrant locks by lowercase
+ *   name, so saves of different towns rarely wait on each other.
+ * - File stripes guard a town's JSON and .bak files, so only writers of the same file
+ *   wait on a slow disk.
+ * - The journal lock is held shared while a save appends to the journal and records the
+ *   result, and exclusively while compaction captures what to compact, so no append can
+ *   fall between the two.
+ * - The invite lock guards the pending invite sets; the index file lock orders writes
+ *   of _index.json.
+ *
+ * Order: town stripes (ascending, see {@link #lockTowns}) before the journal lock, the
+ * invite lock or file stripes. File stripes, the invite lock and the index file lock are
+ * innermost.
+ *
+ * Every acquisition that has to wait records the wait in a histogram per lock kind
+ * (town.lock.town, town.lock.file, town.lock.journal, town.lock.invites, town.lock.index),
+ * so the counts are contended acquisitions and the values the time spent blocked.
+ */
+final class TownLocks {
+    static final int STRIPES = 64;
+
+    private static final LatencyHistogram TOWN_WAIT = PerfMetrics.histogram("town.lock.town");
+    private static final LatencyHistogram FILE_WAIT = PerfMetrics.histogram("town.lock.file");
+    private static final LatencyHistogram JOURNAL_WAIT = PerfMetrics.histogram("town.lock.journal");
+    private static final LatencyHistogram INVITE_WAIT = PerfMetrics.histogram("town.lock.invites");
+    private static final LatencyHistogram INDEX_WAIT = PerfMetrics.histogram("town.lock.index");
+
+    private final ReentrantLock[] townLocks = new ReentrantLock[STRIPES];
+    private final ReentrantLock[] fileLocks = new ReentrantLock[STRIPES];
+    private final ReentrantReadWriteLock journalLock = new ReentrantReadWriteLock();
+    private final ReentrantLock inviteLock = new ReentrantLock();
+    private final ReentrantLock indexLock = new ReentrantLock();
+
+    TownLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            townLocks[i] = new ReentrantLock();
+            fileLocks[i] = new ReentrantLock();
+        }
+    }
+
+    static int stripe(String townName) {
+        int h = townName.toLowerCase().hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    // ==================== TOWNS ====================
+
+    /**
+     * Locks the stripe of a town's current name. Retries if a rename moved the town to
+     * another stripe while waiting.
+     * @return the stripe to pass to {@link #unlockTown}
+     */
+    int lockTown(Town town) {
+        while (true) {
+            int stripe = stripe(town.getName());
+            acquire(townLocks[stripe], TOWN_WAIT);
+            if (stripe(town.getName()) == stripe) {
+                return stripe;
+            }
+            townLocks[stripe].unlock();
+        }
+    }
+
+    int lockTown(String townName) {
+        int stripe = stripe(townName);
+        acquire(townLocks[stripe], TOWN_WAIT);
+        return stripe;
+    }
+
+    void unlockTown(int stripe) {
+        townLocks[stripe].unlock();
+    }
+
+    /**
+     * Locks the stripes of several towns in ascending stripe order, so two multi-town
+     * operations cannot deadlock.
+     * @return the stripes to pass to {@link #unlockTowns}
+     */
+    int[] lockTowns(String... townNames) {
+        int[] stripes = new int[townNames.length];
+        for (int i = 0; i < townNames.length; i++) {
+            stripes[i] = stripe(townNames[i]);
+        }
+        stripes = Arrays.stream(stripes).sorted().distinct().toArray();
+        for (int stripe : stripes) {
+            acquire(townLocks[stripe], TOWN_WAIT);
+        }
+        return stripes;
+    }
+
+    void unlockTowns(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            townLocks[stripes[i]].unlock();
+        }
+    }
+
+    // ==================== FILES ====================
+
+    int lockFile(String townName) {
+        int stripe = stripe(townName);
+        acquire(fileLocks[stripe], FILE_WAIT);
+        return stripe;
+    }
+
+    void unlockFile(int stripe) {
+        fileLocks[stripe].unlock();
+    }
+
+    // ==================== JOURNAL, INVITES, INDEX ====================
+
+    void lockJournalShared() {
+        acquire(journalLock.readLock(), JOURNAL_WAIT);
+    }
+
+    void unlockJournalShared() {
+        journalLock.readLock().unlock();
+    }
+
+    void lockJournalExclusive() {
+        acquire(journalLock.writeLock(), JOURNAL_WAIT);
+    }
+
+    void unlockJournalExclusive() {
+        journalLock.writeLock().unlock();
+    }
+
+    void lockInvites() {
+        acquire(inviteLock, INVITE_WAIT);
+    }
+
+    void unlockInvites() {
+        inviteLock.unlock();
+    }
+
+    void lockIndex() {
+        acquire(indexLock, INDEX_WAIT);
+    }
+
+    void unlockIndex() {
+        indexLock.unlock();
+    }
+
+    private static void acquire(Lock lock, LatencyHistogram waitTime) {
+        // The timed form, unlike tryLock(), does not barge past a queued writer of the journal lock
+        try {
+            if (lock.tryLock(0, TimeUnit.NANOSECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        waitTime.recordSince(start);
+    }
+}
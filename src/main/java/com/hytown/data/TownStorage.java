@@ -2,17 +2,27 @@ package com.hytown.data;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.hytown.metrics.LatencyHistogram;
+import com.hytown.metrics.PerfMetrics;
 import com.hycrown.hyconomy.HyConomy;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -20,40 +30,113 @@ import java.util.stream.Collectors;
  * Maintains indexes for fast lookup by name, claim, and player.
  *
  * Robustness features:
- * - Atomic writes using temp files + rename
+ * - Journaled saves: only the changes are appended to a mutation log (see TownJournal),
+ *   compacted into the per-town JSON files in the background and replayed on startup
+ * - Transaction history kept in per-town append-only logs (see TownTransactionLog),
+ *   outside the town JSON files
+ * - Compact JSON streamed to and from disk, with Town (de)serialized by TownTypeAdapter
+ * - Atomic writes using temp files + rename, with a CRC32C trailer checked on load
+ *   (see ChecksummedFiles) and a configurable fsync policy
  * - Corrupted file recovery with backup
  * - Periodic auto-save
- * - Thread-safe operations
+ * - Thread-safe operations with per-town lock striping (see TownLocks); file writes
+ *   happen outside the in-memory critical sections
  */
 public class TownStorage {
+    private static final LatencyHistogram SAVE_TIME = PerfMetrics.histogram("town.save");
+    private static final LatencyHistogram LOAD_TIME = PerfMetrics.histogram("town.loadAll");
+    private static final LatencyHistogram COMPACT_TIME = PerfMetrics.histogram("town.compact");
+    private static final LatencyHistogram BACKUP_TIME = PerfMetrics.histogram("town.backup");
+
     private final Path townsDirectory;
     private final Path indexFile;
     private final Path corruptedDirectory;
     private final Gson gson;
+    private final BackupStore backupStore;
+    private volatile ChecksummedFiles.FsyncPolicy fsyncPolicy = ChecksummedFiles.FsyncPolicy.FILE;
 
     // In-memory caches
     private final Map<String, Town> townsByName = new ConcurrentHashMap<>();           // townName (lowercase) -> Town
-    private final Map<String, String> claimToTown = new ConcurrentHashMap<>();         // claimKey -> townName
     private final Map<UUID, String> playerToTown = new ConcurrentHashMap<>();          // playerId -> townName
-    private final Map<UUID, Set<String>> pendingInvites = new ConcurrentHashMap<>();   // playerId -> Set<townNames>
+    private final Map<UUID, Set<String>> pendingInvites = new ConcurrentHashMap<>();   // playerId -> Set<townNames> (sets guarded by the invite lock)
+    private long inviteVersion;         // bumped on every index save, guarded by the invite lock
+    private long writtenInviteVersion;  // version in _index.json, guarded by the index lock
+    private final ChunkOwnershipIndex ownershipIndex;                                  // chunk -> Town (shared with ClaimStorage)
 
     // Invite cooldown tracking: "playerId:townName" -> expiry timestamp (1 hour after deny)
     private final Map<String, Long> inviteCooldowns = new ConcurrentHashMap<>();
     private static final long INVITE_COOLDOWN_MS = 3600000; // 1 hour in milliseconds
 
-    // Write lock for file operations
-    private final Object writeLock = new Object();
+    // Per-town lock stripes, file locks, the journal lock and the invite lock (see TownLocks)
+    private final TownLocks locks = new TownLocks();
 
     // Track if there are unsaved changes
     private volatile boolean dirty = false;
 
+    // Mutation journal (a town's entries guarded by its town stripe, see TownLocks)
+    private static final long JOURNAL_SYNC_INTERVAL_MS = 250;               // group fsync interval
+    private static final long JOURNAL_COMPACT_INTERVAL_MS = 60000;          // background compaction interval
+    private static final long JOURNAL_COMPACT_BYTES = 4L * 1024 * 1024;     // compact early past this size
+    private final TownJournal journal;
+    private final Map<String, JsonObject> journaledTrees = new ConcurrentHashMap<>();  // townName (lowercase) -> last journaled state, never mutated
+    private final Map<String, Long> uncompactedSeqs = new ConcurrentHashMap<>();       // townName (lowercase) -> last seq not yet in its JSON file
+    private final Object compactLock = new Object();
+    private final ScheduledExecutorService journalExecutor;
+
+    // Per-town transaction logs, synced together with the journal
+    private static final long TRANSACTION_RETENTION_INTERVAL_MS = 3600000;
+    private final TownTransactionStore transactions;
+
+    // Top-level town fields that protection decisions depend on
+    private static final Set<String> PERMISSION_FIELDS = Set.of(
+            "mayorId", "assistants", "residents", "settings", "plotOwners", "plotSettings");
+    private volatile Consumer<Town> permissionListener;
+
+    // Keeps the chunk index in sync as towns gain and lose claims (O(changed claims))
+    private final Town.ClaimListener claimIndexer = new Town.ClaimListener() {
+        @Override
+        public void claimAdded(Town town, String claimKey) {
+            ownershipIndex.putTown(claimKey, town);
+        }
+
+        @Override
+        public void claimRemoved(Town town, String claimKey) {
+            ownershipIndex.removeTown(claimKey, town);
+        }
+    };
+
+    // Appends the transactions of cached towns to their logs
+    private final Town.TransactionListener transactionRecorder = new Town.TransactionListener() {
+        @Override
+        public boolean transactionAdded(Town town, TownTransaction transaction) {
+            return recordTransaction(town, transaction);
+        }
+
+        @Override
+        public List<TownTransaction> getRecentTransactions(Town town, int limit) {
+            TownTransactionLog log = transactions.get(town.getName());
+            if (log == null) return null;
+            try {
+                return log.getPage(0, limit);
+            } catch (IOException e) {
+                System.err.println("[TownStorage] ERROR reading transactions of " + town.getName() + ": " + e.getMessage());
+                return null;
+            }
+        }
+    };
+
     public TownStorage(Path dataDirectory) {
+        this(dataDirectory, new ChunkOwnershipIndex());
+    }
+
+    public TownStorage(Path dataDirectory, ChunkOwnershipIndex ownershipIndex) {
+        this.ownershipIndex = ownershipIndex;
         this.townsDirectory = dataDirectory.resolve("towns");
         this.indexFile = townsDirectory.resolve("_index.json");
         this.corruptedDirectory = townsDirectory.resolve("corrupted");
         this.gson = new GsonBuilder()
-                .setPrettyPrinting()
                 .enableComplexMapKeySerialization()
+                .registerTypeAdapterFactory(TownTypeAdapter.FACTORY)
                 .create();
 
         try {
@@ -63,149 +146,341 @@ public class TownStorage {
             e.printStackTrace();
         }
 
+        this.journal = new TownJournal(townsDirectory);
+        this.transactions = new TownTransactionStore(townsDirectory);
         loadAll();
+
+        // Town files and the index; compacting first makes them include everything in the journal
+        this.backupStore = new BackupStore(dataDirectory, dataDirectory.resolve("backups"));
+        backupStore.addSource(new BackupStore.Source("towns", name -> name.endsWith(".json"), this::compactJournal));
+        importLegacyBackups();
+
+        // Group fsync of journal records, plus background compaction into the town files
+        this.journalExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "HyTown-TownJournal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        journalExecutor.scheduleWithFixedDelay(() -> {
+            journal.sync();
+            transactions.sync();
+            if (journal.getBytesSinceCompaction() >= JOURNAL_COMPACT_BYTES) {
+                compactJournal();
+            }
+        }, JOURNAL_SYNC_INTERVAL_MS, JOURNAL_SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        journalExecutor.scheduleWithFixedDelay(this::compactJournal,
+                JOURNAL_COMPACT_INTERVAL_MS, JOURNAL_COMPACT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        journalExecutor.scheduleWithFixedDelay(this::applyTransactionRetention,
+                TRANSACTION_RETENTION_INTERVAL_MS, TRANSACTION_RETENTION_INTERVAL_MS, TimeUnit.MILLISECONDS);
     }
 
     // ==================== LOADING ====================
 
     /**
      * Load all towns from disk.
-     * Also tries to recover from .bak files if main files are corrupted.
+     * Also tries to recover from .bak files if main files are corrupted,
+     * then replays the mutation journal on top of the loaded snapshots.
+     *
+     * The directory is listed once; town files are parsed in parallel (see
+     * ParallelLoader) and indexed in bulk afterwards. Logs the time of each phase.
      */
     public void loadAll() {
-        townsByName.clear();
-        claimToTown.clear();
-        playerToTown.clear();
-
-        // Clean up any leftover temp files from crashed saves
-        cleanupTempFiles();
-
-        try (var stream = Files.list(townsDirectory)) {
-            stream.filter(p -> p.toString().endsWith(".json"))
-                    .filter(p -> !p.getFileName().toString().startsWith("_"))
-                    .filter(p -> !p.getFileName().toString().endsWith(".tmp"))
-                    .filter(p -> !p.getFileName().toString().endsWith(".bak"))
-                    .forEach(this::loadTownFile);
+        long start = System.nanoTime();
+        synchronized (compactLock) {
+            for (Town town : townsByName.values()) {
+                town.setClaimListener(null);
+                town.setTransactionListener(null);
+            }
+            townsByName.clear();
+            ownershipIndex.clearTowns();
+            playerToTown.clear();
+            locks.lockJournalExclusive();
+            try {
+                journaledTrees.clear();
+                uncompactedSeqs.clear();
+            } finally {
+                locks.unlockJournalExclusive();
+            }
+
+            // One pass over the directory; also cleans up temp files from crashed saves
+            long phaseStart = System.nanoTime();
+            List<Path> townFiles = new ArrayList<>();
+            List<Path> backupFiles = new ArrayList<>();
+            scanTownsDirectory(townFiles, backupFiles);
+            long scanNanos = System.nanoTime() - phaseStart;
+
+            // Journal seq each snapshot already includes: townName (lowercase) -> seq
+            Map<String, Long> snapshotSeqs = new ConcurrentHashMap<>();
+
+            phaseStart = System.nanoTime();
+            List<Town> towns = ParallelLoader.map("HyTown-TownLoader-", townFiles,
+                    file -> loadTownFile(file, snapshotSeqs));
+
+            // Try to recover any towns from backup files that weren't loaded
+            Set<String> loadedFiles = new HashSet<>();
+            for (Town town : towns) {
+                loadedFiles.add(sanitize(town.getName()).toLowerCase());
+            }
+            List<Path> recoverable = new ArrayList<>();
+            for (Path backupFile : backupFiles) {
+                String fileName = backupFile.getFileName().toString();
+                String townName = fileName.substring(0, fileName.length() - ".json.bak".length());
+                if (!loadedFiles.contains(townName.toLowerCase())) {
+                    recoverable.add(backupFile);
+                }
+            }
+            if (!recoverable.isEmpty()) {
+                towns.addAll(ParallelLoader.map("HyTown-TownLoader-", recoverable,
+                        backupFile -> recoverTownFile(backupFile, snapshotSeqs)));
+            }
+            long parseNanos = System.nanoTime() - phaseStart;
+
+            // Build the name, player and claim indexes in one go, then load pending invites
+            phaseStart = System.nanoTime();
+            cacheTowns(towns);
+            loadIndex();
+            long indexNanos = System.nanoTime() - phaseStart;
+
+            // Apply journal records newer than the snapshots, then fold them into the town files
+            phaseStart = System.nanoTime();
+            replayJournal(snapshotSeqs);
+            ParallelLoader.map("HyTown-TownLoader-", new ArrayList<>(townsByName.values()), town -> {
+                journaledTrees.put(town.getName().toLowerCase(), gson.toJsonTree(town).getAsJsonObject());
+                return null;
+            });
+            compactJournal(true);
+            long journalNanos = System.nanoTime() - phaseStart;
+
+            System.err.println(String.format("[TownStorage] Loaded %d towns from %d files in %.1fms"
+                            + " (scan %.1fms, parse %.1fms, index %.1fms, journal %.1fms)",
+                    townsByName.size(), townFiles.size(), (System.nanoTime() - start) / 1e6,
+                    scanNanos / 1e6, parseNanos / 1e6, indexNanos / 1e6, journalNanos / 1e6));
+        }
+        LOAD_TIME.recordSince(start);
+    }
+
+    /**
+     * List the towns directory once, sorting it into town files and .bak files, and
+     * delete temp files left by crashed saves.
+     */
+    private void scanTownsDirectory(List<Path> townFiles, List<Path> backupFiles) {
+        List<Path> tempFiles = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(townsDirectory)) {
+            for (Path file : stream) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(".tmp")) {
+                    tempFiles.add(file);
+                } else if (fileName.endsWith(".json.bak")) {
+                    backupFiles.add(file);
+                } else if (fileName.endsWith(".json") && !fileName.startsWith("_")) {
+                    townFiles.add(file);
+                }
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
 
-        // Load pending invites from index
-        loadIndex();
+        for (Path tempFile : tempFiles) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
 
-        // Try to recover any towns from backup files that weren't loaded
-        recoverFromBackups();
+    /**
+     * Parse a town snapshot, remembering which journal seq it already includes.
+     */
+    private Town parseSnapshot(Path file, Map<String, Long> snapshotSeqs) throws IOException {
+        JsonObject tree = ChecksummedFiles.read(file, reader -> JsonParser.parseReader(reader).getAsJsonObject());
+        Town town = gson.fromJson(tree, Town.class);
+        if (town != null && town.getName() != null && tree.has(TownJournal.SEQ_PROPERTY)) {
+            long seq = tree.get(TownJournal.SEQ_PROPERTY).getAsLong();
+            snapshotSeqs.put(town.getName().toLowerCase(), seq);
+            journal.advanceSeq(seq);
+        }
+        return town;
     }
 
     /**
-     * Clean up leftover temp files from crashed saves.
+     * Replay journal records that are newer than the loaded snapshots.
      */
-    private void cleanupTempFiles() {
-        try (var stream = Files.list(townsDirectory)) {
-            stream.filter(p -> p.toString().endsWith(".tmp"))
-                    .forEach(p -> {
-                        try {
-                            Files.deleteIfExists(p);
-                        } catch (IOException e) {
-                            // Ignore
-                        }
-                    });
-        } catch (IOException e) {
-            // Ignore
-        }
-    }
-
-    /**
-     * Try to recover towns from .bak files if main files failed to load.
-     */
-    private void recoverFromBackups() {
-        try (var stream = Files.list(townsDirectory)) {
-            stream.filter(p -> p.toString().endsWith(".bak"))
-                    .forEach(backupFile -> {
-                        String townName = backupFile.getFileName().toString().replace(".json.bak", "");
-                        if (!townsByName.containsKey(townName.toLowerCase())) {
-                            try {
-                                String json = Files.readString(backupFile);
-                                Town town = gson.fromJson(json, Town.class);
-                                if (town != null && town.getName() != null) {
-                                    town.validateAfterLoad();
-                                    cacheTown(town);
-                                    Path mainFile = townsDirectory.resolve(sanitize(town.getName()) + ".json");
-                                    Files.copy(backupFile, mainFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                                }
-                            } catch (Exception e) {
-                                // Failed to recover from backup
-                            }
-                        }
-                    });
-        } catch (IOException e) {
-            // Ignore
+    private void replayJournal(Map<String, Long> snapshotSeqs) {
+        Map<String, JsonObject> replayed = new HashMap<>();   // townName (lowercase) -> state, null if deleted
+        Map<String, String> names = new HashMap<>();          // townName (lowercase) -> name as journaled
+        Map<String, Long> seqs = new HashMap<>();
+
+        journal.replay(record -> {
+            String townName = record.get("town").getAsString();
+            String nameLower = townName.toLowerCase();
+            long seq = record.get("seq").getAsLong();
+            if (seq <= snapshotSeqs.getOrDefault(nameLower, 0L)) {
+                return;
+            }
+            try {
+                if (record.has("del")) {
+                    replayed.put(nameLower, null);
+                } else if (record.has("snap")) {
+                    replayed.put(nameLower, record.getAsJsonObject("snap"));
+                } else if (record.has("ops")) {
+                    JsonObject tree;
+                    if (replayed.containsKey(nameLower)) {
+                        tree = replayed.get(nameLower);
+                    } else {
+                        Town loaded = townsByName.get(nameLower);
+                        tree = loaded != null ? gson.toJsonTree(loaded).getAsJsonObject() : null;
+                    }
+                    if (tree == null) {
+                        System.err.println("[TownStorage] Journal patch for unknown town skipped: " + townName);
+                        return;
+                    }
+                    TownJournal.apply(tree, record.getAsJsonArray("ops"));
+                    replayed.put(nameLower, tree);
+                }
+                names.put(nameLower, townName);
+                seqs.put(nameLower, seq);
+            } catch (RuntimeException e) {
+                System.err.println("[TownStorage] Failed to replay journal record " + seq + " for " + townName + ": " + e.getMessage());
+            }
+        });
+
+        for (Map.Entry<String, JsonObject> entry : replayed.entrySet()) {
+            uncacheTown(entry.getKey());
+            if (entry.getValue() == null) {
+                try {
+                    Files.deleteIfExists(townsDirectory.resolve(sanitize(names.get(entry.getKey())) + ".json"));
+                } catch (IOException ignored) {}
+                continue;
+            }
+            Town town = gson.fromJson(entry.getValue(), Town.class);
+            if (town != null && town.getName() != null) {
+                town.validateAfterLoad();
+                cacheTown(town);
+                uncompactedSeqs.put(town.getName().toLowerCase(), seqs.get(entry.getKey()));
+            }
+        }
+        if (!replayed.isEmpty()) {
+            System.err.println("[TownStorage] Replayed journal changes for " + replayed.size() + " town(s)");
         }
     }
 
-    private void loadTownFile(Path file) {
+    /**
+     * Recover a town from its .bak file after its main file failed to load, restoring
+     * the main file from it. Called in parallel on load.
+     * @return the town, or null if the backup is unusable too
+     */
+    private Town recoverTownFile(Path backupFile, Map<String, Long> snapshotSeqs) {
         try {
-            String json = Files.readString(file);
+            Town town = parseSnapshot(backupFile, snapshotSeqs);
+            if (town != null && town.getName() != null) {
+                town.validateAfterLoad();
+                attachTransactionLog(town);
+                Path mainFile = townsDirectory.resolve(sanitize(town.getName()) + ".json");
+                Files.copy(backupFile, mainFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                return town;
+            }
+        } catch (Exception e) {
+            // Failed to recover from backup
+        }
+        return null;
+    }
 
+    /**
+     * Parse and validate one town file. Called in parallel on load; the town is
+     * cached and indexed afterwards, together with the others.
+     * @return the town, or null if the file is unusable (moved to the corrupted directory)
+     */
+    private Town loadTownFile(Path file, Map<String, Long> snapshotSeqs) {
+        try {
             // Validate JSON is not empty or truncated
-            if (json == null || json.trim().isEmpty()) {
+            if (Files.size(file) == 0) {
                 System.err.println("[TownStorage] Empty file detected: " + file);
                 moveToCorrupted(file, "empty");
-                return;
+                return null;
             }
 
-            Town town = gson.fromJson(json, Town.class);
+            Town town = parseSnapshot(file, snapshotSeqs);
             if (town != null && town.getName() != null) {
                 town.validateAfterLoad();
-                cacheTown(town);
-            } else {
-                moveToCorrupted(file, "invalid_data");
+                attachTransactionLog(town);
+                return town;
             }
-        } catch (com.google.gson.JsonSyntaxException e) {
+            moveToCorrupted(file, "invalid_data");
+        } catch (ChecksummedFiles.ChecksumException e) {
+            System.err.println("[TownStorage] " + e.getMessage());
+            moveToCorrupted(file, "checksum_mismatch");
+        } catch (com.google.gson.JsonParseException | IllegalStateException e) {
             moveToCorrupted(file, "json_syntax_error");
         } catch (Exception e) {
             System.err.println("[TownStorage] Failed to load town from " + file + ": " + e.getMessage());
             e.printStackTrace();
         }
+        return null;
     }
 
     /**
      * Move a corrupted file to the corrupted directory for manual recovery.
      */
     private void moveToCorrupted(Path file, String reason) {
-        try {
-            String timestamp = java.time.LocalDateTime.now()
-                    .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String newName = file.getFileName().toString().replace(".json", "") +
-                    "_" + reason + "_" + timestamp + ".json";
-            Path dest = corruptedDirectory.resolve(newName);
-            Files.move(file, dest, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        Path dest = ChecksummedFiles.moveToCorrupted(file, corruptedDirectory, reason);
+        if (dest != null) {
             System.err.println("[TownStorage] Moved corrupted file to: " + dest);
-        } catch (IOException e) {
-            System.err.println("[TownStorage] Failed to move corrupted file: " + e.getMessage());
         }
     }
 
     private void loadIndex() {
         if (Files.exists(indexFile)) {
             try {
-                String json = Files.readString(indexFile);
-                Type type = new TypeToken<Map<String, Set<String>>>() {}.getType();
-                Map<String, Set<String>> invites = gson.fromJson(json, type);
-                if (invites != null) {
-                    for (Map.Entry<String, Set<String>> entry : invites.entrySet()) {
-                        try {
-                            UUID playerId = UUID.fromString(entry.getKey());
-                            pendingInvites.put(playerId, new HashSet<>(entry.getValue()));
-                        } catch (IllegalArgumentException ignored) {}
-                    }
-                }
-            } catch (IOException e) {
+                ChecksummedFiles.read(indexFile, reader -> {
+                    readIndex(new JsonReader(reader));
+                    return null;
+                });
+            } catch (ChecksummedFiles.ChecksumException e) {
+                System.err.println("[TownStorage] " + e.getMessage());
+                moveToCorrupted(indexFile, "checksum_mismatch");
+            } catch (IOException | IllegalStateException e) {
                 e.printStackTrace();
             }
         }
     }
 
+    private void readIndex(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) return;
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            Set<String> townNames = new HashSet<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                townNames.add(in.nextString());
+            }
+            in.endArray();
+            try {
+                pendingInvites.put(UUID.fromString(key), townNames);
+            } catch (IllegalArgumentException ignored) {}
+        }
+        in.endObject();
+    }
+
+    /**
+     * Cache the towns parsed on load: the claim index is filled in one bulk update.
+     */
+    private void cacheTowns(List<Town> towns) {
+        for (Town town : towns) {
+            townsByName.put(town.getName().toLowerCase(), town);
+        }
+        // A town listed twice (e.g. a stale file with another case) is indexed once
+        Collection<Town> cached = townsByName.values();
+        ownershipIndex.putTowns(cached);
+        for (Town town : cached) {
+            town.setClaimListener(claimIndexer);
+            for (UUID residentId : town.getResidents()) {
+                playerToTown.put(residentId, town.getName());
+            }
+        }
+    }
+
     private void cacheTown(Town town) {
         String nameLower = town.getName().toLowerCase();
         townsByName.put(nameLower, town);
@@ -214,10 +489,13 @@ public class TownStorage {
         Set<String> claims = town.getClaimKeys();
         if (claims != null) {
             for (String claimKey : claims) {
-                claimToTown.put(claimKey, town.getName());
+                ownershipIndex.putTown(claimKey, town);
             }
         }
 
+        town.setClaimListener(claimIndexer);
+        attachTransactionLog(town);
+
         // Index all residents
         for (UUID residentId : town.getResidents()) {
             playerToTown.put(residentId, town.getName());
@@ -227,113 +505,398 @@ public class TownStorage {
     // ==================== SAVING ====================
 
     /**
-     * Save a single town to disk using atomic write.
-     * Uses temp file + rename to prevent corruption on crash.
+     * Save a single town.
+     * Appends only what changed since the previous save to the journal; the town's
+     * JSON file is rewritten later by compaction. Falls back to writing the JSON
+     * file directly if the journal cannot be written.
+     *
+     * Only holds the town's own lock stripe, so saves of other towns are not blocked.
+     * The journal append is an unforced write; fsync happens in the background.
      */
     public void saveTown(Town town) {
-        synchronized (writeLock) {
-            Path file = townsDirectory.resolve(sanitize(town.getName()) + ".json");
-            Path tempFile = townsDirectory.resolve(sanitize(town.getName()) + ".json.tmp");
+        long start = System.nanoTime();
+        attachTransactionLog(town);
+        boolean permissionsChanged = true;
+        int stripe = locks.lockTown(town);
+        try {
+            String nameLower = town.getName().toLowerCase();
+            JsonObject tree = gson.toJsonTree(town).getAsJsonObject();
+            JsonObject previous = journaledTrees.get(nameLower);
+            // Diff under the town stripe only; the journal lock covers just the append
+            JsonArray ops = previous != null ? TownJournal.diff(previous, tree) : null;
+            if (ops != null) {
+                permissionsChanged = touchesPermissions(ops);
+            }
+            JsonObject fallback = null;
+            locks.lockJournalShared();
+            try {
+                long seq = 0;
+                if (ops == null) {
+                    seq = journal.appendSnapshot(town.getName(), tree);
+                } else if (ops.size() > 0) {
+                    seq = journal.appendPatch(town.getName(), ops);
+                }
+                if (seq > 0) {
+                    uncompactedSeqs.put(nameLower, seq);
+                }
+                journaledTrees.put(nameLower, tree);
+                dirty = false;
+            } catch (IOException e) {
+                System.err.println("[TownStorage] ERROR journaling town " + town.getName() + ", writing file instead: " + e.getMessage());
+                fallback = tree.deepCopy();
+                fallback.addProperty(TownJournal.SEQ_PROPERTY, journal.getLastSeq());
+            } finally {
+                locks.unlockJournalShared();
+            }
+
+            if (fallback != null && writeSnapshot(town.getName(), fallback)) {
+                journaledTrees.put(nameLower, tree);
+                uncompactedSeqs.remove(nameLower);
+                dirty = false;
+            }
+        } finally {
+            locks.unlockTown(stripe);
+        }
 
+        // Update townsByName cache without touching player/claim indexes
+        // Player/claim indexes are managed explicitly via indexPlayer/unindexPlayer/indexClaim/unindexClaim
+        // This prevents race conditions where a leaving player could be re-indexed
+        String nameLower = town.getName().toLowerCase();
+        townsByName.put(nameLower, town);
+
+        // Claim indexes are kept current by the town's claim listener. A town saved
+        // for the first time (e.g. just created) is indexed and attached here.
+        if (town.getClaimListener() != claimIndexer) {
+            for (String claimKey : town.getClaimKeys()) {
+                ownershipIndex.putTown(claimKey, town);
+            }
+            town.setClaimListener(claimIndexer);
+        }
+
+        Consumer<Town> listener = permissionListener;
+        if (permissionsChanged && listener != null) {
+            listener.accept(town);
+        }
+        SAVE_TIME.recordSince(start);
+    }
+
+    /**
+     * Sets the listener notified when a save changes a town's members, settings or
+     * plot permissions (null to remove). Saves that only touch e.g. the balance skip it.
+     */
+    public void setPermissionListener(Consumer<Town> permissionListener) {
+        this.permissionListener = permissionListener;
+    }
+
+    private static boolean touchesPermissions(JsonArray ops) {
+        for (JsonElement op : ops) {
+            JsonArray path = op.getAsJsonArray().get(1).getAsJsonArray();
+            if (path.size() > 0 && PERMISSION_FIELDS.contains(path.get(0).getAsString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write a town's JSON file using atomic write.
+     * Streams to a temp file with a checksum trailer, then renames it over the file.
+     * Holds only the town's file lock, so a slow write blocks nothing but other writes
+     * of the same file.
+     * @return true if the file was written
+     */
+    private boolean writeSnapshot(String townName, JsonObject tree) {
+        // Validate serialization worked (sanity check)
+        if (tree == null || tree.size() == 0) {
+            System.err.println("[TownStorage] ERROR: Empty JSON generated for town: " + townName);
+            return false;
+        }
+
+        int stripe = locks.lockFile(townName);
+        try {
+            return writeSnapshotFile(townName, tree);
+        } finally {
+            locks.unlockFile(stripe);
+        }
+    }
+
+    /**
+     * Must be called while holding the town's file lock.
+     */
+    private boolean writeSnapshotFile(String townName, JsonObject tree) {
+        Path file = townsDirectory.resolve(sanitize(townName) + ".json");
+
+        // Create backup of existing file before overwriting
+        if (Files.exists(file)) {
+            Path backupFile = townsDirectory.resolve(sanitize(townName) + ".json.bak");
             try {
-                // Serialize to JSON
-                String json = gson.toJson(town);
+                Files.copy(file, backupFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                // Backup failure is not critical, continue with save
+                System.err.println("[TownStorage] Warning: Could not create backup for " + townName);
+            }
+        }
 
-                // Validate serialization worked (sanity check)
-                if (json == null || json.trim().isEmpty()) {
-                    System.err.println("[TownStorage] ERROR: Empty JSON generated for town: " + town.getName());
-                    return;
-                }
+        try {
+            ChecksummedFiles.write(file, fsyncPolicy, writer -> gson.toJson(tree, new JsonWriter(writer)));
+            return true;
+        } catch (IOException | com.google.gson.JsonIOException e) {
+            System.err.println("[TownStorage] ERROR saving town " + townName + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
 
-                // Write to temp file first
-                Files.writeString(tempFile, json);
+    /**
+     * Sets when town and index writes are forced to disk (default FILE).
+     */
+    public void setFsyncPolicy(ChecksummedFiles.FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    // ==================== JOURNAL ====================
+
+    /**
+     * Compact the journal: rewrite the JSON file of every town changed since the
+     * last compaction, then drop the journal records they cover.
+     * Runs in the background; also called by saveAll and before backups.
+     */
+    public void compactJournal() {
+        compactJournal(false);
+    }
 
-                // Verify temp file was written correctly
-                String verification = Files.readString(tempFile);
-                if (!json.equals(verification)) {
-                    System.err.println("[TownStorage] ERROR: Verification failed for town: " + town.getName());
-                    Files.deleteIfExists(tempFile);
+    private void compactJournal(boolean force) {
+        synchronized (compactLock) {
+            // Capture the journaled trees (never mutated once stored) with every save paused
+            // between its journal append and recording it; the copying happens afterwards
+            Map<String, JsonObject> trees = new HashMap<>();
+            Map<String, Long> seqs = new HashMap<>();
+            locks.lockJournalExclusive();
+            try {
+                if (!force && uncompactedSeqs.isEmpty() && journal.getBytesSinceCompaction() == 0) {
+                    return;
+                }
+                try {
+                    journal.beginCompaction();
+                } catch (IOException e) {
+                    System.err.println("[TownStorage] ERROR starting journal compaction: " + e.getMessage());
                     return;
                 }
+                for (Map.Entry<String, Long> entry : uncompactedSeqs.entrySet()) {
+                    JsonObject tree = journaledTrees.get(entry.getKey());
+                    if (tree != null) {
+                        trees.put(entry.getKey(), tree);
+                        seqs.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                uncompactedSeqs.clear();
+            } finally {
+                locks.unlockJournalExclusive();
+            }
 
-                // Create backup of existing file before overwriting
-                if (Files.exists(file)) {
-                    Path backupFile = townsDirectory.resolve(sanitize(town.getName()) + ".json.bak");
-                    try {
-                        Files.copy(file, backupFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                    } catch (IOException e) {
-                        // Backup failure is not critical, continue with save
-                        System.err.println("[TownStorage] Warning: Could not create backup for " + town.getName());
+            // Write files one at a time, each under its own file lock only
+            long start = System.nanoTime();
+            boolean complete = true;
+            for (Map.Entry<String, JsonObject> entry : trees.entrySet()) {
+                long seq = seqs.get(entry.getKey());
+                JsonObject snapshot = entry.getValue().deepCopy();
+                snapshot.addProperty(TownJournal.SEQ_PROPERTY, seq);
+                int stripe = locks.lockFile(entry.getKey());
+                try {
+                    Town town = townsByName.get(entry.getKey());
+                    if (town == null) {
+                        continue; // Deleted or renamed since - journaled separately
+                    }
+                    if (!writeSnapshotFile(town.getName(), snapshot)) {
+                        complete = false;
+                        uncompactedSeqs.merge(entry.getKey(), seq, Math::max);
                     }
+                } finally {
+                    locks.unlockFile(stripe);
                 }
+            }
 
-                // Atomic rename (this is atomic on most filesystems)
-                Files.move(tempFile, file, java.nio.file.StandardCopyOption.REPLACE_EXISTING,
-                        java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+            // Keep the compacted records until every file they cover is written
+            if (complete) {
+                try {
+                    journal.finishCompaction();
+                } catch (IOException e) {
+                    System.err.println("[TownStorage] ERROR finishing journal compaction: " + e.getMessage());
+                }
+            }
+            COMPACT_TIME.recordSince(start);
+        }
+    }
 
-                dirty = false;
+    /**
+     * Journal a town deletion so replay does not bring it back.
+     * Must be called while holding the town's lock stripe.
+     */
+    private void journalDelete(String townName) {
+        String nameLower = townName.toLowerCase();
+        locks.lockJournalShared();
+        try {
+            journaledTrees.remove(nameLower);
+            uncompactedSeqs.remove(nameLower);
+            journal.appendDelete(townName);
+        } catch (IOException e) {
+            System.err.println("[TownStorage] ERROR journaling deletion of " + townName + ": " + e.getMessage());
+        } finally {
+            locks.unlockJournalShared();
+        }
+    }
 
-            } catch (java.nio.file.AtomicMoveNotSupportedException e) {
-                // Fallback for filesystems that don't support atomic move
-                try {
-                    String json = gson.toJson(town);
-                    Files.writeString(file, json);
-                    Files.deleteIfExists(tempFile);
-                } catch (IOException ex) {
-                    System.err.println("[TownStorage] ERROR saving town " + town.getName() + ": " + ex.getMessage());
-                    ex.printStackTrace();
+    /**
+     * Delete a town's JSON and .bak files, unless a town with that name has been cached
+     * again since (e.g. recreated right after a rename freed the name).
+     */
+    private void deleteTownFiles(String townName) {
+        int stripe = locks.lockFile(townName);
+        try {
+            Town cached = townsByName.get(townName.toLowerCase());
+            if (cached != null && sanitize(cached.getName()).equals(sanitize(townName))) {
+                return;
+            }
+            Path file = townsDirectory.resolve(sanitize(townName) + ".json");
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("[TownStorage] Warning: Could not delete old file: " + file);
+            }
+
+            // Also delete backup file
+            try {
+                Files.deleteIfExists(townsDirectory.resolve(sanitize(townName) + ".json.bak"));
+            } catch (IOException e) {
+                // Ignore backup deletion failure
+            }
+        } finally {
+            locks.unlockFile(stripe);
+        }
+    }
+
+    /**
+     * Stop the journal flusher and close the journal.
+     * Call after saveAll on shutdown.
+     */
+    public void close() {
+        journalExecutor.shutdown();
+        try {
+            journalExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+        transactions.close();
+    }
+
+    // ==================== TRANSACTIONS ====================
+
+    /**
+     * Attach a town to its transaction log, moving any transactions the town still
+     * holds (inline history from older versions) into the log first.
+     */
+    private void attachTransactionLog(Town town) {
+        synchronized (town) {
+            if (town.getTransactionListener() == transactionRecorder) return;
+            TownTransactionLog log = transactions.get(town.getName());
+            if (log == null) return; // Keeps its transactions until the log can be opened
+            try {
+                int imported = log.importPending(town.getPendingTransactions());
+                if (imported > 0) {
+                    System.err.println("[TownStorage] Moved " + imported + " transactions of " + town.getName() + " to its transaction log");
                 }
             } catch (IOException e) {
-                System.err.println("[TownStorage] ERROR saving town " + town.getName() + ": " + e.getMessage());
-                e.printStackTrace();
-                // Try to clean up temp file
-                try {
-                    Files.deleteIfExists(tempFile);
-                } catch (IOException ignored) {}
+                System.err.println("[TownStorage] ERROR moving transactions of " + town.getName() + " to its transaction log: " + e.getMessage());
+                return;
             }
+            town.clearPendingTransactions();
+            town.setTransactionListener(transactionRecorder);
         }
+    }
 
-        // Update townsByName cache without touching player/claim indexes
-        // Player/claim indexes are managed explicitly via indexPlayer/unindexPlayer/indexClaim/unindexClaim
-        // This prevents race conditions where a leaving player could be re-indexed
-        String nameLower = town.getName().toLowerCase();
-        townsByName.put(nameLower, town);
+    private boolean recordTransaction(Town town, TownTransaction transaction) {
+        TownTransactionLog log = transactions.get(town.getName());
+        if (log == null) return false;
+        try {
+            log.append(transaction);
+            return true;
+        } catch (IOException e) {
+            System.err.println("[TownStorage] ERROR logging transaction for " + town.getName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Get a town's transaction log.
+     * @return the log, or null if it cannot be opened
+     */
+    public TownTransactionLog getTransactionLog(Town town) {
+        return transactions.get(town.getName());
+    }
+
+    /**
+     * Set how long transactions are kept and the maximum log size per town (0 = unlimited).
+     */
+    public void setTransactionRetention(int maxAgeDays, long maxKilobytesPerTown) {
+        transactions.setRetention(TimeUnit.DAYS.toMillis(maxAgeDays), maxKilobytesPerTown * 1024);
+        applyTransactionRetention();
+    }
 
-        // Update claim indexes (claims don't have the same leave/join race condition issues)
-        // First remove old claim mappings for this town
-        claimToTown.entrySet().removeIf(entry -> entry.getValue().equalsIgnoreCase(town.getName()));
-        // Then add current claims
-        for (String claimKey : town.getClaimKeys()) {
-            claimToTown.put(claimKey, town.getName());
+    private void applyTransactionRetention() {
+        long dropped = transactions.applyRetention();
+        if (dropped > 0) {
+            System.err.println("[TownStorage] Transaction retention dropped " + dropped + " old transactions");
         }
     }
 
     /**
      * Save the index file (invites, etc.) using atomic write.
+     * Copies the invites under the invite lock and writes the copy outside it; a write
+     * that finds a newer copy already on disk is skipped.
      */
     public void saveIndex() {
-        synchronized (writeLock) {
-            Path tempFile = townsDirectory.resolve("_index.json.tmp");
-            Map<String, Set<String>> toSave = new HashMap<>();
+        long version;
+        Map<UUID, List<String>> invites = new HashMap<>();
+        locks.lockInvites();
+        try {
+            version = ++inviteVersion;
             for (Map.Entry<UUID, Set<String>> entry : pendingInvites.entrySet()) {
-                toSave.put(entry.getKey().toString(), entry.getValue());
+                invites.put(entry.getKey(), new ArrayList<>(entry.getValue()));
             }
-            try {
-                String json = gson.toJson(toSave);
-                Files.writeString(tempFile, json);
-                Files.move(tempFile, indexFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-            } catch (IOException e) {
-                System.err.println("[TownStorage] ERROR saving index: " + e.getMessage());
-                e.printStackTrace();
-                try {
-                    Files.deleteIfExists(tempFile);
-                } catch (IOException ignored) {}
+        } finally {
+            locks.unlockInvites();
+        }
+
+        locks.lockIndex();
+        try {
+            if (version <= writtenInviteVersion) {
+                return;
             }
+            ChecksummedFiles.write(indexFile, fsyncPolicy, writer -> {
+                JsonWriter out = new JsonWriter(writer);
+                out.beginObject();
+                for (Map.Entry<UUID, List<String>> entry : invites.entrySet()) {
+                    out.name(entry.getKey().toString()).beginArray();
+                    for (String townName : entry.getValue()) {
+                        out.value(townName);
+                    }
+                    out.endArray();
+                }
+                out.endObject();
+            });
+            writtenInviteVersion = version;
+        } catch (IOException e) {
+            System.err.println("[TownStorage] ERROR saving index: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            locks.unlockIndex();
         }
     }
 
     /**
      * Save all towns to disk.
+     * Journals any unsaved changes, then compacts the journal into the town files.
      */
     public void saveAll() {
         for (Town town : townsByName.values()) {
@@ -344,6 +907,7 @@ public class TownStorage {
             }
         }
         saveIndex();
+        compactJournal();
     }
 
     /**
@@ -372,8 +936,10 @@ public class TownStorage {
      * Get storage statistics for debugging/admin commands.
      */
     public String getStats() {
-        return String.format("Towns: %d, Claims indexed: %d, Players indexed: %d, Pending invites: %d",
-                townsByName.size(), claimToTown.size(), playerToTown.size(), pendingInvites.size());
+        int uncompacted = uncompactedSeqs.size();
+        return String.format("Towns: %d, Claims indexed: %d, Players indexed: %d, Pending invites: %d, Journal: %d bytes / %d towns uncompacted, Transaction logs: %s",
+                townsByName.size(), ownershipIndex.getTownClaimCount(), playerToTown.size(), pendingInvites.size(),
+                journal.getBytesSinceCompaction(), uncompacted, transactions.getStats());
     }
 
     // ==================== DELETION ====================
@@ -393,39 +959,39 @@ public class TownStorage {
             HyConomy.deposit(mayorName, balance);
         }
 
-        // Explicitly unindex all players FIRST (most important for preventing "already in town" bugs)
-        Set<UUID> allResidents = town.getResidents();
-        for (UUID residentId : allResidents) {
-            playerToTown.remove(residentId);
-        }
-        // Also unindex the mayor explicitly (in case they're not in residents set for some reason)
-        if (town.getMayorId() != null) {
-            playerToTown.remove(town.getMayorId());
-        }
+        int stripe = locks.lockTown(town);
+        try {
+            // Explicitly unindex all players FIRST (most important for preventing "already in town" bugs)
+            Set<UUID> allResidents = town.getResidents();
+            for (UUID residentId : allResidents) {
+                playerToTown.remove(residentId);
+            }
+            // Also unindex the mayor explicitly (in case they're not in residents set for some reason)
+            if (town.getMayorId() != null) {
+                playerToTown.remove(town.getMayorId());
+            }
 
-        // Remove claim indexes
-        for (String claimKey : town.getClaimKeys()) {
-            claimToTown.remove(claimKey);
-        }
+            // Remove claim indexes
+            town.setClaimListener(null);
+            for (String claimKey : town.getClaimKeys()) {
+                ownershipIndex.removeTown(claimKey, town);
+            }
 
-        // Remove from town name cache
-        townsByName.remove(townName.toLowerCase());
+            // Remove from town name cache
+            townsByName.remove(townName.toLowerCase());
 
-        // Delete file
-        Path file = townsDirectory.resolve(sanitize(townName) + ".json");
-        try {
-            Files.deleteIfExists(file);
-        } catch (IOException e) {
-            // Ignore
-        }
+            // Delete its transaction log
+            town.setTransactionListener(null);
+            transactions.delete(town.getName());
 
-        // Also delete backup file
-        Path backupFile = townsDirectory.resolve(sanitize(townName) + ".json.bak");
-        try {
-            Files.deleteIfExists(backupFile);
-        } catch (IOException e) {
-            // Ignore backup deletion failure
+            // Journal the deletion so a replay doesn't bring the town back
+            journalDelete(town.getName());
+        } finally {
+            locks.unlockTown(stripe);
         }
+
+        // Delete its JSON and backup files
+        deleteTownFiles(townName);
     }
 
     // ==================== RENAME ====================
@@ -442,7 +1008,9 @@ public class TownStorage {
      * @return true if successful, false if failed (e.g., new name already exists)
      */
     public boolean renameTown(String oldName, String newName) {
-        synchronized (writeLock) {
+        // Both names' stripes, always taken in the same order
+        int[] stripes = locks.lockTowns(oldName, newName);
+        try {
             Town town = getTown(oldName);
             if (town == null) {
                 System.err.println("[TownStorage] Cannot rename - town not found: " + oldName);
@@ -458,15 +1026,21 @@ public class TownStorage {
             String oldNameLower = oldName.toLowerCase();
             String newNameLower = newName.toLowerCase();
 
-            // Step 1: Remove from old cache entries
+            // Step 1: Remove from old cache entries, journaling the old name as deleted
+            // (the town is journaled in full under its new name in step 7)
             townsByName.remove(oldNameLower);
+            journalDelete(town.getName());
 
-            // Step 2: Update the town object
-            town.setName(newName);
+            // Step 2: Update the town object, moving its transaction log along
+            synchronized (town) {
+                transactions.rename(oldName, newName);
+                town.setName(newName);
+            }
 
-            // Step 3: Update claim index to point to new name
+            // Step 3: Update claim index (entries reference the Town itself, so this
+            // only re-asserts ownership in case the index drifted)
             for (String claimKey : town.getClaimKeys()) {
-                claimToTown.put(claimKey, newName);
+                ownershipIndex.putTown(claimKey, town);
             }
 
             // Step 4: Update player index to point to new name
@@ -475,54 +1049,53 @@ public class TownStorage {
             }
 
             // Step 5: Update pending invites - change old town name to new name
-            for (Map.Entry<UUID, Set<String>> entry : pendingInvites.entrySet()) {
-                Set<String> invites = entry.getValue();
-                if (invites.remove(oldName)) {
-                    invites.add(newName);
-                }
-                // Also check case-insensitive
-                invites.removeIf(inv -> inv.equalsIgnoreCase(oldName));
-                if (invites.stream().noneMatch(inv -> inv.equalsIgnoreCase(newName))) {
-                    // Only add if we removed it
+            locks.lockInvites();
+            try {
+                for (Map.Entry<UUID, Set<String>> entry : pendingInvites.entrySet()) {
+                    Set<String> invites = entry.getValue();
+                    if (invites.remove(oldName)) {
+                        invites.add(newName);
+                    }
+                    // Also check case-insensitive
+                    invites.removeIf(inv -> inv.equalsIgnoreCase(oldName));
                 }
+            } finally {
+                locks.unlockInvites();
             }
 
             // Step 6: Re-add to cache with new name
             townsByName.put(newNameLower, town);
 
-            // Step 7: Delete old file
-            Path oldFile = townsDirectory.resolve(sanitize(oldName) + ".json");
-            try {
-                Files.deleteIfExists(oldFile);
-            } catch (IOException e) {
-                System.err.println("[TownStorage] Warning: Could not delete old file: " + oldFile);
-            }
-
-            // Step 8: Also delete old backup file
-            Path oldBackupFile = townsDirectory.resolve(sanitize(oldName) + ".json.bak");
-            try {
-                Files.deleteIfExists(oldBackupFile);
-            } catch (IOException e) {
-                // Ignore backup deletion failure
-            }
-
-            // Step 9: Save with new name
+            // Step 7: Save with new name
             saveTown(town);
+        } finally {
+            locks.unlockTowns(stripes);
+        }
 
-            // Step 10: Save index (for invite updates)
-            saveIndex();
+        // Step 8: Delete the old JSON and backup files
+        deleteTownFiles(oldName);
 
-            return true;
-        }
+        // Step 9: Save index (for invite updates)
+        saveIndex();
+
+        return true;
     }
 
     private void uncacheTown(String townName) {
         String nameLower = townName.toLowerCase();
         Town town = townsByName.remove(nameLower);
+        int stripe = locks.lockTown(townName);
+        try {
+            // Next save journals the town in full
+            journaledTrees.remove(nameLower);
+        } finally {
+            locks.unlockTown(stripe);
+        }
         if (town != null) {
             // Remove claim indexes
+            town.setClaimListener(null);
             for (String claimKey : town.getClaimKeys()) {
-                claimToTown.remove(claimKey);
+                ownershipIndex.removeTown(claimKey, town);
             }
             // Remove resident indexes
             for (UUID residentId : town.getResidents()) {
@@ -545,8 +1118,25 @@ public class TownStorage {
      * Get the town that owns a specific claim.
      */
     public Town getTownByClaimKey(String claimKey) {
-        String townName = claimToTown.get(claimKey);
-        return townName != null ? getTown(townName) : null;
+        String world = Town.parseClaimWorld(claimKey);
+        int[] coords = Town.parseClaimCoords(claimKey);
+        if (world == null || coords == null) return null;
+        return getTownAt(world, coords[0], coords[1]);
+    }
+
+    /**
+     * Get the town that owns a specific chunk.
+     * Allocation-free - preferred over getTownByClaimKey on hot paths.
+     */
+    public Town getTownAt(String worldName, int chunkX, int chunkZ) {
+        return ownershipIndex.getTown(worldName, chunkX, chunkZ);
+    }
+
+    /**
+     * Get the shared chunk ownership index (town and personal claims).
+     */
+    public ChunkOwnershipIndex getOwnershipIndex() {
+        return ownershipIndex;
     }
 
     /**
@@ -579,7 +1169,7 @@ public class TownStorage {
     }
 
     public int getClaimIndexSize() {
-        return claimToTown.size();
+        return ownershipIndex.getTownClaimCount();
     }
 
     // ==================== INVITES ====================
@@ -588,7 +1178,12 @@ public class TownStorage {
      * Add an invite for a player to a town.
      */
     public void addInvite(UUID playerId, String townName) {
-        pendingInvites.computeIfAbsent(playerId, k -> new HashSet<>()).add(townName);
+        locks.lockInvites();
+        try {
+            pendingInvites.computeIfAbsent(playerId, k -> new HashSet<>()).add(townName);
+        } finally {
+            locks.unlockInvites();
+        }
         saveIndex();
     }
 
@@ -596,12 +1191,17 @@ public class TownStorage {
      * Remove an invite.
      */
     public void removeInvite(UUID playerId, String townName) {
-        Set<String> invites = pendingInvites.get(playerId);
-        if (invites != null) {
-            invites.remove(townName);
-            if (invites.isEmpty()) {
-                pendingInvites.remove(playerId);
+        locks.lockInvites();
+        try {
+            Set<String> invites = pendingInvites.get(playerId);
+            if (invites != null) {
+                invites.remove(townName);
+                if (invites.isEmpty()) {
+                    pendingInvites.remove(playerId);
+                }
             }
+        } finally {
+            locks.unlockInvites();
         }
         saveIndex();
     }
@@ -610,23 +1210,38 @@ public class TownStorage {
      * Check if a player has an invite to a town.
      */
     public boolean hasInvite(UUID playerId, String townName) {
-        Set<String> invites = pendingInvites.get(playerId);
-        return invites != null && invites.contains(townName);
+        locks.lockInvites();
+        try {
+            Set<String> invites = pendingInvites.get(playerId);
+            return invites != null && invites.contains(townName);
+        } finally {
+            locks.unlockInvites();
+        }
     }
 
     /**
      * Get all pending invites for a player.
      */
     public Set<String> getInvites(UUID playerId) {
-        Set<String> invites = pendingInvites.get(playerId);
-        return invites != null ? new HashSet<>(invites) : new HashSet<>();
+        locks.lockInvites();
+        try {
+            Set<String> invites = pendingInvites.get(playerId);
+            return invites != null ? new HashSet<>(invites) : new HashSet<>();
+        } finally {
+            locks.unlockInvites();
+        }
     }
 
     /**
      * Clear all invites for a player.
      */
     public void clearInvites(UUID playerId) {
-        pendingInvites.remove(playerId);
+        locks.lockInvites();
+        try {
+            pendingInvites.remove(playerId);
+        } finally {
+            locks.unlockInvites();
+        }
         saveIndex();
     }
 
@@ -694,16 +1309,86 @@ public class TownStorage {
      * Update indexes when a claim is added to a town.
      */
     public void indexClaim(String claimKey, String townName) {
-        claimToTown.put(claimKey, townName);
+        Town town = getTown(townName);
+        if (town != null) {
+            ownershipIndex.putTown(claimKey, town);
+        }
     }
 
     /**
      * Update indexes when a claim is removed from a town.
      */
     public void unindexClaim(String claimKey) {
-        claimToTown.remove(claimKey);
+        ownershipIndex.removeTown(claimKey);
     }
 
+    /**
+     * Result of {@link #verifyClaimIndex}: claims the live index is missing, entries
+     * it has that no town claims, and chunks it maps to the wrong town.
+     */
+    public record ClaimIndexReport(int expected, int indexed, List<String> missing,
+                                   List<String> stale, List<String> mismatched, boolean repaired) {
+        public boolean isConsistent() {
+            return missing.isEmpty() && stale.isEmpty() && mismatched.isEmpty();
+        }
+    }
+
+    /**
+     * Rebuild the town claim index from scratch and diff it against the live index.
+     * @param repair also fix any differences found
+     */
+    public ClaimIndexReport verifyClaimIndex(boolean repair) {
+        ChunkOwnershipIndex rebuilt = new ChunkOwnershipIndex();
+        for (Town town : townsByName.values()) {
+            for (String claimKey : town.getClaimKeys()) {
+                rebuilt.putTown(claimKey, town);
+            }
+        }
+
+        List<String> missing = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+        List<String> mismatched = new ArrayList<>();
+        List<IndexFix> toPut = new ArrayList<>();
+        List<IndexFix> toRemove = new ArrayList<>();
+
+        Set<String> worlds = rebuilt.getWorlds();
+        worlds.addAll(ownershipIndex.getWorlds());
+        for (String world : worlds) {
+            rebuilt.forEach(world, (chunkX, chunkZ, owner) -> {
+                Town live = ownershipIndex.getTown(world, chunkX, chunkZ);
+                if (live == owner.town()) return;
+                String claimKey = world + ":" + chunkX + "," + chunkZ;
+                if (live == null) {
+                    missing.add(claimKey + " (" + owner.town().getName() + ")");
+                } else {
+                    mismatched.add(claimKey + " (index: " + live.getName() + ", town: " + owner.town().getName() + ")");
+                }
+                toPut.add(new IndexFix(world, chunkX, chunkZ, owner.town()));
+            });
+            ownershipIndex.forEach(world, (chunkX, chunkZ, owner) -> {
+                if (owner.town() != null && rebuilt.getTown(world, chunkX, chunkZ) == null) {
+                    stale.add(world + ":" + chunkX + "," + chunkZ + " (" + owner.town().getName() + ")");
+                    toRemove.add(new IndexFix(world, chunkX, chunkZ, null));
+                }
+            });
+        }
+
+        int indexed = ownershipIndex.getTownClaimCount();
+        boolean repaired = false;
+        if (repair && (!toPut.isEmpty() || !toRemove.isEmpty())) {
+            for (IndexFix fix : toRemove) {
+                ownershipIndex.removeTown(fix.world(), fix.chunkX(), fix.chunkZ());
+            }
+            for (IndexFix fix : toPut) {
+                ownershipIndex.putTown(fix.world(), fix.chunkX(), fix.chunkZ(), fix.town());
+            }
+            repaired = true;
+        }
+        return new ClaimIndexReport(rebuilt.getTownClaimCount(), indexed, missing, stale, mismatched, repaired);
+    }
+
+    private record IndexFix(String world, int chunkX, int chunkZ, Town town) {}
+
     /**
      * Update indexes when a player joins a town.
      */
@@ -724,63 +1409,54 @@ public class TownStorage {
 
     // ==================== BACKUPS ====================
 
-    private static final int MAX_BACKUPS = 10;
-    private static final DateTimeFormatter BACKUP_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
     /**
-     * Create a backup of all town data.
-     * Keeps the last 10 daily backups (rolling).
+     * Snapshot the town files (and whatever other sources were registered on the store).
+     * Unchanged files cost nothing; retention is applied afterwards.
      */
     public void createBackup() {
-        Path backupDir = townsDirectory.resolve("backups");
+        long start = System.nanoTime();
         try {
-            Files.createDirectories(backupDir);
-
-            // Create today's backup folder
-            String today = LocalDate.now().format(BACKUP_DATE_FORMAT);
-            Path todayBackup = backupDir.resolve(today);
-            Files.createDirectories(todayBackup);
-
-            // Copy all town files to backup
-            for (Town town : townsByName.values()) {
-                Path source = townsDirectory.resolve(sanitize(town.getName()) + ".json");
-                Path dest = todayBackup.resolve(sanitize(town.getName()) + ".json");
-                if (Files.exists(source)) {
-                    Files.copy(source, dest, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                }
+            BackupStore.Result result = backupStore.create();
+            if (result.created()) {
+                System.out.println("[TownStorage] Backup " + result.id() + ": " + result.changedFiles() + "/"
+                        + result.files() + " files changed, " + result.newChunks() + " new chunks ("
+                        + result.bytesWritten() + " bytes)");
             }
-
-            // Also backup the index file
-            if (Files.exists(indexFile)) {
-                Files.copy(indexFile, todayBackup.resolve("_index.json"),
-                        java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-            }
-
-            // Clean up old backups (keep last MAX_BACKUPS)
-            cleanOldBackups(backupDir);
-
         } catch (IOException e) {
-            // Backup failed
+            System.err.println("[TownStorage] Backup failed: " + e.getMessage());
+        } finally {
+            BACKUP_TIME.record(System.nanoTime() - start);
         }
     }
 
+    public BackupStore getBackupStore() {
+        return backupStore;
+    }
+
     /**
-     * Remove backups older than MAX_BACKUPS days.
+     * Moves the old towns/backups/<date> folders into the backup store, once.
      */
-    private void cleanOldBackups(Path backupDir) {
-        try (var stream = Files.list(backupDir)) {
-            List<Path> backups = stream
-                    .filter(Files::isDirectory)
-                    .sorted(Comparator.comparing(p -> p.getFileName().toString(), Comparator.reverseOrder()))
-                    .collect(Collectors.toList());
-
-            // Delete backups beyond MAX_BACKUPS
-            for (int i = MAX_BACKUPS; i < backups.size(); i++) {
-                Path oldBackup = backups.get(i);
-                deleteDirectory(oldBackup);
+    private void importLegacyBackups() {
+        Path legacyDir = townsDirectory.resolve("backups");
+        if (!Files.isDirectory(legacyDir)) return;
+
+        try (var stream = Files.list(legacyDir)) {
+            List<Path> folders = stream.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+            for (Path folder : folders) {
+                String date = folder.getFileName().toString();
+                long createdAt = BackupStore.parseLegacyDate(date);
+                if (createdAt < 0) continue;
+                backupStore.importDirectory(BackupStore.legacyId(date), createdAt, folder, "towns",
+                        name -> name.endsWith(".json"));
+                deleteDirectory(folder);
+            }
+            try (var remaining = Files.list(legacyDir)) {
+                if (remaining.findAny().isEmpty()) {
+                    Files.delete(legacyDir);
+                }
             }
         } catch (IOException e) {
-            // Ignore
+            System.err.println("[TownStorage] Failed to import old backups: " + e.getMessage());
         }
     }
 
@@ -801,23 +1477,10 @@ public class TownStorage {
     }
 
     /**
-     * List available backups.
+     * List available backups (snapshot ids like "2026-01-16_04-00-00"), newest first.
      */
     public List<String> listBackups() {
-        Path backupDir = townsDirectory.resolve("backups");
-        if (!Files.exists(backupDir)) {
-            return new ArrayList<>();
-        }
-
-        try (var stream = Files.list(backupDir)) {
-            return stream
-                    .filter(Files::isDirectory)
-                    .map(p -> p.getFileName().toString())
-                    .sorted(Comparator.reverseOrder())
-                    .collect(Collectors.toList());
-        } catch (IOException e) {
-            return new ArrayList<>();
-        }
+        return backupStore.list();
     }
 
     /**
@@ -834,8 +1497,7 @@ public class TownStorage {
         }
 
         try {
-            String json = Files.readString(backupFile);
-            Town town = gson.fromJson(json, Town.class);
+            Town town = ChecksummedFiles.read(backupFile, reader -> gson.fromJson(reader, Town.class));
 
             if (town == null || town.getName() == null) {
                 System.err.println("[TownStorage] Invalid backup data for town: " + townName);
@@ -851,9 +1513,15 @@ public class TownStorage {
             // Cache the restored town
             cacheTown(town);
 
-            // Save to main file
+            // Save to main file, and journal it so older records don't replay over it
             Path mainFile = townsDirectory.resolve(sanitizedName + ".json");
-            Files.writeString(mainFile, json);
+            int stripe = locks.lockFile(town.getName());
+            try {
+                Files.copy(backupFile, mainFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                locks.unlockFile(stripe);
+            }
+            saveTown(town);
 
             return true;
 
@@ -863,21 +1531,23 @@ public class TownStorage {
     }
 
     /**
-     * Restore a single town from a daily backup (by date string like "2026-01-16").
+     * Restore a single town from a backup snapshot, by id or date ("2026-01-16" picks that
+     * day's newest snapshot).
      * Returns true if successful.
      */
     public boolean restoreTownFromDailyBackup(String townName, String dateStr) {
-        String sanitizedName = sanitize(townName);
-        Path backupDir = townsDirectory.resolve("backups").resolve(dateStr);
-        Path backupFile = backupDir.resolve(sanitizedName + ".json");
-
-        if (!Files.exists(backupFile)) {
+        String id = backupStore.resolve(dateStr);
+        if (id == null) {
             return false;
         }
 
+        String sanitizedName = sanitize(townName);
+        Path restored = townsDirectory.resolve(sanitizedName + ".json.restore");
         try {
-            String json = Files.readString(backupFile);
-            Town town = gson.fromJson(json, Town.class);
+            if (!backupStore.restoreFile(id, "towns/" + sanitizedName + ".json", restored)) {
+                return false;
+            }
+            Town town = ChecksummedFiles.read(restored, reader -> gson.fromJson(reader, Town.class));
 
             if (town == null || town.getName() == null) {
                 return false;
@@ -898,7 +1568,12 @@ public class TownStorage {
             return true;
 
         } catch (Exception e) {
+            System.err.println("[TownStorage] Failed to restore " + townName + " from backup " + id + ": " + e.getMessage());
             return false;
+        } finally {
+            try {
+                Files.deleteIfExists(restored);
+            } catch (IOException ignored) {}
         }
     }
 
@@ -912,31 +1587,39 @@ public class TownStorage {
     }
 
     /**
-     * Restore from a backup (by date string like "2026-01-16").
+     * Restore all towns from a backup snapshot, by id or date ("2026-01-16" picks that day's
+     * newest snapshot).
      * Returns true if successful.
      */
     public boolean restoreBackup(String dateStr) {
-        Path backupDir = townsDirectory.resolve("backups").resolve(dateStr);
-        if (!Files.exists(backupDir)) {
+        String id = backupStore.resolve(dateStr);
+        if (id == null) {
             return false;
         }
 
         try {
             // Copy backup files back to main directory
-            try (var stream = Files.list(backupDir)) {
-                stream.filter(p -> p.toString().endsWith(".json"))
-                        .forEach(source -> {
-                            try {
-                                Path dest = townsDirectory.resolve(source.getFileName());
-                                Files.copy(source, dest, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                            } catch (IOException e) {
-                                // Ignore individual file failures
-                            }
-                        });
-            }
-
-            // Reload all data
-            loadAll();
+            for (String path : backupStore.listFiles(id, "towns")) {
+                Path dest = townsDirectory.resolve(path.substring("towns/".length()));
+                try {
+                    backupStore.restoreFile(id, path, dest);
+                } catch (IOException e) {
+                    // Skip individual file failures
+                    System.err.println("[TownStorage] Failed to restore " + path + " from backup " + id + ": " + e.getMessage());
+                }
+            }
+
+            // Drop journaled changes made after the backup, then reload all data
+            synchronized (compactLock) {
+                locks.lockJournalExclusive();
+                try {
+                    journal.discard();
+                    uncompactedSeqs.clear();
+                } finally {
+                    locks.unlockJournalExclusive();
+                }
+                loadAll();
+            }
             return true;
 
         } catch (IOException e) {
@@ -0,0 +1,499 @@
+package com.hytown.data;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Append-only transaction history of one town, kept outside the town's JSON file.
+ *
+ * Records are appended to segment files of up to SEGMENT_BYTES, named after the
+ * index of their first record. Each segment keeps a sparse in-memory index (offset
+ * and timestamp of every INDEX_INTERVAL-th record), so a page by position or by time
+ * range seeks close to its first record and reads only the records on the page.
+ * Retention drops whole segments from the head. Records are assumed to be appended
+ * in time order, which is what time range queries rely on.
+ *
+ * Record format (big-endian): int payloadLength, then
+ *   long timestamp, UTF type, double amount,
+ *   boolean hasActorId [long msb, long lsb], boolean hasActorName [UTF], boolean hasDetails [UTF]
+ */
+public final class TownTransactionLog {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final long SEGMENT_BYTES = 256 * 1024;
+    private static final int INDEX_INTERVAL = 32;      // records between sparse index entries
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final List<Segment> segments = new ArrayList<>();   // oldest first
+    private FileChannel activeChannel;
+    private boolean unsynced;
+
+    /**
+     * Daily aggregate of money movements.
+     * @param income deposits
+     * @param upkeep upkeep collected
+     * @param spending withdrawals and plot purchases
+     */
+    public record DailyTotals(LocalDate day, double income, double upkeep, double spending, int transactions) {}
+
+    private TownTransactionLog(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens a town's log, scanning its segments to rebuild the sparse index.
+     * A record torn by a crash at the end of the newest segment is cut off.
+     */
+    public static TownTransactionLog open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+
+        TownTransactionLog log = new TownTransactionLog(directory);
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            String name = file.getFileName().toString();
+            long firstIndex;
+            try {
+                firstIndex = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            Segment segment = new Segment(file, firstIndex);
+            long validBytes = segment.scan();
+            if (validBytes < Files.size(file)) {
+                if (i < files.size() - 1) {
+                    System.err.println("[TownTransactionLog] Damaged segment " + file + ", ignoring "
+                            + (Files.size(file) - validBytes) + " trailing bytes");
+                } else {
+                    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                        channel.truncate(validBytes);
+                    }
+                }
+            }
+            log.segments.add(segment);
+        }
+        return log;
+    }
+
+    // ==================== WRITING ====================
+
+    /**
+     * Appends a transaction. Call {@link #sync()} to force it to disk.
+     */
+    public synchronized void append(TownTransaction transaction) throws IOException {
+        byte[] record = encode(transaction);
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || (segment.bytes > 0 && segment.bytes + record.length > SEGMENT_BYTES)) {
+            sync();
+            closeActive();
+            long firstIndex = segment == null ? 0 : segment.firstIndex + segment.count;
+            segment = new Segment(directory.resolve(String.format("%016d", firstIndex) + SEGMENT_SUFFIX), firstIndex);
+            segments.add(segment);
+        }
+        if (activeChannel == null) {
+            activeChannel = FileChannel.open(segment.file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            activeChannel.write(buffer);
+        }
+        segment.add(segment.bytes, transaction.getTimestamp());
+        segment.bytes += record.length;
+        unsynced = true;
+    }
+
+    /**
+     * Appends transactions kept by an older version (or while the log was unavailable),
+     * skipping any already in the log, i.e. not newer than its last record.
+     * @return the number appended
+     */
+    public synchronized int importPending(List<TownTransaction> transactions) throws IOException {
+        long last = getLastTimestamp();
+        int imported = 0;
+        for (TownTransaction transaction : transactions) {
+            if (size() == 0 || transaction.getTimestamp() > last) {
+                append(transaction);
+                imported++;
+            }
+        }
+        if (imported > 0) {
+            sync();
+        }
+        return imported;
+    }
+
+    /**
+     * Forces appended records to disk.
+     */
+    public synchronized void sync() {
+        if (!unsynced || activeChannel == null) return;
+        try {
+            activeChannel.force(false);
+            unsynced = false;
+        } catch (IOException e) {
+            System.err.println("[TownTransactionLog] ERROR syncing " + directory + ": " + e.getMessage());
+        }
+    }
+
+    public synchronized void close() {
+        sync();
+        closeActive();
+    }
+
+    private void closeActive() {
+        if (activeChannel == null) return;
+        try {
+            activeChannel.close();
+        } catch (IOException ignored) {}
+        activeChannel = null;
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Gets the number of transactions in the log.
+     */
+    public synchronized long size() {
+        if (segments.isEmpty()) return 0;
+        Segment last = segments.get(segments.size() - 1);
+        return last.firstIndex + last.count - segments.get(0).firstIndex;
+    }
+
+    /**
+     * Gets the timestamp of the newest transaction, or 0 if empty.
+     */
+    public synchronized long getLastTimestamp() {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            if (segment.count > 0) return segment.lastTimestamp;
+        }
+        return 0;
+    }
+
+    /**
+     * Gets a page of transactions, newest first.
+     * @param offset number of newest transactions to skip
+     */
+    public synchronized List<TownTransaction> getPage(long offset, int limit) throws IOException {
+        return readNewestFirst(0, size(), offset, limit);
+    }
+
+    /**
+     * Gets a page of the transactions in a time range, newest first.
+     * @param fromTime inclusive start (epoch millis)
+     * @param toTime exclusive end (epoch millis)
+     * @param offset number of newest transactions in the range to skip
+     */
+    public synchronized List<TownTransaction> getPage(long fromTime, long toTime, long offset, int limit)
+            throws IOException {
+        return readNewestFirst(positionOf(fromTime), positionOf(toTime), offset, limit);
+    }
+
+    /**
+     * Counts the transactions in a time range.
+     */
+    public synchronized long count(long fromTime, long toTime) throws IOException {
+        return Math.max(0, positionOf(toTime) - positionOf(fromTime));
+    }
+
+    /**
+     * Streams the transactions in a time range to a consumer, oldest first,
+     * without materializing them.
+     */
+    public synchronized void forEach(long fromTime, long toTime, Consumer<TownTransaction> consumer) throws IOException {
+        read(positionOf(fromTime), positionOf(toTime), consumer);
+    }
+
+    /**
+     * Computes income, upkeep and spending per day over a time range, oldest day first.
+     */
+    public List<DailyTotals> getDailyTotals(long fromTime, long toTime, ZoneId zone) throws IOException {
+        TreeMap<LocalDate, double[]> days = new TreeMap<>();   // income, upkeep, spending, count
+        forEach(fromTime, toTime, transaction -> {
+            LocalDate day = Instant.ofEpochMilli(transaction.getTimestamp()).atZone(zone).toLocalDate();
+            double[] totals = days.computeIfAbsent(day, k -> new double[4]);
+            switch (transaction.getType()) {
+                case DEPOSIT -> totals[0] += transaction.getAmount();
+                case UPKEEP -> totals[1] += transaction.getAmount();
+                case WITHDRAW, PLOT_PURCHASE -> totals[2] += transaction.getAmount();
+                default -> {}
+            }
+            totals[3]++;
+        });
+        List<DailyTotals> result = new ArrayList<>(days.size());
+        days.forEach((day, totals) -> result.add(new DailyTotals(day, totals[0], totals[1], totals[2], (int) totals[3])));
+        return result;
+    }
+
+    // ==================== RETENTION ====================
+
+    /**
+     * Drops whole segments from the head while they only hold transactions older than
+     * minTimestamp, or while the log is larger than maxBytes. The newest segment is kept.
+     * @param minTimestamp 0 to keep transactions of any age
+     * @param maxBytes 0 for no size limit
+     * @return the number of transactions dropped
+     */
+    public synchronized long applyRetention(long minTimestamp, long maxBytes) {
+        long totalBytes = 0;
+        for (Segment segment : segments) {
+            totalBytes += segment.bytes;
+        }
+        long dropped = 0;
+        while (segments.size() > 1) {
+            Segment oldest = segments.get(0);
+            boolean expired = minTimestamp > 0 && oldest.lastTimestamp < minTimestamp;
+            boolean oversized = maxBytes > 0 && totalBytes > maxBytes;
+            if (!expired && !oversized) break;
+            try {
+                Files.deleteIfExists(oldest.file);
+            } catch (IOException e) {
+                System.err.println("[TownTransactionLog] ERROR deleting " + oldest.file + ": " + e.getMessage());
+                break;
+            }
+            segments.remove(0);
+            totalBytes -= oldest.bytes;
+            dropped += oldest.count;
+        }
+        return dropped;
+    }
+
+    /**
+     * Gets the total size of the segment files.
+     */
+    public synchronized long getBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.bytes;
+        }
+        return bytes;
+    }
+
+    // ==================== READING ====================
+
+    /**
+     * Position (0 = oldest retained) of the first transaction at or after a time.
+     */
+    private long positionOf(long time) throws IOException {
+        long base = segments.isEmpty() ? 0 : segments.get(0).firstIndex;
+        for (Segment segment : segments) {
+            if (segment.count == 0 || segment.lastTimestamp < time) continue;
+            return segment.firstIndex - base + segment.positionOf(time);
+        }
+        return size();
+    }
+
+    private List<TownTransaction> readNewestFirst(long start, long end, long offset, int limit) throws IOException {
+        long pageEnd = end - Math.max(0, offset);
+        long pageStart = Math.max(start, pageEnd - Math.max(0, limit));
+        List<TownTransaction> page = new ArrayList<>();
+        if (pageStart < pageEnd) {
+            read(pageStart, pageEnd, page::add);
+            Collections.reverse(page);
+        }
+        return page;
+    }
+
+    /**
+     * Reads the transactions at positions [start, end), oldest first.
+     */
+    private void read(long start, long end, Consumer<TownTransaction> consumer) throws IOException {
+        if (start >= end || segments.isEmpty()) return;
+        long base = segments.get(0).firstIndex;
+        for (Segment segment : segments) {
+            long segmentStart = segment.firstIndex - base;
+            long from = Math.max(start, segmentStart);
+            long to = Math.min(end, segmentStart + segment.count);
+            if (from < to) {
+                segment.read((int) (from - segmentStart), (int) (to - segmentStart), consumer);
+            }
+        }
+    }
+
+    // ==================== ENCODING ====================
+
+    private static byte[] encode(TownTransaction transaction) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // length, filled in below
+        out.writeLong(transaction.getTimestamp());
+        out.writeUTF(transaction.getType().name());
+        out.writeDouble(transaction.getAmount());
+        UUID actorId = transaction.getActorId();
+        out.writeBoolean(actorId != null);
+        if (actorId != null) {
+            out.writeLong(actorId.getMostSignificantBits());
+            out.writeLong(actorId.getLeastSignificantBits());
+        }
+        writeNullable(out, transaction.getActorName());
+        writeNullable(out, transaction.getDetails());
+        out.flush();
+        byte[] record = bytes.toByteArray();
+        ByteBuffer.wrap(record).putInt(0, record.length - 4);
+        return record;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static TownTransaction decode(DataInputStream in) throws IOException {
+        TownTransaction transaction = new TownTransaction();
+        transaction.setTimestamp(in.readLong());
+        String type = in.readUTF();
+        try {
+            transaction.setType(TownTransaction.TransactionType.valueOf(type));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown transaction type " + type);
+        }
+        transaction.setAmount(in.readDouble());
+        if (in.readBoolean()) {
+            transaction.setActorId(new UUID(in.readLong(), in.readLong()));
+        }
+        transaction.setActorName(in.readBoolean() ? in.readUTF() : null);
+        transaction.setDetails(in.readBoolean() ? in.readUTF() : null);
+        return transaction;
+    }
+
+    // ==================== SEGMENTS ====================
+
+    /**
+     * One segment file with its sparse index.
+     */
+    private static final class Segment {
+        final Path file;
+        final long firstIndex;
+        int count;
+        long bytes;
+        long lastTimestamp;
+        long[] indexOffsets = new long[8];
+        long[] indexTimestamps = new long[8];
+        int indexSize;
+
+        Segment(Path file, long firstIndex) {
+            this.file = file;
+            this.firstIndex = firstIndex;
+        }
+
+        void add(long offset, long timestamp) {
+            if (count % INDEX_INTERVAL == 0) {
+                if (indexSize == indexOffsets.length) {
+                    indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+                    indexTimestamps = Arrays.copyOf(indexTimestamps, indexSize * 2);
+                }
+                indexOffsets[indexSize] = offset;
+                indexTimestamps[indexSize] = timestamp;
+                indexSize++;
+            }
+            lastTimestamp = timestamp;
+            count++;
+        }
+
+        /**
+         * Reads every record header to build the index.
+         * @return the number of bytes holding complete records
+         */
+        long scan() throws IOException {
+            try (DataInputStream in = openAt(0)) {
+                while (true) {
+                    int length;
+                    long timestamp;
+                    try {
+                        length = in.readInt();
+                        if (length < 8 || length > MAX_RECORD_BYTES) break;
+                        timestamp = in.readLong();
+                        in.skipNBytes(length - 8);
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    add(bytes, timestamp);
+                    bytes += 4 + length;
+                }
+            }
+            return bytes;
+        }
+
+        /**
+         * Local position of the first record at or after a time.
+         */
+        int positionOf(long time) throws IOException {
+            // Last index entry before the time; the answer is within the INDEX_INTERVAL records after it
+            int entry = Arrays.binarySearch(indexTimestamps, 0, indexSize, time);
+            if (entry < 0) {
+                entry = -entry - 2;
+            } else {
+                while (entry > 0 && indexTimestamps[entry - 1] >= time) entry--;
+                entry--;
+            }
+            if (entry < 0) return 0;
+
+            int position = entry * INDEX_INTERVAL;
+            try (DataInputStream in = openAt(indexOffsets[entry])) {
+                while (position < count) {
+                    int length = in.readInt();
+                    if (in.readLong() >= time) break;
+                    in.skipNBytes(length - 8);
+                    position++;
+                }
+            }
+            return position;
+        }
+
+        /**
+         * Reads local positions [from, to), seeking via the sparse index.
+         */
+        void read(int from, int to, Consumer<TownTransaction> consumer) throws IOException {
+            int entry = from / INDEX_INTERVAL;
+            int position = entry * INDEX_INTERVAL;
+            try (DataInputStream in = openAt(indexOffsets[entry])) {
+                for (; position < to; position++) {
+                    int length = in.readInt();
+                    if (position < from) {
+                        in.skipNBytes(length);
+                    } else {
+                        consumer.accept(decode(new DataInputStream(new ByteArrayInputStream(in.readNBytes(length)))));
+                    }
+                }
+            }
+        }
+
+        private DataInputStream openAt(long offset) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            channel.position(offset);
+            return new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 8192));
+        }
+    }
+}
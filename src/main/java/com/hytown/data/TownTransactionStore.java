@@ -0,0 +1,147 @@
+package com.hytown.data;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * The transaction logs of all towns (towns/transactions/&lt;town&gt;/), opened on first use.
+ */
+public class TownTransactionStore {
+
+    private final Path directory;
+    private final Map<String, TownTransactionLog> logs = new ConcurrentHashMap<>();   // townName (lowercase) -> log
+
+    // Retention (0 = unlimited)
+    private volatile long maxAgeMillis = 0;
+    private volatile long maxBytesPerTown = 0;
+
+    public TownTransactionStore(Path townsDirectory) {
+        this.directory = townsDirectory.resolve("transactions");
+    }
+
+    /**
+     * Gets a town's log, opening it if needed.
+     * @return the log, or null if it cannot be opened (error is logged)
+     */
+    public TownTransactionLog get(String townName) {
+        try {
+            return logs.computeIfAbsent(townName.toLowerCase(), name -> {
+                try {
+                    return TownTransactionLog.open(directory.resolve(sanitize(name)));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            System.err.println("[TownTransactionStore] ERROR opening transaction log of " + townName + ": "
+                    + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Moves a town's log to its new name.
+     */
+    public synchronized void rename(String oldName, String newName) {
+        if (oldName.equalsIgnoreCase(newName)) return;
+        closeLog(oldName);
+        closeLog(newName);
+        Path from = directory.resolve(sanitize(oldName.toLowerCase()));
+        if (!Files.exists(from)) return;
+        try {
+            deleteDirectory(directory.resolve(sanitize(newName.toLowerCase())));
+            Files.move(from, directory.resolve(sanitize(newName.toLowerCase())));
+        } catch (IOException e) {
+            System.err.println("[TownTransactionStore] ERROR moving transaction log of " + oldName + " to " + newName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes a town's log.
+     */
+    public synchronized void delete(String townName) {
+        closeLog(townName);
+        try {
+            deleteDirectory(directory.resolve(sanitize(townName.toLowerCase())));
+        } catch (IOException e) {
+            System.err.println("[TownTransactionStore] ERROR deleting transaction log of " + townName + ": " + e.getMessage());
+        }
+    }
+
+    private void closeLog(String townName) {
+        TownTransactionLog log = logs.remove(townName.toLowerCase());
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    /**
+     * Sets how long transactions and how many bytes per town are kept (0 = unlimited).
+     */
+    public void setRetention(long maxAgeMillis, long maxBytesPerTown) {
+        this.maxAgeMillis = Math.max(0, maxAgeMillis);
+        this.maxBytesPerTown = Math.max(0, maxBytesPerTown);
+    }
+
+    /**
+     * Applies retention to the open logs.
+     * @return the number of transactions dropped
+     */
+    public long applyRetention() {
+        long maxAge = maxAgeMillis;
+        long minTimestamp = maxAge > 0 ? System.currentTimeMillis() - maxAge : 0;
+        long dropped = 0;
+        for (TownTransactionLog log : logs.values()) {
+            dropped += log.applyRetention(minTimestamp, maxBytesPerTown);
+        }
+        return dropped;
+    }
+
+    /**
+     * Forces appended transactions of all open logs to disk.
+     */
+    public void sync() {
+        for (TownTransactionLog log : logs.values()) {
+            log.sync();
+        }
+    }
+
+    public synchronized void close() {
+        for (TownTransactionLog log : logs.values()) {
+            log.close();
+        }
+        logs.clear();
+    }
+
+    /**
+     * Get statistics for debugging/admin commands.
+     */
+    public String getStats() {
+        long transactions = 0, bytes = 0;
+        for (TownTransactionLog log : logs.values()) {
+            transactions += log.size();
+            bytes += log.getBytes();
+        }
+        return String.format("Open logs: %d, Transactions: %d, Size: %d KB", logs.size(), transactions, bytes / 1024);
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[^a-zA-Z0-9_-]", "_");
+    }
+}
@@ -0,0 +1,273 @@
+package com.hytown.data;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Hand-written streaming codec for {@link Town}, replacing Gson's reflective adapter.
+ *
+ * Writes the same field names in the same order, and skips the same null fields, as
+ * reflection did, so existing town files, journal records and the journal's JSON diffs
+ * stay compatible. Unknown fields are skipped on read. The small nested objects
+ * (settings, plot settings, inline transactions) still go through Gson's adapters.
+ */
+public final class TownTypeAdapter extends TypeAdapter<Town> {
+
+    /**
+     * Register with {@code GsonBuilder.registerTypeAdapterFactory}.
+     */
+    public static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            return type.getRawType() == Town.class ? (TypeAdapter<T>) new TownTypeAdapter(gson) : null;
+        }
+    };
+
+    private final TypeAdapter<TownSettings> settingsAdapter;
+    private final TypeAdapter<PlotSettings> plotSettingsAdapter;
+    private final TypeAdapter<TownTransaction> transactionAdapter;
+
+    private TownTypeAdapter(Gson gson) {
+        this.settingsAdapter = gson.getAdapter(TownSettings.class);
+        this.plotSettingsAdapter = gson.getAdapter(PlotSettings.class);
+        this.transactionAdapter = gson.getAdapter(TownTransaction.class);
+    }
+
+    // ==================== WRITING ====================
+
+    @Override
+    public void write(JsonWriter out, Town town) throws IOException {
+        if (town == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writeString(out, "name", town.getName());
+        writeUuid(out, "mayorId", town.getMayorId());
+        writeString(out, "mayorName", town.getMayorName());
+        writeUuids(out, "assistants", town.getAssistants());
+        writeUuids(out, "residents", town.getResidents());
+
+        Map<UUID, String> residentNames = town.getResidentNames();
+        if (residentNames != null) {
+            out.name("residentNames").beginObject();
+            for (Map.Entry<UUID, String> entry : residentNames.entrySet()) {
+                if (entry.getKey() != null && entry.getValue() != null) {
+                    out.name(entry.getKey().toString()).value(entry.getValue());
+                }
+            }
+            out.endObject();
+        }
+
+        Set<String> claimKeys = town.getClaimKeys();
+        if (claimKeys != null) {
+            out.name("claimKeys").beginArray();
+            for (String claimKey : claimKeys) {
+                out.value(claimKey);
+            }
+            out.endArray();
+        }
+
+        if (town.getSettings() != null) {
+            out.name("settings");
+            settingsAdapter.write(out, town.getSettings());
+        }
+        out.name("balance").value(town.getBalance());
+        out.name("createdAt").value(town.getCreatedAt());
+        writeString(out, "spawnWorld", town.getSpawnWorld());
+        out.name("spawnX").value(town.getSpawnX());
+        out.name("spawnY").value(town.getSpawnY());
+        out.name("spawnZ").value(town.getSpawnZ());
+        // Boxed so floats print as reflection printed them (e.g. 1.1, not 1.100000023841858)
+        out.name("spawnYaw").value(Float.valueOf(town.getSpawnYaw()));
+        out.name("spawnPitch").value(Float.valueOf(town.getSpawnPitch()));
+        out.name("hasSpawn").value(town.hasSpawn());
+        writeString(out, "nationName", town.getNationName());
+        writeString(out, "board", town.getBoardRaw());
+        out.name("lastUpkeepTime").value(town.getLastUpkeepTime());
+        out.name("missedUpkeepDays").value(town.getMissedUpkeepDays());
+        out.name("bonusClaims").value(town.getBonusClaims());
+
+        List<TownTransaction> transactions = town.getTransactionHistoryRaw();
+        if (transactions != null) {
+            out.name("transactionHistory").beginArray();
+            for (TownTransaction transaction : transactions) {
+                transactionAdapter.write(out, transaction);
+            }
+            out.endArray();
+        }
+
+        Map<String, UUID> plotOwners = town.getPlotOwnersRaw();
+        if (plotOwners != null) {
+            out.name("plotOwners").beginObject();
+            for (Map.Entry<String, UUID> entry : plotOwners.entrySet()) {
+                if (entry.getKey() != null && entry.getValue() != null) {
+                    out.name(entry.getKey()).value(entry.getValue().toString());
+                }
+            }
+            out.endObject();
+        }
+
+        Map<String, PlotSettings> plotSettings = town.getPlotSettingsRaw();
+        if (plotSettings != null) {
+            out.name("plotSettings").beginObject();
+            for (Map.Entry<String, PlotSettings> entry : plotSettings.entrySet()) {
+                if (entry.getKey() != null && entry.getValue() != null) {
+                    out.name(entry.getKey());
+                    plotSettingsAdapter.write(out, entry.getValue());
+                }
+            }
+            out.endObject();
+        }
+        out.endObject();
+    }
+
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static void writeUuid(JsonWriter out, String name, UUID value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value.toString());
+        }
+    }
+
+    private static void writeUuids(JsonWriter out, String name, Set<UUID> values) throws IOException {
+        if (values == null) return;
+        out.name(name).beginArray();
+        for (UUID value : values) {
+            if (value != null) {
+                out.value(value.toString());
+            }
+        }
+        out.endArray();
+    }
+
+    // ==================== READING ====================
+
+    @Override
+    public Town read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Town town = new Town();
+        String spawnWorld = null;
+        double spawnX = 0, spawnY = 0, spawnZ = 0;
+        float spawnYaw = 0, spawnPitch = 0;
+        boolean hasSpawn = false;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "name" -> town.setName(in.nextString());
+                case "mayorId" -> town.setMayorId(UUID.fromString(in.nextString()));
+                case "mayorName" -> town.setMayorName(in.nextString());
+                case "assistants" -> town.setAssistants(readUuids(in));
+                case "residents" -> town.setResidents(readUuids(in));
+                case "residentNames" -> {
+                    Map<UUID, String> residentNames = new HashMap<>();
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        UUID id = UUID.fromString(in.nextName());
+                        residentNames.put(id, in.nextString());
+                    }
+                    in.endObject();
+                    town.setResidentNames(residentNames);
+                }
+                case "claimKeys" -> {
+                    Set<String> claimKeys = new HashSet<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        claimKeys.add(in.nextString());
+                    }
+                    in.endArray();
+                    town.setClaimKeys(claimKeys);
+                }
+                case "settings" -> town.setSettings(settingsAdapter.read(in));
+                case "balance" -> town.setBalance(in.nextDouble());
+                case "createdAt" -> town.setCreatedAt(in.nextLong());
+                case "spawnWorld" -> spawnWorld = in.nextString();
+                case "spawnX" -> spawnX = in.nextDouble();
+                case "spawnY" -> spawnY = in.nextDouble();
+                case "spawnZ" -> spawnZ = in.nextDouble();
+                case "spawnYaw" -> spawnYaw = (float) in.nextDouble();
+                case "spawnPitch" -> spawnPitch = (float) in.nextDouble();
+                case "hasSpawn" -> hasSpawn = in.nextBoolean();
+                case "nationName" -> town.setNationName(in.nextString());
+                case "board" -> town.setBoardRaw(in.nextString());
+                case "lastUpkeepTime" -> town.setLastUpkeepTime(in.nextLong());
+                case "missedUpkeepDays" -> town.setMissedUpkeepDays(in.nextInt());
+                case "bonusClaims" -> town.setBonusClaims(in.nextInt());
+                case "transactionHistory" -> {
+                    List<TownTransaction> transactions = new ArrayList<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        TownTransaction transaction = transactionAdapter.read(in);
+                        if (transaction != null) transactions.add(transaction);
+                    }
+                    in.endArray();
+                    town.setTransactionHistoryRaw(transactions);
+                }
+                case "plotOwners" -> {
+                    Map<String, UUID> plotOwners = new HashMap<>();
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String claimKey = in.nextName();
+                        plotOwners.put(claimKey, UUID.fromString(in.nextString()));
+                    }
+                    in.endObject();
+                    town.setPlotOwnersRaw(plotOwners);
+                }
+                case "plotSettings" -> {
+                    Map<String, PlotSettings> plotSettings = new HashMap<>();
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String claimKey = in.nextName();
+                        PlotSettings settings = plotSettingsAdapter.read(in);
+                        if (settings != null) plotSettings.put(claimKey, settings);
+                    }
+                    in.endObject();
+                    town.setPlotSettingsRaw(plotSettings);
+                }
+                default -> in.skipValue();  // e.g. the journal seq, or fields from other versions
+            }
+        }
+        in.endObject();
+
+        town.setSpawnRaw(spawnWorld, spawnX, spawnY, spawnZ, spawnYaw, spawnPitch, hasSpawn);
+        return town;
+    }
+
+    private static Set<UUID> readUuids(JsonReader in) throws IOException {
+        Set<UUID> values = new HashSet<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            values.add(UUID.fromString(in.nextString()));
+        }
+        in.endArray();
+        return values;
+    }
+}
@@ -0,0 +1,126 @@
+package com.hytown.events;
+
+import com.hytown.data.Town;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fired once when a rectangle of chunks is unclaimed from a town in one transaction
+ * (/town unclaim area). Individual TownUnclaimEvents are not fired for these chunks.
+ */
+public class TownAreaUnclaimEvent implements TownEvent {
+    private final Town town;
+    private final String worldName;
+    private final List<String> claimKeys;
+    private final LongSet chunks;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int maxChunkX;
+    private final int maxChunkZ;
+    private final UUID unclaimedBy;
+    private final String unclaimedByName;
+
+    public TownAreaUnclaimEvent(Town town, String worldName, List<String> claimKeys, LongSet chunks,
+                                int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ,
+                                UUID unclaimedBy, String unclaimedByName) {
+        this.town = town;
+        this.worldName = worldName;
+        this.claimKeys = Collections.unmodifiableList(claimKeys);
+        this.chunks = LongSets.unmodifiable(chunks);
+        this.minChunkX = minChunkX;
+        this.minChunkZ = minChunkZ;
+        this.maxChunkX = maxChunkX;
+        this.maxChunkZ = maxChunkZ;
+        this.unclaimedBy = unclaimedBy;
+        this.unclaimedByName = unclaimedByName;
+    }
+
+    /**
+     * Get the town that unclaimed the chunks.
+     */
+    public Town getTown() {
+        return town;
+    }
+
+    /**
+     * Get the town name.
+     */
+    public String getTownName() {
+        return town.getName();
+    }
+
+    /**
+     * Get the world name where the chunks were unclaimed.
+     */
+    public String getWorldName() {
+        return worldName;
+    }
+
+    /**
+     * Get the claim keys of the unclaimed chunks.
+     * Format: "world:chunkX,chunkZ"
+     */
+    public List<String> getClaimKeys() {
+        return claimKeys;
+    }
+
+    /**
+     * Get the unclaimed chunks as packed keys (see ChunkUtil.packChunk).
+     */
+    public LongSet getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Get the number of chunks unclaimed.
+     */
+    public int getChunkCount() {
+        return claimKeys.size();
+    }
+
+    /**
+     * Get the selected rectangle's minimum chunk X coordinate.
+     */
+    public int getMinChunkX() {
+        return minChunkX;
+    }
+
+    /**
+     * Get the selected rectangle's minimum chunk Z coordinate.
+     */
+    public int getMinChunkZ() {
+        return minChunkZ;
+    }
+
+    /**
+     * Get the selected rectangle's maximum chunk X coordinate.
+     */
+    public int getMaxChunkX() {
+        return maxChunkX;
+    }
+
+    /**
+     * Get the selected rectangle's maximum chunk Z coordinate.
+     */
+    public int getMaxChunkZ() {
+        return maxChunkZ;
+    }
+
+    /**
+     * Get the UUID of the player who unclaimed the chunks.
+     */
+    public UUID getUnclaimedBy() {
+        return unclaimedBy;
+    }
+
+    /**
+     * Get the username of the player who unclaimed the chunks.
+     */
+    public String getUnclaimedByName() {
+        return unclaimedByName;
+    }
+}
@@ -1,14 +1,13 @@
 package com.hytown.events;
 
 import com.hytown.data.Town;
-import com.hypixel.hytale.event.IEvent;
 
 import java.util.UUID;
 
 /**
  * Fired when a chunk is claimed for a town.
  */
-public class TownClaimEvent implements IEvent<Void> {
+public class TownClaimEvent implements TownEvent {
     private final Town town;
     private final String claimKey;
     private final String worldName;
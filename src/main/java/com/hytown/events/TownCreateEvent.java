@@ -1,7 +1,6 @@
 package com.hytown.events;
 
 import com.hytown.data.Town;
-import com.hypixel.hytale.event.IEvent;
 
 import java.util.UUID;
 
@@ -9,7 +8,7 @@ import java.util.UUID;
  * Fired when a new town is created.
  * Contains information about the newly created town and its founder.
  */
-public class TownCreateEvent implements IEvent<Void> {
+public class TownCreateEvent implements TownEvent {
     private final Town town;
     private final UUID founderId;
     private final String founderName;
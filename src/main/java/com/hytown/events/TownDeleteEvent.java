@@ -1,7 +1,6 @@
 package com.hytown.events;
 
 import com.hytown.data.Town;
-import com.hypixel.hytale.event.IEvent;
 
 import java.util.Set;
 import java.util.UUID;
@@ -11,7 +10,7 @@ import java.util.UUID;
  * Contains information about the deleted town and all its claims.
  * This event is fired BEFORE the town data is removed, so listeners can still access town info.
  */
-public class TownDeleteEvent implements IEvent<Void> {
+public class TownDeleteEvent implements TownEvent {
     private final Town town;
     private final UUID deletedBy;
     private final String deletedByName;
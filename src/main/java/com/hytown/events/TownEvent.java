@@ -0,0 +1,17 @@
+package com.hytown.events;
+
+import com.hytown.data.Town;
+import com.hypixel.hytale.event.IEvent;
+
+/**
+ * Common type of all HyTown town events.
+ * Listen for this type on the {@link TownEventBus} to receive every town event.
+ */
+public interface TownEvent extends IEvent<Void> {
+
+    /**
+     * Get the town the event is about. Asynchronous listeners receive the events
+     * of one town in the order they were fired.
+     */
+    Town getTown();
+}
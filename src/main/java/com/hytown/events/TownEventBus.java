@@ -1,9 +1,22 @@
 package com.hytown.events;
 
+import com.hytown.metrics.LatencyHistogram;
+import com.hytown.metrics.PerfMetrics;
+
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
@@ -26,11 +39,77 @@ import java.util.function.Consumer;
  * eventBus.on(TownDeleteEvent.class, event -> {
  *     // Clean up your plugin's data
  * });
+ *
+ * // Receive every town event off the game thread, e.g. to write to a database
+ * eventBus.onAsync(TownEvent.class, event -> database.record(event));
  * }</pre>
+ *
+ * <p>A listener receives events of its type and of all subtypes, so listening for
+ * {@link TownEvent} receives every town event. Listeners run in
+ * {@link EventPriority} order, then in registration order.
+ *
+ * <p>Listeners registered with {@link #on} run synchronously on the thread that
+ * fired the event (often the thread handling a claim or command), so they must
+ * be fast. Listeners registered with {@link #onAsync} get a bounded queue and
+ * their own virtual threads instead: a slow one cannot stall town operations,
+ * and it still receives each town's events in the order they were fired.
+ *
+ * <p>Registration is copy-on-write and the per-type dispatch table is cached, so
+ * firing takes no locks. Every listener call is timed; see {@link #getListenerStats()}.
  */
 public class TownEventBus {
 
-    private final Map<Class<?>, List<Consumer<?>>> listeners = new ConcurrentHashMap<>();
+    /**
+     * Order in which listeners of one event run, LOWEST first. MONITOR listeners
+     * run last and should only observe.
+     */
+    public enum EventPriority {
+        LOWEST, LOW, NORMAL, HIGH, HIGHEST, MONITOR
+    }
+
+    /**
+     * What an asynchronous listener does when its queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Drop the event and count it. The firing thread never waits. */
+        DROP,
+        /** Make the firing thread wait for space. No event is lost. */
+        BLOCK
+    }
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int ASYNC_LANES = 4;                      // towns are spread over this many workers
+    private static final long SLOW_LISTENER_NANOS = 2_000_000;     // 2 ms
+    private static final long SLOW_WARNING_INTERVAL_MS = 60000;
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+
+    private static final LatencyHistogram DISPATCH_TIME = PerfMetrics.histogram("events.dispatch");
+    private static final LatencyHistogram LISTENER_TIME = PerfMetrics.histogram("events.listener");
+    private static final LongAdder LISTENER_ERRORS = PerfMetrics.counter("events.listenerErrors");
+    private static final LongAdder SLOW_CALLS = PerfMetrics.counter("events.slowListenerCalls");
+    private static final LongAdder DROPPED = PerfMetrics.counter("events.dropped");
+
+    private static final Listener[] NO_LISTENERS = new Listener[0];
+
+    // Replaced as a whole on every registration change
+    private volatile State state = new State(Map.of());
+    private long nextSequence;   // guarded by this
+    private volatile boolean closed;
+
+    /**
+     * Registered listeners by the type they were registered for, with a dispatch
+     * table cache that belongs to exactly this set of registrations.
+     */
+    private static final class State {
+        final Map<Class<?>, Listener[]> registrations;
+        final Map<Class<?>, Listener[]> dispatchTable = new ConcurrentHashMap<>();
+
+        State(Map<Class<?>, Listener[]> registrations) {
+            this.registrations = registrations;
+        }
+    }
+
+    // ==================== REGISTRATION ====================
 
     /**
      * Register a listener for a specific event type.
@@ -39,9 +118,61 @@ public class TownEventBus {
      * @param listener The listener callback
      * @param <T> The event type
      */
-    @SuppressWarnings("unchecked")
     public <T> void on(Class<T> eventClass, Consumer<T> listener) {
-        listeners.computeIfAbsent(eventClass, k -> new ArrayList<>()).add(listener);
+        on(eventClass, listener, EventPriority.NORMAL);
+    }
+
+    /**
+     * Register a synchronous listener with a priority.
+     *
+     * @param eventClass The event class (or supertype) to listen for
+     * @param listener The listener callback
+     * @param priority When the listener runs relative to others
+     * @param <T> The event type
+     */
+    public <T> void on(Class<T> eventClass, Consumer<T> listener, EventPriority priority) {
+        register(eventClass, listener, priority, null);
+    }
+
+    /**
+     * Register an asynchronous listener with a queue of {@link #DEFAULT_QUEUE_CAPACITY}
+     * events that drops events when full.
+     *
+     * @param eventClass The event class (or supertype) to listen for
+     * @param listener The listener callback, called on a virtual thread
+     * @param <T> The event type
+     */
+    public <T> void onAsync(Class<T> eventClass, Consumer<T> listener) {
+        onAsync(eventClass, listener, DEFAULT_QUEUE_CAPACITY, OverflowPolicy.DROP);
+    }
+
+    /**
+     * Register an asynchronous listener. Events are queued and delivered on the
+     * listener's own virtual threads; events of the same town are delivered one
+     * at a time, in the order they were fired.
+     *
+     * @param eventClass The event class (or supertype) to listen for
+     * @param listener The listener callback, called on a virtual thread
+     * @param queueCapacity Max queued events per worker before the policy applies
+     * @param policy Whether to drop events or block the firing thread when full
+     * @param <T> The event type
+     */
+    public <T> void onAsync(Class<T> eventClass, Consumer<T> listener, int queueCapacity, OverflowPolicy policy) {
+        register(eventClass, listener, EventPriority.MONITOR, new AsyncDelivery(Math.max(1, queueCapacity), policy));
+    }
+
+    private synchronized void register(Class<?> eventClass, Consumer<?> consumer, EventPriority priority,
+                                       AsyncDelivery async) {
+        Listener listener = new Listener(eventClass, consumer, priority, nextSequence++, async);
+        Map<Class<?>, Listener[]> registrations = new HashMap<>(state.registrations);
+        Listener[] existing = registrations.getOrDefault(eventClass, NO_LISTENERS);
+        Listener[] updated = Arrays.copyOf(existing, existing.length + 1);
+        updated[existing.length] = listener;
+        registrations.put(eventClass, updated);
+        state = new State(registrations);
+        if (async != null) {
+            async.start(listener);
+        }
     }
 
     /**
@@ -51,47 +182,355 @@ public class TownEventBus {
      * @param listener The listener to remove
      * @param <T> The event type
      */
-    public <T> void off(Class<T> eventClass, Consumer<T> listener) {
-        List<Consumer<?>> eventListeners = listeners.get(eventClass);
-        if (eventListeners != null) {
-            eventListeners.remove(listener);
+    public synchronized <T> void off(Class<T> eventClass, Consumer<T> listener) {
+        Listener[] existing = state.registrations.get(eventClass);
+        if (existing == null) {
+            return;
         }
+        List<Listener> kept = new ArrayList<>(existing.length);
+        for (Listener registered : existing) {
+            if (registered.consumer == listener) {
+                registered.stop();
+            } else {
+                kept.add(registered);
+            }
+        }
+        if (kept.size() == existing.length) {
+            return;
+        }
+        Map<Class<?>, Listener[]> registrations = new HashMap<>(state.registrations);
+        if (kept.isEmpty()) {
+            registrations.remove(eventClass);
+        } else {
+            registrations.put(eventClass, kept.toArray(NO_LISTENERS));
+        }
+        state = new State(registrations);
     }
 
+    // ==================== DISPATCH ====================
+
     /**
      * Fire an event, notifying all registered listeners.
      *
      * @param event The event to fire
      * @param <T> The event type
      */
-    @SuppressWarnings("unchecked")
     public <T> void fire(T event) {
-        List<Consumer<?>> eventListeners = listeners.get(event.getClass());
-        if (eventListeners != null) {
-            for (Consumer<?> listener : eventListeners) {
-                try {
-                    ((Consumer<T>) listener).accept(event);
-                } catch (Exception e) {
-                    System.err.println("[TownEventBus] Error in event listener: " + e.getMessage());
-                    e.printStackTrace();
+        long start = System.nanoTime();
+        State current = state;
+        Listener[] listeners = current.dispatchTable.get(event.getClass());
+        if (listeners == null) {
+            listeners = current.dispatchTable.computeIfAbsent(event.getClass(),
+                    type -> resolve(type, current.registrations));
+        }
+        for (Listener listener : listeners) {
+            if (listener.async != null) {
+                if (!closed) {
+                    listener.async.enqueue(listener, event);
                 }
+            } else {
+                listener.invoke(event);
+            }
+        }
+        DISPATCH_TIME.recordSince(start);
+    }
+
+    /**
+     * Collects the listeners registered for an event type and all its supertypes
+     * and interfaces, in priority then registration order.
+     */
+    private static Listener[] resolve(Class<?> eventType, Map<Class<?>, Listener[]> registrations) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (Class<?> type = eventType; type != null; type = type.getSuperclass()) {
+            addWithInterfaces(type, types);
+        }
+        List<Listener> listeners = new ArrayList<>();
+        for (Class<?> type : types) {
+            Listener[] registered = registrations.get(type);
+            if (registered != null) {
+                listeners.addAll(Arrays.asList(registered));
+            }
+        }
+        if (listeners.isEmpty()) {
+            return NO_LISTENERS;
+        }
+        listeners.sort(Comparator.comparingInt((Listener l) -> l.priority.ordinal()).thenComparingLong(l -> l.sequence));
+        return listeners.toArray(NO_LISTENERS);
+    }
+
+    private static void addWithInterfaces(Class<?> type, Set<Class<?>> types) {
+        if (types.add(type)) {
+            for (Class<?> iface : type.getInterfaces()) {
+                addWithInterfaces(iface, types);
             }
         }
     }
 
+    // ==================== LIFECYCLE ====================
+
     /**
      * Clear all listeners for a specific event type.
      *
      * @param eventClass The event class
      */
-    public void clearListeners(Class<?> eventClass) {
-        listeners.remove(eventClass);
+    public synchronized void clearListeners(Class<?> eventClass) {
+        Listener[] existing = state.registrations.get(eventClass);
+        if (existing == null) {
+            return;
+        }
+        for (Listener listener : existing) {
+            listener.stop();
+        }
+        Map<Class<?>, Listener[]> registrations = new HashMap<>(state.registrations);
+        registrations.remove(eventClass);
+        state = new State(registrations);
     }
 
     /**
      * Clear all listeners for all events.
      */
-    public void clearAllListeners() {
-        listeners.clear();
+    public synchronized void clearAllListeners() {
+        for (Listener[] listeners : state.registrations.values()) {
+            for (Listener listener : listeners) {
+                listener.stop();
+            }
+        }
+        state = new State(Map.of());
+    }
+
+    /**
+     * Stops asynchronous delivery: queued events are still delivered (up to a few
+     * seconds), later events only reach synchronous listeners.
+     */
+    public void close() {
+        closed = true;
+        List<Listener> async = new ArrayList<>();
+        for (Listener[] listeners : state.registrations.values()) {
+            for (Listener listener : listeners) {
+                if (listener.async != null) {
+                    async.add(listener);
+                }
+            }
+        }
+        long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MS;
+        for (Listener listener : async) {
+            listener.async.drainAndStop(deadline);
+        }
+    }
+
+    // ==================== STATS ====================
+
+    /**
+     * Timing stats of one registered listener.
+     *
+     * @param name      class that registered the listener
+     * @param slowCalls calls that took longer than 2 ms
+     * @param queued    events waiting in an async listener's queue
+     * @param dropped   events an async listener dropped because its queue was full
+     */
+    public record ListenerStats(String name, String eventType, EventPriority priority, boolean async,
+                                long calls, double avgMs, double maxMs, long slowCalls, long errors,
+                                int queued, long dropped) {
+    }
+
+    /**
+     * Gets stats for every registered listener, slowest (by max call time) first.
+     */
+    public List<ListenerStats> getListenerStats() {
+        List<ListenerStats> stats = new ArrayList<>();
+        for (Listener[] listeners : state.registrations.values()) {
+            for (Listener listener : listeners) {
+                stats.add(listener.getStats());
+            }
+        }
+        stats.sort(Comparator.comparingDouble(ListenerStats::maxMs).reversed());
+        return stats;
+    }
+
+    // ==================== LISTENERS ====================
+
+    private static final class Listener {
+        final Class<?> eventClass;
+        final Consumer<?> consumer;
+        final EventPriority priority;
+        final long sequence;
+        final AsyncDelivery async;
+        final String name;
+
+        final LongAdder calls = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final LongAdder slowCalls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        volatile long lastSlowWarning;
+
+        Listener(Class<?> eventClass, Consumer<?> consumer, EventPriority priority, long sequence, AsyncDelivery async) {
+            this.eventClass = eventClass;
+            this.consumer = consumer;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.async = async;
+            this.name = describe(consumer);
+        }
+
+        /**
+         * Lambdas are named after the class that declared them, which is what
+         * identifies the plugin in stats and warnings.
+         */
+        private static String describe(Consumer<?> consumer) {
+            String name = consumer.getClass().getName();
+            int lambda = name.indexOf("$$Lambda");
+            return lambda > 0 ? name.substring(0, lambda) : name;
+        }
+
+        @SuppressWarnings("unchecked")
+        void invoke(Object event) {
+            long start = System.nanoTime();
+            try {
+                ((Consumer<Object>) consumer).accept(event);
+            } catch (Exception e) {
+                errors.increment();
+                LISTENER_ERRORS.increment();
+                System.err.println("[TownEventBus] Error in event listener " + name + ": " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                calls.increment();
+                totalNanos.add(elapsed);
+                LISTENER_TIME.record(elapsed);
+                long max = maxNanos.get();
+                while (elapsed > max && !maxNanos.compareAndSet(max, elapsed)) {
+                    max = maxNanos.get();
+                }
+                if (elapsed > SLOW_LISTENER_NANOS) {
+                    onSlowCall(event, elapsed);
+                }
+            }
+        }
+
+        private void onSlowCall(Object event, long elapsed) {
+            slowCalls.increment();
+            SLOW_CALLS.increment();
+            long now = System.currentTimeMillis();
+            if (async == null && now - lastSlowWarning > SLOW_WARNING_INTERVAL_MS) {
+                lastSlowWarning = now;
+                System.err.println("[TownEventBus] Slow listener " + name + " took "
+                        + (elapsed / 1_000_000) + "ms for " + event.getClass().getSimpleName()
+                        + " - consider registering it with onAsync");
+            }
+        }
+
+        void stop() {
+            if (async != null) {
+                async.drainAndStop(System.currentTimeMillis());
+            }
+        }
+
+        ListenerStats getStats() {
+            long count = calls.sum();
+            return new ListenerStats(name, eventClass.getSimpleName(), priority, async != null, count,
+                    count > 0 ? totalNanos.sum() / 1e6 / count : 0, maxNanos.get() / 1e6,
+                    slowCalls.sum(), errors.sum(),
+                    async != null ? async.queued() : 0, async != null ? async.dropped.sum() : 0);
+        }
+    }
+
+    /**
+     * Queues and worker threads of one asynchronous listener. Events are routed to
+     * a lane by town, so one town's events stay in order while different towns
+     * can be delivered in parallel.
+     */
+    private static final class AsyncDelivery {
+        final OverflowPolicy policy;
+        final BlockingQueue<Object>[] lanes;
+        final Thread[] workers;
+        final LongAdder dropped = new LongAdder();
+        volatile boolean stopping;
+
+        @SuppressWarnings("unchecked")
+        AsyncDelivery(int queueCapacity, OverflowPolicy policy) {
+            this.policy = policy;
+            this.lanes = new BlockingQueue[ASYNC_LANES];
+            this.workers = new Thread[ASYNC_LANES];
+            for (int i = 0; i < ASYNC_LANES; i++) {
+                lanes[i] = new ArrayBlockingQueue<>(queueCapacity);
+            }
+        }
+
+        void start(Listener listener) {
+            for (int i = 0; i < ASYNC_LANES; i++) {
+                BlockingQueue<Object> lane = lanes[i];
+                workers[i] = Thread.ofVirtual().name("HyTown-Events-" + listener.name + "-" + i)
+                        .start(() -> deliverLoop(listener, lane));
+            }
+        }
+
+        private void deliverLoop(Listener listener, BlockingQueue<Object> lane) {
+            while (true) {
+                Object event;
+                try {
+                    event = lane.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (event != null) {
+                    listener.invoke(event);
+                } else if (stopping) {
+                    return;
+                }
+            }
+        }
+
+        void enqueue(Listener listener, Object event) {
+            BlockingQueue<Object> lane = lanes[laneOf(event)];
+            if (policy == OverflowPolicy.BLOCK) {
+                try {
+                    lane.put(event);
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else if (lane.offer(event)) {
+                return;
+            }
+            dropped.increment();
+            DROPPED.increment();
+        }
+
+        private static int laneOf(Object event) {
+            if (event instanceof TownEvent townEvent && townEvent.getTown() != null) {
+                return (System.identityHashCode(townEvent.getTown()) & 0x7fffffff) % ASYNC_LANES;
+            }
+            return 0;
+        }
+
+        int queued() {
+            int queued = 0;
+            for (BlockingQueue<Object> lane : lanes) {
+                queued += lane.size();
+            }
+            return queued;
+        }
+
+        /**
+         * Lets the workers finish their queues until the deadline, then interrupts them.
+         */
+        void drainAndStop(long deadlineMillis) {
+            stopping = true;
+            for (Thread worker : workers) {
+                if (worker == null) {
+                    continue;
+                }
+                try {
+                    long remaining = deadlineMillis - System.currentTimeMillis();
+                    if (remaining <= 0 || !worker.join(java.time.Duration.ofMillis(remaining))) {
+                        worker.interrupt();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    worker.interrupt();
+                }
+            }
+        }
     }
 }
@@ -1,7 +1,6 @@
 package com.hytown.events;
 
 import com.hytown.data.Town;
-import com.hypixel.hytale.event.IEvent;
 
 import java.util.UUID;
 
@@ -9,7 +8,7 @@ import java.util.UUID;
  * Fired when a player joins a town.
  * This includes both accepting an invite and joining an open town.
  */
-public class TownJoinEvent implements IEvent<Void> {
+public class TownJoinEvent implements TownEvent {
     private final Town town;
     private final UUID playerId;
     private final String playerName;
@@ -1,7 +1,6 @@
 package com.hytown.events;
 
 import com.hytown.data.Town;
-import com.hypixel.hytale.event.IEvent;
 
 import java.util.UUID;
 
@@ -9,7 +8,7 @@ import java.util.UUID;
  * Fired when a player leaves a town.
  * This includes voluntary leaving, being kicked, and admin kicks.
  */
-public class TownLeaveEvent implements IEvent<Void> {
+public class TownLeaveEvent implements TownEvent {
 
     public enum LeaveReason {
         /** Player voluntarily left the town */
@@ -1,7 +1,6 @@
 package com.hytown.events;
 
 import com.hytown.data.Town;
-import com.hypixel.hytale.event.IEvent;
 
 import java.util.UUID;
 
@@ -9,7 +8,7 @@ import java.util.UUID;
  * Fired when a town's mayor changes.
  * This includes voluntary transfers and admin-forced changes.
  */
-public class TownMayorChangeEvent implements IEvent<Void> {
+public class TownMayorChangeEvent implements TownEvent {
     private final Town town;
     private final UUID oldMayorId;
     private final String oldMayorName;
@@ -1,7 +1,6 @@
 package com.hytown.events;
 
 import com.hytown.data.Town;
-import com.hypixel.hytale.event.IEvent;
 
 import java.util.Set;
 import java.util.UUID;
@@ -10,7 +9,7 @@ import java.util.UUID;
  * Fired when a town is renamed.
  * Contains the old and new names, useful for updating references in other plugins.
  */
-public class TownRenameEvent implements IEvent<Void> {
+public class TownRenameEvent implements TownEvent {
     private final Town town;
     private final String oldName;
     private final String newName;
@@ -1,14 +1,13 @@
 package com.hytown.events;
 
 import com.hytown.data.Town;
-import com.hypixel.hytale.event.IEvent;
 
 import java.util.UUID;
 
 /**
  * Fired when a chunk is unclaimed from a town.
  */
-public class TownUnclaimEvent implements IEvent<Void> {
+public class TownUnclaimEvent implements TownEvent {
     private final Town town;
     private final String claimKey;
     private final String worldName;
@@ -129,7 +129,7 @@ public class PlotGui extends InteractiveCustomUIPage<PlotGui.PlotData> {
 
         // Check permissions - must be plot owner, mayor, or assistant
         boolean canManage = town.isMayor(playerId) ||
-                            town.getAssistants().contains(playerId) ||
+                            town.containsAssistant(playerId) ||
                             (plotOwner != null && plotOwner.equals(playerId));
 
         if (!canManage) {
@@ -345,7 +345,7 @@ public class PlotGui extends InteractiveCustomUIPage<PlotGui.PlotData> {
 
         // Check if player can manage this plot
         boolean canManage = town.isMayor(playerId) ||
-                            town.getAssistants().contains(playerId) ||
+                            town.containsAssistant(playerId) ||
                             (plotOwner != null && plotOwner.equals(playerId));
 
         // Set Owner section (only for assistants+)
@@ -464,7 +464,7 @@ public class PlotGui extends InteractiveCustomUIPage<PlotGui.PlotData> {
         // Check if player can access this plot's settings
         UUID plotOwner = town.getPlotOwner(claimKey);
         boolean canAccess = town.isMayor(playerId) ||
-                           town.getAssistants().contains(playerId) ||
+                           town.containsAssistant(playerId) ||
                            (plotOwner != null && plotOwner.equals(playerId));
 
         if (!canAccess) {
@@ -507,7 +507,7 @@ public class PlotGui extends InteractiveCustomUIPage<PlotGui.PlotData> {
         // Check if player can access this plot's settings
         UUID plotOwner = town.getPlotOwner(claimKey);
         boolean canAccess = town.isMayor(playerId) ||
-                           town.getAssistants().contains(playerId) ||
+                           town.containsAssistant(playerId) ||
                            (plotOwner != null && plotOwner.equals(playerId));
 
         if (!canAccess) {
@@ -567,7 +567,7 @@ public class TownGui extends InteractiveCustomUIPage<TownGui.TownData> {
 
                             if (action.startsWith("promote_")) {
                                 // Resident -> Assistant
-                                if (!town.getAssistants().contains(targetId)) {
+                                if (!town.containsAssistant(targetId)) {
                                     town.promoteToAssistant(targetId);
                                     town.logRankChange(playerId, playerName, targetName, "Assistant");
                                     townStorage.saveTown(town);
@@ -579,7 +579,7 @@ public class TownGui extends InteractiveCustomUIPage<TownGui.TownData> {
                                 }
                             } else {
                                 // Assistant -> Resident (demote) or Kick
-                                if (town.getAssistants().contains(targetId)) {
+                                if (town.containsAssistant(targetId)) {
                                     town.demoteFromAssistant(targetId);
                                     town.logRankChange(playerId, playerName, targetName, "Resident");
                                     townStorage.saveTown(town);
@@ -747,7 +747,7 @@ public class TownGui extends InteractiveCustomUIPage<TownGui.TownData> {
                     if (town.isMayor(memberId)) {
                         rank = "Mayor";
                         rankColor = "#ffaa00";  // Gold
-                    } else if (town.getAssistants().contains(memberId)) {
+                    } else if (town.containsAssistant(memberId)) {
                         rank = "Assistant";
                         rankColor = "#55ff55";  // Green
                     } else {
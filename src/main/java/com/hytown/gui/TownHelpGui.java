@@ -71,6 +71,7 @@ public class TownHelpGui extends InteractiveCustomUIPage<TownHelpGui.HelpData> {
         new String[]{"/town withdraw <amount>", "Withdraw money from town bank"},
         new String[]{"/town balance", "Check your balance and town balance"},
         new String[]{"/town log [page]", "View town transaction history"},
+        new String[]{"/town log days [n]", "Daily income and upkeep totals"},
         // === PLOT COMMANDS ===
         new String[]{"--- PLOT COMMANDS ---", ""},
         new String[]{"/plot", "Open plot management GUI"},
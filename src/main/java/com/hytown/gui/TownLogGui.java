@@ -4,6 +4,7 @@ import com.hytown.HyTown;
 import com.hytown.data.Town;
 import com.hytown.data.TownStorage;
 import com.hytown.data.TownTransaction;
+import com.hytown.data.TownTransactionLog;
 import com.hypixel.hytale.codec.Codec;
 import com.hypixel.hytale.codec.KeyedCodec;
 import com.hypixel.hytale.codec.builder.BuilderCodec;
@@ -22,6 +23,7 @@ import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 
 import javax.annotation.Nonnull;
 import java.awt.Color;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
@@ -83,9 +85,9 @@ public class TownLogGui extends InteractiveCustomUIPage<TownLogGui.LogData> {
             TownStorage townStorage = plugin.getTownStorage();
             Town town = townStorage.getPlayerTown(playerId);
 
-            if (town != null) {
-                List<TownTransaction> transactions = town.getTransactionHistory();
-                int totalPages = Math.max(1, (int) Math.ceil(transactions.size() / (double) ENTRIES_PER_PAGE));
+            TownTransactionLog log = town != null ? townStorage.getTransactionLog(town) : null;
+            if (log != null) {
+                int totalPages = Math.max(1, (int) Math.ceil(log.size() / (double) ENTRIES_PER_PAGE));
 
                 if ("prev".equals(data.action)) {
                     currentPage = Math.max(1, currentPage - 1);
@@ -123,16 +125,23 @@ public class TownLogGui extends InteractiveCustomUIPage<TownLogGui.LogData> {
             return;
         }
 
-        List<TownTransaction> transactions = town.getTransactionHistory();
-        int totalPages = Math.max(1, (int) Math.ceil(transactions.size() / (double) ENTRIES_PER_PAGE));
+        TownTransactionLog log = townStorage.getTransactionLog(town);
+        long total = log != null ? log.size() : 0;
+        int totalPages = Math.max(1, (int) Math.ceil(total / (double) ENTRIES_PER_PAGE));
         currentPage = Math.max(1, Math.min(currentPage, totalPages));
 
         cmd.set("#TownName.Text", town.getName() + " - Transaction Log");
-        cmd.set("#PageInfo.Text", "Page " + currentPage + "/" + totalPages + " (" + transactions.size() + " transactions)");
-
-        // Calculate page range
-        int start = (currentPage - 1) * ENTRIES_PER_PAGE;
-        int end = Math.min(start + ENTRIES_PER_PAGE, transactions.size());
+        cmd.set("#PageInfo.Text", "Page " + currentPage + "/" + totalPages + " (" + total + " transactions)");
+
+        // Read only the current page from the log
+        List<TownTransaction> transactions = List.of();
+        if (log != null) {
+            try {
+                transactions = log.getPage((long) (currentPage - 1) * ENTRIES_PER_PAGE, ENTRIES_PER_PAGE);
+            } catch (IOException e) {
+                cmd.set("#PageInfo.Text", "Could not read the transaction log");
+            }
+        }
 
         SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd HH:mm");
 
@@ -141,8 +150,8 @@ public class TownLogGui extends InteractiveCustomUIPage<TownLogGui.LogData> {
             int entryNum = i + 1;
             String entryId = "#Entry" + entryNum;
 
-            if (start + i < end) {
-                TownTransaction tx = transactions.get(start + i);
+            if (i < transactions.size()) {
+                TownTransaction tx = transactions.get(i);
                 String time = dateFormat.format(new Date(tx.getTimestamp()));
                 String displayStr = tx.getDisplayString();
 
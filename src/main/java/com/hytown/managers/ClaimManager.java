@@ -2,14 +2,22 @@ package com.hytown.managers;
 
 import com.hytown.config.BlockGroups;
 import com.hytown.config.PluginConfig;
+import com.hytown.data.ChunkOwnershipIndex;
 import com.hytown.data.Claim;
 import com.hytown.data.ClaimStorage;
 import com.hytown.data.PlayerClaims;
 import com.hytown.data.PlaytimeData;
 import com.hytown.data.PlaytimeStorage;
+import com.hytown.data.Town;
 import com.hytown.data.TrustLevel;
 import com.hytown.util.ChunkUtil;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -20,12 +28,26 @@ public class ClaimManager {
     private final PlaytimeStorage playtimeStorage;
     private final PluginConfig config;
     private final BlockGroups blockGroups;
+    private final ProtectionCache protectionCache = new ProtectionCache();
 
     public ClaimManager(ClaimStorage claimStorage, PlaytimeStorage playtimeStorage, PluginConfig config, BlockGroups blockGroups) {
         this.claimStorage = claimStorage;
         this.playtimeStorage = playtimeStorage;
         this.config = config;
         this.blockGroups = blockGroups;
+
+        // Any ownership change (town or personal, from any code path) drops cached decisions for that chunk
+        claimStorage.getOwnershipIndex().setChangeListener(new ChunkOwnershipIndex.ChangeListener() {
+            @Override
+            public void chunkChanged(String world, int chunkX, int chunkZ) {
+                protectionCache.invalidateChunk(world, chunkX, chunkZ);
+            }
+
+            @Override
+            public void allChanged() {
+                protectionCache.invalidateAll();
+            }
+        });
     }
 
     /**
@@ -35,6 +57,13 @@ public class ClaimManager {
         return blockGroups;
     }
 
+    /**
+     * Gets the per-player protection decision cache used by the protection systems.
+     */
+    public ProtectionCache getProtectionCache() {
+        return protectionCache;
+    }
+
     /**
      * Gets the claim storage for direct access (used by map overlay system).
      */
@@ -43,10 +72,11 @@ public class ClaimManager {
     }
 
     /**
-     * Attempts to claim a chunk for a player.
+     * Attempts to claim a chunk for a player. Checks and claims under the same monitor as
+     * the town area claims, so two claims of one chunk cannot both succeed.
      * @return ClaimResult indicating success or failure reason
      */
-    public ClaimResult claimChunk(UUID playerId, String world, double x, double z) {
+    public synchronized ClaimResult claimChunk(UUID playerId, String world, double x, double z) {
         int chunkX = ChunkUtil.toChunkX(x);
         int chunkZ = ChunkUtil.toChunkZ(z);
 
@@ -90,7 +120,7 @@ public class ClaimManager {
      * Attempts to unclaim a chunk.
      * @return true if successful, false if not owned by player
      */
-    public boolean unclaimChunk(UUID playerId, String world, double x, double z) {
+    public synchronized boolean unclaimChunk(UUID playerId, String world, double x, double z) {
         int chunkX = ChunkUtil.toChunkX(x);
         int chunkZ = ChunkUtil.toChunkZ(z);
 
@@ -107,13 +137,177 @@ public class ClaimManager {
      * Unclaims all chunks owned by a player.
      * @return the number of chunks unclaimed
      */
-    public int unclaimAll(UUID playerId) {
+    public synchronized int unclaimAll(UUID playerId) {
         PlayerClaims claims = claimStorage.getPlayerClaims(playerId);
         int count = claims.getClaimCount();
         claimStorage.removeAllClaims(playerId);
         return count;
     }
 
+    // ==================== TOWN AREA CLAIMS ====================
+
+    /**
+     * Validates claiming a rectangle of chunks (inclusive) for a town, in one pass.
+     * Checks the same rules as a single /town claim - ownership, buffer zone, town
+     * adjacency, town claim limit and the mayor's personal claim limit - for the
+     * whole area at once. Chunks the town already owns are skipped.
+     */
+    public AreaClaimPlan planTownAreaClaim(Town town, String world,
+                                           int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        long area = (long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1);
+        if (area > config.getMaxAreaClaimChunks()) {
+            return AreaClaimPlan.failed(AreaClaimResult.TOO_LARGE, world, minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+        }
+        UUID mayorId = town.getMayorId();
+
+        // Ownership: one visit of the claimed chunks inside the rectangle
+        LongSet owned = new LongOpenHashSet();
+        AreaConflict conflict = new AreaConflict();
+        claimStorage.getOwnershipIndex().forEachInArea(world, minChunkX, minChunkZ, maxChunkX, maxChunkZ,
+                (chunkX, chunkZ, owner) -> {
+                    if (owner.town() == town) {
+                        owned.add(ChunkUtil.packChunk(chunkX, chunkZ));
+                    } else if (conflict.result == null) {
+                        conflict.result = owner.town() != null
+                                ? AreaClaimResult.CLAIMED_BY_OTHER_TOWN : AreaClaimResult.CLAIMED_BY_OTHER;
+                        conflict.town = owner.town();
+                        conflict.chunkX = chunkX;
+                        conflict.chunkZ = chunkZ;
+                    }
+                });
+        if (conflict.result != null) {
+            return new AreaClaimPlan(conflict.result, world, minChunkX, minChunkZ, maxChunkX, maxChunkZ,
+                    LongSets.EMPTY_SET, owned.size(), conflict.chunkX, conflict.chunkZ, conflict.town);
+        }
+
+        LongSet chunks = new LongOpenHashSet((int) area);
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                long key = ChunkUtil.packChunk(chunkX, chunkZ);
+                if (!owned.contains(key)) {
+                    chunks.add(key);
+                }
+            }
+        }
+        if (chunks.isEmpty()) {
+            return AreaClaimPlan.failed(AreaClaimResult.NOTHING_TO_CHANGE, world, minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+        }
+
+        // Buffer zone - the buffers of every chunk together cover the rectangle grown by the radius
+        int bufferSize = config.getClaimBufferSize();
+        if (bufferSize > 0 && claimStorage.findClaimByOtherPlayerInArea(world,
+                minChunkX - bufferSize, minChunkZ - bufferSize,
+                maxChunkX + bufferSize, maxChunkZ + bufferSize, mayorId) != null) {
+            return AreaClaimPlan.failed(AreaClaimResult.TOO_CLOSE_TO_OTHER_CLAIM, world, minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+        }
+
+        // Adjacency - the rectangle is connected, so it is enough for one new chunk to touch
+        // town land (an owned chunk inside the rectangle always does)
+        if (owned.isEmpty() && !touchesTown(town, world, chunks)) {
+            return AreaClaimPlan.failed(AreaClaimResult.NOT_ADJACENT, world, minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+        }
+
+        // Limits
+        if (town.getClaimCount() + chunks.size() > config.getMaxTownClaims()) {
+            return AreaClaimPlan.failed(AreaClaimResult.TOWN_LIMIT_REACHED, world, minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+        }
+        PlayerClaims mayorClaims = claimStorage.getPlayerClaims(mayorId);
+        if (mayorClaims.getClaimCount() + chunks.size() > getMaxClaims(mayorId)) {
+            return AreaClaimPlan.failed(AreaClaimResult.LIMIT_REACHED, world, minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+        }
+
+        return new AreaClaimPlan(AreaClaimResult.SUCCESS, world, minChunkX, minChunkZ, maxChunkX, maxChunkZ,
+                chunks, owned.size(), 0, 0, null);
+    }
+
+    /**
+     * Re-validates and applies a town area claim as one step: the mayor's claims are
+     * saved once and the town's claim set is copied once. Fails with SELECTION_CHANGED
+     * if the chunks to claim differ from the plan the caller priced. The caller saves the town.
+     */
+    public synchronized AreaClaimPlan claimTownArea(Town town, AreaClaimPlan expected) {
+        String world = expected.world();
+        AreaClaimPlan plan = planTownAreaClaim(town, world,
+                expected.minChunkX(), expected.minChunkZ(), expected.maxChunkX(), expected.maxChunkZ());
+        if (plan.result() != AreaClaimResult.SUCCESS) {
+            return plan;
+        }
+        if (!plan.chunks().equals(expected.chunks())) {
+            return AreaClaimPlan.failed(AreaClaimResult.SELECTION_CHANGED, world,
+                    plan.minChunkX(), plan.minChunkZ(), plan.maxChunkX(), plan.maxChunkZ());
+        }
+
+        List<Claim> claims = new ArrayList<>(plan.getChunkCount());
+        LongIterator iterator = plan.chunks().iterator();
+        while (iterator.hasNext()) {
+            long key = iterator.nextLong();
+            claims.add(new Claim(world, ChunkUtil.unpackChunkX(key), ChunkUtil.unpackChunkZ(key)));
+        }
+        claimStorage.addClaims(town.getMayorId(), claims);
+        town.addClaims(plan.getClaimKeys());
+        return plan;
+    }
+
+    /**
+     * Finds the chunks in a rectangle (inclusive) owned by a town.
+     */
+    public AreaClaimPlan planTownAreaUnclaim(Town town, String world,
+                                             int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        LongSet chunks = new LongOpenHashSet();
+        claimStorage.getOwnershipIndex().forEachInArea(world, minChunkX, minChunkZ, maxChunkX, maxChunkZ,
+                (chunkX, chunkZ, owner) -> {
+                    if (owner.town() == town) {
+                        chunks.add(ChunkUtil.packChunk(chunkX, chunkZ));
+                    }
+                });
+        if (chunks.isEmpty()) {
+            return AreaClaimPlan.failed(AreaClaimResult.NOTHING_TO_CHANGE, world, minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+        }
+        return new AreaClaimPlan(AreaClaimResult.SUCCESS, world, minChunkX, minChunkZ, maxChunkX, maxChunkZ,
+                chunks, chunks.size(), 0, 0, null);
+    }
+
+    /**
+     * Removes a town's chunks inside a rectangle as one step, clearing their plot owners.
+     * The caller saves the town.
+     */
+    public synchronized AreaClaimPlan unclaimTownArea(Town town, String world,
+                                                      int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        AreaClaimPlan plan = planTownAreaUnclaim(town, world, minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+        if (plan.result() != AreaClaimResult.SUCCESS) {
+            return plan;
+        }
+
+        List<String> claimKeys = plan.getClaimKeys();
+        claimStorage.removeClaims(town.getMayorId(), world, plan.chunks());
+        town.removeClaims(claimKeys);
+        for (String claimKey : claimKeys) {
+            town.setPlotOwner(claimKey, null);
+        }
+        return plan;
+    }
+
+    private static boolean touchesTown(Town town, String world, LongSet chunks) {
+        LongIterator iterator = chunks.iterator();
+        while (iterator.hasNext()) {
+            long key = iterator.nextLong();
+            if (town.isAdjacentToExistingClaim(world, ChunkUtil.unpackChunkX(key), ChunkUtil.unpackChunkZ(key))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * First conflicting chunk found while scanning an area.
+     */
+    private static final class AreaConflict {
+        AreaClaimResult result;
+        Town town;
+        int chunkX;
+        int chunkZ;
+    }
+
     /**
      * Legacy method - checks if player can interact (has any trust level).
      * Returns true if: unclaimed, owner, or has any trust.
@@ -131,6 +325,15 @@ public class ClaimManager {
         int chunkZ = ChunkUtil.toChunkZ(z);
 
         UUID owner = claimStorage.getClaimOwner(world, chunkX, chunkZ);
+        return hasPermission(playerId, owner, required);
+    }
+
+    /**
+     * Checks if a player has at least the specified trust level in a known owner's claim.
+     * Used by protection systems that already resolved the owner from the ownership index.
+     * Returns true if: unclaimed (owner is null), owner, or has sufficient trust level.
+     */
+    public boolean hasPermission(UUID playerId, UUID owner, TrustLevel required) {
         if (owner == null) {
             return true; // Unclaimed
         }
@@ -139,7 +342,7 @@ public class ClaimManager {
         }
 
         // Check if trusted with sufficient level
-        PlayerClaims ownerClaims = claimStorage.getPlayerClaims(owner);
+        PlayerClaims ownerClaims = claimStorage.getChunkOwnerClaims(owner);
         return ownerClaims.hasPermission(playerId, required);
     }
 
@@ -159,7 +362,7 @@ public class ClaimManager {
             return TrustLevel.BUILD; // Owner = full access
         }
 
-        PlayerClaims ownerClaims = claimStorage.getPlayerClaims(owner);
+        PlayerClaims ownerClaims = claimStorage.getChunkOwnerClaims(owner);
         return ownerClaims.getTrustLevel(playerId);
     }
 
@@ -172,6 +375,14 @@ public class ClaimManager {
         return claimStorage.getClaimOwner(world, chunkX, chunkZ);
     }
 
+    /**
+     * Gets the town and personal ownership of a chunk in a single index probe.
+     * @return the chunk ownership, or null if wilderness
+     */
+    public ChunkOwnershipIndex.ChunkOwner getChunkOwner(String world, int chunkX, int chunkZ) {
+        return claimStorage.getOwnershipIndex().get(world, chunkX, chunkZ);
+    }
+
     /**
      * Gets the chunk coordinates for a world position.
      */
@@ -193,6 +404,7 @@ public class ClaimManager {
         PlayerClaims claims = claimStorage.getPlayerClaims(ownerId);
         claims.addTrustedPlayer(trustedId, trustedName, level);
         claimStorage.savePlayerClaims(ownerId);
+        protectionCache.invalidatePlayer(trustedId);
     }
 
     /**
@@ -211,6 +423,7 @@ public class ClaimManager {
         String removedName = claims.removeTrustedPlayer(trustedId);
         if (removedName != null) {
             claimStorage.savePlayerClaims(ownerId);
+            protectionCache.invalidatePlayer(trustedId);
         }
         return removedName;
     }
@@ -255,4 +468,56 @@ public class ClaimManager {
         LIMIT_REACHED,
         TOO_CLOSE_TO_OTHER_CLAIM
     }
+
+    public enum AreaClaimResult {
+        SUCCESS,
+        NOTHING_TO_CHANGE,
+        TOO_LARGE,
+        CLAIMED_BY_OTHER_TOWN,
+        CLAIMED_BY_OTHER,
+        TOO_CLOSE_TO_OTHER_CLAIM,
+        NOT_ADJACENT,
+        TOWN_LIMIT_REACHED,
+        LIMIT_REACHED,
+        SELECTION_CHANGED
+    }
+
+    /**
+     * A validated rectangle of chunks for an area claim or unclaim.
+     * chunks holds the packed keys that change; alreadyOwned counts the town's chunks
+     * inside the rectangle. For conflicts, conflictChunkX/Z and conflictTown describe
+     * the first chunk found in the way.
+     */
+    public record AreaClaimPlan(AreaClaimResult result, String world,
+                                int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ,
+                                LongSet chunks, int alreadyOwned,
+                                int conflictChunkX, int conflictChunkZ, Town conflictTown) {
+
+        static AreaClaimPlan failed(AreaClaimResult result, String world,
+                                    int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+            return new AreaClaimPlan(result, world, minChunkX, minChunkZ, maxChunkX, maxChunkZ,
+                    LongSets.EMPTY_SET, 0, 0, 0, null);
+        }
+
+        public boolean isSuccess() {
+            return result == AreaClaimResult.SUCCESS;
+        }
+
+        public int getChunkCount() {
+            return chunks.size();
+        }
+
+        /**
+         * Gets the "world:chunkX,chunkZ" claim keys of the chunks that change.
+         */
+        public List<String> getClaimKeys() {
+            List<String> claimKeys = new ArrayList<>(chunks.size());
+            LongIterator iterator = chunks.iterator();
+            while (iterator.hasNext()) {
+                long key = iterator.nextLong();
+                claimKeys.add(world + ":" + ChunkUtil.unpackChunkX(key) + "," + ChunkUtil.unpackChunkZ(key));
+            }
+            return claimKeys;
+        }
+    }
 }
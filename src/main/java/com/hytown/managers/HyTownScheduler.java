@@ -0,0 +1,518 @@
+package com.hytown.managers;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs all of HyTown's background jobs (upkeep, auto-save, playtime checkpoints,
+ * teleport countdowns) and owns the plugin's shutdown order.
+ *
+ * One platform timer thread only decides when a job is due; the job body runs on
+ * its own virtual thread, so a slow save never delays another job's trigger.
+ *
+ * - Jobs are either fixed-delay (next run counted from the end of the last one)
+ *   or cron (standard 5-field expression in the server's time zone), both with
+ *   optional random jitter.
+ * - Jobs are single-flight: a trigger or {@link #runNow} that arrives while the
+ *   job is still running is skipped and counted, never run in parallel.
+ * - Cancellation is cooperative: the running thread is interrupted and long
+ *   tasks should check {@link Job#isCancelled()} between units of work.
+ * - {@link #shutdown} stops all jobs, waits for running ones, then runs the
+ *   registered shutdown hooks in ascending order.
+ */
+public class HyTownScheduler {
+
+    /**
+     * A job body. Receives its own {@link Job} to check for cancellation.
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run(Job job) throws Exception;
+    }
+
+    private final HytaleLogger logger;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final List<ShutdownHook> shutdownHooks = new ArrayList<>();
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    public HyTownScheduler(HytaleLogger logger) {
+        this.logger = logger;
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "HyTown-Scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    // ==================== SCHEDULING ====================
+
+    /**
+     * Schedules a job that runs {@code delay} (plus up to {@code jitter}) after the
+     * previous run finished. Replaces any existing job with the same name.
+     */
+    public Job scheduleFixedDelay(String name, Duration initialDelay, Duration delay, Duration jitter, Task task) {
+        Job job = new Job(name, new FixedDelay(delay.toMillis(), jitter.toMillis()), task);
+        register(job, initialDelay.toMillis());
+        return job;
+    }
+
+    /**
+     * Schedules a job at the times matched by a 5-field cron expression
+     * ({@code minute hour day-of-month month day-of-week}), delayed by up to
+     * {@code jitter}. Replaces any existing job with the same name.
+     *
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public Job scheduleCron(String name, String expression, Duration jitter, Task task) {
+        Job job = new Job(name, new Cron(expression, jitter.toMillis()), task);
+        register(job, job.trigger.nextDelayMillis(System.currentTimeMillis()));
+        return job;
+    }
+
+    /**
+     * Starts a registered job immediately, unless it is already running.
+     * @return false if there is no such job or it is running
+     */
+    public boolean runNow(String name) {
+        Job job = jobs.get(name);
+        return job != null && launch(job, false);
+    }
+
+    /**
+     * Cancels and removes a job by name.
+     */
+    public void cancel(String name) {
+        Job job = jobs.get(name);
+        if (job != null) {
+            job.cancel();
+        }
+    }
+
+    /**
+     * Registers a hook to run during {@link #shutdown}, after all jobs have
+     * stopped. Lower orders run first.
+     */
+    public synchronized void addShutdownHook(int order, String name, Runnable hook) {
+        shutdownHooks.add(new ShutdownHook(order, name, hook));
+    }
+
+    private void register(Job job, long initialDelayMillis) {
+        if (stopped.get()) {
+            throw new IllegalStateException("Scheduler is shut down");
+        }
+        Job previous = jobs.put(job.name, job);
+        if (previous != null) {
+            previous.cancelInternal();
+        }
+        schedule(job, initialDelayMillis);
+    }
+
+    private void schedule(Job job, long delayMillis) {
+        if (job.cancelled || stopped.get()) {
+            return;
+        }
+        long delay = Math.max(0, delayMillis);
+        job.nextRunMillis = System.currentTimeMillis() + delay;
+        job.future = timer.schedule(() -> launch(job, true), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a run on a virtual thread, or skips it if the job is still running.
+     * Timer-triggered runs reschedule themselves when they finish; a skipped
+     * trigger reschedules right away.
+     */
+    private boolean launch(Job job, boolean triggered) {
+        if (job.cancelled || stopped.get()) {
+            return false;
+        }
+        if (!job.running.compareAndSet(false, true)) {
+            job.skipped.incrementAndGet();
+            if (triggered) {
+                schedule(job, job.trigger.nextDelayMillis(System.currentTimeMillis()));
+            }
+            return false;
+        }
+        if (triggered) {
+            job.nextRunMillis = 0;
+        }
+        Thread.ofVirtual().name("HyTown-" + job.name).start(() -> execute(job, triggered));
+        return true;
+    }
+
+    private void execute(Job job, boolean triggered) {
+        job.runner = Thread.currentThread();
+        job.lastStartMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            job.task.run(job);
+            job.lastError = null;
+        } catch (InterruptedException e) {
+            if (!job.cancelled && !stopped.get()) {
+                job.failures.incrementAndGet();
+                job.lastError = "interrupted";
+            }
+        } catch (Throwable t) {
+            job.failures.incrementAndGet();
+            job.lastError = t.getClass().getSimpleName() + (t.getMessage() != null ? ": " + t.getMessage() : "");
+            logger.atWarning().withCause(t).log("[Scheduler] Job %s failed", job.name);
+        } finally {
+            long duration = System.nanoTime() - start;
+            job.runs.incrementAndGet();
+            job.lastDurationNanos = duration;
+            job.totalDurationNanos.addAndGet(duration);
+            if (duration > job.maxDurationNanos) {
+                job.maxDurationNanos = duration;
+            }
+            job.runner = null;
+            job.running.set(false);
+            // A manual run while a trigger is pending leaves that trigger in place
+            if (triggered) {
+                schedule(job, job.trigger.nextDelayMillis(System.currentTimeMillis()));
+            }
+        }
+    }
+
+    // ==================== SHUTDOWN ====================
+
+    /**
+     * Stops all jobs, waits up to {@code timeout} for running ones to finish
+     * (interrupting them after that), then runs the shutdown hooks in order.
+     * Hook failures are logged and do not stop later hooks.
+     */
+    public void shutdown(Duration timeout) {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        for (Job job : jobs.values()) {
+            ScheduledFuture<?> future = job.future;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+        timer.shutdownNow();
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (Job job : jobs.values()) {
+            Thread runner = job.runner;
+            if (runner == null) {
+                continue;
+            }
+            try {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !runner.join(Duration.ofNanos(remaining))) {
+                    logger.atWarning().log("[Scheduler] Job %s still running at shutdown, interrupting", job.name);
+                    runner.interrupt();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        List<ShutdownHook> hooks;
+        synchronized (this) {
+            hooks = new ArrayList<>(shutdownHooks);
+        }
+        hooks.sort(Comparator.comparingInt(ShutdownHook::order));
+        for (ShutdownHook hook : hooks) {
+            long start = System.nanoTime();
+            try {
+                hook.hook().run();
+                logger.atInfo().log("[Shutdown] %s done in %d ms", hook.name(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (Exception e) {
+                logger.atSevere().withCause(e).log("[Shutdown] ERROR in %s", hook.name());
+            }
+        }
+    }
+
+    public boolean isShutdown() {
+        return stopped.get();
+    }
+
+    // ==================== STATS ====================
+
+    /**
+     * Timing stats of one job, as of the call.
+     *
+     * @param nextRunMillis epoch millis of the next trigger, 0 while running or if none
+     * @param lastError     message of the last failure, null if the last run succeeded
+     */
+    public record JobStats(String name, String schedule, boolean running, long runs, long failures,
+                           long skipped, long lastRunMillis, double lastDurationMs, double avgDurationMs,
+                           double maxDurationMs, long nextRunMillis, String lastError) {
+    }
+
+    /**
+     * Gets stats for every registered job, sorted by name.
+     */
+    public List<JobStats> getJobStats() {
+        List<JobStats> stats = new ArrayList<>(jobs.size());
+        for (Job job : jobs.values()) {
+            stats.add(job.getStats());
+        }
+        stats.sort(Comparator.comparing(JobStats::name));
+        return stats;
+    }
+
+    public int getJobCount() {
+        return jobs.size();
+    }
+
+    // ==================== JOBS ====================
+
+    /**
+     * A scheduled job. Handed to its task so it can check for cancellation.
+     */
+    public final class Job {
+        private final String name;
+        private final Trigger trigger;
+        private final Task task;
+
+        private final AtomicBoolean running = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private volatile ScheduledFuture<?> future;
+        private volatile Thread runner;
+
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong totalDurationNanos = new AtomicLong();
+        private volatile long lastStartMillis;
+        private volatile long lastDurationNanos;
+        private volatile long maxDurationNanos;
+        private volatile long nextRunMillis;
+        private volatile String lastError;
+
+        private Job(String name, Trigger trigger, Task task) {
+            this.name = name;
+            this.trigger = trigger;
+            this.task = task;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * True once the job was cancelled or the scheduler is shutting down.
+         * Long-running tasks should return early when this turns true.
+         */
+        public boolean isCancelled() {
+            return cancelled || stopped.get();
+        }
+
+        /**
+         * Cancels future runs, interrupts a running one and removes the job.
+         */
+        public void cancel() {
+            jobs.remove(name, this);
+            cancelInternal();
+        }
+
+        private void cancelInternal() {
+            cancelled = true;
+            ScheduledFuture<?> pending = future;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            Thread thread = runner;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+
+        public JobStats getStats() {
+            long count = runs.get();
+            return new JobStats(name, trigger.describe(), running.get(), count, failures.get(), skipped.get(),
+                    lastStartMillis, lastDurationNanos / 1e6,
+                    count > 0 ? totalDurationNanos.get() / 1e6 / count : 0,
+                    maxDurationNanos / 1e6, nextRunMillis, lastError);
+        }
+    }
+
+    private record ShutdownHook(int order, String name, Runnable hook) {
+    }
+
+    // ==================== TRIGGERS ====================
+
+    private interface Trigger {
+        /** Millis from {@code nowMillis} until the next run. */
+        long nextDelayMillis(long nowMillis);
+
+        String describe();
+    }
+
+    private static long jitter(long maxJitterMillis) {
+        return maxJitterMillis > 0 ? ThreadLocalRandom.current().nextLong(maxJitterMillis + 1) : 0;
+    }
+
+    private record FixedDelay(long delayMillis, long jitterMillis) implements Trigger {
+        @Override
+        public long nextDelayMillis(long nowMillis) {
+            return delayMillis + jitter(jitterMillis);
+        }
+
+        @Override
+        public String describe() {
+            String every = delayMillis % 60000 == 0 ? (delayMillis / 60000) + "m"
+                    : delayMillis % 1000 == 0 ? (delayMillis / 1000) + "s" : delayMillis + "ms";
+            return "every " + every + (jitterMillis > 0 ? " ±" + (jitterMillis / 1000) + "s" : "");
+        }
+    }
+
+    /**
+     * Standard 5-field cron expression. Each field accepts {@code *}, numbers,
+     * ranges ({@code a-b}), lists ({@code a,b}) and steps ({@code *}{@code /n},
+     * {@code a-b/n}). Day-of-week is 0-7 with both 0 and 7 meaning Sunday. As in
+     * cron, if both day fields are restricted a day matching either one fires.
+     */
+    static final class Cron implements Trigger {
+        // Search horizon: every combination repeats within 4 years (Feb 29)
+        private static final int MAX_DAYS = 4 * 366 + 1;
+
+        private final String expression;
+        private final long minutes;   // bits 0-59
+        private final long hours;     // bits 0-23
+        private final long days;      // bits 1-31
+        private final long months;    // bits 1-12
+        private final long weekdays;  // bits 0-6, Sunday = 0
+        private final boolean daysRestricted;
+        private final boolean weekdaysRestricted;
+        private final long jitterMillis;
+
+        Cron(String expression, long jitterMillis) {
+            String[] fields = expression.trim().split("\\s+");
+            if (fields.length != 5) {
+                throw new IllegalArgumentException("Cron expression needs 5 fields: " + expression);
+            }
+            this.expression = expression.trim();
+            this.minutes = parseField(fields[0], 0, 59);
+            this.hours = parseField(fields[1], 0, 23);
+            this.days = parseField(fields[2], 1, 31);
+            this.months = parseField(fields[3], 1, 12);
+            long dow = parseField(fields[4], 0, 7);
+            this.weekdays = (dow | (dow >>> 7)) & 0x7F;
+            this.daysRestricted = !fields[2].startsWith("*");
+            this.weekdaysRestricted = !fields[4].startsWith("*");
+            this.jitterMillis = jitterMillis;
+            if (minutes == 0 || hours == 0 || days == 0 || months == 0 || weekdays == 0) {
+                throw new IllegalArgumentException("Cron expression never matches: " + expression);
+            }
+        }
+
+        private static long parseField(String field, int min, int max) {
+            long bits = 0;
+            for (String part : field.split(",")) {
+                int step = 1;
+                int slash = part.indexOf('/');
+                if (slash >= 0) {
+                    step = parseNumber(part.substring(slash + 1), 1, max);
+                    part = part.substring(0, slash);
+                }
+                int from;
+                int to;
+                if (part.equals("*")) {
+                    from = min;
+                    to = max;
+                } else {
+                    int dash = part.indexOf('-');
+                    if (dash >= 0) {
+                        from = parseNumber(part.substring(0, dash), min, max);
+                        to = parseNumber(part.substring(dash + 1), min, max);
+                    } else {
+                        from = parseNumber(part, min, max);
+                        to = slash >= 0 ? max : from;
+                    }
+                }
+                if (from > to) {
+                    throw new IllegalArgumentException("Invalid cron range: " + part);
+                }
+                for (int i = from; i <= to; i += step) {
+                    bits |= 1L << i;
+                }
+            }
+            return bits;
+        }
+
+        private static int parseNumber(String value, int min, int max) {
+            try {
+                int number = Integer.parseInt(value);
+                if (number < min || number > max) {
+                    throw new IllegalArgumentException("Cron value out of range " + min + "-" + max + ": " + value);
+                }
+                return number;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cron value: " + value);
+            }
+        }
+
+        private static boolean has(long bits, int value) {
+            return (bits & (1L << value)) != 0;
+        }
+
+        private boolean dayMatches(ZonedDateTime time) {
+            boolean day = has(days, time.getDayOfMonth());
+            boolean weekday = has(weekdays, time.getDayOfWeek().getValue() % 7);
+            if (daysRestricted && weekdaysRestricted) {
+                return day || weekday;
+            }
+            return day && weekday;
+        }
+
+        /**
+         * Gets the first matching minute strictly after {@code after}, or null if
+         * none within the search horizon.
+         */
+        ZonedDateTime next(ZonedDateTime after) {
+            ZonedDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+            ZonedDateTime limit = time.plusDays(MAX_DAYS);
+            while (time.isBefore(limit)) {
+                if (!has(months, time.getMonthValue())) {
+                    time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+                } else if (!dayMatches(time)) {
+                    time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+                } else if (!has(hours, time.getHour())) {
+                    time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+                } else if (!has(minutes, time.getMinute())) {
+                    time = time.plusMinutes(1);
+                } else {
+                    return time;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public long nextDelayMillis(long nowMillis) {
+            ZonedDateTime now = ZonedDateTime.ofInstant(java.time.Instant.ofEpochMilli(nowMillis), ZoneId.systemDefault());
+            ZonedDateTime next = next(now);
+            if (next == null) {
+                return Long.MAX_VALUE / 2;
+            }
+            return next.toInstant().toEpochMilli() - nowMillis + jitter(jitterMillis);
+        }
+
+        @Override
+        public String describe() {
+            return "cron " + expression + (jitterMillis > 0 ? " ±" + (jitterMillis / 1000) + "s" : "");
+        }
+    }
+}
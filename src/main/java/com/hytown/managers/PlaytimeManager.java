@@ -4,11 +4,9 @@ import com.hytown.config.PluginConfig;
 import com.hytown.data.PlaytimeData;
 import com.hytown.data.PlaytimeStorage;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Manages playtime tracking for online players.
@@ -16,24 +14,21 @@ import java.util.concurrent.TimeUnit;
 public class PlaytimeManager {
     private final PlaytimeStorage storage;
     private final PluginConfig config;
-    private final ScheduledExecutorService scheduler;
 
-    public PlaytimeManager(PlaytimeStorage storage, PluginConfig config) {
+    public PlaytimeManager(PlaytimeStorage storage, PluginConfig config, HyTownScheduler scheduler) {
         this.storage = storage;
         this.config = config;
-        this.scheduler = Executors.newScheduledThreadPool(1);
 
         // Schedule periodic updates
-        int interval = config.getPlaytimeUpdateIntervalSeconds();
-        scheduler.scheduleAtFixedRate(this::updateAllSessions, interval, interval, TimeUnit.SECONDS);
+        Duration interval = Duration.ofSeconds(config.getPlaytimeUpdateIntervalSeconds());
+        scheduler.scheduleFixedDelay("playtime-checkpoint", interval, interval, Duration.ZERO, this::updateAllSessions);
     }
 
     /**
      * Called when a player joins the server.
      */
     public void onPlayerJoin(UUID playerId) {
-        PlaytimeData data = storage.getPlaytime(playerId);
-        data.startSession();
+        storage.startSession(playerId);
     }
 
     /**
@@ -60,32 +55,29 @@ public class PlaytimeManager {
     }
 
     /**
-     * Updates all active sessions and saves periodically.
+     * Checkpoints all active sessions into the playtime ledger and writes the
+     * changed ledger pages.
      */
-    private void updateAllSessions() {
+    private void updateAllSessions(HyTownScheduler.Job job) {
         Map<UUID, PlaytimeData> cache = storage.getCache();
         for (Map.Entry<UUID, PlaytimeData> entry : cache.entrySet()) {
+            if (job.isCancelled()) {
+                break;
+            }
             PlaytimeData data = entry.getValue();
             if (data.isInSession()) {
                 // Session is active, save periodically
                 storage.savePlaytime(entry.getKey());
             }
         }
+        storage.flush();
     }
 
     /**
-     * Shuts down the playtime manager.
+     * Ends all sessions and saves. Runs as a scheduler shutdown hook, after the
+     * checkpoint job has stopped.
      */
     public void shutdown() {
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-        }
-
         // End all sessions and save
         Map<UUID, PlaytimeData> cache = storage.getCache();
         for (Map.Entry<UUID, PlaytimeData> entry : cache.entrySet()) {
@@ -95,5 +87,6 @@ public class PlaytimeManager {
             }
         }
         storage.saveAll();
+        storage.close();
     }
 }
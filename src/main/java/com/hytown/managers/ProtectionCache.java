@@ -0,0 +1,219 @@
+package com.hytown.managers;
+
+import com.hytown.data.ChunkOwnershipIndex;
+import com.hytown.data.Town;
+import com.hytown.util.ChunkUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-player cache of resolved protection decisions in claimed chunks.
+ *
+ * Each online player has a small map keyed by packed chunk coordinate holding
+ * one decision byte per {@link Action}, so repeated mining or building in the
+ * same chunk costs a map probe and an array read instead of permission checks,
+ * a membership lookup, plot settings and trust resolution.
+ *
+ * Entries are dropped precisely when something they depend on changes:
+ * chunk ownership (ownership index), trust (ClaimManager), membership and
+ * town/plot settings (town events and TownStorage saves). Permission nodes
+ * have no change event, so entries also expire after {@link #ENTRY_TTL_MS}.
+ *
+ * Wilderness decisions depend on the block height and are never cached.
+ */
+public class ProtectionCache {
+
+    /**
+     * Protected action types, each with its own decision slot.
+     */
+    public enum Action {
+        BUILD, DESTROY, DAMAGE, USE, CONTAINER, WORKSTATION, CROP
+    }
+
+    public static final byte UNKNOWN = 0;
+    public static final byte ALLOW = 1;
+    public static final byte DENY = 2;
+
+    private static final int MAX_CHUNKS_PER_PLAYER = 64;   // cleared when exceeded, players rarely span more
+    private static final long ENTRY_TTL_MS = 10000;        // picks up permission node changes
+
+    private static final int ACTION_COUNT = Action.values().length;
+
+    private final Map<UUID, PlayerDecisions> players = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation; a decision computed across a bump is not stored
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // ==================== LOOKUP ====================
+
+    /**
+     * Gets the cached decision of a player for an action in a chunk.
+     * @return {@link #ALLOW}, {@link #DENY} or {@link #UNKNOWN}
+     */
+    public byte get(UUID playerId, String world, int chunkX, int chunkZ, Action action) {
+        ChunkDecisions decisions = getDecisions(playerId, world, chunkX, chunkZ);
+        byte decision = decisions != null ? decisions.decisions[action.ordinal()] : UNKNOWN;
+        if (decision == UNKNOWN) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return decision;
+    }
+
+    /**
+     * Gets the owning town stored with a chunk's cached decisions (for deny messages).
+     */
+    public Town getTown(UUID playerId, String world, int chunkX, int chunkZ) {
+        ChunkDecisions decisions = getDecisions(playerId, world, chunkX, chunkZ);
+        return decisions != null ? decisions.town : null;
+    }
+
+    /**
+     * Gets the generation to pass to {@link #put} for a decision about to be computed.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Stores a decision. Ignored if anything was invalidated since {@code generation}
+     * was read, since the decision may have been computed from stale state.
+     *
+     * @param owner the chunk ownership the decision was computed from, or null for
+     *              decisions that do not depend on it (admin bypass)
+     */
+    public void put(long generation, UUID playerId, String world, int chunkX, int chunkZ,
+                    ChunkOwnershipIndex.ChunkOwner owner, Action action, boolean allowed) {
+        if (playerId == null || world == null) return;
+        PlayerDecisions player = players.computeIfAbsent(playerId, k -> new PlayerDecisions());
+        synchronized (player) {
+            if (this.generation.get() != generation) return;
+            if (!world.equals(player.world)) {
+                player.chunks.clear();
+                player.world = world;
+            }
+            long key = ChunkUtil.packChunk(chunkX, chunkZ);
+            ChunkDecisions decisions = player.chunks.get(key);
+            if (decisions == null || System.currentTimeMillis() > decisions.expiresAt) {
+                if (player.chunks.size() >= MAX_CHUNKS_PER_PLAYER) {
+                    player.chunks.clear();
+                }
+                decisions = new ChunkDecisions(owner != null ? owner.town() : null);
+                player.chunks.put(key, decisions);
+            }
+            decisions.decisions[action.ordinal()] = allowed ? ALLOW : DENY;
+        }
+    }
+
+    // ==================== INVALIDATION ====================
+
+    /**
+     * Drops all decisions of a player (trust, membership changes, disconnect).
+     */
+    public void invalidatePlayer(UUID playerId) {
+        if (playerId == null) return;
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        players.remove(playerId);
+    }
+
+    /**
+     * Drops every player's decisions for one chunk (ownership changes).
+     */
+    public void invalidateChunk(String world, int chunkX, int chunkZ) {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        long key = ChunkUtil.packChunk(chunkX, chunkZ);
+        for (PlayerDecisions player : players.values()) {
+            synchronized (player) {
+                if (world.equals(player.world)) {
+                    player.chunks.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every player's decisions for chunks of a town (settings, members, deletion).
+     */
+    public void invalidateTown(Town town) {
+        if (town == null) return;
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        for (PlayerDecisions player : players.values()) {
+            synchronized (player) {
+                player.chunks.values().removeIf(decisions -> decisions.town == town);
+            }
+        }
+    }
+
+    /**
+     * Drops all cached decisions.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        players.clear();
+    }
+
+    // ==================== STATS ====================
+
+    /**
+     * Gets cache statistics for debugging.
+     */
+    public String getStats() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        int chunks = 0;
+        for (PlayerDecisions player : players.values()) {
+            synchronized (player) {
+                chunks += player.chunks.size();
+            }
+        }
+        return String.format("players=%d, chunks=%d, hitRate=%.1f%%, invalidations=%d",
+                players.size(), chunks, total > 0 ? hitCount * 100.0 / total : 0.0, invalidations.get());
+    }
+
+    // ==================== INTERNAL ====================
+
+    private ChunkDecisions getDecisions(UUID playerId, String world, int chunkX, int chunkZ) {
+        PlayerDecisions player = players.get(playerId);
+        if (player == null) return null;
+        synchronized (player) {
+            if (!world.equals(player.world)) return null;
+            ChunkDecisions decisions = player.chunks.get(ChunkUtil.packChunk(chunkX, chunkZ));
+            if (decisions == null || System.currentTimeMillis() > decisions.expiresAt) return null;
+            return decisions;
+        }
+    }
+
+    /**
+     * Decisions of one player, limited to the world they are in.
+     */
+    private static final class PlayerDecisions {
+        private final Long2ObjectOpenHashMap<ChunkDecisions> chunks = new Long2ObjectOpenHashMap<>();
+        private String world;
+    }
+
+    /**
+     * Decision slots for one chunk, indexed by {@link Action#ordinal()}.
+     */
+    private static final class ChunkDecisions {
+        private final Town town;
+        private final long expiresAt = System.currentTimeMillis() + ENTRY_TTL_MS;
+        private final byte[] decisions = new byte[ACTION_COUNT];
+
+        ChunkDecisions(Town town) {
+            this.town = town;
+        }
+    }
+}
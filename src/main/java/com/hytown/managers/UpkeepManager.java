@@ -39,6 +39,8 @@ public class UpkeepManager {
      * Collects upkeep once per day at the configured hour.
      */
     public void checkUpkeep() {
+        clearSettledDebts();
+
         LocalDateTime now = LocalDateTime.now(ZoneId.systemDefault());
         int currentDay = now.getDayOfYear();
         int currentHour = now.getHour();
@@ -56,6 +58,20 @@ public class UpkeepManager {
         }
     }
 
+    /**
+     * Clear missed upkeep days for towns that have paid off their debt, and tell
+     * their online residents. Runs with every periodic upkeep check.
+     */
+    public void clearSettledDebts() {
+        for (Town town : townStorage.getAllTowns()) {
+            if (town.getMissedUpkeepDays() > 0 && town.getBalance() >= 0) {
+                town.setMissedUpkeepDays(0);
+                townStorage.saveTown(town);
+                notifyAllResidents(town, "Debt cleared! Your town is back in good standing.", GREEN);
+            }
+        }
+    }
+
     /**
      * Check if upkeep should be collected for this town today.
      * Returns false if upkeep was already collected today.
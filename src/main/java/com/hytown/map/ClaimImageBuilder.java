@@ -12,10 +12,13 @@ import com.hypixel.hytale.server.core.universe.world.chunk.WorldChunk;
 import com.hypixel.hytale.server.core.universe.world.chunk.section.FluidSection;
 import com.hypixel.hytale.server.core.universe.world.storage.ChunkStore;
 import com.hytown.HyTownAccess;
+import com.hytown.metrics.LatencyHistogram;
+import com.hytown.metrics.PerfMetrics;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
@@ -24,50 +27,54 @@ import java.util.concurrent.CompletableFuture;
 /**
  * Builds map images with claim overlays rendered directly into the terrain.
  * Based on SimpleClaims' CustomImageBuilder.
+ *
+ * Terrain is sampled once into a {@link MapTileCache.TerrainTile} and reused until the
+ * chunk changes; claim changes only recomposite the overlay onto the cached terrain.
  */
 public class ClaimImageBuilder {
+    private static final LatencyHistogram RENDER_TIME = PerfMetrics.histogram("map.render");
+    private static final LatencyHistogram COMPOSITE_TIME = PerfMetrics.histogram("map.composite");
+
+    private static final int[][] NEIGHBOR_OFFSETS = {
+            {0, -1}, {0, 1}, {-1, 0}, {1, 0}, {1, -1}, {-1, -1}, {1, 1}, {-1, 1}
+    };
+
     private final long index;
     private final World world;
-    @Nonnull
-    private final MapImage image;
+    private final String worldName;
+    private final int chunkX;
+    private final int chunkZ;
+    private final MapTileCache.WorldTiles tiles;
+    private final int imageWidth;
+    private final int imageHeight;
     private final int sampleWidth;
     private final int sampleHeight;
     private final int blockStepX;
     private final int blockStepZ;
     @Nonnull
-    private final short[] heightSamples;
-    @Nonnull
-    private final int[] tintSamples;
-    @Nonnull
-    private final int[] blockSamples;
-    @Nonnull
     private final short[] neighborHeightSamples;
-    @Nonnull
-    private final short[] fluidDepthSamples;
-    @Nonnull
-    private final int[] environmentSamples;
-    @Nonnull
-    private final int[] fluidSamples;
     private final MapColor outColor = new MapColor();
     @Nullable
+    private MapImage image;
+    @Nullable
     private WorldChunk worldChunk;
     private FluidSection[] fluidSections;
+    private MapTileCache.TerrainTile terrain;
 
     public ClaimImageBuilder(long index, int imageWidth, int imageHeight, World world) {
         this.index = index;
         this.world = world;
-        this.image = new MapImage(imageWidth, imageHeight, new int[imageWidth * imageHeight]);
-        this.sampleWidth = Math.min(32, this.image.width);
-        this.sampleHeight = Math.min(32, this.image.height);
-        this.blockStepX = Math.max(1, 32 / this.image.width);
-        this.blockStepZ = Math.max(1, 32 / this.image.height);
-        this.heightSamples = new short[this.sampleWidth * this.sampleHeight];
-        this.tintSamples = new int[this.sampleWidth * this.sampleHeight];
-        this.blockSamples = new int[this.sampleWidth * this.sampleHeight];
+        this.worldName = world.getName();
+        this.chunkX = ChunkUtil.xOfChunkIndex(index);
+        this.chunkZ = ChunkUtil.zOfChunkIndex(index);
+        this.tiles = MapTileCache.forWorld(this.worldName);
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.sampleWidth = Math.min(32, imageWidth);
+        this.sampleHeight = Math.min(32, imageHeight);
+        this.blockStepX = Math.max(1, 32 / imageWidth);
+        this.blockStepZ = Math.max(1, 32 / imageHeight);
         this.neighborHeightSamples = new short[(this.sampleWidth + 2) * (this.sampleHeight + 2)];
-        this.fluidDepthSamples = new short[this.sampleWidth * this.sampleHeight];
-        this.environmentSamples = new int[this.sampleWidth * this.sampleHeight];
-        this.fluidSamples = new int[this.sampleWidth * this.sampleHeight];
     }
 
     public long getIndex() {
@@ -79,6 +86,10 @@ public class ClaimImageBuilder {
         return this.image;
     }
 
+    private long tileKey(int x, int z) {
+        return com.hytown.util.ChunkUtil.packChunk(x, z);
+    }
+
     @Nonnull
     private CompletableFuture<ClaimImageBuilder> fetchChunk() {
         return this.world.getChunkStore().getChunkReferenceAsync(this.index).thenApplyAsync((ref) -> {
@@ -99,102 +110,82 @@ public class ClaimImageBuilder {
         }, this.world);
     }
 
+    /**
+     * Fills the neighbour edge heights used for shading. Edges of neighbours that have a
+     * cached terrain tile are copied from it; only the others are fetched.
+     */
     @Nonnull
     private CompletableFuture<ClaimImageBuilder> sampleNeighborsSync() {
-        CompletableFuture<Void> north = this.world.getChunkStore().getChunkReferenceAsync(
-                ChunkUtil.indexChunk(this.worldChunk.getX(), this.worldChunk.getZ() - 1)).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk wc = ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int z = (this.sampleHeight - 1) * this.blockStepZ;
-                for (int ix = 0; ix < this.sampleWidth; ++ix) {
-                    int x = ix * this.blockStepX;
-                    this.neighborHeightSamples[1 + ix] = wc.getHeight(x, z);
-                }
-            }
-        }, this.world);
-
-        CompletableFuture<Void> south = this.world.getChunkStore().getChunkReferenceAsync(
-                ChunkUtil.indexChunk(this.worldChunk.getX(), this.worldChunk.getZ() + 1)).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk wc = ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int z = 0;
-                int neighbourStartIndex = (this.sampleHeight + 1) * (this.sampleWidth + 2) + 1;
-                for (int ix = 0; ix < this.sampleWidth; ++ix) {
-                    int x = ix * this.blockStepX;
-                    this.neighborHeightSamples[neighbourStartIndex + ix] = wc.getHeight(x, z);
-                }
-            }
-        }, this.world);
-
-        CompletableFuture<Void> west = this.world.getChunkStore().getChunkReferenceAsync(
-                ChunkUtil.indexChunk(this.worldChunk.getX() - 1, this.worldChunk.getZ())).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk wc = ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int x = (this.sampleWidth - 1) * this.blockStepX;
-                for (int iz = 0; iz < this.sampleHeight; ++iz) {
-                    int z = iz * this.blockStepZ;
-                    this.neighborHeightSamples[(iz + 1) * (this.sampleWidth + 2)] = wc.getHeight(x, z);
-                }
+        List<CompletableFuture<Void>> fetches = new ArrayList<>();
+        for (int[] offset : NEIGHBOR_OFFSETS) {
+            int dx = offset[0];
+            int dz = offset[1];
+            MapTileCache.TerrainTile cached = this.tiles.getTerrain(
+                    tileKey(this.chunkX + dx, this.chunkZ + dz), this.imageWidth, this.imageHeight);
+            if (cached != null) {
+                copyNeighborEdge(dx, dz, (ix, iz) -> cached.heights[iz * this.sampleWidth + ix]);
+                continue;
             }
-        }, this.world);
-
-        CompletableFuture<Void> east = this.world.getChunkStore().getChunkReferenceAsync(
-                ChunkUtil.indexChunk(this.worldChunk.getX() + 1, this.worldChunk.getZ())).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk wc = ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int x = 0;
-                for (int iz = 0; iz < this.sampleHeight; ++iz) {
-                    int z = iz * this.blockStepZ;
-                    this.neighborHeightSamples[(iz + 1) * (this.sampleWidth + 2) + this.sampleWidth + 1] = wc.getHeight(x, z);
+            fetches.add(this.world.getChunkStore().getChunkReferenceAsync(
+                    ChunkUtil.indexChunk(this.chunkX + dx, this.chunkZ + dz)).thenAcceptAsync((ref) -> {
+                if (ref != null && ref.isValid()) {
+                    WorldChunk wc = ref.getStore().getComponent(ref, WorldChunk.getComponentType());
+                    copyNeighborEdge(dx, dz, (ix, iz) -> wc.getHeight(ix * this.blockStepX, iz * this.blockStepZ));
                 }
-            }
-        }, this.world);
+            }, this.world));
+        }
 
-        CompletableFuture<Void> northeast = this.world.getChunkStore().getChunkReferenceAsync(
-                ChunkUtil.indexChunk(this.worldChunk.getX() + 1, this.worldChunk.getZ() - 1)).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk wc = ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int x = 0;
-                int z = (this.sampleHeight - 1) * this.blockStepZ;
-                this.neighborHeightSamples[0] = wc.getHeight(x, z);
-            }
-        }, this.world);
+        return CompletableFuture.allOf(fetches.toArray(new CompletableFuture<?>[0]))
+                .thenApply((v) -> this);
+    }
 
-        CompletableFuture<Void> northwest = this.world.getChunkStore().getChunkReferenceAsync(
-                ChunkUtil.indexChunk(this.worldChunk.getX() - 1, this.worldChunk.getZ() - 1)).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk wc = ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int x = (this.sampleWidth - 1) * this.blockStepX;
-                int z = (this.sampleHeight - 1) * this.blockStepZ;
-                this.neighborHeightSamples[this.sampleWidth + 1] = wc.getHeight(x, z);
-            }
-        }, this.world);
+    /**
+     * Height of a neighbour chunk at a sample position.
+     */
+    @FunctionalInterface
+    private interface SampleHeights {
+        short get(int sampleX, int sampleZ);
+    }
 
-        CompletableFuture<Void> southeast = this.world.getChunkStore().getChunkReferenceAsync(
-                ChunkUtil.indexChunk(this.worldChunk.getX() + 1, this.worldChunk.getZ() + 1)).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk wc = ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int x = 0;
-                int z = 0;
-                this.neighborHeightSamples[(this.sampleHeight + 1) * (this.sampleWidth + 2) + this.sampleWidth + 1] = wc.getHeight(x, z);
+    /**
+     * Copies the edge of the neighbour at (dx, dz) that touches this chunk into the
+     * border of the neighbour height grid.
+     */
+    private void copyNeighborEdge(int dx, int dz, SampleHeights heights) {
+        int rowStride = this.sampleWidth + 2;
+        if (dx == 0) {
+            // North or south: the facing row
+            int sourceZ = dz < 0 ? this.sampleHeight - 1 : 0;
+            int destRow = dz < 0 ? 0 : this.sampleHeight + 1;
+            for (int ix = 0; ix < this.sampleWidth; ++ix) {
+                this.neighborHeightSamples[destRow * rowStride + 1 + ix] = heights.get(ix, sourceZ);
             }
-        }, this.world);
-
-        CompletableFuture<Void> southwest = this.world.getChunkStore().getChunkReferenceAsync(
-                ChunkUtil.indexChunk(this.worldChunk.getX() - 1, this.worldChunk.getZ() + 1)).thenAcceptAsync((ref) -> {
-            if (ref != null && ref.isValid()) {
-                WorldChunk wc = ref.getStore().getComponent(ref, WorldChunk.getComponentType());
-                int x = (this.sampleWidth - 1) * this.blockStepX;
-                int z = 0;
-                this.neighborHeightSamples[(this.sampleHeight + 1) * (this.sampleWidth + 2)] = wc.getHeight(x, z);
+        } else if (dz == 0) {
+            // West or east: the facing column
+            int sourceX = dx < 0 ? this.sampleWidth - 1 : 0;
+            int destColumn = dx < 0 ? 0 : this.sampleWidth + 1;
+            for (int iz = 0; iz < this.sampleHeight; ++iz) {
+                this.neighborHeightSamples[(iz + 1) * rowStride + destColumn] = heights.get(sourceX, iz);
             }
-        }, this.world);
-
-        return CompletableFuture.allOf(north, south, west, east, northeast, northwest, southeast, southwest)
-                .thenApply((v) -> this);
+        } else {
+            // Diagonal: a single corner sample (placement matches the original renderer)
+            int sourceX = dx < 0 ? this.sampleWidth - 1 : 0;
+            int sourceZ = dz < 0 ? this.sampleHeight - 1 : 0;
+            int destRow = dz < 0 ? 0 : this.sampleHeight + 1;
+            int destColumn = (dx > 0) == (dz < 0) ? 0 : this.sampleWidth + 1;
+            this.neighborHeightSamples[destRow * rowStride + destColumn] = heights.get(sourceX, sourceZ);
+        }
     }
 
-    private ClaimImageBuilder generateImageAsync() {
+    /**
+     * Samples heights, blocks and fluids and shades the terrain into a new terrain tile.
+     * Block and fluid assets are resolved once per sample rather than once per pixel.
+     */
+    private ClaimImageBuilder sampleTerrain(long stamp) {
+        MapTileCache.TerrainTile tile = new MapTileCache.TerrainTile(
+                stamp, this.imageWidth, this.imageHeight, this.sampleWidth, this.sampleHeight);
+        int[] blockColors = new int[this.sampleWidth * this.sampleHeight];
+
         // Sample block data
         for (int ix = 0; ix < this.sampleWidth; ++ix) {
             for (int iz = 0; iz < this.sampleHeight; ++iz) {
@@ -203,10 +194,10 @@ public class ClaimImageBuilder {
                 int z = iz * this.blockStepZ;
                 short height = this.worldChunk.getHeight(x, z);
                 int tint = this.worldChunk.getTint(x, z);
-                this.heightSamples[sampleIndex] = height;
-                this.tintSamples[sampleIndex] = tint;
+                tile.heights[sampleIndex] = height;
                 int blockId = this.worldChunk.getBlock(x, height, z);
-                this.blockSamples[sampleIndex] = blockId;
+                getBlockColor(blockId, tint, this.outColor);
+                blockColors[sampleIndex] = this.outColor.packRgb();
 
                 // Sample fluid data
                 int fluidId = 0;
@@ -260,69 +251,36 @@ public class ClaimImageBuilder {
                     }
                 }
 
-                short fluidDepth = fluidId != 0 ? (short) (fluidTop - fluidBottom + 1) : 0;
-                int environmentId = this.worldChunk.getBlockChunk().getEnvironment(x, fluidTop, z);
-                this.fluidDepthSamples[sampleIndex] = fluidDepth;
-                this.environmentSamples[sampleIndex] = environmentId;
-                this.fluidSamples[sampleIndex] = fluidId;
+                // Apply fluid tinting (resolved once per sample, applied after the claim overlay)
+                tile.fluidTints[sampleIndex] = MapTileCache.TerrainTile.NO_FLUID;
+                if (height < 320 && fluidId != 0) {
+                    short fluidDepth = (short) (fluidTop - fluidBottom + 1);
+                    int environmentId = this.worldChunk.getBlockChunk().getEnvironment(x, fluidTop, z);
+                    tile.fluidTints[sampleIndex] = getFluidTint(fluidId, environmentId);
+                    tile.fluidDepthMultipliers[sampleIndex] = Math.min(1.0F, 1.0F / (float) fluidDepth);
+                }
             }
         }
 
-        float imageToSampleRatioWidth = (float) this.sampleWidth / (float) this.image.width;
-        float imageToSampleRatioHeight = (float) this.sampleHeight / (float) this.image.height;
-        int blockPixelWidth = Math.max(1, this.image.width / this.sampleWidth);
-        int blockPixelHeight = Math.max(1, this.image.height / this.sampleHeight);
+        float imageToSampleRatioWidth = (float) this.sampleWidth / (float) this.imageWidth;
+        float imageToSampleRatioHeight = (float) this.sampleHeight / (float) this.imageHeight;
+        int blockPixelWidth = Math.max(1, this.imageWidth / this.sampleWidth);
+        int blockPixelHeight = Math.max(1, this.imageHeight / this.sampleHeight);
 
         for (int iz = 0; iz < this.sampleHeight; ++iz) {
-            System.arraycopy(this.heightSamples, iz * this.sampleWidth,
+            System.arraycopy(tile.heights, iz * this.sampleWidth,
                     this.neighborHeightSamples, (iz + 1) * (this.sampleWidth + 2) + 1, this.sampleWidth);
         }
 
-        int chunkX = ChunkUtil.xOfChunkIndex(this.index);
-        int chunkZ = ChunkUtil.zOfChunkIndex(this.index);
-
-        // Get claim info for this chunk using the accessor
-        String worldName = this.worldChunk.getWorld().getName();
-        UUID claimOwner = HyTownAccess.getClaimOwner(worldName, chunkX, chunkZ);
-        Color claimColor = claimOwner != null ? ClaimColorGenerator.getPlayerColor(claimOwner) : null;
-
-        // Get neighboring claim owners to determine borders
-        UUID[] nearbyOwners = new UUID[]{
-                HyTownAccess.getClaimOwner(this.worldChunk.getWorld().getName(), chunkX, chunkZ + 1), // SOUTH
-                HyTownAccess.getClaimOwner(this.worldChunk.getWorld().getName(), chunkX, chunkZ - 1), // NORTH
-                HyTownAccess.getClaimOwner(this.worldChunk.getWorld().getName(), chunkX + 1, chunkZ), // EAST
-                HyTownAccess.getClaimOwner(this.worldChunk.getWorld().getName(), chunkX - 1, chunkZ), // WEST
-        };
-
-        // Generate the image
-        for (int ix = 0; ix < this.image.width; ++ix) {
-            for (int iz = 0; iz < this.image.height; ++iz) {
+        // Shade the terrain
+        for (int ix = 0; ix < this.imageWidth; ++ix) {
+            for (int iz = 0; iz < this.imageHeight; ++iz) {
                 int sampleX = Math.min((int) ((float) ix * imageToSampleRatioWidth), this.sampleWidth - 1);
                 int sampleZ = Math.min((int) ((float) iz * imageToSampleRatioHeight), this.sampleHeight - 1);
                 int sampleIndex = sampleZ * this.sampleWidth + sampleX;
                 int blockPixelX = ix % blockPixelWidth;
                 int blockPixelZ = iz % blockPixelHeight;
-                short height = this.heightSamples[sampleIndex];
-                int tint = this.tintSamples[sampleIndex];
-                int blockId = this.blockSamples[sampleIndex];
-
-                getBlockColor(blockId, tint, this.outColor);
-
-                // Apply claim overlay if this chunk is claimed
-                if (claimColor != null) {
-                    boolean isBorder = false;
-                    int borderSize = 2;
-
-                    // Check if this pixel is on a border where the adjacent chunk has a different owner
-                    if ((ix <= borderSize && !Objects.equals(claimOwner, nearbyOwners[3])) // WEST border
-                            || (ix >= this.image.width - borderSize - 1 && !Objects.equals(claimOwner, nearbyOwners[2])) // EAST border
-                            || (iz <= borderSize && !Objects.equals(claimOwner, nearbyOwners[1])) // NORTH border
-                            || (iz >= this.image.height - borderSize - 1 && !Objects.equals(claimOwner, nearbyOwners[0]))) { // SOUTH border
-                        isBorder = true;
-                    }
-
-                    applyClaimColor(claimColor, this.outColor, isBorder);
-                }
+                short height = tile.heights[sampleIndex];
 
                 // Apply lighting/shading
                 short north = this.neighborHeightSamples[sampleZ * (this.sampleWidth + 2) + sampleX + 1];
@@ -336,50 +294,108 @@ public class ClaimImageBuilder {
 
                 float shade = shadeFromHeights(blockPixelX, blockPixelZ, blockPixelWidth, blockPixelHeight,
                         height, north, south, west, east, northWest, northEast, southWest, southEast);
+                this.outColor.unpackRgb(blockColors[sampleIndex]);
                 this.outColor.multiply(shade);
 
+                int pixelIndex = iz * this.imageWidth + ix;
+                tile.shadedColors[pixelIndex] = this.outColor.packRgb();
+                tile.shades[pixelIndex] = shade;
+            }
+        }
+
+        this.terrain = tile;
+        this.tiles.putTerrain(tileKey(this.chunkX, this.chunkZ), tile);
+        return this;
+    }
+
+    /**
+     * Produces the final image from the terrain tile and the current claim overlay.
+     * Reuses the previous result when the overlay inputs have not changed.
+     */
+    private ClaimImageBuilder composite() {
+        MapTileCache.TerrainTile tile = this.terrain;
+        MapTileCache.OverlayKey overlay = getOverlayKey();
+        MapTileCache.Composite previous = tile.composite;
+        if (previous != null && previous.key().equals(overlay)) {
+            this.image = new MapImage(this.imageWidth, this.imageHeight, previous.pixels());
+            return this;
+        }
+
+        int[] pixels = new int[this.imageWidth * this.imageHeight];
+        Color claimColor = overlay.owner() != null ? ClaimColorGenerator.getPlayerColor(overlay.owner()) : null;
+        float imageToSampleRatioWidth = (float) this.sampleWidth / (float) this.imageWidth;
+        float imageToSampleRatioHeight = (float) this.sampleHeight / (float) this.imageHeight;
+        int borderSize = 2;
+
+        for (int ix = 0; ix < this.imageWidth; ++ix) {
+            for (int iz = 0; iz < this.imageHeight; ++iz) {
+                int pixelIndex = iz * this.imageWidth + ix;
+                this.outColor.unpackRgb(tile.shadedColors[pixelIndex]);
+
+                // Apply claim overlay if this chunk is claimed
+                if (claimColor != null) {
+                    // Check if this pixel is on a border where the adjacent chunk has a different owner
+                    boolean isBorder = (ix <= borderSize && overlay.borderWest())
+                            || (ix >= this.imageWidth - borderSize - 1 && overlay.borderEast())
+                            || (iz <= borderSize && overlay.borderNorth())
+                            || (iz >= this.imageHeight - borderSize - 1 && overlay.borderSouth());
+                    applyClaimColor(claimColor, tile.shades[pixelIndex], this.outColor, isBorder);
+                }
+
                 // Apply fluid tinting
-                if (height < 320) {
-                    int fluidId = this.fluidSamples[sampleIndex];
-                    if (fluidId != 0) {
-                        short fluidDepth = this.fluidDepthSamples[sampleIndex];
-                        int environmentId = this.environmentSamples[sampleIndex];
-                        getFluidColor(fluidId, environmentId, fluidDepth, this.outColor);
-                    }
+                int sampleX = Math.min((int) ((float) ix * imageToSampleRatioWidth), this.sampleWidth - 1);
+                int sampleZ = Math.min((int) ((float) iz * imageToSampleRatioHeight), this.sampleHeight - 1);
+                int sampleIndex = sampleZ * this.sampleWidth + sampleX;
+                int fluidTint = tile.fluidTints[sampleIndex];
+                if (fluidTint != MapTileCache.TerrainTile.NO_FLUID) {
+                    applyFluidTint(fluidTint, tile.fluidDepthMultipliers[sampleIndex], this.outColor);
                 }
 
-                this.image.data[iz * this.image.width + ix] = this.outColor.pack();
+                pixels[pixelIndex] = this.outColor.pack();
             }
         }
 
         // Draw owner name and trusted players text on claimed chunks
-        if (claimOwner != null) {
-            drawClaimText(worldName, chunkX, chunkZ);
+        if (overlay.owner() != null && overlay.ownerName() != null) {
+            drawClaimText(pixels, overlay.ownerName(), overlay.trustedNames());
         }
 
+        tile.composite = new MapTileCache.Composite(overlay, pixels);
+        this.image = new MapImage(this.imageWidth, this.imageHeight, pixels);
         return this;
     }
 
     /**
-     * Draws owner name and trusted player names on the map tile.
-     * Text is centered and may extend beyond tile boundaries.
+     * Reads the claim state this tile's overlay depends on.
      */
-    private void drawClaimText(String worldName, int chunkX, int chunkZ) {
-        String ownerName = HyTownAccess.getOwnerName(worldName, chunkX, chunkZ);
-        List<String> trustedNames = HyTownAccess.getTrustedPlayerNames(worldName, chunkX, chunkZ);
-
-        if (ownerName == null) {
-            return;
+    private MapTileCache.OverlayKey getOverlayKey() {
+        UUID claimOwner = HyTownAccess.getClaimOwner(this.worldName, this.chunkX, this.chunkZ);
+        if (claimOwner == null) {
+            return new MapTileCache.OverlayKey(null, null, null, null, null, null, List.of());
         }
+        return new MapTileCache.OverlayKey(
+                claimOwner,
+                HyTownAccess.getClaimOwner(this.worldName, this.chunkX, this.chunkZ + 1), // SOUTH
+                HyTownAccess.getClaimOwner(this.worldName, this.chunkX, this.chunkZ - 1), // NORTH
+                HyTownAccess.getClaimOwner(this.worldName, this.chunkX + 1, this.chunkZ), // EAST
+                HyTownAccess.getClaimOwner(this.worldName, this.chunkX - 1, this.chunkZ), // WEST
+                HyTownAccess.getOwnerName(this.worldName, this.chunkX, this.chunkZ),
+                HyTownAccess.getTrustedPlayerNames(this.worldName, this.chunkX, this.chunkZ));
+    }
 
+    /**
+     * Draws owner name and trusted player names on the map tile.
+     * Text is centered and may extend beyond tile boundaries.
+     */
+    private void drawClaimText(int[] pixels, String ownerName, List<String> trustedNames) {
         // Calculate vertical positioning
         int lineHeight = BitmapFont.CHAR_HEIGHT + 2; // 7 + 2 = 9 pixels per line
         int totalLines = 1 + Math.min(trustedNames.size(), 2); // Owner + up to 2 trusted
-        int startY = (this.image.height - (totalLines * lineHeight)) / 2;
+        int startY = (this.imageHeight - (totalLines * lineHeight)) / 2;
 
         // Draw owner name (white text with black outline for crisp visibility)
         BitmapFont.drawTextCenteredWithOutline(
-            this.image.data, this.image.width, this.image.height,
+            pixels, this.imageWidth, this.imageHeight,
             ownerName, startY,
             BitmapFont.WHITE, BitmapFont.BLACK
         );
@@ -391,7 +407,7 @@ public class ClaimImageBuilder {
             if (trustedCount >= 2) break;
 
             BitmapFont.drawTextCenteredWithOutline(
-                this.image.data, this.image.width, this.image.height,
+                pixels, this.imageWidth, this.imageHeight,
                 trustedName, trustedY,
                 BitmapFont.YELLOW, BitmapFont.BLACK
             );
@@ -459,17 +475,18 @@ public class ClaimImageBuilder {
         outColor.a = 255;
     }
 
-    private static void applyClaimColor(Color claimColor, @Nonnull MapColor outColor, boolean isBorder) {
+    private static void applyClaimColor(Color claimColor, float shade, @Nonnull MapColor outColor, boolean isBorder) {
         // Blend the claim color with the terrain color
-        // Border pixels get a stronger tint
+        // Border pixels get a stronger tint. The terrain is already shaded, so the
+        // claim color is shaded too, as if it had been blended before shading.
         float blendFactor = isBorder ? 0.7f : 0.4f;
 
-        outColor.r = (int) (outColor.r * (1 - blendFactor) + claimColor.getRed() * blendFactor);
-        outColor.g = (int) (outColor.g * (1 - blendFactor) + claimColor.getGreen() * blendFactor);
-        outColor.b = (int) (outColor.b * (1 - blendFactor) + claimColor.getBlue() * blendFactor);
+        outColor.r = (int) (outColor.r * (1 - blendFactor) + claimColor.getRed() * shade * blendFactor);
+        outColor.g = (int) (outColor.g * (1 - blendFactor) + claimColor.getGreen() * shade * blendFactor);
+        outColor.b = (int) (outColor.b * (1 - blendFactor) + claimColor.getBlue() * shade * blendFactor);
     }
 
-    private static void getFluidColor(int fluidId, int environmentId, int fluidDepth, @Nonnull MapColor outColor) {
+    private static int getFluidTint(int fluidId, int environmentId) {
         int tintColorR = 255;
         int tintColorG = 255;
         int tintColorB = 255;
@@ -489,7 +506,13 @@ public class ClaimImageBuilder {
             tintColorB = tintColorB * (particleColor.blue & 255) / 255;
         }
 
-        float depthMultiplier = Math.min(1.0F, 1.0F / (float) fluidDepth);
+        return (tintColorR & 255) << 16 | (tintColorG & 255) << 8 | tintColorB & 255;
+    }
+
+    private static void applyFluidTint(int fluidTint, float depthMultiplier, @Nonnull MapColor outColor) {
+        int tintColorR = fluidTint >> 16 & 255;
+        int tintColorG = fluidTint >> 8 & 255;
+        int tintColorB = fluidTint & 255;
         outColor.r = (int) ((float) tintColorR + (float) ((outColor.r & 255) - tintColorR) * depthMultiplier) & 255;
         outColor.g = (int) ((float) tintColorG + (float) ((outColor.g & 255) - tintColorG) * depthMultiplier) & 255;
         outColor.b = (int) ((float) tintColorB + (float) ((outColor.b & 255) - tintColorB) * depthMultiplier) & 255;
@@ -497,10 +520,42 @@ public class ClaimImageBuilder {
 
     @Nonnull
     public static CompletableFuture<ClaimImageBuilder> build(long index, int imageWidth, int imageHeight, World world) {
-        return CompletableFuture.completedFuture(new ClaimImageBuilder(index, imageWidth, imageHeight, world))
+        ClaimImageBuilder builder = new ClaimImageBuilder(index, imageWidth, imageHeight, world);
+        long tileKey = builder.tileKey(builder.chunkX, builder.chunkZ);
+
+        // Terrain unchanged since it was sampled - only the overlay may need compositing
+        MapTileCache.TerrainTile cached = builder.tiles.getTerrain(tileKey, imageWidth, imageHeight);
+        if (cached != null) {
+            builder.terrain = cached;
+            return CompletableFuture.supplyAsync(builder::timedComposite);
+        }
+
+        long stamp = builder.tiles.getStamp(tileKey);
+        return CompletableFuture.completedFuture(builder)
                 .thenCompose(ClaimImageBuilder::fetchChunk)
-                .thenCompose((builder) -> builder != null ? builder.sampleNeighborsSync() : CompletableFuture.completedFuture(null))
-                .thenApplyAsync((builder) -> builder != null ? builder.generateImageAsync() : null);
+                .thenCompose((b) -> b != null ? b.sampleNeighborsSync() : CompletableFuture.completedFuture(null))
+                .thenApplyAsync((b) -> b != null ? b.render(stamp) : null);
+    }
+
+    /**
+     * Samples the terrain and composites the overlay, timed as a full tile render.
+     * Chunk loading before it is not included.
+     */
+    private ClaimImageBuilder render(long stamp) {
+        long start = System.nanoTime();
+        sampleTerrain(stamp).composite();
+        RENDER_TIME.recordSince(start);
+        return this;
+    }
+
+    /**
+     * Composites the overlay onto cached terrain, timed on its own.
+     */
+    private ClaimImageBuilder timedComposite() {
+        long start = System.nanoTime();
+        composite();
+        COMPOSITE_TIME.recordSince(start);
+        return this;
     }
 
     /**
@@ -516,6 +571,17 @@ public class ClaimImageBuilder {
             return (this.r & 255) << 24 | (this.g & 255) << 16 | (this.b & 255) << 8 | this.a & 255;
         }
 
+        public int packRgb() {
+            return (this.r & 255) << 16 | (this.g & 255) << 8 | this.b & 255;
+        }
+
+        public void unpackRgb(int rgb) {
+            this.r = rgb >> 16 & 255;
+            this.g = rgb >> 8 & 255;
+            this.b = rgb & 255;
+            this.a = 255;
+        }
+
         public void multiply(float value) {
             this.r = Math.min(255, Math.max(0, (int) ((float) this.r * value)));
             this.g = Math.min(255, Math.max(0, (int) ((float) this.g * value)));
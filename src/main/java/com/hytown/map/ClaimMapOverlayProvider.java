@@ -1,6 +1,7 @@
 package com.hytown.map;
 
 import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.math.vector.Vector3d;
 import com.hypixel.hytale.protocol.Transform;
 import com.hypixel.hytale.protocol.packets.worldmap.MapMarker;
 import com.hypixel.hytale.server.core.asset.type.gameplay.GameplayConfig;
@@ -8,7 +9,8 @@ import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.WorldMapTracker;
 import com.hypixel.hytale.server.core.universe.world.worldmap.WorldMapManager;
-import com.hytown.HyTownAccess;
+import com.hypixel.hytale.server.core.util.PositionUtil;
+import com.hytown.data.ChunkOwnershipIndex;
 import com.hytown.data.ClaimStorage;
 import com.hytown.data.Town;
 import com.hytown.data.TownStorage;
@@ -18,9 +20,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Provides claim overlay visualization on the world map.
@@ -30,6 +32,12 @@ import java.util.concurrent.ConcurrentHashMap;
  * 1. Sends colored overlays for claimed chunks
  * 2. Adds markers at claim centers with owner names
  * 3. Uses unique colors per player for easy identification
+ *
+ * Markers are computed from the region-bucketed ownership index for the 16x16-chunk
+ * region the player is in, and kept per player until the player changes region or
+ * the world's claims or labels change. Every update re-offers the kept markers to
+ * the tracker, which only transmits markers that are new or moved and drops the ones
+ * no longer offered, so steady-state updates do no claim lookups at all.
  */
 public class ClaimMapOverlayProvider implements WorldMapManager.MarkerProvider {
 
@@ -37,15 +45,37 @@ public class ClaimMapOverlayProvider implements WorldMapManager.MarkerProvider {
     private final TownStorage townStorage;
     private final HytaleLogger logger;
 
-    // Track which chunks we've already sent overlays for per player
-    private final Map<UUID, Set<String>> sentOverlays = new ConcurrentHashMap<>();
+    // Markers last computed for each player, re-offered until their view or the claims change
+    private final Map<UUID, SentMarkers> sentMarkers = new ConcurrentHashMap<>();
+
+    // Bumped when marker labels change without a claim change (town renamed, members changed)
+    private final AtomicLong labelVersion = new AtomicLong();
 
     // View radius in chunks for sending overlays
     private static final int VIEW_RADIUS = 100;
+    private static final int REGION_SHIFT = ChunkOwnershipIndex.REGION_SHIFT;
+    private static final float MARKER_VIEW_RADIUS = 100.0f;
+    private static final String[] CORNER_NAMES = {"NW", "NE", "SW", "SE"};
 
     // Debug: only log once per player to avoid spam
     private final Map<UUID, Boolean> hasLoggedDebug = new ConcurrentHashMap<>();
 
+    /**
+     * A marker ready to offer to the tracker.
+     */
+    private record ClaimMarker(String id, String name, Vector3d position) {}
+
+    /**
+     * The markers computed for one player's view, and what they were computed from.
+     */
+    private record SentMarkers(String world, int regionX, int regionZ, long claimVersion, long labelVersion,
+                               List<ClaimMarker> markers) {
+        boolean matches(String world, int regionX, int regionZ, long claimVersion, long labelVersion) {
+            return this.regionX == regionX && this.regionZ == regionZ && this.claimVersion == claimVersion
+                    && this.labelVersion == labelVersion && this.world.equals(world);
+        }
+    }
+
     public ClaimMapOverlayProvider(ClaimStorage claimStorage, TownStorage townStorage, HytaleLogger logger) {
         this.claimStorage = claimStorage;
         this.townStorage = townStorage;
@@ -69,239 +99,182 @@ public class ClaimMapOverlayProvider implements WorldMapManager.MarkerProvider {
             UUID playerId = player.getUuid();
             String worldName = world.getName();
 
-            // Get player's chunk position
-            int playerChunkX = ChunkUtil.toChunkX(centerX);
-            int playerChunkZ = ChunkUtil.toChunkZ(centerZ);
-
-            // Calculate view bounds
-            int minChunkX = playerChunkX - VIEW_RADIUS;
-            int maxChunkX = playerChunkX + VIEW_RADIUS;
-            int minChunkZ = playerChunkZ - VIEW_RADIUS;
-            int maxChunkZ = playerChunkZ + VIEW_RADIUS;
-
-            // Get all personal claims in the visible area
-            Map<String, UUID> worldClaims = new HashMap<>(claimStorage.getClaimedChunksInWorld(worldName));
-
-            // Also add town claims to the map
-            if (townStorage != null) {
-                for (Town town : townStorage.getAllTowns()) {
-                    for (String claimKey : town.getClaimKeys()) {
-                        // claimKey format is "worldName:chunkX,chunkZ"
-                        if (claimKey.startsWith(worldName + ":")) {
-                            // Extract chunk coordinates from the key
-                            String chunkPart = claimKey.substring(worldName.length() + 1);
-                            // Add town owner UUID for this claim
-                            worldClaims.put(chunkPart, town.getMayorId());
-                        }
-                    }
+            // Markers only need recomputing when the player's region or the claims change
+            int regionX = ChunkUtil.toChunkX(centerX) >> REGION_SHIFT;
+            int regionZ = ChunkUtil.toChunkZ(centerZ) >> REGION_SHIFT;
+            long claimVersion = claimStorage.getOwnershipIndex().getVersion(worldName);
+            long labels = labelVersion.get();
+
+            SentMarkers sent = sentMarkers.get(playerId);
+            if (sent == null || !sent.matches(worldName, regionX, regionZ, claimVersion, labels)) {
+                List<ClaimMarker> markers = buildMarkers(playerId, worldName, regionX, regionZ, centerY);
+                sent = new SentMarkers(worldName, regionX, regionZ, claimVersion, labels, markers);
+                sentMarkers.put(playerId, sent);
+
+                // Debug logging (once per player)
+                if (logger != null && !hasLoggedDebug.getOrDefault(playerId, false)) {
+                    hasLoggedDebug.put(playerId, true);
+                    logger.atWarning().log("[ClaimMap] DEBUG: centerX=%d, centerY=%d, centerZ=%d, region=(%d,%d), markers=%d",
+                        centerX, centerY, centerZ, regionX, regionZ, markers.size());
                 }
             }
 
-            // Debug logging (once per player)
-            if (logger != null && !hasLoggedDebug.getOrDefault(playerId, false)) {
-                hasLoggedDebug.put(playerId, true);
-                logger.atWarning().log("[ClaimMap] DEBUG: centerX=%d, centerY=%d, centerZ=%d, playerChunk=(%d,%d), worldClaims=%d",
-                    centerX, centerY, centerZ, playerChunkX, playerChunkZ, worldClaims.size());
+            // Use the factory-based trySendMarker like built-in providers do
+            // Parameters: centerX, centerY, centerZ, position, viewRadius, markerId, markerName, data, factory
+            for (ClaimMarker marker : sent.markers()) {
+                tracker.trySendMarker(
+                    centerX, centerY, centerZ,
+                    marker.position(),
+                    MARKER_VIEW_RADIUS,
+                    marker.id(),
+                    marker.name(),
+                    marker.position(),
+                    ClaimMapOverlayProvider::createMarker
+                );
             }
 
-            if (worldClaims.isEmpty()) {
-                return;
+        } catch (Exception e) {
+            if (logger != null) {
+                logger.atWarning().withCause(e).log("Error in ClaimMapOverlayProvider.update");
             }
+        }
+    }
 
-            // Collect claims that need markers
-            Map<UUID, List<int[]>> ownerClaimChunks = new HashMap<>();
-            int foundClaims = 0;
-
-            for (int cx = minChunkX; cx <= maxChunkX; cx++) {
-                for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
-                    String chunkKey = ChunkUtil.chunkKey(cx, cz);
-                    UUID ownerId = worldClaims.get(chunkKey);
-
+    /**
+     * Builds the center and corner markers for the claims around a region.
+     * Only index regions that hold claims are visited.
+     */
+    private List<ClaimMarker> buildMarkers(UUID playerId, String worldName, int regionX, int regionZ, int markerY) {
+        // View bounds cover VIEW_RADIUS chunks around every chunk of the player's region
+        int minChunkX = (regionX << REGION_SHIFT) - VIEW_RADIUS;
+        int minChunkZ = (regionZ << REGION_SHIFT) - VIEW_RADIUS;
+        int maxChunkX = (regionX << REGION_SHIFT) + (1 << REGION_SHIFT) - 1 + VIEW_RADIUS;
+        int maxChunkZ = (regionZ << REGION_SHIFT) + (1 << REGION_SHIFT) - 1 + VIEW_RADIUS;
+
+        // Collect claims in view per owner (town claims are grouped under the mayor, as before)
+        Map<UUID, List<OwnedChunk>> ownerClaimChunks = new HashMap<>();
+        claimStorage.getOwnershipIndex().forEachInArea(worldName, minChunkX, minChunkZ, maxChunkX, maxChunkZ,
+                (cx, cz, owner) -> {
+                    Town town = townStorage != null ? owner.town() : null;
+                    UUID ownerId = town != null ? town.getMayorId() : owner.personalOwner();
                     if (ownerId != null) {
-                        foundClaims++;
-                        // Track for marker placement
                         ownerClaimChunks.computeIfAbsent(ownerId, k -> new ArrayList<>())
-                                       .add(new int[]{cx, cz});
+                                .add(new OwnedChunk(cx, cz, town));
                     }
-                }
-            }
-
-            if (logger != null && foundClaims > 0 && !hasLoggedDebug.getOrDefault(playerId, false)) {
-                logger.atWarning().log("[ClaimMap] DEBUG: Found %d claims in view for %d owners", foundClaims, ownerClaimChunks.size());
-            }
+                });
 
-            // Create center markers for each owner's claims in view
-            for (Map.Entry<UUID, List<int[]>> entry : ownerClaimChunks.entrySet()) {
-                UUID ownerId = entry.getKey();
-                List<int[]> chunks = entry.getValue();
+        List<ClaimMarker> markers = new ArrayList<>();
+        if (ownerClaimChunks.isEmpty()) {
+            return markers;
+        }
 
-                // Find center of this owner's visible claims
-                int sumX = 0, sumZ = 0;
-                for (int[] chunk : chunks) {
-                    sumX += chunk[0];
-                    sumZ += chunk[1];
-                }
-                int centerChunkX = sumX / chunks.size();
-                int centerChunkZ = sumZ / chunks.size();
-
-                // Get the display name using HyTownAccess (handles both town and personal claims)
-                // Use one of the chunks to look up the proper name
-                int[] firstChunk = chunks.get(0);
-                String ownerName = HyTownAccess.getOwnerName(worldName, firstChunk[0], firstChunk[1]);
-                if (ownerName == null) {
-                    ownerName = claimStorage.getPlayerName(ownerId);
-                }
+        Map<UUID, String> playerNames = new HashMap<>();
+        for (Map.Entry<UUID, List<OwnedChunk>> entry : ownerClaimChunks.entrySet()) {
+            UUID ownerId = entry.getKey();
+            List<OwnedChunk> chunks = entry.getValue();
 
-                // Convert to block coordinates (center of chunk)
-                double markerX = (centerChunkX * 16) + 8;
-                double markerZ = (centerChunkZ * 16) + 8;
-
-                // Create marker ID unique to this owner in this area
-                String markerId = "claim_" + ownerId.toString().substring(0, 8) + "_" + centerChunkX + "_" + centerChunkZ;
-
-                // Determine display name - check if it's a town or player's own claim
-                String displayName;
-                // Check if this is a town claim (ownerName won't contain "'s" for towns)
-                Town town = townStorage != null ? townStorage.getTownByClaimKey(worldName + ":" + firstChunk[0] + "," + firstChunk[1]) : null;
-                if (town != null) {
-                    // It's a town claim
-                    if (town.isMember(playerId)) {
-                        displayName = "Your Town: " + ownerName;
-                    } else {
-                        displayName = "Town: " + ownerName;
-                    }
-                } else if (ownerId.equals(playerId)) {
-                    displayName = "Your Claim";
+            // Find center of this owner's visible claims
+            int sumX = 0, sumZ = 0;
+            for (OwnedChunk chunk : chunks) {
+                sumX += chunk.chunkX();
+                sumZ += chunk.chunkZ();
+            }
+            int centerChunkX = sumX / chunks.size();
+            int centerChunkZ = sumZ / chunks.size();
+
+            // Determine display name from one of the chunks - town claims show the town
+            OwnedChunk firstChunk = chunks.get(0);
+            String displayName;
+            if (firstChunk.town() != null) {
+                if (firstChunk.town().isMember(playerId)) {
+                    displayName = "Your Town: " + firstChunk.town().getName();
                 } else {
-                    displayName = ownerName + "'s Claim";
+                    displayName = "Town: " + firstChunk.town().getName();
                 }
-
-                // Use the factory-based trySendMarker like built-in providers do
-                // Parameters: centerX, centerY, centerZ, position, viewRadius, markerId, markerName, data, factory
-                com.hypixel.hytale.math.vector.Vector3d markerPos = new com.hypixel.hytale.math.vector.Vector3d(markerX, centerY, markerZ);
-
-                // viewRadius controls how far the marker is visible - use a large value
-                float viewRadius = 100.0f;
-
-                final String finalDisplayName = displayName;
-                tracker.trySendMarker(
-                    centerX, centerY, centerZ,
-                    markerPos,
-                    viewRadius,
-                    markerId,
-                    finalDisplayName,
-                    markerPos,
-                    (id, name, pos) -> {
-                        // Create the Transform using the same pattern as SpawnMarkerProvider
-                        com.hypixel.hytale.math.vector.Transform mathTransform =
-                            new com.hypixel.hytale.math.vector.Transform(pos);
-                        Transform protoTransform = com.hypixel.hytale.server.core.util.PositionUtil.toTransformPacket(mathTransform);
-
-                        // Use "Spawn.png" as a known working marker icon, null for context menu
-                        return new MapMarker(id, name, "Spawn.png", protoTransform, null);
-                    }
-                );
+            } else if (ownerId.equals(playerId)) {
+                displayName = "Your Claim";
+            } else {
+                displayName = playerName(ownerId, playerNames) + "'s Claim";
             }
 
-            // Send corner markers for each claimed chunk to outline the boundaries
-            for (Map.Entry<UUID, List<int[]>> entry : ownerClaimChunks.entrySet()) {
-                UUID ownerId = entry.getKey();
-                List<int[]> chunks = entry.getValue();
+            // Create marker ID unique to this owner in this area, at the center of the chunk
+            String markerId = "claim_" + ownerId.toString().substring(0, 8) + "_" + centerChunkX + "_" + centerChunkZ;
+            markers.add(new ClaimMarker(markerId, displayName,
+                    new Vector3d((centerChunkX * 16) + 8, markerY, (centerChunkZ * 16) + 8)));
 
-                for (int[] chunk : chunks) {
-                    int cx = chunk[0];
-                    int cz = chunk[1];
-
-                    // Get the display name using HyTownAccess (handles both town and personal claims)
-                    String ownerName = HyTownAccess.getOwnerName(worldName, cx, cz);
-                    if (ownerName == null) {
-                        ownerName = claimStorage.getPlayerName(ownerId);
-                    }
-
-                    // Determine corner display name based on claim type
-                    String cornerDisplayName;
-                    Town town = townStorage != null ? townStorage.getTownByClaimKey(worldName + ":" + cx + "," + cz) : null;
-                    if (town != null) {
-                        cornerDisplayName = "Town: " + ownerName;
-                    } else if (ownerId.equals(playerId)) {
-                        cornerDisplayName = "Your Claim";
-                    } else {
-                        cornerDisplayName = ownerName + "'s Claim";
-                    }
-
-                    // Create markers at all 4 corners of this chunk
-                    // Chunk is 16 blocks, so corners are at (cx*16, cz*16) to (cx*16+15, cz*16+15)
-                    int blockX = cx * 16;
-                    int blockZ = cz * 16;
-
-                    // Send corner markers
-                    String[] cornerNames = {"NW", "NE", "SW", "SE"};
-                    int[][] corners = {
-                        {blockX, blockZ},           // NW corner
-                        {blockX + 15, blockZ},      // NE corner
-                        {blockX, blockZ + 15},      // SW corner
-                        {blockX + 15, blockZ + 15}  // SE corner
-                    };
-
-                    for (int i = 0; i < 4; i++) {
-                        String cornerMarkerId = "claim_corner_" + cx + "_" + cz + "_" + cornerNames[i];
-
-                        com.hypixel.hytale.math.vector.Vector3d cornerPos =
-                            new com.hypixel.hytale.math.vector.Vector3d(corners[i][0], centerY, corners[i][1]);
-
-                        float cornerViewRadius = 100.0f;
-
-                        tracker.trySendMarker(
-                            centerX, centerY, centerZ,
-                            cornerPos,
-                            cornerViewRadius,
-                            cornerMarkerId,
-                            cornerDisplayName,
-                            cornerPos,
-                            (id, name, pos) -> {
-                                com.hypixel.hytale.math.vector.Transform mathTransform =
-                                    new com.hypixel.hytale.math.vector.Transform(pos);
-                                Transform protoTransform = com.hypixel.hytale.server.core.util.PositionUtil.toTransformPacket(mathTransform);
-                                return new MapMarker(id, name, "Spawn.png", protoTransform, null);
-                            }
-                        );
-                    }
+            // Corner markers for each claimed chunk to outline the boundaries
+            for (OwnedChunk chunk : chunks) {
+                String cornerDisplayName;
+                if (chunk.town() != null) {
+                    cornerDisplayName = "Town: " + chunk.town().getName();
+                } else if (ownerId.equals(playerId)) {
+                    cornerDisplayName = "Your Claim";
+                } else {
+                    cornerDisplayName = playerName(ownerId, playerNames) + "'s Claim";
                 }
-            }
 
-        } catch (Exception e) {
-            if (logger != null) {
-                logger.atWarning().withCause(e).log("Error in ClaimMapOverlayProvider.update");
+                // Chunk is 16 blocks, so corners are at (cx*16, cz*16) to (cx*16+15, cz*16+15)
+                int blockX = chunk.chunkX() * 16;
+                int blockZ = chunk.chunkZ() * 16;
+                for (int i = 0; i < 4; i++) {
+                    int cornerX = blockX + ((i & 1) != 0 ? 15 : 0);
+                    int cornerZ = blockZ + ((i & 2) != 0 ? 15 : 0);
+                    String cornerMarkerId = "claim_corner_" + chunk.chunkX() + "_" + chunk.chunkZ() + "_" + CORNER_NAMES[i];
+                    markers.add(new ClaimMarker(cornerMarkerId, cornerDisplayName, new Vector3d(cornerX, markerY, cornerZ)));
+                }
             }
         }
+        return markers;
     }
 
+    /**
+     * Marker factory passed to the tracker; only called for markers it actually sends.
+     */
+    private static MapMarker createMarker(String id, String name, Vector3d pos) {
+        // Create the Transform using the same pattern as SpawnMarkerProvider
+        Transform protoTransform = PositionUtil.toTransformPacket(new com.hypixel.hytale.math.vector.Transform(pos));
+        // Use "Spawn.png" as a known working marker icon, null for context menu
+        return new MapMarker(id, name, "Spawn.png", protoTransform, null);
+    }
+
+    private String playerName(UUID playerId, Map<UUID, String> cache) {
+        return cache.computeIfAbsent(playerId, claimStorage::getPlayerName);
+    }
+
+    /**
+     * A claimed chunk in view, with its town if it is a town claim.
+     */
+    private record OwnedChunk(int chunkX, int chunkZ, Town town) {}
+
     /**
      * Clears cached overlay data for a player (call on disconnect).
      */
     public void clearPlayerCache(UUID playerId) {
-        sentOverlays.remove(playerId);
+        sentMarkers.remove(playerId);
+        hasLoggedDebug.remove(playerId);
     }
 
     /**
      * Clears all cached overlay data.
      */
     public void clearAllCaches() {
-        sentOverlays.clear();
+        sentMarkers.clear();
+    }
+
+    /**
+     * Forces markers to be rebuilt after a change to their labels (town renamed,
+     * membership changed). Claim changes are picked up from the index version.
+     */
+    public void invalidateLabels() {
+        labelVersion.incrementAndGet();
     }
 
     /**
      * Invalidates cached overlays for specific chunks (call when claims change).
      */
     public void invalidateChunks(String world, int... chunkCoords) {
-        for (int i = 0; i < chunkCoords.length; i += 2) {
-            String chunkKey = ChunkUtil.chunkKey(chunkCoords[i], chunkCoords[i + 1]);
-            String overlayKey = world + ":" + chunkKey;
-
-            // Remove from all player caches so it gets resent
-            for (Set<String> cache : sentOverlays.values()) {
-                cache.remove(overlayKey);
-            }
+        if (chunkCoords.length > 0) {
+            invalidateWorld(world);
         }
     }
 
@@ -309,9 +282,6 @@ public class ClaimMapOverlayProvider implements WorldMapManager.MarkerProvider {
      * Invalidates all cached overlays for a world.
      */
     public void invalidateWorld(String world) {
-        String prefix = world + ":";
-        for (Set<String> cache : sentOverlays.values()) {
-            cache.removeIf(key -> key.startsWith(prefix));
-        }
+        sentMarkers.values().removeIf(sent -> sent.world().equals(world));
     }
 }
@@ -0,0 +1,192 @@
+package com.hytown.map;
+
+import com.hytown.util.ChunkUtil;
+import it.unimi.dsi.fastutil.longs.Long2LongLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Two-layer cache for claim map tiles.
+ *
+ * The terrain layer holds the sampled and shaded terrain of a chunk, valid while the
+ * chunk's modification stamp is unchanged. A stamp is handed out when sampling starts
+ * and kept only as long as the chunk's tile (stamps are never reused, so a dropped one
+ * just makes an in-flight sample miss the cache). Block break/place drops it,
+ * and terrain also expires after {@link #TERRAIN_TTL_MS} to pick up changes made
+ * without a player (fluids, growth). The overlay layer is the final image composited
+ * from a terrain tile and the ownership of the chunk and its 4 neighbours; a claim
+ * change only recomposites the overlay and never resamples terrain.
+ */
+public final class MapTileCache {
+
+    private static final int MAX_TILES_PER_WORLD = 2048;   // least recently used tiles are evicted
+    private static final int MAX_STAMPS_PER_WORLD = 2 * MAX_TILES_PER_WORLD; // tiles plus samples in flight
+    private static final long TERRAIN_TTL_MS = 10 * 60 * 1000;
+
+    private static final Map<String, WorldTiles> WORLDS = new ConcurrentHashMap<>();
+
+    private MapTileCache() {}
+
+    /**
+     * Gets the tile cache of a world.
+     */
+    public static WorldTiles forWorld(String worldName) {
+        return WORLDS.computeIfAbsent(worldName, k -> new WorldTiles());
+    }
+
+    /**
+     * Marks the terrain of the chunk containing a block as changed.
+     */
+    public static void markTerrainChanged(String worldName, int blockX, int blockZ) {
+        WorldTiles tiles = WORLDS.get(worldName);
+        if (tiles != null) {
+            tiles.markChanged(ChunkUtil.packChunk(ChunkUtil.toChunkX(blockX), ChunkUtil.toChunkZ(blockZ)));
+        }
+    }
+
+    /**
+     * Drops all tiles of a world (world removed).
+     */
+    public static void removeWorld(String worldName) {
+        WORLDS.remove(worldName);
+    }
+
+    /**
+     * Gets tile counts for debugging.
+     */
+    public static String getStats() {
+        int tiles = 0;
+        for (WorldTiles world : WORLDS.values()) {
+            tiles += world.size();
+        }
+        return "worlds=" + WORLDS.size() + ", terrainTiles=" + tiles;
+    }
+
+    /**
+     * Terrain tiles and modification stamps of one world, keyed by packed chunk coordinate.
+     */
+    public static final class WorldTiles {
+        private final Long2ObjectLinkedOpenHashMap<TerrainTile> tiles = new Long2ObjectLinkedOpenHashMap<>();
+        private final Long2LongLinkedOpenHashMap stamps = new Long2LongLinkedOpenHashMap();
+        private long lastStamp;
+
+        /**
+         * Gets the modification stamp to record with terrain sampled from now on.
+         */
+        public synchronized long getStamp(long chunkKey) {
+            long stamp = stamps.get(chunkKey);
+            if (stamp == 0) {
+                stamp = ++lastStamp;
+                stamps.putAndMoveToLast(chunkKey, stamp);
+                while (stamps.size() > MAX_STAMPS_PER_WORLD) {
+                    stamps.removeFirstLong();
+                }
+            }
+            return stamp;
+        }
+
+        /**
+         * Gets a valid terrain tile of the given image size, or null.
+         */
+        public synchronized TerrainTile getTerrain(long chunkKey, int width, int height) {
+            TerrainTile tile = tiles.getAndMoveToLast(chunkKey);
+            if (tile == null) return null;
+            if (tile.stamp != stamps.getAndMoveToLast(chunkKey) || tile.width != width || tile.height != height
+                    || System.currentTimeMillis() - tile.createdAt > TERRAIN_TTL_MS) {
+                tiles.remove(chunkKey);
+                stamps.remove(chunkKey);
+                return null;
+            }
+            return tile;
+        }
+
+        /**
+         * Stores a terrain tile unless the chunk changed while it was being sampled.
+         */
+        public synchronized void putTerrain(long chunkKey, TerrainTile tile) {
+            if (tile.stamp != stamps.get(chunkKey)) return;
+            tiles.putAndMoveToLast(chunkKey, tile);
+            while (tiles.size() > MAX_TILES_PER_WORLD) {
+                stamps.remove(tiles.firstLongKey());
+                tiles.removeFirst();
+            }
+        }
+
+        synchronized void markChanged(long chunkKey) {
+            stamps.remove(chunkKey);
+            tiles.remove(chunkKey);
+        }
+
+        synchronized int size() {
+            return tiles.size();
+        }
+    }
+
+    /**
+     * Sampled terrain of one chunk. Per pixel it holds the shaded terrain color and the
+     * shade factor (so a claim tint can be blended as if applied before shading); per
+     * sample it holds the heights and the fluid tint.
+     */
+    public static final class TerrainTile {
+        public static final int NO_FLUID = -1;
+
+        final long stamp;
+        final long createdAt = System.currentTimeMillis();
+        final int width;
+        final int height;
+        final int sampleWidth;
+        final int sampleHeight;
+        final int[] shadedColors;   // per pixel, packed 0xRRGGBB
+        final float[] shades;       // per pixel
+        final short[] heights;      // per sample, reused as neighbour edges of adjacent tiles
+        final int[] fluidTints;     // per sample, packed 0xRRGGBB or NO_FLUID
+        final float[] fluidDepthMultipliers; // per sample
+        volatile Composite composite;
+
+        TerrainTile(long stamp, int width, int height, int sampleWidth, int sampleHeight) {
+            this.stamp = stamp;
+            this.width = width;
+            this.height = height;
+            this.sampleWidth = sampleWidth;
+            this.sampleHeight = sampleHeight;
+            this.shadedColors = new int[width * height];
+            this.shades = new float[width * height];
+            this.heights = new short[sampleWidth * sampleHeight];
+            this.fluidTints = new int[sampleWidth * sampleHeight];
+            this.fluidDepthMultipliers = new float[sampleWidth * sampleHeight];
+        }
+    }
+
+    /**
+     * Final image pixels for a terrain tile under a given claim overlay.
+     */
+    record Composite(OverlayKey key, int[] pixels) {}
+
+    /**
+     * Everything the claim overlay of a tile depends on: the owner of the chunk and its
+     * 4 neighbours (for borders) and the names drawn on it.
+     */
+    record OverlayKey(UUID owner, UUID south, UUID north, UUID east, UUID west,
+                      String ownerName, List<String> trustedNames) {
+        boolean borderWest() {
+            return !Objects.equals(owner, west);
+        }
+
+        boolean borderEast() {
+            return !Objects.equals(owner, east);
+        }
+
+        boolean borderNorth() {
+            return !Objects.equals(owner, north);
+        }
+
+        boolean borderSouth() {
+            return !Objects.equals(owner, south);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.hytown.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with fixed log-linear buckets.
+ *
+ * Each power of two is split into {@link #SUB_BUCKETS} linear buckets, so any
+ * recorded value is reported within 12.5% of its true value, from 1 ns up to
+ * about 9 hours. Recording is a bucket index computation and three atomic adds
+ * on the calling thread's stripe; it never allocates or locks, so histograms can
+ * stay enabled on hot paths.
+ *
+ * Histograms are created and named by {@link PerfMetrics}.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 44;   // 2^45 ns, about 9.7 hours
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) << SUB_BITS;
+
+    // Per stripe: BUCKETS counts, then sum and max, padded to keep stripes off shared cache lines
+    private static final int SUM = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+    private static final int STRIPE_LENGTH = BUCKETS + 2 + 14;
+
+    private final String name;
+    private final int stripeMask;
+    private final AtomicLongArray cells;
+
+    LatencyHistogram(String name, int stripes) {
+        this.name = name;
+        this.stripeMask = stripes - 1;
+        this.cells = new AtomicLongArray(stripes * STRIPE_LENGTH);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos} (from {@link System#nanoTime()}).
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records one value in nanoseconds. Negative values count as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        int base = (int) (Thread.currentThread().threadId() & stripeMask) * STRIPE_LENGTH;
+        cells.getAndIncrement(base + bucketOf(value));
+        cells.getAndAdd(base + SUM, value);
+        int maxIndex = base + MAX;
+        long max = cells.get(maxIndex);
+        while (value > max && !cells.compareAndSet(maxIndex, max, value)) {
+            max = cells.get(maxIndex);
+        }
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BITS + 1) << SUB_BITS) + sub;
+    }
+
+    /**
+     * Gets the highest value that lands in a bucket.
+     */
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket >> SUB_BITS) + SUB_BITS - 1;
+        int sub = bucket & (SUB_BUCKETS - 1);
+        long width = 1L << (exponent - SUB_BITS);
+        return ((long) (SUB_BUCKETS + sub) << (exponent - SUB_BITS)) + width - 1;
+    }
+
+    /**
+     * Sums all stripes into an immutable snapshot. Concurrent records may or may
+     * not be included; nothing is reset.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int base = stripe * STRIPE_LENGTH;
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = cells.get(base + i);
+                counts[i] += c;
+                count += c;
+            }
+            sum += cells.get(base + SUM);
+            max = Math.max(max, cells.get(base + MAX));
+        }
+        return new Snapshot(name, counts, count, sum, max);
+    }
+
+    /**
+     * Clears all recorded values. Records racing with the reset may survive it.
+     */
+    public void reset() {
+        for (int i = 0; i < cells.length(); i++) {
+            cells.set(i, 0);
+        }
+    }
+
+    /**
+     * Point-in-time view of a histogram. All values are in nanoseconds.
+     */
+    public static final class Snapshot {
+        private final String name;
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(String name, long[] counts, long count, long sum, long max) {
+            this.name = name;
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count > 0 ? (double) sum / count : 0;
+        }
+
+        /**
+         * Gets the value at a quantile (0-1), as the upper bound of its bucket,
+         * capped at the recorded maximum.
+         */
+        public long getQuantile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.hytown.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide registry of HyTown performance metrics, shown by /townadmin perf.
+ *
+ * Call sites look their histogram or counter up once into a static field and
+ * record into it directly:
+ * <pre>{@code
+ * private static final LatencyHistogram SAVE_TIME = PerfMetrics.histogram("town.save");
+ *
+ * long start = System.nanoTime();
+ * ...
+ * SAVE_TIME.recordSince(start);
+ * }</pre>
+ * Recording is lock-free and allocation-free (striped {@link LatencyHistogram}
+ * cells and {@link LongAdder} counters), so metrics are always on.
+ */
+public final class PerfMetrics {
+
+    private static final int STRIPES = Math.min(8, Integer.highestOneBit(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1));
+
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private static volatile long resetMillis = System.currentTimeMillis();
+
+    private PerfMetrics() {
+    }
+
+    /**
+     * Gets or creates the latency histogram with a name.
+     */
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new LatencyHistogram(n, STRIPES));
+    }
+
+    /**
+     * Gets or creates the counter with a name.
+     */
+    public static LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    /**
+     * Snapshots every histogram that has recorded anything, sorted by name.
+     */
+    public static List<LatencyHistogram.Snapshot> snapshotHistograms() {
+        List<LatencyHistogram.Snapshot> snapshots = new ArrayList<>();
+        for (LatencyHistogram histogram : histograms.values()) {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            if (snapshot.getCount() > 0) {
+                snapshots.add(snapshot);
+            }
+        }
+        snapshots.sort(Comparator.comparing(LatencyHistogram.Snapshot::getName));
+        return snapshots;
+    }
+
+    /**
+     * Gets the current value of every non-zero counter, sorted by name.
+     */
+    public static List<Map.Entry<String, Long>> counterValues() {
+        List<Map.Entry<String, Long>> values = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            long value = entry.getValue().sum();
+            if (value != 0) {
+                values.add(Map.entry(entry.getKey(), value));
+            }
+        }
+        values.sort(Map.Entry.comparingByKey());
+        return values;
+    }
+
+    /**
+     * Seconds since startup or the last {@link #reset()}, for per-second rates.
+     */
+    public static double getWindowSeconds() {
+        return Math.max(0.001, (System.currentTimeMillis() - resetMillis) / 1000.0);
+    }
+
+    /**
+     * Clears all histograms and counters and starts a new rate window.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        for (LongAdder counter : counters.values()) {
+            counter.reset();
+        }
+        resetMillis = System.currentTimeMillis();
+    }
+}
@@ -1,5 +1,6 @@
 package com.hytown.selection;
 
+import com.hytown.util.ChunkUtil;
 import com.hypixel.hytale.math.vector.Vector3i;
 
 /**
@@ -121,17 +122,25 @@ public class ClaimModeState {
         return Math.max(pos1.getZ(), pos2.getZ());
     }
 
+    /**
+     * Gets the chunk rectangle of this selection as {minChunkX, minChunkZ, maxChunkX, maxChunkZ}.
+     */
+    public int[] getChunkBounds() {
+        if (!hasCompleteSelection()) return null;
+        return new int[]{
+            ChunkUtil.toChunkX(getMinX()),
+            ChunkUtil.toChunkZ(getMinZ()),
+            ChunkUtil.toChunkX(getMaxX()),
+            ChunkUtil.toChunkZ(getMaxZ())
+        };
+    }
+
     /**
      * Gets the number of chunks in this selection.
      */
     public int getChunkCount() {
-        if (!hasCompleteSelection()) return 0;
-
-        int minChunkX = (int) Math.floor(getMinX() / 16.0);
-        int maxChunkX = (int) Math.floor(getMaxX() / 16.0);
-        int minChunkZ = (int) Math.floor(getMinZ() / 16.0);
-        int maxChunkZ = (int) Math.floor(getMaxZ() / 16.0);
-
-        return (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1);
+        int[] bounds = getChunkBounds();
+        if (bounds == null) return 0;
+        return (bounds[2] - bounds[0] + 1) * (bounds[3] - bounds[1] + 1);
     }
 }
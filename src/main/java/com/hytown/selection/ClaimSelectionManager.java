@@ -1,5 +1,6 @@
 package com.hytown.selection;
 
+import com.hytown.util.ChunkUtil;
 import com.hypixel.hytale.math.vector.Vector3i;
 import com.hypixel.hytale.protocol.packets.buildertools.BuilderToolSelectionUpdate;
 import com.hypixel.hytale.server.core.entity.entities.Player;
@@ -138,24 +139,31 @@ public class ClaimSelectionManager {
         }
     }
 
+    /**
+     * Gets the chunk rectangle covered by a player's current selection.
+     * Returns {minChunkX, minChunkZ, maxChunkX, maxChunkZ}, or null if the selection is incomplete.
+     */
+    public int[] getChunkBounds(UUID playerId) {
+        ClaimModeState state = claimModeStates.get(playerId);
+        if (state == null || !state.hasCompleteSelection()) {
+            return null;
+        }
+        return state.getChunkBounds();
+    }
+
     /**
      * Gets all chunk coordinates within a player's current selection.
      * Returns list of int[2] arrays: {chunkX, chunkZ}
      */
     public List<int[]> getChunksInSelection(UUID playerId) {
         List<int[]> chunks = new ArrayList<>();
-        ClaimModeState state = claimModeStates.get(playerId);
-        if (state == null || !state.hasCompleteSelection()) {
+        int[] bounds = getChunkBounds(playerId);
+        if (bounds == null) {
             return chunks;
         }
 
-        int minChunkX = (int) Math.floor(state.getMinX() / 16.0);
-        int maxChunkX = (int) Math.floor(state.getMaxX() / 16.0);
-        int minChunkZ = (int) Math.floor(state.getMinZ() / 16.0);
-        int maxChunkZ = (int) Math.floor(state.getMaxZ() / 16.0);
-
-        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
-            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+        for (int cx = bounds[0]; cx <= bounds[2]; cx++) {
+            for (int cz = bounds[1]; cz <= bounds[3]; cz++) {
                 chunks.add(new int[]{cx, cz});
             }
         }
@@ -169,10 +177,10 @@ public class ClaimSelectionManager {
     public void showChunkBounds(Player player, PlayerRef playerRef, int chunkX, int chunkZ) {
         if (playerRef == null) return;
 
-        int minX = chunkX * 16;
-        int maxX = chunkX * 16 + 15;
-        int minZ = chunkZ * 16;
-        int maxZ = chunkZ * 16 + 15;
+        int minX = ChunkUtil.getChunkMinX(chunkX);
+        int maxX = ChunkUtil.getChunkMaxX(chunkX);
+        int minZ = ChunkUtil.getChunkMinZ(chunkZ);
+        int maxZ = ChunkUtil.getChunkMaxZ(chunkZ);
 
         sendSelectionPacket(playerRef, minX, MIN_Y, minZ, maxX, MAX_Y, maxZ);
     }
@@ -206,10 +214,10 @@ public class ClaimSelectionManager {
             return;
         }
 
-        int minX = minChunkX * 16;
-        int maxX = maxChunkX * 16 + 15;
-        int minZ = minChunkZ * 16;
-        int maxZ = maxChunkZ * 16 + 15;
+        int minX = ChunkUtil.getChunkMinX(minChunkX);
+        int maxX = ChunkUtil.getChunkMaxX(maxChunkX);
+        int minZ = ChunkUtil.getChunkMinZ(minChunkZ);
+        int maxZ = ChunkUtil.getChunkMaxZ(maxChunkZ);
 
         sendSelectionPacket(playerRef, minX, MIN_Y, minZ, maxX, MAX_Y, maxZ);
     }
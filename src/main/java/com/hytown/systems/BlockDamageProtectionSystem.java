@@ -14,10 +14,14 @@ import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.event.events.ecs.DamageBlockEvent;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.hytown.data.ChunkOwnershipIndex;
 import com.hytown.data.Town;
 import com.hytown.data.TownStorage;
 import com.hytown.data.TrustLevel;
 import com.hytown.managers.ClaimManager;
+import com.hytown.managers.ProtectionCache;
+import com.hytown.metrics.LatencyHistogram;
+import com.hytown.metrics.PerfMetrics;
 import com.hytown.util.ChunkUtil;
 import com.hytown.util.Messages;
 import com.hypixel.hytale.server.core.Message;
@@ -37,6 +41,8 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class BlockDamageProtectionSystem extends EntityEventSystem<EntityStore, DamageBlockEvent> {
 
+    private static final LatencyHistogram HANDLE_TIME = PerfMetrics.histogram("protection.damage");
+
     private final ClaimManager claimManager;
     private final TownStorage townStorage;
     private final HytaleLogger logger;
@@ -79,6 +85,15 @@ public class BlockDamageProtectionSystem extends EntityEventSystem<EntityStore,
     @Override
     public void handle(int entityIndex, @Nonnull ArchetypeChunk<EntityStore> chunk, @Nonnull Store<EntityStore> store,
                        @Nonnull CommandBuffer<EntityStore> commandBuffer, @Nonnull DamageBlockEvent event) {
+        long start = System.nanoTime();
+        try {
+            protect(entityIndex, chunk, store, event);
+        } finally {
+            HANDLE_TIME.recordSince(start);
+        }
+    }
+
+    private void protect(int entityIndex, ArchetypeChunk<EntityStore> chunk, Store<EntityStore> store, DamageBlockEvent event) {
         Vector3i targetBlock = event.getTargetBlock();
         if (targetBlock == null) return;
 
@@ -94,56 +109,76 @@ public class BlockDamageProtectionSystem extends EntityEventSystem<EntityStore,
         UUID playerId = playerRef.getUuid();
         String worldName = player.getWorld().getName();
 
+        // Check chunk coordinates for claim lookups
+        int chunkX = ChunkUtil.toChunkX(targetBlock.getX());
+        int chunkZ = ChunkUtil.toChunkZ(targetBlock.getZ());
+
+        // Decision already resolved for this chunk - one array read
+        ProtectionCache cache = claimManager.getProtectionCache();
+        byte cached = cache.get(playerId, worldName, chunkX, chunkZ, ProtectionCache.Action.DAMAGE);
+        if (cached == ProtectionCache.ALLOW) {
+            return;
+        }
+        if (cached == ProtectionCache.DENY) {
+            event.setCancelled(true);
+            if (canSendMessage(playerId)) {
+                player.sendMessage(denyMessage(cache.getTown(playerId, worldName, chunkX, chunkZ)));
+            }
+            return;
+        }
+        long generation = cache.getGeneration();
+
         // Admin bypass - can damage blocks anywhere
         if (player.hasPermission("hytown.admin")) {
+            cache.put(generation, playerId, worldName, chunkX, chunkZ, null, ProtectionCache.Action.DAMAGE, true);
             return;
         }
 
-        // Check chunk coordinates for claim lookups
-        int chunkX = ChunkUtil.toChunkX(targetBlock.getX());
-        int chunkZ = ChunkUtil.toChunkZ(targetBlock.getZ());
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
+        // Resolve town and personal ownership in one index probe
+        ChunkOwnershipIndex.ChunkOwner chunkOwner = claimManager.getChunkOwner(worldName, chunkX, chunkZ);
 
         // Check if it's a town claim FIRST
-        Town town = townStorage != null ? townStorage.getTownByClaimKey(claimKey) : null;
+        Town town = chunkOwner != null ? chunkOwner.town() : null;
 
         if (town != null) {
-            // Town bypass permission
-            if (player.hasPermission("hytown.town.builder") || player.hasPermission("hytown.town.break.bypass")) {
-                return;
-            }
-            // Town claim - check if player is a member
-            if (town.isMember(playerId)) {
-                return; // Town members can damage blocks
-            }
-            // Check town settings for outsiders
-            if (town.getSettings().canOutsiderDestroy()) {
+            // Town bypass permission, membership or outsider setting
+            boolean allowed = player.hasPermission("hytown.town.builder") || player.hasPermission("hytown.town.break.bypass")
+                    || town.isMember(playerId)
+                    || town.getSettings().canOutsiderDestroy();
+            cache.put(generation, playerId, worldName, chunkX, chunkZ, chunkOwner, ProtectionCache.Action.DAMAGE, allowed);
+            if (allowed) {
                 return;
             }
             // Not allowed
             event.setCancelled(true);
             if (canSendMessage(playerId)) {
-                player.sendMessage(Message.raw("You cannot damage blocks in " + town.getName()).color(RED));
+                player.sendMessage(denyMessage(town));
             }
             return;
         }
 
         // Check if this chunk is a personal claim
-        UUID claimOwner = claimManager.getOwnerAt(worldName, targetBlock.getX(), targetBlock.getZ());
+        UUID claimOwner = chunkOwner != null ? chunkOwner.personalOwner() : null;
 
         if (claimOwner != null) {
-            // Personal claim bypass permission
-            if (player.hasPermission("hytown.town.builder") || player.hasPermission("hytown.town.break.bypass")) {
-                return;
-            }
-            // Personal claim - check trust level
-            if (!claimManager.hasPermissionAt(playerId, worldName, targetBlock.getX(), targetBlock.getZ(), TrustLevel.DAMAGE)) {
+            // Personal claim bypass permission, then trust level
+            boolean allowed = player.hasPermission("hytown.town.builder") || player.hasPermission("hytown.town.break.bypass")
+                    || claimManager.hasPermission(playerId, claimOwner, TrustLevel.DAMAGE);
+            cache.put(generation, playerId, worldName, chunkX, chunkZ, chunkOwner, ProtectionCache.Action.DAMAGE, allowed);
+            if (!allowed) {
                 event.setCancelled(true);
                 if (canSendMessage(playerId)) {
-                    player.sendMessage(Messages.cannotDamageHere());
+                    player.sendMessage(denyMessage(null));
                 }
             }
         }
         // Unclaimed wilderness - allow damage
     }
+
+    /**
+     * Message for a denied action in a town claim, or in a personal claim if town is null.
+     */
+    private Message denyMessage(Town town) {
+        return town != null ? Message.raw("You cannot damage blocks in " + town.getName()).color(RED) : Messages.cannotDamageHere();
+    }
 }
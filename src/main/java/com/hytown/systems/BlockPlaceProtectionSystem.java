@@ -15,10 +15,15 @@ import com.hypixel.hytale.server.core.event.events.ecs.PlaceBlockEvent;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.hytown.config.PluginConfig;
+import com.hytown.data.ChunkOwnershipIndex;
 import com.hytown.data.Town;
 import com.hytown.data.TownStorage;
 import com.hytown.data.TrustLevel;
 import com.hytown.managers.ClaimManager;
+import com.hytown.managers.ProtectionCache;
+import com.hytown.metrics.LatencyHistogram;
+import com.hytown.metrics.PerfMetrics;
+import com.hytown.map.MapTileCache;
 import com.hytown.util.ChunkUtil;
 import com.hytown.util.Messages;
 import com.hypixel.hytale.server.core.Message;
@@ -38,6 +43,8 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class BlockPlaceProtectionSystem extends EntityEventSystem<EntityStore, PlaceBlockEvent> {
 
+    private static final LatencyHistogram HANDLE_TIME = PerfMetrics.histogram("protection.place");
+
     private final ClaimManager claimManager;
     private final PluginConfig config;
     private final TownStorage townStorage;
@@ -83,6 +90,15 @@ public class BlockPlaceProtectionSystem extends EntityEventSystem<EntityStore, P
     @Override
     public void handle(int entityIndex, @Nonnull ArchetypeChunk<EntityStore> chunk, @Nonnull Store<EntityStore> store,
                        @Nonnull CommandBuffer<EntityStore> commandBuffer, @Nonnull PlaceBlockEvent event) {
+        long start = System.nanoTime();
+        try {
+            protect(entityIndex, chunk, store, event);
+        } finally {
+            HANDLE_TIME.recordSince(start);
+        }
+    }
+
+    private void protect(int entityIndex, ArchetypeChunk<EntityStore> chunk, Store<EntityStore> store, PlaceBlockEvent event) {
         Vector3i targetBlock = event.getTargetBlock();
         if (targetBlock == null) return;
 
@@ -98,53 +114,76 @@ public class BlockPlaceProtectionSystem extends EntityEventSystem<EntityStore, P
         UUID playerId = playerRef.getUuid();
         String worldName = player.getWorld().getName();
 
+        // Check chunk coordinates for claim lookups
+        int chunkX = ChunkUtil.toChunkX(targetBlock.getX());
+        int chunkZ = ChunkUtil.toChunkZ(targetBlock.getZ());
+
+        check(player, playerId, worldName, chunkX, chunkZ, targetBlock, event);
+
+        // Only a change that goes ahead dirties the chunk's cached map tile (resampled on next render)
+        if (!event.isCancelled()) {
+            MapTileCache.markTerrainChanged(worldName, targetBlock.getX(), targetBlock.getZ());
+        }
+    }
+
+    private void check(Player player, UUID playerId, String worldName, int chunkX, int chunkZ,
+                       Vector3i targetBlock, PlaceBlockEvent event) {
+        // Decision already resolved for this chunk - one array read
+        ProtectionCache cache = claimManager.getProtectionCache();
+        byte cached = cache.get(playerId, worldName, chunkX, chunkZ, ProtectionCache.Action.BUILD);
+        if (cached == ProtectionCache.ALLOW) {
+            return;
+        }
+        if (cached == ProtectionCache.DENY) {
+            event.setCancelled(true);
+            if (canSendMessage(playerId)) {
+                player.sendMessage(denyMessage(cache.getTown(playerId, worldName, chunkX, chunkZ)));
+            }
+            return;
+        }
+        long generation = cache.getGeneration();
+
         // Admin bypass - can place blocks anywhere
         if (player.hasPermission("hytown.admin")) {
+            cache.put(generation, playerId, worldName, chunkX, chunkZ, null, ProtectionCache.Action.BUILD, true);
             return;
         }
 
-        // Check chunk coordinates for claim lookups
-        int chunkX = ChunkUtil.toChunkX(targetBlock.getX());
-        int chunkZ = ChunkUtil.toChunkZ(targetBlock.getZ());
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
+        // Resolve town and personal ownership in one index probe
+        ChunkOwnershipIndex.ChunkOwner chunkOwner = claimManager.getChunkOwner(worldName, chunkX, chunkZ);
 
         // Check if it's a town claim FIRST
-        Town town = townStorage != null ? townStorage.getTownByClaimKey(claimKey) : null;
+        Town town = chunkOwner != null ? chunkOwner.town() : null;
 
         if (town != null) {
-            // Town bypass permission
-            if (player.hasPermission("hytown.town.builder") || player.hasPermission("hytown.town.place.bypass")) {
-                return;
-            }
-            // Town claim - check if player is a member
-            if (town.isMember(playerId)) {
-                return; // Town members can build
-            }
-            // Check town settings for outsiders
-            if (town.getSettings().canOutsiderBuild()) {
+            // Town bypass permission, membership or outsider setting
+            boolean allowed = player.hasPermission("hytown.town.builder") || player.hasPermission("hytown.town.place.bypass")
+                    || town.isMember(playerId)
+                    || town.getSettings().canOutsiderBuild();
+            cache.put(generation, playerId, worldName, chunkX, chunkZ, chunkOwner, ProtectionCache.Action.BUILD, allowed);
+            if (allowed) {
                 return;
             }
             // Not allowed
             event.setCancelled(true);
             if (canSendMessage(playerId)) {
-                player.sendMessage(Message.raw("You cannot build in " + town.getName()).color(RED));
+                player.sendMessage(denyMessage(town));
             }
             return;
         }
 
         // Check if this chunk is a personal claim
-        UUID claimOwner = claimManager.getOwnerAt(worldName, targetBlock.getX(), targetBlock.getZ());
+        UUID claimOwner = chunkOwner != null ? chunkOwner.personalOwner() : null;
 
         if (claimOwner != null) {
-            // Personal claim bypass permission
-            if (player.hasPermission("hytown.town.builder") || player.hasPermission("hytown.town.place.bypass")) {
-                return;
-            }
-            // Personal claim - check trust level
-            if (!claimManager.hasPermissionAt(playerId, worldName, targetBlock.getX(), targetBlock.getZ(), TrustLevel.BUILD)) {
+            // Personal claim bypass permission, then trust level
+            boolean allowed = player.hasPermission("hytown.town.builder") || player.hasPermission("hytown.town.place.bypass")
+                    || claimManager.hasPermission(playerId, claimOwner, TrustLevel.BUILD);
+            cache.put(generation, playerId, worldName, chunkX, chunkZ, chunkOwner, ProtectionCache.Action.BUILD, allowed);
+            if (!allowed) {
                 event.setCancelled(true);
                 if (canSendMessage(playerId)) {
-                    player.sendMessage(Messages.cannotBuildHere());
+                    player.sendMessage(denyMessage(null));
                 }
             }
         } else {
@@ -186,4 +225,11 @@ public class BlockPlaceProtectionSystem extends EntityEventSystem<EntityStore, P
             }
         }
     }
+
+    /**
+     * Message for a denied action in a town claim, or in a personal claim if town is null.
+     */
+    private Message denyMessage(Town town) {
+        return town != null ? Message.raw("You cannot build in " + town.getName()).color(RED) : Messages.cannotBuildHere();
+    }
 }
@@ -10,16 +10,21 @@ import com.hypixel.hytale.component.query.Query;
 import com.hypixel.hytale.component.system.EntityEventSystem;
 import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.math.vector.Vector3i;
+import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.asset.type.blocktype.config.BlockType;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.event.events.ecs.UseBlockEvent;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.hytown.config.BlockGroups;
+import com.hytown.data.ChunkOwnershipIndex;
 import com.hytown.data.Town;
 import com.hytown.data.TownStorage;
 import com.hytown.data.TrustLevel;
 import com.hytown.managers.ClaimManager;
+import com.hytown.managers.ProtectionCache;
+import com.hytown.metrics.LatencyHistogram;
+import com.hytown.metrics.PerfMetrics;
 import com.hytown.util.ChunkUtil;
 import com.hytown.util.Messages;
 
@@ -38,6 +43,8 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class BlockUseProtectionSystem extends EntityEventSystem<EntityStore, UseBlockEvent.Pre> {
 
+    private static final LatencyHistogram HANDLE_TIME = PerfMetrics.histogram("protection.use");
+
     private final ClaimManager claimManager;
     private final TownStorage townStorage;
     private final HytaleLogger logger;
@@ -78,6 +85,15 @@ public class BlockUseProtectionSystem extends EntityEventSystem<EntityStore, Use
     @Override
     public void handle(int entityIndex, @Nonnull ArchetypeChunk<EntityStore> chunk, @Nonnull Store<EntityStore> store,
                        @Nonnull CommandBuffer<EntityStore> commandBuffer, @Nonnull UseBlockEvent.Pre event) {
+        long start = System.nanoTime();
+        try {
+            protect(entityIndex, chunk, store, event);
+        } finally {
+            HANDLE_TIME.recordSince(start);
+        }
+    }
+
+    private void protect(int entityIndex, ArchetypeChunk<EntityStore> chunk, Store<EntityStore> store, UseBlockEvent.Pre event) {
         Vector3i targetBlock = event.getTargetBlock();
         if (targetBlock == null) return;
 
@@ -93,95 +109,116 @@ public class BlockUseProtectionSystem extends EntityEventSystem<EntityStore, Use
         UUID playerId = playerRef.getUuid();
         String worldName = player.getWorld().getName();
 
-        // Admin bypass - can use any block anywhere
-        if (player.hasPermission("hytown.admin")) {
-            return;
-        }
-
         // Determine required trust level based on block type
         BlockType blockType = event.getBlockType();
-        TrustLevel requiredLevel = getRequiredTrustLevel(blockType);
+        int groups = claimManager.getBlockGroups().getGroups(blockType);
+        TrustLevel requiredLevel = getRequiredTrustLevel(groups);
         boolean isContainer = requiredLevel == TrustLevel.CONTAINER;
-        boolean isCrop = claimManager.getBlockGroups().isCropBlock(blockType);
+        boolean isCrop = (groups & BlockGroups.CROP) != 0;
+        ProtectionCache.Action action = getAction(requiredLevel, isCrop);
 
-        // First check if this is a town claim
         int chunkX = ChunkUtil.toChunkX(targetBlock.getX());
         int chunkZ = ChunkUtil.toChunkZ(targetBlock.getZ());
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
 
-        Town town = townStorage.getTownByClaimKey(claimKey);
+        // Decision already resolved for this chunk - one array read
+        ProtectionCache cache = claimManager.getProtectionCache();
+        byte cached = cache.get(playerId, worldName, chunkX, chunkZ, action);
+        if (cached == ProtectionCache.ALLOW) {
+            return;
+        }
+        if (cached == ProtectionCache.DENY) {
+            event.setCancelled(true);
+            if (canSendMessage(playerId)) {
+                boolean townClaim = cache.getTown(playerId, worldName, chunkX, chunkZ) != null;
+                player.sendMessage(denyMessage(townClaim, action, requiredLevel));
+            }
+            return;
+        }
+        long generation = cache.getGeneration();
+
+        // Admin bypass - can use any block anywhere
+        if (player.hasPermission("hytown.admin")) {
+            cache.put(generation, playerId, worldName, chunkX, chunkZ, null, action, true);
+            return;
+        }
+
+        // Resolve town and personal ownership in one index probe
+        ChunkOwnershipIndex.ChunkOwner chunkOwner = claimManager.getChunkOwner(worldName, chunkX, chunkZ);
+        if (chunkOwner == null) {
+            return; // Wilderness - no restrictions on use
+        }
+
+        boolean allowed;
+        Town town = chunkOwner.town();
         if (town != null) {
             // This is a town claim - use town permissions
             if (isCrop) {
-                // Crop interaction (harvesting) requires being a town member
-                if (!town.isMember(playerId)) {
-                    // Check if outsiders can destroy (harvesting is similar to destroying)
-                    if (!town.getSettings().canOutsiderDestroy()) {
-                        event.setCancelled(true);
-                        if (canSendMessage(playerId)) {
-                            player.sendMessage(Messages.cannotHarvestCrops());
-                        }
-                        return;
-                    }
-                }
-                // Member or outsider destroy allowed - allow harvest
-                return;
+                // Crop interaction (harvesting) requires being a town member,
+                // unless outsiders can destroy (harvesting is similar to destroying)
+                allowed = town.isMember(playerId) || town.getSettings().canOutsiderDestroy();
             } else if (isContainer) {
                 // Container access uses the plot-level permission system
-                if (!town.canAccessContainers(claimKey, playerId)) {
-                    event.setCancelled(true);
-                    if (canSendMessage(playerId)) {
-                        player.sendMessage(Messages.cannotAccessContainer());
-                    }
-                    return;
-                }
+                String claimKey = worldName + ":" + chunkX + "," + chunkZ;
+                allowed = town.canAccessContainers(claimKey, playerId);
             } else {
                 // For non-container use (doors, buttons, etc.), check if town member or outsider switch
-                if (!town.isMember(playerId)) {
-                    if (!town.getSettings().canOutsiderSwitch()) {
-                        event.setCancelled(true);
-                        if (canSendMessage(playerId)) {
-                            player.sendMessage(Messages.cannotUseBlock(requiredLevel));
-                        }
-                        return;
-                    }
-                }
+                allowed = town.isMember(playerId) || town.getSettings().canOutsiderSwitch();
             }
-            // Town member has permission - allow
-            return;
+        } else {
+            // Not a town claim - check personal claim permissions
+            allowed = claimManager.hasPermission(playerId, chunkOwner.personalOwner(), requiredLevel);
         }
 
-        // Not a town claim - check personal claim permissions
-        if (!claimManager.hasPermissionAt(playerId, worldName, targetBlock.getX(), targetBlock.getZ(), requiredLevel)) {
+        cache.put(generation, playerId, worldName, chunkX, chunkZ, chunkOwner, action, allowed);
+        if (!allowed) {
             event.setCancelled(true);
             if (canSendMessage(playerId)) {
-                player.sendMessage(Messages.cannotUseBlock(requiredLevel));
+                player.sendMessage(denyMessage(town != null, action, requiredLevel));
             }
         }
     }
 
     /**
-     * Determines the required trust level based on block type.
+     * Maps a use interaction to its decision slot in the protection cache.
      */
-    private TrustLevel getRequiredTrustLevel(BlockType blockType) {
-        if (blockType == null) {
-            return TrustLevel.USE; // Default to USE for unknown blocks
+    private ProtectionCache.Action getAction(TrustLevel requiredLevel, boolean isCrop) {
+        if (isCrop) {
+            return ProtectionCache.Action.CROP;
         }
+        return switch (requiredLevel) {
+            case WORKSTATION -> ProtectionCache.Action.WORKSTATION;
+            case CONTAINER -> ProtectionCache.Action.CONTAINER;
+            default -> ProtectionCache.Action.USE;
+        };
+    }
 
-        BlockGroups blockGroups = claimManager.getBlockGroups();
+    /**
+     * Message for a denied interaction.
+     */
+    private Message denyMessage(boolean townClaim, ProtectionCache.Action action, TrustLevel requiredLevel) {
+        if (townClaim && action == ProtectionCache.Action.CROP) {
+            return Messages.cannotHarvestCrops();
+        }
+        if (townClaim && action == ProtectionCache.Action.CONTAINER) {
+            return Messages.cannotAccessContainer();
+        }
+        return Messages.cannotUseBlock(requiredLevel);
+    }
 
+    /**
+     * Determines the required trust level from a block's groups.
+     * Unknown blocks (no groups) require USE.
+     */
+    private TrustLevel getRequiredTrustLevel(int groups) {
         // Check in order of specificity
-        if (blockGroups.isWorkstationBlock(blockType)) {
+        if ((groups & BlockGroups.WORKSTATION) != 0) {
             return TrustLevel.WORKSTATION;
         }
-        if (blockGroups.isContainerBlock(blockType)) {
+        if ((groups & BlockGroups.CONTAINER) != 0) {
             return TrustLevel.CONTAINER;
         }
-        if (blockGroups.isUseBlock(blockType)) {
-            return TrustLevel.USE;
-        }
 
-        // Default: any interaction with unknown blocks requires USE level
+        // USE blocks and any interaction with unknown blocks require USE level
         return TrustLevel.USE;
     }
 }
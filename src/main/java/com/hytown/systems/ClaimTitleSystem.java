@@ -1,9 +1,12 @@
 package com.hytown.systems;
 
 import com.hytown.config.PluginConfig;
+import com.hytown.data.ChunkOwnershipIndex;
 import com.hytown.data.ClaimStorage;
 import com.hytown.data.Town;
 import com.hytown.data.TownStorage;
+import com.hytown.metrics.LatencyHistogram;
+import com.hytown.metrics.PerfMetrics;
 import com.hytown.util.ChunkUtil;
 import com.hypixel.hytale.component.ArchetypeChunk;
 import com.hypixel.hytale.component.CommandBuffer;
@@ -25,28 +28,44 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Ticking system that shows a title banner when players enter or leave claimed zones.
- * Runs every tick for all players and displays a title when the claim status changes.
+ * Runs every tick for all players, but only looks at claims when the player crosses
+ * into another chunk; otherwise a tick is a position read and a compare.
  */
 public class ClaimTitleSystem extends EntityTickingSystem<EntityStore> {
 
-    private static final Message WILDERNESS_MESSAGE = Message.raw("Wilderness").color(new Color(85, 255, 85));
+    private static final LatencyHistogram TICK_TIME = PerfMetrics.histogram("title.tick");
+
     private static final String WILDERNESS_TEXT = "Wilderness";
     private static final Color RED = new Color(255, 85, 85);
     private static final Color GREEN = new Color(85, 255, 85);
     private static final Color YELLOW = new Color(255, 255, 85);
     private static final Color CYAN = new Color(85, 255, 255);
+    private static final Color GRAY = new Color(170, 170, 170);
+    private static final Message WILDERNESS_MESSAGE = Message.raw(WILDERNESS_TEXT).color(GREEN);
+    private static final Message WILDERNESS_SUBTITLE = Message.raw("PVP: ON").color(RED);
+    private static final Message CLAIM_SUBTITLE = Message.raw("Claim").color(GRAY);
 
     private final ClaimStorage claimStorage;
     private final TownStorage townStorage;
     private final PluginConfig config;
-    private final Map<UUID, String> playerLastTitle;
+    private final Map<UUID, PlayerState> playerStates;
     private final Map<UUID, Long> lastOverdueWarning;  // Track when we last warned about overdue
 
+    /**
+     * Last evaluated position and title of a player. Only touched from the
+     * player's world thread.
+     */
+    private static final class PlayerState {
+        private Object world;       // identity of the last world, null before the first tick
+        private long chunk;         // packed chunk coordinate
+        private String title;
+    }
+
     public ClaimTitleSystem(ClaimStorage claimStorage, TownStorage townStorage, PluginConfig config) {
         this.claimStorage = claimStorage;
         this.townStorage = townStorage;
         this.config = config;
-        this.playerLastTitle = new ConcurrentHashMap<>();
+        this.playerStates = new ConcurrentHashMap<>();
         this.lastOverdueWarning = new ConcurrentHashMap<>();
     }
 
@@ -60,6 +79,15 @@ public class ClaimTitleSystem extends EntityTickingSystem<EntityStore> {
     @Override
     public void tick(float deltaTime, int index, ArchetypeChunk<EntityStore> archetypeChunk,
                      Store<EntityStore> store, CommandBuffer<EntityStore> commandBuffer) {
+        long start = System.nanoTime();
+        try {
+            trackChunk(index, archetypeChunk, store);
+        } finally {
+            TICK_TIME.recordSince(start);
+        }
+    }
+
+    private void trackChunk(int index, ArchetypeChunk<EntityStore> archetypeChunk, Store<EntityStore> store) {
         Ref<EntityStore> ref = archetypeChunk.getReferenceTo(index);
         if (ref == null) return;
 
@@ -68,100 +96,114 @@ public class ClaimTitleSystem extends EntityTickingSystem<EntityStore> {
         if (playerRef == null || player == null) return;
 
         // Get player's current position and convert to chunk coordinates
-        double posX = playerRef.getTransform().getPosition().getX();
-        double posZ = playerRef.getTransform().getPosition().getZ();
-        int chunkX = ChunkUtil.toChunkX(posX);
-        int chunkZ = ChunkUtil.toChunkZ(posZ);
-        String worldName = player.getWorld().getName();
+        var position = playerRef.getTransform().getPosition();
+        int chunkX = ChunkUtil.toChunkX(position.getX());
+        int chunkZ = ChunkUtil.toChunkZ(position.getZ());
+        long chunk = ChunkUtil.packChunk(chunkX, chunkZ);
+        var world = player.getWorld();
+
+        // Nothing to do until the player enters another chunk or world
+        PlayerState state = playerStates.computeIfAbsent(playerRef.getUuid(), k -> new PlayerState());
+        if (state.chunk == chunk && state.world == world) {
+            return;
+        }
+        state.chunk = chunk;
+        state.world = world;
 
-        // Check if this chunk is claimed by a town
-        Message titleMessage = WILDERNESS_MESSAGE;
-        Message subtitleMessage = Message.raw("");
-        String titleText = WILDERNESS_TEXT;
+        updateTitle(playerRef, state, world.getName(), chunkX, chunkZ);
+    }
 
-        String claimKey = worldName + ":" + chunkX + "," + chunkZ;
-        Town town = townStorage.getTownByClaimKey(claimKey);
+    /**
+     * Resolves the claim at the player's new chunk and shows a title if it differs
+     * from the last one. Title messages are only built when a title is shown.
+     */
+    private void updateTitle(PlayerRef playerRef, PlayerState state, String worldName, int chunkX, int chunkZ) {
+        UUID playerId = playerRef.getUuid();
 
+        // Resolve town and personal ownership in one index probe
+        ChunkOwnershipIndex.ChunkOwner chunkOwner = claimStorage.getOwnershipIndex().get(worldName, chunkX, chunkZ);
+        Town town = chunkOwner != null ? chunkOwner.town() : null;
+        UUID claimOwner = town == null && chunkOwner != null ? chunkOwner.personalOwner() : null;
+
+        String rankName = null;
+        String ownerName = null;
+        String titleText;
         if (town != null) {
             // Get town rank based on plots and citizens
-            String rankName = "Outpost";
-            if (config != null) {
-                rankName = config.getTownRankName(town.getClaimCount(), town.getResidentCount());
-            }
-
-            // Town claim
+            rankName = config != null ? config.getTownRankName(town.getClaimCount(), town.getResidentCount()) : "Outpost";
             titleText = rankName + ": " + town.getName();
-            // Town is only overdue if it has missed days AND balance is still negative
-            boolean isOverdue = town.getMissedUpkeepDays() > 0 && town.getBalance() < 0;
-            boolean pvpEnabled = town.getSettings().isPvpEnabled();
+        } else if (claimOwner != null) {
+            ownerName = claimStorage.getPlayerName(claimOwner);
+            titleText = ownerName + "'s Claim";
+        } else {
+            titleText = WILDERNESS_TEXT;
+        }
 
+        boolean member = town != null && town.isMember(playerId);
+        // Town is only overdue if it has missed days AND balance is still negative
+        boolean isOverdue = town != null && town.getMissedUpkeepDays() > 0 && town.getBalance() < 0;
+        if (member && isOverdue) {
+            warnOverdue(playerRef, town);
+        }
+
+        // Only show title if the claim has changed
+        if (titleText.equals(state.title)) {
+            return;
+        }
+        state.title = titleText;
+
+        Message titleMessage;
+        Message subtitleMessage;
+        if (town != null) {
             // Build subtitle with PVP status
+            boolean pvpEnabled = town.getSettings().isPvpEnabled();
             String pvpStatus = pvpEnabled ? "PVP: ON" : "PVP: OFF";
             Color pvpColor = pvpEnabled ? RED : GREEN;
 
-            if (town.isMember(playerRef.getUuid())) {
-                // Try to clear debt if town now has positive balance
-                if (town.getMissedUpkeepDays() > 0 && town.getBalance() >= 0) {
-                    town.setMissedUpkeepDays(0);
-                    if (townStorage != null) {
-                        townStorage.saveTown(town);
-                    }
-                    playerRef.sendMessage(Message.raw("[Town] Debt cleared! Your town is back in good standing.").color(GREEN));
-                    isOverdue = false; // Update the flag
-                }
-
-                if (isOverdue) {
-                    // Show warning for overdue town
-                    titleMessage = Message.raw(rankName + ": " + town.getName()).color(RED);
-                    int daysLeft = 15 - town.getMissedUpkeepDays(); // GRACE_PERIOD_DAYS = 15
-                    if (daysLeft <= 0) {
-                        subtitleMessage = Message.raw("CRITICAL: Town will be deleted! | " + pvpStatus).color(RED);
-                    } else {
-                        subtitleMessage = Message.raw("OVERDUE! " + daysLeft + " days | " + pvpStatus).color(RED);
-                    }
-
-                    // Send chat warning every 30 seconds when entering own overdue town
-                    long now = System.currentTimeMillis();
-                    Long lastWarning = lastOverdueWarning.get(playerRef.getUuid());
-                    if (lastWarning == null || now - lastWarning > 30000) {
-                        lastOverdueWarning.put(playerRef.getUuid(), now);
-                        playerRef.sendMessage(Message.raw("[Town] WARNING: Your town is in debt! Balance: $" +
-                            String.format("%.2f", town.getBalance()) + ". Deposit funds to avoid deletion!").color(RED));
-                    }
+            if (member && isOverdue) {
+                // Show warning for overdue town
+                titleMessage = Message.raw(titleText).color(RED);
+                int daysLeft = 15 - town.getMissedUpkeepDays(); // GRACE_PERIOD_DAYS = 15
+                if (daysLeft <= 0) {
+                    subtitleMessage = Message.raw("CRITICAL: Town will be deleted! | " + pvpStatus).color(RED);
                 } else {
-                    titleMessage = Message.raw(rankName + ": " + town.getName()).color(CYAN);
-                    subtitleMessage = Message.raw("Your " + rankName + " | " + pvpStatus).color(pvpColor);
+                    subtitleMessage = Message.raw("OVERDUE! " + daysLeft + " days | " + pvpStatus).color(RED);
                 }
+            } else if (member) {
+                titleMessage = Message.raw(titleText).color(CYAN);
+                subtitleMessage = Message.raw("Your " + rankName + " | " + pvpStatus).color(pvpColor);
             } else {
-                titleMessage = Message.raw(rankName + ": " + town.getName()).color(Color.WHITE);
+                titleMessage = Message.raw(titleText).color(Color.WHITE);
                 subtitleMessage = Message.raw(rankName + " | " + pvpStatus).color(pvpColor);
             }
-        } else {
-            // Check personal claims
-            UUID claimOwner = claimStorage.getClaimOwner(worldName, chunkX, chunkZ);
-            if (claimOwner != null) {
-                String ownerName = claimStorage.getPlayerName(claimOwner);
-                titleText = ownerName + "'s Claim";
-
-                if (claimOwner.equals(playerRef.getUuid())) {
-                    titleMessage = Message.raw("Your Claim").color(new Color(85, 255, 255));
-                } else {
-                    titleMessage = Message.raw(ownerName + "'s Claim").color(Color.WHITE);
-                }
-                subtitleMessage = Message.raw("Claim").color(new Color(170, 170, 170));
+        } else if (claimOwner != null) {
+            if (claimOwner.equals(playerId)) {
+                titleMessage = Message.raw("Your Claim").color(CYAN);
             } else {
-                // Wilderness - show PVP ON
-                titleMessage = Message.raw("Wilderness").color(GREEN);
-                subtitleMessage = Message.raw("PVP: ON").color(RED);
+                titleMessage = Message.raw(ownerName + "'s Claim").color(Color.WHITE);
             }
+            subtitleMessage = CLAIM_SUBTITLE;
+        } else {
+            // Wilderness - show PVP ON
+            titleMessage = WILDERNESS_MESSAGE;
+            subtitleMessage = WILDERNESS_SUBTITLE;
         }
 
-        // Only show title if the claim has changed
-        String previousTitle = playerLastTitle.get(playerRef.getUuid());
-        if (!titleText.equals(previousTitle)) {
-            playerLastTitle.put(playerRef.getUuid(), titleText);
-            EventTitleUtil.showEventTitleToPlayer(playerRef, titleMessage, subtitleMessage,
-                    false, null, 2, 0.5f, 0.5f);
+        EventTitleUtil.showEventTitleToPlayer(playerRef, titleMessage, subtitleMessage,
+                false, null, 2, 0.5f, 0.5f);
+    }
+
+    /**
+     * Send a chat warning at most every 30 seconds when entering own overdue town.
+     * Clearing paid-off debt is handled by the upkeep checker, not here.
+     */
+    private void warnOverdue(PlayerRef playerRef, Town town) {
+        long now = System.currentTimeMillis();
+        Long lastWarning = lastOverdueWarning.get(playerRef.getUuid());
+        if (lastWarning == null || now - lastWarning > 30000) {
+            lastOverdueWarning.put(playerRef.getUuid(), now);
+            playerRef.sendMessage(Message.raw("[Town] WARNING: Your town is in debt! Balance: $" +
+                String.format("%.2f", town.getBalance()) + ". Deposit funds to avoid deletion!").color(RED));
         }
     }
 
@@ -169,7 +211,7 @@ public class ClaimTitleSystem extends EntityTickingSystem<EntityStore> {
      * Remove player from tracking when they disconnect.
      */
     public void removePlayer(UUID playerId) {
-        playerLastTitle.remove(playerId);
+        playerStates.remove(playerId);
         lastOverdueWarning.remove(playerId);
     }
 
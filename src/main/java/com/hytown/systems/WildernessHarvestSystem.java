@@ -27,6 +27,8 @@ import com.hytown.commands.WildernessCommand;
 import com.hytown.config.PluginConfig;
 import com.hytown.config.WildernessHarvestConfig;
 import com.hytown.managers.ClaimManager;
+import com.hytown.metrics.LatencyHistogram;
+import com.hytown.metrics.PerfMetrics;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -48,6 +50,8 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class WildernessHarvestSystem extends EntityEventSystem<EntityStore, BreakBlockEvent> {
 
+    private static final LatencyHistogram HANDLE_TIME = PerfMetrics.histogram("protection.harvest");
+
     private final ClaimManager claimManager;
     private final PluginConfig config;
     private final WildernessHarvestConfig harvestConfig;
@@ -89,6 +93,16 @@ public class WildernessHarvestSystem extends EntityEventSystem<EntityStore, Brea
     @Override
     public void handle(int entityIndex, @Nonnull ArchetypeChunk<EntityStore> chunk, @Nonnull Store<EntityStore> store,
                        @Nonnull CommandBuffer<EntityStore> commandBuffer, @Nonnull BreakBlockEvent event) {
+        long start = System.nanoTime();
+        try {
+            harvest(entityIndex, chunk, store, commandBuffer, event);
+        } finally {
+            HANDLE_TIME.recordSince(start);
+        }
+    }
+
+    private void harvest(int entityIndex, ArchetypeChunk<EntityStore> chunk, Store<EntityStore> store,
+                         CommandBuffer<EntityStore> commandBuffer, BreakBlockEvent event) {
         Vector3i targetBlock = event.getTargetBlock();
         if (targetBlock == null) return;
 
@@ -57,6 +57,28 @@ public class ChunkUtil {
         return chunkX + "," + chunkZ;
     }
 
+    /**
+     * Packs chunk coordinates into a single long for primitive-keyed indexes.
+     * X occupies the high 32 bits, Z the low 32 bits.
+     */
+    public static long packChunk(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Extracts the chunk X coordinate from a packed chunk key.
+     */
+    public static int unpackChunkX(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    /**
+     * Extracts the chunk Z coordinate from a packed chunk key.
+     */
+    public static int unpackChunkZ(long packed) {
+        return (int) packed;
+    }
+
     /**
      * Parses a chunk key string back to coordinates.
      * Returns int[2] with {chunkX, chunkZ} or null if invalid.